@@ -0,0 +1,55 @@
+package jig.bench;
+
+import jig.engine.GameFrame;
+import jig.engine.ResourceFactory;
+import jig.engine.none.NoneResourceFactory;
+
+/**
+ * Sets up the None backend, on which all the benchmarks run headless.
+ *
+ * Images can only be loaded once there is a game frame, so the engine
+ * benchmarks get one from {@link #frame()} before building their scenes.
+ * The None backend allows a single game frame per virtual machine. JMH runs
+ * each benchmark in a fresh fork, so a benchmark may either use the frame
+ * made here or create a game (which makes its own frame), but not both.
+ */
+public final class Backend {
+
+	private static boolean started;
+
+	private static GameFrame frame;
+
+	private Backend() {
+	}
+
+	/**
+	 * Makes the None resource factory current, once.
+	 */
+	public static synchronized void start() {
+		if (!started) {
+			NoneResourceFactory.makeCurrentResourceFactory();
+			started = true;
+		}
+	}
+
+	/**
+	 * Gets a game frame, making it on first use.
+	 *
+	 * @return the None backend's game frame
+	 */
+	public static synchronized GameFrame frame() {
+		start();
+		if (frame == null) {
+			frame = ResourceFactory.getFactory().getGameFrame(
+					"JIG benchmarks", 640, 480, false);
+		}
+		return frame;
+	}
+
+	/**
+	 * @return <code>true</code> iff a game frame has been made here
+	 */
+	public static synchronized boolean hasFrame() {
+		return frame != null;
+	}
+}
@@ -0,0 +1,94 @@
+package jig.bench;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.FontResource;
+import jig.engine.RenderingContext;
+import jig.engine.ResourceFactory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures drawing a line of HUD text with a <code>BitmapFont</code>, the
+ * font resource the None backend builds from a system font.
+ *
+ * The <code>render</code> benchmark draws onto the None game frame's
+ * rendering context, which does not rasterize anything outside of a
+ * capture, so it measures the font's own per-glyph overhead. The
+ * <code>draw</code> benchmark draws onto an offscreen image, so it includes
+ * the cost of blitting the glyphs.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BitmapFontBenchmark {
+
+	private static final String TEXT =
+		"MARIO 000123   x07   WORLD 1-1   TIME 300";
+
+	private FontResource font;
+
+	private RenderingContext rc;
+
+	private Graphics2D g;
+
+	private final AffineTransform at = AffineTransform.getTranslateInstance(
+			16, 16);
+
+	/** Builds the font and the surfaces to draw on. */
+	@Setup
+	public void setUp() {
+		rc = Backend.frame().getRenderingContext();
+		font = ResourceFactory.getFactory().getFontResource(
+				new Font("Sans Serif", Font.BOLD, 15), Color.WHITE, null);
+		BufferedImage image = new BufferedImage(640, 48,
+				BufferedImage.TYPE_INT_ARGB);
+		g = image.createGraphics();
+	}
+
+	/** Releases the offscreen image. */
+	@TearDown
+	public void tearDown() {
+		g.dispose();
+	}
+
+	/**
+	 * Renders the text onto the game frame.
+	 *
+	 * @return the width of the text
+	 */
+	@Benchmark
+	public int render() {
+		font.render(TEXT, rc, at);
+		return font.getStringWidth(TEXT);
+	}
+
+	/**
+	 * Draws the text onto an offscreen image.
+	 *
+	 * @return the width of the text
+	 */
+	@Benchmark
+	public int draw() {
+		font.draw(TEXT, g, at);
+		return font.getStringWidth(TEXT);
+	}
+}
@@ -0,0 +1,50 @@
+package jig.bench;
+
+import java.util.List;
+
+import jig.engine.ImageResource;
+import jig.engine.ResourceFactory;
+import jig.engine.physics.vpe.VanillaAARectangle;
+
+/**
+ * A plain 64x64 rectangle that moves with its velocity, used to populate
+ * the layers of the physics benchmarks.
+ */
+class Block extends VanillaAARectangle {
+
+	static final String SHAPES = "jig/resources/shapes.png";
+
+	static final int SIZE = 64;
+
+	private static List<ImageResource> frames;
+
+	/**
+	 * @return the frames shared by all blocks, loaded on first use
+	 */
+	static List<ImageResource> frames() {
+		if (frames == null) {
+			ResourceFactory f = ResourceFactory.getFactory();
+			f.loadSheet(SHAPES, "jig/resources/shapes.xml");
+			frames = f.getFrames(SHAPES + "#shapes");
+		}
+		return frames;
+	}
+
+	/**
+	 * Creates a block at a position.
+	 *
+	 * @param x
+	 *            the x coordinate of the upper left corner
+	 * @param y
+	 *            the y coordinate of the upper left corner
+	 */
+	Block(final double x, final double y) {
+		super(frames());
+		setPosition(x, y);
+	}
+
+	@Override
+	public void update(final long deltaMs) {
+		integrate(deltaMs);
+	}
+}
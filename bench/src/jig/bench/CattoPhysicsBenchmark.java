@@ -0,0 +1,141 @@
+package jig.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.physics.AbstractBodyLayer;
+import jig.engine.physics.BodyLayer;
+import jig.engine.physics.ecpe.Box;
+import jig.engine.physics.ecpe.CattoPhysicsEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one step of <code>CattoPhysicsEngine.applyLawsOfPhysics</code>
+ * (which is one call of its private <code>step</code>) for pyramids of boxes
+ * resting on a static floor, the classic stacking test for impulse based
+ * solvers.
+ *
+ * Every scene is stepped with each of the engine's solver backends, so the
+ * backends are compared on identical scenes: boxes stepped in place with
+ * contacts solved arbiter by arbiter (<code>DEFAULT</code>), boxes stepped
+ * in a structure of arrays (<code>ARRAYS</code>), contacts solved in
+ * batches that share no box (<code>BATCHED</code>), and those batches solved
+ * several contacts at a time with the Vector API (<code>VECTOR</code>). The
+ * last needs the benchmarks built on JDK 16 or later and run with
+ * <code>--add-modules jdk.incubator.vector</code>. Several pyramids side by
+ * side can also be solved on several threads (<code>-p threads=4</code>),
+ * and with sleep allowed (<code>-p sleep=true</code>) the pyramids fall
+ * asleep during the warm-up, so the benchmark measures settled stacks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(org.openjdk.jmh.annotations.Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CattoPhysicsBenchmark {
+
+	/** How the engine stores the boxes and solves the contacts. */
+	public enum Mode {
+		/** Boxes stepped in place, contacts solved arbiter by arbiter. */
+		DEFAULT,
+		/** Boxes stepped in a structure of arrays. */
+		ARRAYS,
+		/** Contacts solved in batches that share no box. */
+		BATCHED,
+		/** Batches solved in the lanes of the Vector API. */
+		VECTOR
+	}
+
+	private static final long DELTA_MS = 16;
+
+	private static final int FLOOR_Y = 900;
+
+	/** The number of boxes in the bottom row of each pyramid. */
+	@Param({ "4", "10" })
+	private int base;
+
+	/** The number of pyramids. */
+	@Param({ "1", "16" })
+	private int pyramids;
+
+	/** The number of threads solving the constraints. */
+	@Param({ "1" })
+	private int threads;
+
+	/** <code>true</code> if the boxes may sleep. */
+	@Param({ "false" })
+	private boolean sleep;
+
+	/** How the engine stores the boxes and solves the contacts. */
+	@Param({ "DEFAULT", "ARRAYS", "BATCHED", "VECTOR" })
+	private Mode mode;
+
+	private CattoPhysicsEngine physics;
+
+	private BodyLayer<Box> boxes;
+
+	/** Builds the floor, the pyramids and the engine. */
+	@Setup
+	public void setUp() {
+		Backend.frame();
+		boxes = new AbstractBodyLayer.NoUpdate<Box>();
+
+		// the default mass of a box makes it immovable
+		int spacing = base + 2;
+		for (int x = -2; x < pyramids * spacing; x++) {
+			Box b = new Box(Block.frames());
+			b.setPosition(x * Block.SIZE, FLOOR_Y);
+			boxes.add(b);
+		}
+
+		for (int p = 0; p < pyramids; p++) {
+			for (int row = 0; row < base; row++) {
+				for (int i = 0; i < base - row; i++) {
+					Box b = new Box(Block.frames());
+					b.set(1.0, 0.2, 0.0);
+					b.setPosition((p * spacing + i + row / 2.0) * Block.SIZE,
+							FLOOR_Y - (row + 1) * Block.SIZE);
+					boxes.add(b);
+				}
+			}
+		}
+
+		physics = new CattoPhysicsEngine();
+		physics.setSolverThreads(threads);
+		physics.setSleepAllowed(sleep);
+		physics.setStructureOfArrays(mode == Mode.ARRAYS);
+		physics.setBatchedSolver(mode == Mode.BATCHED || mode == Mode.VECTOR);
+		physics.setVectorSolver(mode == Mode.VECTOR);
+		if (mode == Mode.VECTOR && !physics.isVectorSolver()) {
+			throw new IllegalStateException("the Vector API solver needs "
+					+ "jig-engine-vector and --add-modules jdk.incubator.vector");
+		}
+		physics.manageViewableSet(boxes);
+	}
+
+	/** Stops the solver threads. */
+	@TearDown
+	public void tearDown() {
+		physics.setSolverThreads(1);
+	}
+
+	/**
+	 * @return the height of the last box
+	 */
+	@Benchmark
+	public double step() {
+		physics.applyLawsOfPhysics(DELTA_MS);
+		return boxes.get(boxes.size() - 1).getPositionY();
+	}
+}
@@ -0,0 +1,144 @@
+package jig.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.hli.physics.RectangleCollisionHandler;
+import jig.engine.physics.AABBTree;
+import jig.engine.physics.AbstractBodyLayer;
+import jig.engine.physics.BodyLayer;
+import jig.engine.physics.vpe.TileLayer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one call of
+ * <code>RectangleCollisionHandler.findAndReconcileCollisions</code> for a
+ * layer of moving rectangles against a static layer of a given size.
+ *
+ * The static layer is a floor four tiles thick, so every mover touches a
+ * few tiles. It can be stored in four ways, matching the four ways a
+ * handler can be set up: a plain layer tested pair by pair, a plain layer
+ * indexed by a uniform grid or searched with a dynamic tree, or a
+ * <code>TileLayer</code>. With a grid or tiles, the handler can also cache
+ * the tiles found near each mover (<code>-p cached=true</code>); the cache
+ * has no effect on the other two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollisionBenchmark {
+
+	/** How the static layer is stored and searched. */
+	public enum Index {
+		/** A plain layer, every pair is tested. */
+		NONE,
+		/** A plain layer indexed by a <code>UniformGrid</code>. */
+		GRID,
+		/** A <code>TileLayer</code>. */
+		TILES,
+		/** A plain layer searched with an <code>AABBTree</code>. */
+		TREE
+	}
+
+	private static final int FLOOR_ROWS = 4;
+
+	private static final int FLOOR_TOP_ROW = 11;
+
+	private static final int MOVERS = 32;
+
+	/** How the static layer is stored. */
+	@Param({ "NONE", "GRID", "TILES", "TREE" })
+	private Index index;
+
+	/** The number of static rectangles, a multiple of four. */
+	@Param({ "256", "1024", "4096" })
+	private int statics;
+
+	/** <code>true</code> iff the handler should cache contacts. */
+	@Param({ "false" })
+	private boolean cached;
+
+	private RectangleCollisionHandler<Block, Block> handler;
+
+	private long collisions;
+
+	/** Builds the layers and the handler. */
+	@Setup
+	public void setUp() {
+		Backend.frame();
+		int cols = statics / FLOOR_ROWS;
+		BodyLayer<Block> moving = new AbstractBodyLayer.NoUpdate<Block>();
+		BodyLayer<Block> floor;
+
+		if (index == Index.TILES) {
+			TileLayer<Block> tiles = new TileLayer<Block>(Block.SIZE,
+					640, 480);
+			tiles.reset(cols, FLOOR_TOP_ROW + FLOOR_ROWS);
+			short code = tiles.defineTile(new Block(0, 0));
+			for (int y = FLOOR_TOP_ROW; y < FLOOR_TOP_ROW + FLOOR_ROWS; y++) {
+				for (int x = 0; x < cols; x++) {
+					tiles.setTile(x, y, code);
+				}
+			}
+			floor = tiles;
+		} else {
+			floor = new AbstractBodyLayer.NoUpdate<Block>();
+			for (int y = FLOOR_TOP_ROW; y < FLOOR_TOP_ROW + FLOOR_ROWS; y++) {
+				for (int x = 0; x < cols; x++) {
+					floor.add(new Block(x * Block.SIZE, y * Block.SIZE));
+				}
+			}
+		}
+
+		// sunk half way into the floor, straddling two columns
+		double spacing = (double) cols * Block.SIZE / MOVERS;
+		for (int i = 0; i < MOVERS; i++) {
+			moving.add(new Block(i * spacing + Block.SIZE / 2,
+					(FLOOR_TOP_ROW - 0.5) * Block.SIZE));
+		}
+
+		if (index == Index.GRID) {
+			handler = new RectangleCollisionHandler<Block, Block>(moving,
+					floor, Block.SIZE) {
+				@Override
+				public void collide(final Block a, final Block b) {
+					collisions++;
+				}
+			};
+		} else {
+			handler = new RectangleCollisionHandler<Block, Block>(moving,
+					floor) {
+				@Override
+				public void collide(final Block a, final Block b) {
+					collisions++;
+				}
+			};
+		}
+		if (index == Index.TREE) {
+			handler.setBroadPhase(new AABBTree<Block>(Block.SIZE / 4.0));
+		}
+		handler.setContactCache(cached);
+	}
+
+	/**
+	 * @return the number of collisions found so far
+	 */
+	@Benchmark
+	public long collide() {
+		handler.findAndReconcileCollisions();
+		return collisions;
+	}
+}
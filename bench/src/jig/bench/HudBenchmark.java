@@ -0,0 +1,132 @@
+package jig.bench;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.FontResource;
+import jig.engine.ResourceFactory;
+import jig.engine.SceneSnapshot;
+import jig.engine.hli.TextLabel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures drawing a scoreboard of six lines of text, as a game's heads-up
+ * display does every frame, with a timer that changes once a second (every
+ * 60 operations) and a score that changes now and then.
+ *
+ * The <code>font</code> benchmark builds each line as a String and draws it
+ * glyph by glyph with a <code>BitmapFont</code>. The <code>label</code>
+ * benchmark formats the lines into <code>TextLabel</code>s, which draw an
+ * image of each line. Either way the frame is recorded into a
+ * <code>SceneSnapshot</code> and drawn onto an offscreen image.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HudBenchmark {
+
+	private static final int FRAMES_PER_SECOND = 60;
+
+	private FontResource font;
+
+	private TextLabel lives, world, time, points, level, timer;
+
+	private SceneSnapshot snapshot;
+
+	private Graphics2D g;
+
+	private final AffineTransform identity = new AffineTransform();
+
+	private int frame;
+
+	/** Builds the font, the labels and the surfaces to draw on. */
+	@Setup
+	public void setUp() {
+		Backend.frame();
+		font = ResourceFactory.getFactory().getFontResource(
+				new Font("Sans Serif", Font.BOLD, 15), Color.WHITE, null);
+		lives = new TextLabel(font, 40, 20);
+		world = new TextLabel(font, "WORLD", 300, 20);
+		time = new TextLabel(font, "TIME", 430, 20);
+		points = new TextLabel(font, 50, 40);
+		level = new TextLabel(font, 310, 40);
+		timer = new TextLabel(font, 440, 40);
+		snapshot = new SceneSnapshot();
+		BufferedImage image = new BufferedImage(640, 48,
+				BufferedImage.TYPE_INT_ARGB);
+		g = image.createGraphics();
+		frame = 0;
+	}
+
+	/** Releases the offscreen image. */
+	@TearDown
+	public void tearDown() {
+		g.dispose();
+	}
+
+	/**
+	 * Draws the scoreboard glyph by glyph.
+	 *
+	 * @return the number of strings drawn
+	 */
+	@Benchmark
+	public int font() {
+		frame++;
+		int score = (frame / 450) * 100;
+		int seconds = 300 - (frame / FRAMES_PER_SECOND) % 300;
+		snapshot.clear();
+		font.render("MARIO x" + 3, snapshot, AffineTransform
+				.getTranslateInstance(40, 20));
+		font.render("WORLD", snapshot, AffineTransform.getTranslateInstance(
+				300, 20));
+		font.render("TIME", snapshot, AffineTransform.getTranslateInstance(
+				430, 20));
+		font.render(score + "", snapshot, AffineTransform
+				.getTranslateInstance(50, 40));
+		font.render(1 + "-" + 2, snapshot, AffineTransform
+				.getTranslateInstance(310, 40));
+		font.render(seconds + "", snapshot, AffineTransform
+				.getTranslateInstance(440, 40));
+		snapshot.draw(g, identity);
+		return snapshot.size();
+	}
+
+	/**
+	 * Draws the scoreboard from images of whole lines.
+	 *
+	 * @return the number of images drawn
+	 */
+	@Benchmark
+	public int label() {
+		frame++;
+		int score = (frame / 450) * 100;
+		int seconds = 300 - (frame / FRAMES_PER_SECOND) % 300;
+		snapshot.clear();
+		lives.setText("MARIO x").append(3).render(snapshot);
+		world.render(snapshot);
+		time.render(snapshot);
+		points.clear().append(score).render(snapshot);
+		level.clear().append(1).append('-').append(2).render(snapshot);
+		timer.clear().append(seconds).render(snapshot);
+		snapshot.draw(g, identity);
+		return snapshot.size();
+	}
+}
@@ -0,0 +1,132 @@
+package jig.bench;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.SceneSnapshot;
+import jig.engine.physics.vpe.TileLayer;
+import jig.engine.physics.vpe.VanillaAARectangle;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures rendering a <code>TileLayer</code> while the view scrolls across
+ * it, a few pixels per operation, as in a side scroller.
+ *
+ * The layer is recorded into a <code>SceneSnapshot</code>, which is then
+ * drawn onto an offscreen image the size of the view, so each operation
+ * includes blitting what is visible. With <code>chunked</code> set, the
+ * tiles are baked into chunks (on the calling thread), so the benchmark also
+ * includes baking each chunk as it scrolls into view.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TileRenderBenchmark {
+
+	private static final int COLUMNS = 256;
+
+	private static final int ROWS = 8;
+
+	private static final int VIEW_WIDTH = 640;
+
+	private static final int VIEW_HEIGHT = 480;
+
+	private static final int SCROLL = 4;
+
+	/** A still tile with the first frame of a block, so it can be baked. */
+	private static class Tile extends VanillaAARectangle {
+		Tile() {
+			super(Block.frames().subList(0, 1));
+		}
+
+		@Override
+		public void update(final long deltaMs) {
+		}
+	}
+
+	/** <code>true</code> to bake the tiles into chunks. */
+	@Param({ "false", "true" })
+	private boolean chunked;
+
+	private final AffineTransform identity = new AffineTransform();
+
+	private TileLayer<Tile> tiles;
+
+	private SceneSnapshot snapshot;
+
+	private BufferedImage image;
+
+	private Graphics2D g;
+
+	private int left;
+
+	/** Builds the layer and the surfaces to draw on. */
+	@Setup
+	public void setUp() {
+		Backend.frame();
+		tiles = new TileLayer<Tile>(Block.SIZE, VIEW_WIDTH, VIEW_HEIGHT);
+		tiles.reset(COLUMNS, ROWS);
+		short code = tiles.defineTile(new Tile());
+		for (int x = 0; x < COLUMNS; x++) {
+			tiles.setTile(x, ROWS - 2, code);
+			tiles.setTile(x, ROWS - 1, code);
+			if (x % 8 == 4) {
+				tiles.setTile(x, ROWS - 5, code);
+			}
+		}
+		if (chunked) {
+			tiles.setChunkCache(16, false);
+		}
+		snapshot = new SceneSnapshot();
+		image = new BufferedImage(VIEW_WIDTH, VIEW_HEIGHT,
+				BufferedImage.TYPE_INT_ARGB);
+		g = image.createGraphics();
+		left = 0;
+	}
+
+	/** Drops the chunks and releases the offscreen image. */
+	@TearDown
+	public void tearDown() {
+		tiles.setChunkCache(0, false);
+		tiles = null;
+		snapshot = null;
+		g.dispose();
+		g = null;
+		image = null;
+	}
+
+	/**
+	 * Scrolls the view and draws the layer.
+	 *
+	 * @return the number of images drawn
+	 */
+	@Benchmark
+	public int render() {
+		left += SCROLL;
+		if (left > COLUMNS * Block.SIZE - VIEW_WIDTH) {
+			left = 0;
+		}
+		snapshot.clear();
+		snapshot.setTransform(AffineTransform.getTranslateInstance(-left, 0));
+		tiles.render(snapshot);
+		snapshot.draw(g, identity);
+		return snapshot.size();
+	}
+}
@@ -0,0 +1,123 @@
+package jig.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.hli.physics.RectangleCollisionHandler;
+import jig.engine.physics.AbstractBodyLayer;
+import jig.engine.physics.BodyLayer;
+import jig.engine.physics.vpe.TileLayer;
+import jig.engine.physics.vpe.VanillaPhysicsEngine;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures one step of <code>VanillaPhysicsEngine.applyLawsOfPhysics</code>
+ * for a side scroller: rectangles walking along a tiled floor, held up by a
+ * collision handler, much like the enemies in a platform game.
+ *
+ * If the benchmark is windowed, the walkers are managed with the
+ * <code>WINDOWED</code> update policy and only those near a screen sized
+ * activation region at the start of the level are updated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VanillaPhysicsBenchmark {
+
+	private static final int COLUMNS = 256;
+
+	private static final int FLOOR_ROW = 11;
+
+	private static final double WALK_SPEED = 60;
+
+	private static final double FALL_SPEED = 120;
+
+	private static final long DELTA_MS = 16;
+
+	/** The number of walking rectangles. */
+	@Param({ "64", "512" })
+	private int walkers;
+
+	/** <code>true</code> to only update the walkers near the screen. */
+	@Param({ "false", "true" })
+	private boolean windowed;
+
+	private VanillaPhysicsEngine physics;
+
+	private BodyLayer<Block> moving;
+
+	/** Builds the floor, the walkers and the engine. */
+	@Setup
+	public void setUp() {
+		Backend.frame();
+		final double worldWidth = COLUMNS * Block.SIZE;
+
+		TileLayer<Block> floor = new TileLayer<Block>(Block.SIZE, 640, 480);
+		floor.reset(COLUMNS, FLOOR_ROW + 2);
+		short code = floor.defineTile(new Block(0, 0));
+		for (int y = FLOOR_ROW; y < FLOOR_ROW + 2; y++) {
+			for (int x = 0; x < COLUMNS; x++) {
+				floor.setTile(x, y, code);
+			}
+		}
+
+		moving = new AbstractBodyLayer.NoUpdate<Block>();
+		double spacing = worldWidth / walkers;
+		for (int i = 0; i < walkers; i++) {
+			Block b = new Block(i * spacing, (FLOOR_ROW - 1) * Block.SIZE) {
+				@Override
+				public void update(final long deltaMs) {
+					super.update(deltaMs);
+					if (getPositionX() > worldWidth) {
+						translateBy(-worldWidth, 0);
+					}
+				}
+			};
+			b.setVelocity(WALK_SPEED, FALL_SPEED);
+			moving.add(b);
+		}
+
+		physics = new VanillaPhysicsEngine();
+		if (windowed) {
+			physics.manageViewableSet(moving,
+					VanillaPhysicsEngine.UpdatePolicy.WINDOWED);
+			physics.setActivationRegion(0, 0, 640, 480);
+			physics.setActivationMargin(320);
+		} else {
+			physics.manageViewableSet(moving);
+		}
+		physics.manageViewableSet(floor,
+				VanillaPhysicsEngine.UpdatePolicy.STATIC);
+		physics.registerCollisionHandler(
+				new RectangleCollisionHandler<Block, Block>(moving, floor) {
+					@Override
+					public void collide(final Block a, final Block b) {
+						if (a.isOnTopSide(b)) {
+							a.translateBy(0, -a.topCollidingDistance(b));
+						}
+					}
+				});
+	}
+
+	/**
+	 * @return the position of the first walker
+	 */
+	@Benchmark
+	public double step() {
+		physics.applyLawsOfPhysics(DELTA_MS);
+		return moving.get(0).getPositionX();
+	}
+}
@@ -0,0 +1,87 @@
+package jig.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import jig.engine.util.Vector2D;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures chains of <code>Vector2D</code> arithmetic of the kind the
+ * physics engines evaluate for every body or contact. Every operation in a
+ * chain creates a new vector, so these benchmarks mostly measure the cost
+ * of that allocation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class Vector2DBenchmark {
+
+	private static final int VECTORS = 256;
+
+	private final Vector2D[] a = new Vector2D[VECTORS];
+
+	private final Vector2D[] b = new Vector2D[VECTORS];
+
+	private int k;
+
+	/** Fills the operands. */
+	@Setup
+	public void setUp() {
+		for (int i = 0; i < VECTORS; i++) {
+			a[i] = new Vector2D(i, VECTORS - i);
+			b[i] = new Vector2D(0.5 * i, -0.25 * i);
+		}
+	}
+
+	/**
+	 * <code>p = p.translate(v.scale(dt))</code>, explicit Euler.
+	 *
+	 * @return the new position
+	 */
+	@Benchmark
+	public Vector2D integrate() {
+		k = (k + 1) % VECTORS;
+		return a[k].translate(b[k].scale(0.016));
+	}
+
+	/**
+	 * The relative velocity at a contact and the normal impulse, as computed
+	 * by the sequential impulse solver.
+	 *
+	 * @return a value computed from the impulse
+	 */
+	@Benchmark
+	public double impulse() {
+		k = (k + 1) % VECTORS;
+		final Vector2D v1 = a[k];
+		final Vector2D r1 = b[k];
+		final Vector2D v2 = a[VECTORS - 1 - k];
+		final Vector2D r2 = b[VECTORS - 1 - k];
+		final double w1 = 0.5;
+		final double w2 = -0.25;
+		final Vector2D normal = new Vector2D(0, -1);
+
+		Vector2D dv = v2.translate(r2.dCrossV(w2)).difference(v1).difference(
+				r1.dCrossV(w1));
+		double vn = dv.dot(normal);
+		double rn1 = r1.dot(normal);
+		double rn2 = r2.dot(normal);
+		double kNormal = 2.0 + r1.magnitude2() - rn1 * rn1 + r2.magnitude2()
+				- rn2 * rn2;
+		Vector2D p = normal.scale(-vn / kNormal);
+		return p.getY() + p.cross(r1) + p.cross(r2);
+	}
+}
@@ -0,0 +1,57 @@
+package smb;
+
+import java.util.concurrent.TimeUnit;
+
+import jig.bench.Backend;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reloading one of the shipped levels: clearing the layers,
+ * reading the map and building its tiles, enemies and scenery with
+ * <code>buildMap</code>.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LevelLoadBenchmark {
+
+	/** The level number, i.e., the map is <code>resources/map&lt;level&gt;.txt</code>. */
+	@Param({ "1", "2", "3" })
+	private String level;
+
+	private Smb game;
+
+	/** Creates the game, which makes the None backend's only game frame. */
+	@Setup
+	public void setUp() {
+		if (Backend.hasFrame()) {
+			throw new IllegalStateException(
+					"the game needs the only game frame, run it in a fork");
+		}
+		Backend.start();
+		game = new Smb();
+	}
+
+	/**
+	 * @return the number of bodies built
+	 */
+	@Benchmark
+	public int load() {
+		game.resetLevel(level);
+		return game.unmovableLayer.size() + game.movableLayer.size();
+	}
+}
@@ -0,0 +1,41 @@
+package smb;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the engine and game benchmarks with JMH, on the None backend, always
+ * with the GC profiler, so that the allocation rate and the bytes allocated
+ * per operation are reported next to the time per operation.
+ *
+ * The arguments are those of JMH's own command line. For example, to
+ * measure only the collision handlers, with the contact cache:
+ *
+ * <pre>
+ * java -jar bench/target/benchmarks.jar CollisionBenchmark -p cached=true
+ * </pre>
+ */
+public class SmbBenchmarks {
+
+	/**
+	 * Runs the benchmarks.
+	 *
+	 * @param args
+	 *            JMH command line options and benchmark name patterns
+	 * @throws CommandLineOptionException
+	 *             if the options cannot be parsed
+	 * @throws RunnerException
+	 *             if a benchmark fails
+	 */
+	public static void main(final String[] args)
+			throws CommandLineOptionException, RunnerException {
+		CommandLineOptions cmd = new CommandLineOptions(args);
+		new Runner(new OptionsBuilder().parent(cmd).addProfiler(
+				GCProfiler.class).jvmArgsAppend("-Djava.awt.headless=true")
+				.build()).run();
+	}
+}
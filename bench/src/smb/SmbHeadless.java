@@ -0,0 +1,76 @@
+package smb;
+
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
+import jig.engine.hli.HeadlessRunner;
+
+/**
+ * Plays Smb headless and uncapped from a scripted input timeline, and
+ * reports how fast the game can be simulated.
+ *
+ * The options are <code>-n</code> (the number of frames, default 3600, i.e.,
+ * one minute of game time) and <code>-fps</code> (the simulated frame rate,
+ * default 60), optionally followed by the file name of an input script (see
+ * <code>HeadlessRunner</code>). Without a script, the built in
+ * <code>level1.keys</code> is replayed.
+ *
+ * Since the run is deterministic, the state printed at the end of the run
+ * is the same every time for a given script and number of frames.
+ *
+ * @see HeadlessRunner
+ */
+public class SmbHeadless {
+
+	private static final String DEFAULT_SCRIPT = "level1.keys";
+
+	/**
+	 * Runs the game.
+	 *
+	 * @param args
+	 *            the options and script file name
+	 * @throws IOException
+	 *             if the script cannot be read
+	 */
+	public static void main(final String[] args) throws IOException {
+		int frames = 3600;
+		double fps = HeadlessRunner.DEFAULT_FRAME_RATE;
+		String script = null;
+		for (int i = 0; i < args.length; i++) {
+			if ("-n".equals(args[i]) && i + 1 < args.length) {
+				frames = Integer.parseInt(args[++i]);
+			} else if ("-fps".equals(args[i]) && i + 1 < args.length) {
+				fps = Double.parseDouble(args[++i]);
+			} else {
+				script = args[i];
+			}
+		}
+
+		HeadlessRunner runner = new HeadlessRunner(fps);
+		Reader in;
+		if (script == null) {
+			in = new InputStreamReader(SmbHeadless.class
+					.getResourceAsStream(DEFAULT_SCRIPT));
+		} else {
+			in = new FileReader(script);
+		}
+		try {
+			runner.loadScript(in);
+		} finally {
+			in.close();
+		}
+
+		Smb game = new Smb();
+		runner.run(game, frames);
+
+		runner.printReport(System.out);
+		System.out.println();
+		System.out.printf("final state     level %d, mario at (%.2f, %.2f), "
+				+ "%d points, %d lives%n", game.gamelvl, game.p
+				.getPositionX(), game.p.getPositionY(), game.points,
+				game.p.live);
+		System.exit(0);
+	}
+}
@@ -0,0 +1,100 @@
+package jig.engine;
+
+/**
+ * The places of a number of images packed into one atlas image, from which
+ * the images are then drawn as regions (see
+ * {@link ResourceFactory#createImageRegion(ImageResource, int, int, int, int)}).
+ *
+ * The images are placed in the order given, left to right in rows (shelves)
+ * of a roughly square atlas, each row as tall as its tallest image. A
+ * transparent pixel is left between neighbouring images, so that an image
+ * drawn scaled with filtering does not pick up the edges of its neighbours.
+ * Images of a similar height, such as the glyphs of a font or the frames of
+ * an animation, waste little space this way.
+ */
+final class AtlasLayout {
+
+	/** The number of transparent pixels between neighbouring images. */
+	static final int PADDING = 1;
+
+	private final int[] x;
+
+	private final int[] y;
+
+	private final int width;
+
+	private final int height;
+
+	/**
+	 * Lays out a number of images.
+	 *
+	 * @param widths
+	 *            the width of each image
+	 * @param heights
+	 *            the height of each image
+	 */
+	AtlasLayout(final int[] widths, final int[] heights) {
+		int n = widths.length;
+		x = new int[n];
+		y = new int[n];
+
+		int maxWidth = 0;
+		long area = 0;
+		for (int i = 0; i < n; i++) {
+			maxWidth = Math.max(maxWidth, widths[i]);
+			area += (long) (widths[i] + PADDING) * (heights[i] + PADDING);
+		}
+		int w = Math.max(maxWidth, (int) Math.ceil(Math.sqrt(area)));
+
+		int cx = 0;
+		int cy = 0;
+		int rowHeight = 0;
+		int usedWidth = 0;
+		for (int i = 0; i < n; i++) {
+			if (cx > 0 && cx + widths[i] > w) {
+				cx = 0;
+				cy += rowHeight + PADDING;
+				rowHeight = 0;
+			}
+			x[i] = cx;
+			y[i] = cy;
+			usedWidth = Math.max(usedWidth, cx + widths[i]);
+			rowHeight = Math.max(rowHeight, heights[i]);
+			cx += widths[i] + PADDING;
+		}
+		width = usedWidth;
+		height = cy + rowHeight;
+	}
+
+	/**
+	 * @param i
+	 *            the index of an image
+	 * @return the x coordinate of the image's upper left corner in the atlas
+	 */
+	int getX(final int i) {
+		return x[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of an image
+	 * @return the y coordinate of the image's upper left corner in the atlas
+	 */
+	int getY(final int i) {
+		return y[i];
+	}
+
+	/**
+	 * @return the width of the atlas, zero if there are no images
+	 */
+	int getWidth() {
+		return width;
+	}
+
+	/**
+	 * @return the height of the atlas, zero if there are no images
+	 */
+	int getHeight() {
+		return height;
+	}
+}
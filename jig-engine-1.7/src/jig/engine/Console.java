@@ -246,6 +246,13 @@ public abstract class Console {
 		return visible;
 	}
 
+	/**
+	 * @return <code>true</code> iff the console is visible
+	 */
+	public boolean isVisible() {
+		return visible;
+	}
+
 	/**
 	 * Explicitly shows or hides the console.
 	 * 
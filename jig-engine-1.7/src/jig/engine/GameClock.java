@@ -366,6 +366,31 @@ public final class GameClock {
 
 	}
 
+	/**
+	 * A TimeManager that never reads the system timer or sleeps: each tick
+	 * advances the clock by exactly the same amount. Games driven by this
+	 * manager see time pass at the specified rate however fast (or slowly)
+	 * the loop actually runs, so a run can be replayed exactly, e.g., by a
+	 * headless test or benchmark.
+	 */
+	public static class SyntheticTimeManager implements TimeManager {
+		long stepNanos;
+		public SyntheticTimeManager(double ticksPerSecond) {
+			stepNanos = (long)(GameClock.NANOS_PER_SECOND / ticksPerSecond);
+		}
+		public long getAbsoluteWallTime(long lastAbsoluteTime){
+			if (lastAbsoluteTime == NO_NANO_TIME) return 0;
+			return lastAbsoluteTime + stepNanos;
+		}
+		public long coerceDeltaTime(long dwt) { 
+			return dwt;
+		}
+		public long getStepNanos()
+		{
+			return stepNanos;
+		}
+	}
+
 	/**
 	 * The Alarm class encapsulates data associated with a periodic
 	 * alarm. Once set, an alarm's expired() method returns <code>false</code>
@@ -54,6 +54,21 @@ public interface GameFrame {
      * Renders the GameFrame by blitting (or whatnot) the offscreen buffer.
      */
     void displayBackBuffer();
+
+    /**
+     * Turns incremental presentation on or off, if the backend supports it.
+     * When presenting incrementally, the frame keeps the last frame it
+     * presented and only draws again what changed from one frame to the
+     * next, skipping unchanged frames altogether.
+     *
+     * @param yes <code>true</code> to present frames incrementally
+     */
+    void setIncrementalPresentation(boolean yes);
+
+    /**
+     * @return <code>true</code> iff frames are presented incrementally
+     */
+    boolean isIncrementalPresentation();
     
     /**
      * Calls the exit handler (if a exit hander exists).
@@ -41,6 +41,7 @@ import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 import org.xml.sax.SAXParseException;
 
+import java.awt.AlphaComposite;
 import java.awt.Graphics2D;
 import java.awt.RenderingHints;
 import java.awt.font.GlyphVector;
@@ -242,6 +243,30 @@ public abstract class ResourceFactory {
 	protected abstract ImageResource createImageResource(
 			BufferedImage originalImg,
 			int transparency, int w, int h, int xoffset, int yoffset);
+
+	/**
+	 * Creates an image resource showing a rectangle of another image
+	 * resource, whose pixels it shares. Many small images, such as the
+	 * glyphs of a font, can thus be packed into a single atlas image, so
+	 * that the backend holds (and accelerates) one image for all of them,
+	 * and draws each of them as a blit of part of it.
+	 * 
+	 * @param atlas
+	 *            an image resource created by this factory
+	 * @param x
+	 *            the x coordinate of the rectangle's upper left corner
+	 * @param y
+	 *            the y coordinate of the rectangle's upper left corner
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 * @return a new image resource
+	 * @throws IllegalArgumentException
+	 *             if the rectangle is not within the atlas
+	 */
+	protected abstract ImageResource createImageRegion(ImageResource atlas,
+			int x, int y, int w, int h);
 	
 	/**
 	 * Loads resources specified in an xml file.
@@ -502,6 +527,9 @@ public abstract class ResourceFactory {
 	 * instance. If a resource with the same name already exists, this method
 	 * will send a warning to the package logger.
 	 * 
+	 * The images are packed into a single atlas image, of which each frame
+	 * is a region.
+	 * 
 	 * @param name
 	 *            the name used to retrieve this frameset
 	 * @param r
@@ -517,15 +545,53 @@ public abstract class ResourceFactory {
 		bframes = new ImageResource[r.length];
 		int nframes = r.length;
 
-		for (int i = 0; i < nframes; i++) {
-			bframes[i] = createImageResource(r[i], Transparency.BITMASK, r[i]
-					.getWidth(null), r[i].getHeight(null), 0, 0);
+		if (nframes > 0) {
+			int[] widths = new int[nframes];
+			int[] heights = new int[nframes];
+			for (int i = 0; i < nframes; i++) {
+				widths[i] = r[i].getWidth(null);
+				heights[i] = r[i].getHeight(null);
+			}
+			AtlasLayout layout = new AtlasLayout(widths, heights);
+			BufferedImage atlasImage = new BufferedImage(layout.getWidth(),
+					layout.getHeight(), BufferedImage.TYPE_INT_ARGB);
+			Graphics2D g = atlasImage.createGraphics();
+			g.setComposite(AlphaComposite.Src);
+			for (int i = 0; i < nframes; i++) {
+				g.drawImage(r[i], layout.getX(i), layout.getY(i), null);
+			}
+			g.dispose();
+
+			ImageResource atlas = createImageResource(atlasImage,
+					Transparency.BITMASK, layout.getWidth(), layout
+							.getHeight(), 0, 0);
+			for (int i = 0; i < nframes; i++) {
+				bframes[i] = createImageRegion(atlas, layout.getX(i), layout
+						.getY(i), widths[i], heights[i]);
+			}
 		}
 		imgRscCache.put(name, Collections.unmodifiableList(Arrays
 				.asList(bframes)));
 
 	}
 
+	/**
+	 * Creates an image resource from a programmatically drawn image,
+	 * formatted appropriately for the concrete ResourceFactory instance.
+	 * Unlike {@link #putFrames(String, BufferedImage[])}, the resource is not
+	 * stored in the resource cache, so it can be dropped once it is no longer
+	 * used, e.g., when it was baked from other images and has gone out of
+	 * date. This method may be called from any thread.
+	 * 
+	 * @param img
+	 *            the image, whose pixels are either opaque or transparent
+	 * @return a new image resource holding a copy of the image
+	 */
+	public ImageResource createImage(final BufferedImage img) {
+		return createImageResource(img, Transparency.BITMASK, img
+				.getWidth(null), img.getHeight(null), 0, 0);
+	}
+
 	/**
 	 * Gets the set of all stored image resources.
 	 * 
@@ -752,13 +818,14 @@ public abstract class ResourceFactory {
 		int h = originalImage.getHeight() / rows;
 
 		// now create the frames.
-		// basically, just make an array of BufferedImages
-		// for each frame, paint the 'master' image into the
-		// frame using an offset so that all but the appropriate
-		// frame will be clipped.
+		// the 'master' image is the atlas, and each frame is
+		// a region of it.
+		ImageResource atlas = createImageResource(originalImage,
+				Transparency.BITMASK, originalImage.getWidth(), originalImage
+						.getHeight(), 0, 0);
 		for (int i = 0; i < nframes; i++) {
-			bframes[i] = createImageResource(originalImage,
-					Transparency.BITMASK, w, h, w * (i % cols), h * (i / cols));
+			bframes[i] = createImageRegion(atlas, w * (i % cols), 
+					h * (i / cols), w, h);
 		}
 		cachehit = Collections.unmodifiableList(Arrays.asList(bframes));
 		imgRscCache.put(key, cachehit);
@@ -814,6 +881,9 @@ public abstract class ResourceFactory {
 		/** The image containing all of the sprites. */
 		BufferedImage sheetImage;
 
+		/* the sheet image as a resource, of which each frame is a region */
+		ImageResource sheetAtlas;
+
 		/** Height of the sheet. */
 		int sheetHeight;
 
@@ -862,6 +932,7 @@ public abstract class ResourceFactory {
 		 */
 		boolean loadSpriteSheet(final String sheetName, final String xmlName) {
 
+			sheetAtlas = null;
 			URL sheetURL = findResource(sheetName);
 			URL xmlURL = findResource(xmlName);
 
@@ -1073,13 +1144,19 @@ public abstract class ResourceFactory {
 					gameLog.fine("Loading frameset from sprite sheet.");
 					long st = System.nanoTime();
 
+					// the sheet is shared by all of its framesets
+					if (sheetAtlas == null) {
+						sheetAtlas = createImageResource(sheetImage,
+								Transparency.BITMASK, sheetWidth,
+								sheetHeight, 0, 0);
+					}
+
 					ImageResource[] bframes = new ImageResource[rows * columns];
 					for (int y = 0; y < rows; ++y) {
 						for (int x = 0; x < columns; ++x) {
-							//bframes[y * rows + x] = createImageResource(
-							bframes[y * (columns) + x] = createImageResource(
-									sheetImage, Transparency.BITMASK, width,
-									height, left + width * x, top + height * y);
+							bframes[y * (columns) + x] = createImageRegion(
+									sheetAtlas, left + width * x, 
+									top + height * y, width, height);
 						}
 					}		
 					long t = ((System.nanoTime()-st)/(jig.engine.GameClock.NANOS_PER_MS));
@@ -1190,6 +1267,7 @@ public abstract class ResourceFactory {
 			}
 			gameLog.finest("Set " + set + " pixels to transparent color");
 			sheetImage = newImg;
+			sheetAtlas = null;
 		}
 
 		/**
@@ -1544,6 +1622,9 @@ final class BitmapFont implements FontResource {
 	private int baseline;
 	private int lineHeight;
 
+	/* one image holding all glyphs, of which each frame is a region */
+	ImageResource atlas;
+
 	List<ImageResource> frames;
 	
 	/**
@@ -1591,9 +1672,9 @@ final class BitmapFont implements FontResource {
 	}
 	
 	/**
-	 * Creates ImageResources to hold each character. It may be better to just
-	 * store the whole image and when rendering just draw clipped portions as
-	 * needed, but this should be tested.
+	 * Creates ImageResources to hold each character. The characters' row of
+	 * the font image (and the space, if the font lacks one) is copied into a
+	 * single atlas image, and each character is a region of the atlas.
 	 * 
 	 * @param fontImage
 	 *            the image containing all font characters
@@ -1619,8 +1700,23 @@ final class BitmapFont implements FontResource {
 		ImageResource[] r;
 		ResourceFactory f = ResourceFactory.getFactory();
 		int mappingOffset;
+		boolean addSpace = (asciiOffset == ASCII_EXCLAMATION);
 		
-		if (asciiOffset == ASCII_EXCLAMATION) {
+		// the characters go at the top of the atlas, the space below them
+		BufferedImage atlasImage = new BufferedImage(width, 
+				addSpace ? 2 * height : height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = atlasImage.createGraphics();
+		g.setComposite(AlphaComposite.Src);
+		g.drawImage(fontImage, 0, -yoffset, null);
+		if (addSpace) {
+			g.setColor(new Color(backgroundARGB, true));
+			g.fillRect(0, height, width, height);
+		}
+		g.dispose();
+		atlas = f.createImageResource(atlasImage, BufferedImage.BITMASK,
+				atlasImage.getWidth(), atlasImage.getHeight(), 0, 0);
+		
+		if (addSpace) {
 			int widestWidth = 0;
 			nCharacters++;
 			asciiOffset--;
@@ -1635,36 +1731,22 @@ final class BitmapFont implements FontResource {
 			newExtents[0] = widestWidth;
 			xextents = newExtents;
 
-			BufferedImage space = new BufferedImage(
-					width, height, BufferedImage.BITMASK);
-
-			for (int x = 0; x < width; x++) {
-				for (int y = 0; y < height; y++) {
-					space.setRGB(x, y, backgroundARGB);
-				}
-			}
-
 			r = new ImageResource[nCharacters];
 			
-			// the space image has no yoffset nor a xoffset since it 
-			// is already the correct size.
-			r[0] = f.createImageResource(space, BufferedImage.BITMASK,
-					widestWidth, height, 0, 0);
+			// the space is filled with the background color
+			r[0] = f.createImageRegion(atlas, 0, height, widestWidth, height);
 
 			for (int i = 1; i < nCharacters; i++) {
-				r[i] = f.createImageResource(fontImage, 
-						BufferedImage.BITMASK,
-						xextents[i], height, 
-						xoffsets[i - 1], yoffset);				
+				r[i] = f.createImageRegion(atlas, xoffsets[i - 1], 0,
+						xextents[i], height);
 			}
 			
 		} else {
 			r = new ImageResource[nCharacters];
 			mappingOffset = 0;
 			for (int i = mappingOffset; i < nCharacters; i++) {
-					r[i] = f.createImageResource(fontImage, 
-							BufferedImage.BITMASK,
-							xextents[i], height, xoffsets[i], yoffset);
+				r[i] = f.createImageRegion(atlas, xoffsets[i], 0,
+						xextents[i], height);
 			}
 		}
 				
@@ -1864,48 +1946,70 @@ final class BitmapFont implements FontResource {
 		
 		
 		ImageResource[] r = new ImageResource[nchars];
+		GlyphVector[] glyphs = new GlyphVector[nchars];
+		Rectangle2D[] bounds = new Rectangle2D[nchars];
+		int[] glyphWidths = new int[nchars];
+		int[] glyphHeights = new int[nchars];
 		BitmapFont font = new BitmapFont();
 		font.init(nchars, ASCII_SPACE);
 		
 		g.setBackground(background);
 		g.setColor(foreground);
 		
+		// measure each letter, to find out how big the atlas must be
 		for (int i = 0, n = alphabet.length(); i < n; i++) {
 			alphabet.getChars(i, i + 1, oneLetter, 0);
 			// create a glyph for each letter
 			gv = systemFont.createGlyphVector(g.getFontRenderContext(),
 					oneLetter);
-			g.clearRect(0, 0, width - 1, height - 1);
-			
 			glyphBounds = gv.getLogicalBounds();
 			g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING,
 					RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
-			
-			// usually minX will be zero, but a 'j' for example, may be just < 0
-			g.drawGlyphVector(gv, (float) -glyphBounds.getMinX(), 
-					(float) -glyphBounds.getMinY()); 
+			glyphs[i] = gv;
+			bounds[i] = glyphBounds;
 			
 			if (glyphBounds.getWidth() == 0) {
 				ResourceFactory.getJIGLogger().warning("Font: " 
 						+ systemFont.getFontName() 
 						+ " reports zero width character '" + oneLetter[0] 
 						+ "' using max width...");
-				r[i] = f.createImageResource(tmpGlyphImage, 
-						BufferedImage.BITMASK,
-						(int) maxCharBounds.getWidth(), 
-						(int) Math.ceil(glyphBounds.getHeight()), 0, 0);
-
+				glyphWidths[i] = (int) maxCharBounds.getWidth();
 				font.xextents[i] = (int) maxCharBounds.getWidth();
 			} else {
-				// DESIGN: SW --> AN: hashing on BuffImg in createImageResource?
-				// I'm reusing the tmpGlyphImage, so that may be a problem
-				r[i] = f.createImageResource(tmpGlyphImage, 
-						BufferedImage.BITMASK,
-						(int) Math.ceil(glyphBounds.getWidth()), 
-						(int) Math.ceil(glyphBounds.getHeight()), 0, 0);
-
+				glyphWidths[i] = (int) Math.ceil(glyphBounds.getWidth());
 				font.xextents[i] = (int) glyphBounds.getWidth();
 			}
+			glyphHeights[i] = (int) Math.ceil(glyphBounds.getHeight());
+		}
+		
+		AtlasLayout layout = new AtlasLayout(glyphWidths, glyphHeights);
+		BufferedImage atlasImage = new BufferedImage(layout.getWidth(), 
+				layout.getHeight(), BufferedImage.TYPE_INT_ARGB);
+		Graphics2D atlasG = atlasImage.createGraphics();
+		atlasG.setComposite(AlphaComposite.Src);
+		
+		// draw each letter and copy it into its place in the atlas
+		for (int i = 0; i < nchars; i++) {
+			g.clearRect(0, 0, width - 1, height - 1);
+			
+			// usually minX will be zero, but a 'j' for example, may be just < 0
+			g.drawGlyphVector(glyphs[i], (float) -bounds[i].getMinX(), 
+					(float) -bounds[i].getMinY()); 
+			
+			int x = layout.getX(i);
+			int y = layout.getY(i);
+			atlasG.drawImage(tmpGlyphImage, x, y, x + glyphWidths[i], 
+					y + glyphHeights[i], 0, 0, glyphWidths[i], 
+					glyphHeights[i], null);
+		}
+		atlasG.dispose();
+		g.dispose();
+		
+		font.atlas = f.createImageResource(atlasImage, BufferedImage.BITMASK,
+				atlasImage.getWidth(), atlasImage.getHeight(), 0, 0);
+		for (int i = 0; i < nchars; i++) {
+			r[i] = f.createImageRegion(font.atlas, layout.getX(i), 
+					layout.getY(i), glyphWidths[i], glyphHeights[i]);
 		}
 		font.baseline = (int) -maxCharBounds.getMinY();
 		font.lineHeight = (int) maxCharBounds.getHeight();
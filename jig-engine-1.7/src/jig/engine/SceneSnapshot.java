@@ -0,0 +1,232 @@
+package jig.engine;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+
+/**
+ * A rendering context that records what is drawn onto it instead of drawing
+ * it, so that a frame can be captured on one thread and drawn later (e.g., on
+ * another thread) with {@link #play(RenderingContext)}.
+ *
+ * Each image or string rendered onto the snapshot is stored with the full
+ * transform in effect at the time. Image resources and strings are
+ * immutable, so once a frame has been recorded it no longer depends on the
+ * state of the objects that drew it. The storage is reused from frame to
+ * frame, so recording a frame of similar size to the last creates no
+ * objects.
+ *
+ * Transforms are recorded relative to the transform the target context has
+ * when the snapshot is played, which is normally the identity.
+ *
+ * Image and font resources record themselves when asked to render onto a
+ * snapshot. A snapshot is not thread safe: it should be recorded by one
+ * thread, handed off, and only then played.
+ *
+ * @see jig.engine.hli.AbstractSimpleGame#setPipelinedRendering(boolean)
+ */
+public class SceneSnapshot implements RenderingContext {
+
+	private static final int MATRIX_SIZE = 6;
+
+	/** The image or font resource drawn by each entry. */
+	private Object[] resources = new Object[64];
+
+	/** The text of each font entry, <code>null</code> for images. */
+	private String[] strings = new String[64];
+
+	private double[] matrices = new double[64 * MATRIX_SIZE];
+
+	private int count;
+
+	private final AffineTransform current = new AffineTransform();
+
+	private final AffineTransform scratch = new AffineTransform();
+
+	private final double[] m = new double[MATRIX_SIZE];
+
+	/**
+	 * Discards all recorded entries and resets the transform to the
+	 * identity, ready for the next frame.
+	 */
+	public void clear() {
+		for (int i = 0; i < count; i++) {
+			resources[i] = null;
+			strings[i] = null;
+		}
+		count = 0;
+		current.setToIdentity();
+	}
+
+	/**
+	 * @return the number of images and strings recorded
+	 */
+	public int size() {
+		return count;
+	}
+
+	/**
+	 * @param i
+	 *            the index of an entry, in the order recorded
+	 * @return the image or font resource the entry draws
+	 */
+	public Object getResource(final int i) {
+		return resources[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of an entry, in the order recorded
+	 * @return the text the entry draws, or <code>null</code> for an image
+	 */
+	public String getString(final int i) {
+		return strings[i];
+	}
+
+	/**
+	 * Copies the full transform an entry is drawn with, in the order of
+	 * <code>AffineTransform.getMatrix</code>.
+	 *
+	 * @param i
+	 *            the index of an entry, in the order recorded
+	 * @param matrix
+	 *            an array of at least six elements to copy the transform to
+	 */
+	public void getMatrix(final int i, final double[] matrix) {
+		System.arraycopy(matrices, i * MATRIX_SIZE, matrix, 0, MATRIX_SIZE);
+	}
+
+	/**
+	 * Records an image being rendered.
+	 *
+	 * @param img
+	 *            the image
+	 * @param at
+	 *            the transform passed to the image's <code>render</code>
+	 */
+	public void record(final ImageResource img, final AffineTransform at) {
+		add(img, null, at);
+	}
+
+	/**
+	 * Records a string being rendered.
+	 *
+	 * @param font
+	 *            the font the string is drawn with
+	 * @param s
+	 *            the string
+	 * @param at
+	 *            the transform passed to the font's <code>render</code>
+	 */
+	public void record(final FontResource font, final String s,
+			final AffineTransform at) {
+		add(font, s, at);
+	}
+
+	/**
+	 * Draws everything recorded in this snapshot, in the order it was
+	 * recorded.
+	 *
+	 * @param rc
+	 *            the rendering context to draw onto
+	 */
+	public void play(final RenderingContext rc) {
+		for (int i = 0; i < count; i++) {
+			int k = i * MATRIX_SIZE;
+			scratch.setTransform(matrices[k], matrices[k + 1],
+					matrices[k + 2], matrices[k + 3], matrices[k + 4],
+					matrices[k + 5]);
+			if (strings[i] == null) {
+				((ImageResource) resources[i]).render(rc, scratch);
+			} else {
+				((FontResource) resources[i]).render(strings[i], rc, scratch);
+			}
+		}
+	}
+
+	/**
+	 * Draws everything recorded in this snapshot straight onto a graphics
+	 * context, e.g., to bake it into an image, with the transform of each
+	 * entry preceded by another.
+	 *
+	 * Unlike <code>play</code>, this method keeps no state in the snapshot,
+	 * so once a snapshot is no longer recorded onto it may be drawn by any
+	 * thread.
+	 *
+	 * @param g
+	 *            the graphics context to draw onto
+	 * @param at
+	 *            the transform to apply before each entry's own
+	 */
+	public void draw(final Graphics2D g, final AffineTransform at) {
+		AffineTransform entry = new AffineTransform();
+		AffineTransform t = new AffineTransform();
+		for (int i = 0; i < count; i++) {
+			int k = i * MATRIX_SIZE;
+			entry.setTransform(matrices[k], matrices[k + 1], matrices[k + 2],
+					matrices[k + 3], matrices[k + 4], matrices[k + 5]);
+			t.setTransform(at);
+			t.concatenate(entry);
+			if (strings[i] == null) {
+				((ImageResource) resources[i]).draw(g, t);
+			} else {
+				((FontResource) resources[i]).draw(strings[i], g, t);
+			}
+		}
+	}
+
+	/**
+	 * Composes an affine transform with the current transform, just as the
+	 * backend rendering contexts do.
+	 *
+	 * @param at
+	 *            the transform to be composed with the current transform
+	 */
+	public void transform(final AffineTransform at) {
+		current.concatenate(at);
+	}
+
+	/**
+	 * @return a copy of the current transform
+	 */
+	public AffineTransform getTransform() {
+		return new AffineTransform(current);
+	}
+
+	/**
+	 * Sets the current transform.
+	 *
+	 * @param at
+	 *            the new transform, which is copied
+	 */
+	public void setTransform(final AffineTransform at) {
+		current.setTransform(at);
+	}
+
+	private void add(final Object rsc, final String s,
+			final AffineTransform at) {
+		if (count == resources.length) {
+			int n = count * 2;
+			Object[] r = new Object[n];
+			String[] t = new String[n];
+			double[] mm = new double[n * MATRIX_SIZE];
+			System.arraycopy(resources, 0, r, 0, count);
+			System.arraycopy(strings, 0, t, 0, count);
+			System.arraycopy(matrices, 0, mm, 0, count * MATRIX_SIZE);
+			resources = r;
+			strings = t;
+			matrices = mm;
+		}
+
+		// the entry's transform is current * at, as it would be on a Graphics2D
+		scratch.setTransform(current);
+		if (at != null) {
+			scratch.concatenate(at);
+		}
+		scratch.getMatrix(m);
+		System.arraycopy(m, 0, matrices, count * MATRIX_SIZE, MATRIX_SIZE);
+
+		resources[count] = rsc;
+		strings[count] = s;
+		count++;
+	}
+}
@@ -19,9 +19,27 @@ public class Sprite implements Viewable {
 
 	protected List<ImageResource> frames;
 
-	/** Position in world coordinate system. */
+	/**
+	 * Position in world coordinate system.
+	 * 
+	 * Subclasses may assign this field directly. However, once the in-place
+	 * methods ({@link #setPosition(double, double)},
+	 * {@link #translateBy(double, double)}) are used, the field may lag
+	 * behind the sprite's true position until {@link #getPosition()} is
+	 * called, so such subclasses should read the position with
+	 * {@link #getPositionX()} and {@link #getPositionY()} instead.
+	 */
 	protected Vector2D position;
 
+	/** The sprite's position, possibly more recent than the field above. */
+	private double positionX, positionY;
+
+	/** The vector that positionX and positionY were last taken from. */
+	private Vector2D syncedPosition;
+
+	/** <code>true</code> iff positionX, positionY are newer than position. */
+	private boolean positionChanged;
+
 	protected boolean active;
 
 	protected int width, height;
@@ -134,8 +152,8 @@ public class Sprite implements Viewable {
 			
 			frames.get(visibleFrame).render(
 					rc,
-					AffineTransform.getTranslateInstance(position.getX(),
-							position.getY()));
+					AffineTransform.getTranslateInstance(getPositionX(),
+							getPositionY()));
 		}
 	}
 	
@@ -161,9 +179,42 @@ public class Sprite implements Viewable {
 	 */
 	// @Override
 	public Vector2D getPosition() {
+		if (position != syncedPosition) {
+			syncPosition();
+		} else if (positionChanged) {
+			position = new Vector2D(positionX, positionY);
+			syncedPosition = position;
+			positionChanged = false;
+		}
 		return position;
 	}
 
+	/**
+	 * Gets the x coordinate of the sprite's position without creating a
+	 * vector.
+	 * 
+	 * @return the x coordinate of the upper left corner
+	 */
+	public double getPositionX() {
+		if (position != syncedPosition) {
+			syncPosition();
+		}
+		return positionX;
+	}
+
+	/**
+	 * Gets the y coordinate of the sprite's position without creating a
+	 * vector.
+	 * 
+	 * @return the y coordinate of the upper left corner
+	 */
+	public double getPositionY() {
+		if (position != syncedPosition) {
+			syncPosition();
+		}
+		return positionY;
+	}
+
 	/**
 	 * Sets the sprite's position. i.e., the location of the upper left corner
 	 * prior to rotation.
@@ -174,20 +225,65 @@ public class Sprite implements Viewable {
 	 */
 	public void setPosition(final Vector2D p) {
 		position = p;
+		syncPosition();
+	}
+
+	/**
+	 * Sets the sprite's position in place, without creating a vector.
+	 * 
+	 * @param x
+	 *            the x coordinate of the upper left corner
+	 * @param y
+	 *            the y coordinate of the upper left corner
+	 * 
+	 * @see #setPosition(Vector2D)
+	 */
+	public void setPosition(final double x, final double y) {
+		positionX = x;
+		positionY = y;
+		syncedPosition = position;
+		positionChanged = true;
+	}
+
+	/**
+	 * Moves the sprite in place, without creating a vector.
+	 * 
+	 * @param dx
+	 *            the distance to move along the x axis
+	 * @param dy
+	 *            the distance to move along the y axis
+	 */
+	public void translateBy(final double dx, final double dy) {
+		if (position != syncedPosition) {
+			syncPosition();
+		}
+		positionX += dx;
+		positionY += dy;
+		positionChanged = true;
+	}
+
+	/**
+	 * Takes the primitive coordinates from the <code>position</code> field
+	 * after it has been assigned directly.
+	 */
+	private void syncPosition() {
+		if (position != null) {
+			positionX = position.getX();
+			positionY = position.getY();
+		}
+		syncedPosition = position;
+		positionChanged = false;
 	}
 
 	/**
 	 * Sets the position of the Sprite's center to the desired coordinate.
-	 * Note that this method currently creates a new vector, and so 
-	 * is not idea for use within a loop as it may lead to a substantial
-	 * increase in the number of small objects created.
 	 * 
 	 * @param center the new center position
 	 * 
 	 * @see #getCenterPosition()
 	 */
 	public void setCenterPosition(final Vector2D center) {
-		position = new Vector2D(center.getX() - getWidth() / 2.0,
+		setPosition(center.getX() - getWidth() / 2.0,
 				center.getY() - getHeight() / 2.0);
 	}
 	/**
@@ -202,7 +298,7 @@ public class Sprite implements Viewable {
 	 * @see #getPosition()
 	 */
 	public Vector2D getCenterPosition() {
-		return new Vector2D(position.getX() + getWidth() / 2.0, position.getY()
+		return new Vector2D(getPositionX() + getWidth() / 2.0, getPositionY()
 				+ getHeight() / 2.0);
 	}
 
@@ -19,6 +19,7 @@ import javax.sound.sampled.LineUnavailableException;
 import javax.sound.sampled.SourceDataLine;
 import javax.sound.sampled.UnsupportedAudioFileException;
 
+import jig.engine.ResourceFactory;
 import jig.engine.audio.AudioState;
 
 /**
@@ -70,6 +71,10 @@ import jig.engine.audio.AudioState;
  * <li> <a href="http://www.jsresources.org/">Java Sound Resources </a>
  * <li> <a href="http://www.javalobby.org/java/forums/t18465.html"> Play MP3s
  * with Javazoom</a>
+ * <p>
+ * If the audio file cannot be decoded, or no Line can be acquired (e.g.,
+ * because there is no sound device, as on a headless machine), the stream
+ * is silent: it stops as soon as it is played.
  * 
  * @author Christian Holton
  * @version 1.2 Date: 06/01/2007
@@ -87,6 +92,9 @@ public class AudioStream {
 		 * thread.
 		 */
 		private StreamPlayback() {
+			if (audioInStream == null) {
+				return;
+			}
 			AudioFormat audioFormat = audioInStream.getFormat();
 			DataLine.Info info = new DataLine.Info(SourceDataLine.class,
 					audioFormat);
@@ -102,8 +110,25 @@ public class AudioStream {
 					System.out.println("No Master-Gain control");
 				}
 			} catch (LineUnavailableException ex) {
-				ex.printStackTrace();
+				silence(ex);
+			} catch (IllegalArgumentException ex) {
+				// no mixer supports a Line in this format, e.g., no sound device
+				silence(ex);
+			}
+		}
+
+		/**
+		 * Makes the stream silent, after a Line could not be acquired.
+		 */
+		private void silence(final Exception cause) {
+			if (line != null) {
+				line.close();
+				line = null;
 			}
+			gainCtrl = null;
+			ResourceFactory.getJIGLogger().warning(
+					"No audio line available, " + fileName + " will be silent: "
+							+ cause.getMessage());
 		}
 
 		public void run() {
@@ -268,7 +293,8 @@ public class AudioStream {
 			ex.printStackTrace();
 		}
 		// If we have an encoded mp3 or ogg file, decode AudioInputStream to PCM
-		if (fileName.endsWith(".mp3") || fileName.endsWith(".ogg")) {
+		if (audioInStream != null
+				&& (fileName.endsWith(".mp3") || fileName.endsWith(".ogg"))) {
 			decodeToPCM();
 		}
 	}
@@ -310,7 +336,8 @@ public class AudioStream {
 	 * will resume at the Clip's last position played .
 	 */
 	public void pause() {
-		if (line.isRunning() && getState() == AudioState.PLAYING) {
+		if (line != null && line.isRunning()
+				&& getState() == AudioState.PLAYING) {
 			lock.lock();
 			state = AudioState.PAUSED;
 		}
@@ -366,6 +393,10 @@ public class AudioStream {
 	 */
 	private void playStream(final double gain, final int numberLoops) {
 		if (getState() == AudioState.PRE) {
+			if (line == null) {
+				state = AudioState.STOPPED;
+				return;
+			}
 			setGain(gain);
 			this.numLoops = (numberLoops <= 0) ? Integer.MAX_VALUE
 					: numberLoops;
@@ -378,7 +409,8 @@ public class AudioStream {
 	 * the Line's last position played.
 	 */
 	public void resume() {
-		if (!line.isRunning() && getState() == AudioState.PAUSED) {
+		if (line != null && !line.isRunning()
+				&& getState() == AudioState.PAUSED) {
 			lock.unlock();
 			state = AudioState.PLAYING;
 		}
@@ -410,10 +442,15 @@ public class AudioStream {
 	 * able to play the audio sample.
 	 */
 	public void stop() {		
-		line.stop();
 		state = AudioState.STOPPED;
-		// release system resources
-		line.close();
+		if (line != null) {
+			line.stop();
+			// release system resources
+			line.close();
+		}
+		if (audioInStream == null) {
+			return;
+		}
 		try {
 			// release system resources
 			audioInStream.close();
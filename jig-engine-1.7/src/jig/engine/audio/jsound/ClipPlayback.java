@@ -61,6 +61,10 @@ import jig.engine.audio.AudioState;
  * <li> <a href="http://www.jsresources.org/">Java Sound Resources </a>
  * <li> <a href="http://www.javalobby.org/java/forums/t18465.html"> Play MP3s
  * with Javazoom</a>
+ * <p>
+ * If no Clip can be acquired (e.g., because there is no sound device, as on
+ * a headless machine), the playback is silent: it stops as soon as it is
+ * started, and pausing or resuming it does nothing.
  * 
  * @version 1.2 Date: 06/01/2007
  * 
@@ -83,6 +87,11 @@ public class ClipPlayback implements Runnable, LineListener {
 	 */
 	private static final double MAX_GAIN = 2.0;
 
+	/**
+	 * Whether the lack of a Clip has been logged, which is done only once.
+	 */
+	private static volatile boolean silenceLogged;
+
 	/**
 	 * A DataLine that is preloaded and has a known length. The audio file will
 	 * be loaded into memory once at instantiation and then each call to play()
@@ -128,8 +137,8 @@ public class ClipPlayback implements Runnable, LineListener {
 	 *            An input stream with a specific audio format and length.
 	 * @param audioBytes
 	 *            Holds the data from which a Clip will be created.
-	 * @throws LineUnavailableException Could not acquire a Java Sound Line of
-	 *        the desired specifications.
+	 * If a Java Sound Line of the desired specifications cannot be acquired,
+	 * the playback is silent.
 	 */
 	protected ClipPlayback(final AudioFormat audioFormat,
 			final byte[] audioBytes) {		
@@ -153,11 +162,36 @@ public class ClipPlayback implements Runnable, LineListener {
 				ResourceFactory.getJIGLogger().info("No Master-Gain control");
 			}
 		} catch (LineUnavailableException ex) {
-			ex.printStackTrace();
+			silence(ex);
+			return;
+		} catch (IllegalArgumentException ex) {
+			// no mixer supports a Clip in this format, e.g., no sound device
+			silence(ex);
+			return;
 		}
 		clip.addLineListener(this);
 	}
 
+	/**
+	 * Makes this playback silent, after a Clip could not be acquired.
+	 * 
+	 * @param cause
+	 *            the reason the Clip could not be acquired
+	 */
+	private void silence(final Exception cause) {
+		if (clip != null) {
+			clip.close();
+			clip = null;
+		}
+		gainCtrl = null;
+		if (!silenceLogged) {
+			silenceLogged = true;
+			ResourceFactory.getJIGLogger().warning(
+					"No audio line available, audio clips will be silent: "
+							+ cause.getMessage());
+		}
+	}
+
 	/**
 	 * Get the current state of this ClipPlayback (ie playing, stopped, etc).
 	 * 
@@ -172,7 +206,8 @@ public class ClipPlayback implements Runnable, LineListener {
 	 * will resume at the Clip's last position played .
 	 */
 	public void pause() {
-		if (clip.isRunning() && getState() == AudioState.PLAYING) {
+		if (clip != null && clip.isRunning()
+				&& getState() == AudioState.PLAYING) {
 			state = AudioState.PAUSED; // this must be before clip.stop()
 			clip.stop();		
 		}
@@ -195,7 +230,8 @@ public class ClipPlayback implements Runnable, LineListener {
 	 * single loop, the clip will play 6 times not 5.
 	 */
 	public void resume() {
-		if (!clip.isRunning() && getState() == AudioState.PAUSED) {
+		if (clip != null && !clip.isRunning()
+				&& getState() == AudioState.PAUSED) {
 			long loopsPlayed = clip.getMicrosecondPosition()
 					/ clip.getMicrosecondLength();
 
@@ -260,6 +296,10 @@ public class ClipPlayback implements Runnable, LineListener {
 	 */
 	protected void start(final double gain, int numberLoops,
 			final ExecutorService exec) {		
+		if (clip == null) {
+			state = AudioState.STOPPED;
+			return;
+		}
 		this.gain = gain;
 		this.numLoops = --numberLoops; // By definition, loop(0) plays once
 		if (numberLoops < 0) {
@@ -275,8 +315,10 @@ public class ClipPlayback implements Runnable, LineListener {
 	 */
 	public void stop() {
 		state = AudioState.STOPPED;
-		clip.stop();
-		clip.close();	
+		if (clip != null) {
+			clip.stop();
+			clip.close();
+		}
 	}
 
 	/**
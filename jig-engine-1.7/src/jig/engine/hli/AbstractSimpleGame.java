@@ -23,6 +23,9 @@ public abstract class AbstractSimpleGame {
 	
 	private static final double MAX_FPS = 60;
 
+	/** The default limit on simulation ticks run in a single frame. */
+	public static final int DEFAULT_MAX_TICKS_PER_FRAME = 5;
+
 	protected GameFrame gameframe;
 
 	protected Keyboard keyboard;
@@ -36,6 +39,29 @@ public abstract class AbstractSimpleGame {
 	protected GameClock theClock;
 	
 	protected SleepIfNeededTimeManager timeManager;
+
+	/** The length of a simulation tick, or 0 for a variable time step. */
+	private long tickNanos;
+
+	private int maxTicksPerFrame = DEFAULT_MAX_TICKS_PER_FRAME;
+
+	/** Game time that has passed but not yet been simulated. */
+	private long accumulatedNanos;
+
+	/** Sub-millisecond remainder carried between ticks. */
+	private long partialTickNanos;
+
+	private double interpolationAlpha = 1.0;
+
+	private boolean pipelined;
+
+	/** Draws recorded frames when rendering is pipelined, else null. */
+	private PipelinedRenderer renderer;
+
+	/** Sub-millisecond remainder carried between variable steps. */
+	private long partialMs;
+
+	private FrameProfiler profiler;
 	
 	public GameFrame getGameFrame(){
 		return gameframe;
@@ -109,6 +135,139 @@ public abstract class AbstractSimpleGame {
 		fre.render(rc);
 	}
 
+	/**
+	 * Switches the game loop between a variable and a fixed time step.
+	 * 
+	 * With a fixed time step, <code>update</code> is called once per
+	 * simulation tick, however many frames are rendered. Game time is
+	 * accumulated each frame and consumed in whole ticks, so the simulation
+	 * advances at the same rate whatever the frame rate. Since
+	 * <code>update</code> takes whole milliseconds, the step passed to it
+	 * varies by a millisecond when the tick length is fractional (e.g.,
+	 * 16 or 17 ms at 60 ticks per second) so that no time is lost; choose a
+	 * rate that divides 1000 for a constant step.
+	 * 
+	 * @param ticksPerSecond
+	 *            the number of simulation ticks per second of game time, or
+	 *            0 to update once per frame with the frame's duration (the
+	 *            default)
+	 * @see #setFixedTimestep(int, int)
+	 */
+	public void setFixedTimestep(final int ticksPerSecond) {
+		setFixedTimestep(ticksPerSecond, maxTicksPerFrame);
+	}
+
+	/**
+	 * Switches the game loop between a variable and a fixed time step,
+	 * limiting how far the simulation may catch up in one frame.
+	 * 
+	 * If rendering falls behind so badly that more than
+	 * <code>maxTicksPerFrame</code> ticks are due, the rest of the backlog
+	 * is dropped (the game slows down) rather than letting each frame take
+	 * longer than the last.
+	 * 
+	 * @param ticksPerSecond
+	 *            the number of simulation ticks per second, or 0 for a
+	 *            variable time step
+	 * @param maxTicksPerFrame
+	 *            the most ticks to run before rendering a frame, or 0 for
+	 *            no limit
+	 * @see #setFixedTimestep(int)
+	 */
+	public void setFixedTimestep(final int ticksPerSecond,
+			final int maxTicksPerFrame) {
+		if (ticksPerSecond < 0 || maxTicksPerFrame < 0) {
+			throw new IllegalArgumentException(
+					"ticks per second and per frame must not be negative");
+		}
+		tickNanos = ticksPerSecond == 0 ? 0 : GameClock.NANOS_PER_SECOND
+				/ ticksPerSecond;
+		this.maxTicksPerFrame = maxTicksPerFrame;
+		accumulatedNanos = 0;
+		partialTickNanos = 0;
+		interpolationAlpha = 1.0;
+	}
+
+	/**
+	 * @return <code>true</code> iff the game loop uses a fixed time step
+	 */
+	public boolean isFixedTimestep() {
+		return tickNanos > 0;
+	}
+
+	/**
+	 * Gets how far the game time has moved past the last simulation tick,
+	 * as a fraction of a tick. A game may use this in <code>render</code>
+	 * to draw objects part of the way between their previous and current
+	 * positions, which hides the mismatch between tick and frame rates.
+	 * 
+	 * @return a value in [0, 1); always 1 when the time step is variable,
+	 *         since the simulation is then exactly up to date
+	 * @see PositionInterpolator
+	 */
+	public double getInterpolationAlpha() {
+		return interpolationAlpha;
+	}
+
+	/**
+	 * Chooses whether frames are drawn on a separate render thread. This
+	 * should be set before <code>run</code> is called.
+	 * 
+	 * When rendering is pipelined, <code>render</code> is still called on
+	 * the game thread, between updates, but the rendering context it is
+	 * given is a <code>SceneSnapshot</code> that only records what is drawn.
+	 * The render thread then draws and presents the recorded frame while
+	 * the game thread moves on to the next update. This means:
+	 * <ul>
+	 * <li>Layers and sprites may be changed freely in <code>update</code>,
+	 * as before: the render thread never looks at them.</li>
+	 * <li>Input is still polled (e.g., <code>Keyboard.poll</code>) in
+	 * <code>update</code> on the game thread.</li>
+	 * <li><code>render</code> must only draw through image and font
+	 * resources and must not keep the rendering context or assume it
+	 * belongs to a particular backend.</li>
+	 * </ul>
+	 * 
+	 * The None backend issues scheduled key events from its rendering
+	 * context, so headless runs should not pipeline rendering.
+	 * 
+	 * @param yes
+	 *            <code>true</code> to draw frames on a render thread
+	 */
+	public void setPipelinedRendering(final boolean yes) {
+		pipelined = yes;
+	}
+
+	/**
+	 * @return <code>true</code> iff frames are drawn on a render thread
+	 */
+	public boolean isPipelinedRendering() {
+		return pipelined;
+	}
+
+	/**
+	 * Attaches a profiler that measures the update, render and present
+	 * phases of each frame, or detaches the current one.
+	 * 
+	 * @param p
+	 *            the profiler, or <code>null</code> to stop profiling
+	 * @see HeadlessRunner
+	 */
+	public void setFrameProfiler(final FrameProfiler p) {
+		profiler = p;
+	}
+
+	/**
+	 * Gets the attached profiler, e.g., so that <code>update</code> can
+	 * measure phases of its own.
+	 * 
+	 * @return the profiler, or <code>null</code> if the game is not being
+	 *         profiled
+	 */
+	public FrameProfiler getFrameProfiler() {
+		return profiler;
+	}
+
 	/**
 	 * An abstract method to perform game-specific updates on each iteration of
 	 * the game's main loop. This includes things like handling input and moving
@@ -128,57 +287,165 @@ public abstract class AbstractSimpleGame {
 	 * <li>Render objects to the back buffer.</li>
 	 * </ol>
 	 * 
+	 * If a fixed time step has been set, <code>update</code> is instead
+	 * called zero or more times per frame, once for each simulation tick
+	 * that is due, and the frame is rendered afterwards.
+	 * 
 	 * Game specific details such as handling input should be done in the
 	 * <code>update</code> method. Prologue and Postlogue functionality
 	 * can be put into <code>beforeRunning</code> and <code>afterRunning</code>
 	 * methods.
 	 * 
 	 * @see #update(long)
+	 * @see #setFixedTimestep(int, int)
 	 * @see #beforeRunning()
 	 * @see #afterRunning()
 	 */
 	public void run() {
 		beforeRunning();
-				
+		startLoop();
+		while (running && !gameframe.isExitAndCloseRequested()) {
+			loopOnce();
+		}
+		stopLoop();
+		gameframe.closeAndExit();
+	}
+
+	/**
+	 * Warms up the game loop, starts the render thread (if rendering is
+	 * pipelined) and starts the clock.
+	 */
+	void startLoop() {
 		// do two updates to warm up the JVM
 		// ...then establish the global time
 		gameLoop(0);
 		gameLoop(0);
 		
+		if (pipelined) {
+			renderer = new PipelinedRenderer(gameframe);
+			renderer.start();
+		}
 		theClock.begin();
 		
 		running = true;
-		long partialMs = 0;
-		long deltaTime;
-		long deltaMs;
-		while (running && !gameframe.isExitAndCloseRequested()) {
-			theClock.tick();
-			// if we're running really fast, then each frame may complete
-			// in a very small fraction of a second (less than 1 ms).
-			// in this case, we've got a bit of a problem, since the naive
-			// approach would simply convert deltaTime to deltaMs by dividing
-			// by NANOS_PER_MS.  That, would case deltaMS to always equal 0.
-			// So instead, we'll keep track of the remainder and add that the
-			// next time through.  This way we're not loosing those 'partial' 
-			// milliseconds.
-			deltaTime = theClock.getDeltaGameTime() + partialMs;
-			deltaMs = deltaTime / GameClock.NANOS_PER_MS;
-			partialMs = deltaTime % GameClock.NANOS_PER_MS;
-			gameLoop(deltaMs);			
+		partialMs = 0;
+	}
+
+	/**
+	 * Makes one pass through the main loop: advances the clock, then
+	 * updates the game and renders a frame.
+	 */
+	void loopOnce() {
+		theClock.tick();
+		if (tickNanos > 0) {
+			fixedStepLoop(theClock.getDeltaGameTime());
+			return;
+		}
+		// if we're running really fast, then each frame may complete
+		// in a very small fraction of a second (less than 1 ms).
+		// in this case, we've got a bit of a problem, since the naive
+		// approach would simply convert deltaTime to deltaMs by dividing
+		// by NANOS_PER_MS.  That, would case deltaMS to always equal 0.
+		// So instead, we'll keep track of the remainder and add that the
+		// next time through.  This way we're not loosing those 'partial' 
+		// milliseconds.
+		long deltaTime = theClock.getDeltaGameTime() + partialMs;
+		long deltaMs = deltaTime / GameClock.NANOS_PER_MS;
+		partialMs = deltaTime % GameClock.NANOS_PER_MS;
+		gameLoop(deltaMs);
+	}
+
+	/**
+	 * Stops the render thread, if there is one.
+	 */
+	void stopLoop() {
+		running = false;
+		if (renderer != null) {
+			renderer.stop();
+			renderer = null;
 		}
-		gameframe.closeAndExit();
 	}
 	
 	private void gameLoop(long deltaMs)
 	{
 		//render
-		RenderingContext rc = gameframe.getRenderingContext();
-		render(rc);
-		gameframe.displayBackBuffer();
-		gameframe.clearBackBuffer();
+		renderFrame();
 
 		//update
-		update(deltaMs);	
+		timedUpdate(deltaMs);	
+	}
+
+	/**
+	 * Calls <code>update</code>, measuring it if the game is being
+	 * profiled.
+	 */
+	private void timedUpdate(final long deltaMs) {
+		if (profiler == null) {
+			update(deltaMs);
+			return;
+		}
+		profiler.start(FrameProfiler.UPDATE);
+		update(deltaMs);
+		profiler.stop(FrameProfiler.UPDATE);
+	}
+
+	/**
+	 * Renders a frame, or records it for the render thread if rendering is
+	 * pipelined.
+	 */
+	private void renderFrame() {
+		FrameProfiler p = profiler;
+		if (p != null) {
+			p.start(FrameProfiler.RENDER);
+		}
+		RenderingContext rc;
+		if (renderer != null) {
+			rc = renderer.beginFrame();
+		} else {
+			rc = gameframe.getRenderingContext();
+		}
+		render(rc);
+		if (p != null) {
+			p.stop(FrameProfiler.RENDER);
+			p.start(FrameProfiler.PRESENT);
+		}
+		if (renderer != null) {
+			renderer.publish();
+		} else {
+			gameframe.displayBackBuffer();
+			gameframe.clearBackBuffer();
+		}
+		if (p != null) {
+			p.stop(FrameProfiler.PRESENT);
+		}
+	}
+
+	/**
+	 * Runs the simulation ticks that are due, then renders one frame.
+	 * 
+	 * @param deltaNanos
+	 *            the game time since the last frame
+	 */
+	private void fixedStepLoop(final long deltaNanos) {
+		accumulatedNanos += deltaNanos;
+
+		int ticks = 0;
+		long deltaTime;
+		while (accumulatedNanos >= tickNanos) {
+			if (maxTicksPerFrame > 0 && ticks == maxTicksPerFrame) {
+				// too far behind to catch up, drop the backlog
+				accumulatedNanos %= tickNanos;
+				break;
+			}
+			accumulatedNanos -= tickNanos;
+			deltaTime = tickNanos + partialTickNanos;
+			partialTickNanos = deltaTime % GameClock.NANOS_PER_MS;
+			timedUpdate(deltaTime / GameClock.NANOS_PER_MS);
+			ticks++;
+		}
+		interpolationAlpha = accumulatedNanos / (double) tickNanos;
+
+		renderFrame();
 	}
 
 	/**
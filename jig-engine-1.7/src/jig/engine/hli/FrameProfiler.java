@@ -0,0 +1,230 @@
+package jig.engine.hli;
+
+import java.io.PrintStream;
+
+import jig.engine.util.AllocationCounter;
+import jig.engine.util.Vector2D;
+
+/**
+ * Accumulates the time spent in, and the memory allocated by, each phase of
+ * a game's main loop.
+ *
+ * When a profiler is attached to a game (see
+ * {@link AbstractSimpleGame#setFrameProfiler(FrameProfiler)}) the game loop
+ * measures the {@link #UPDATE}, {@link #RENDER} and {@link #PRESENT} phases
+ * of every frame. A game may measure phases of its own, such as its
+ * physics step, by bracketing them with {@link #start(String)} and
+ * {@link #stop(String)}; phases measured inside another phase are counted in
+ * both.
+ *
+ * For each phase the profiler keeps the number of times it ran, the total
+ * time, the bytes allocated by the game thread (when
+ * <code>AllocationCounter</code> is supported) and the number of
+ * <code>Vector2D</code> objects created. Phases are kept in a few small
+ * arrays, so measuring them creates no garbage of its own.
+ */
+public class FrameProfiler {
+
+	/** The phase in which the game's <code>update</code> runs. */
+	public static final String UPDATE = "update";
+
+	/** The phase in which the game's <code>render</code> runs. */
+	public static final String RENDER = "render";
+
+	/**
+	 * The phase in which a rendered frame is displayed and the back buffer
+	 * cleared (or, if rendering is pipelined, handed to the render thread).
+	 */
+	public static final String PRESENT = "present";
+
+	private String[] names = new String[8];
+
+	private int phaseCount;
+
+	private int[] counts = new int[8];
+
+	private long[] nanos = new long[8];
+
+	private long[] bytes = new long[8];
+
+	private long[] vectors = new long[8];
+
+	private long[] startNanos = new long[8];
+
+	private long[] startBytes = new long[8];
+
+	private long[] startVectors = new long[8];
+
+	/**
+	 * Creates a profiler with the three standard phases and no
+	 * measurements.
+	 */
+	public FrameProfiler() {
+		phase(UPDATE);
+		phase(RENDER);
+		phase(PRESENT);
+	}
+
+	/**
+	 * Marks the beginning of a phase.
+	 *
+	 * @param name
+	 *            the name of the phase, which is added if it is new
+	 */
+	public void start(final String name) {
+		int i = phase(name);
+		startVectors[i] = Vector2D.nCreated;
+		startBytes[i] = AllocationCounter.getThreadAllocatedBytes();
+		startNanos[i] = System.nanoTime();
+	}
+
+	/**
+	 * Marks the end of a phase started with {@link #start(String)}.
+	 *
+	 * @param name
+	 *            the name of the phase
+	 */
+	public void stop(final String name) {
+		long t = System.nanoTime();
+		long b = AllocationCounter.getThreadAllocatedBytes();
+		int i = phase(name);
+		nanos[i] += t - startNanos[i];
+		bytes[i] += Math.max(0, b - startBytes[i]
+				- AllocationCounter.getOverhead());
+		vectors[i] += Vector2D.nCreated - startVectors[i];
+		counts[i]++;
+	}
+
+	/** Discards all measurements, keeping the phases. */
+	public void reset() {
+		for (int i = 0; i < phaseCount; i++) {
+			counts[i] = 0;
+			nanos[i] = 0;
+			bytes[i] = 0;
+			vectors[i] = 0;
+		}
+	}
+
+	/**
+	 * @return the number of phases, in the order they were first measured
+	 */
+	public int getPhaseCount() {
+		return phaseCount;
+	}
+
+	/**
+	 * @param i
+	 *            the index of a phase
+	 * @return the name of the phase
+	 */
+	public String getPhaseName(final int i) {
+		return names[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a phase
+	 * @return the number of times the phase has been measured
+	 */
+	public int getCount(final int i) {
+		return counts[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a phase
+	 * @return the total time spent in the phase, in nanoseconds
+	 */
+	public long getNanos(final int i) {
+		return nanos[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a phase
+	 * @return the total number of bytes allocated during the phase, or 0 if
+	 *         allocation cannot be counted
+	 */
+	public long getAllocatedBytes(final int i) {
+		return bytes[i];
+	}
+
+	/**
+	 * @param i
+	 *            the index of a phase
+	 * @return the total number of <code>Vector2D</code> objects created
+	 *         during the phase
+	 */
+	public long getVectorsCreated(final int i) {
+		return vectors[i];
+	}
+
+	/**
+	 * Prints a table of the measurements, averaged over a number of frames.
+	 *
+	 * @param out
+	 *            the stream to print to
+	 * @param frames
+	 *            the number of frames measured
+	 * @param wallNanos
+	 *            the wall time those frames took, used to show each phase's
+	 *            share of it
+	 */
+	public void print(final PrintStream out, final int frames,
+			final long wallNanos) {
+		int n = Math.max(1, frames);
+		out.printf("%-12s %10s %10s %7s %10s %10s%n", "phase", "total ms",
+				"us/frame", "%", "B/frame", "vec/frame");
+		for (int i = 0; i < phaseCount; i++) {
+			out.printf("%-12s %10.1f %10.1f %7.1f %10s %10.1f%n", names[i],
+					nanos[i] / 1e6, nanos[i] / 1e3 / n,
+					100.0 * nanos[i] / Math.max(1, wallNanos),
+					AllocationCounter.isSupported() ? String.format("%.0f",
+							(double) bytes[i] / n) : "n/a",
+					(double) vectors[i] / n);
+		}
+	}
+
+	/**
+	 * Finds a phase, adding it if necessary. There are only ever a handful
+	 * of phases, so a linear search is fine.
+	 */
+	private int phase(final String name) {
+		for (int i = 0; i < phaseCount; i++) {
+			if (names[i] == name || names[i].equals(name)) {
+				return i;
+			}
+		}
+		if (phaseCount == names.length) {
+			int n = phaseCount * 2;
+			names = grow(names, n);
+			counts = grow(counts, n);
+			nanos = grow(nanos, n);
+			bytes = grow(bytes, n);
+			vectors = grow(vectors, n);
+			startNanos = grow(startNanos, n);
+			startBytes = grow(startBytes, n);
+			startVectors = grow(startVectors, n);
+		}
+		names[phaseCount] = name;
+		return phaseCount++;
+	}
+
+	private static String[] grow(final String[] a, final int n) {
+		String[] g = new String[n];
+		System.arraycopy(a, 0, g, 0, a.length);
+		return g;
+	}
+
+	private static int[] grow(final int[] a, final int n) {
+		int[] g = new int[n];
+		System.arraycopy(a, 0, g, 0, a.length);
+		return g;
+	}
+
+	private static long[] grow(final long[] a, final int n) {
+		long[] g = new long[n];
+		System.arraycopy(a, 0, g, 0, a.length);
+		return g;
+	}
+}
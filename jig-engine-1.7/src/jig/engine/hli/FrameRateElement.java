@@ -2,8 +2,6 @@ package jig.engine.hli;
 
 import java.awt.Color;
 import java.awt.Font;
-import java.awt.geom.AffineTransform;
-import java.text.DecimalFormat;
 
 import jig.engine.ConsoleCommandHandler;
 import jig.engine.FontResource;
@@ -39,9 +37,6 @@ public class FrameRateElement implements Viewable, ConsoleCommandHandler {
 	/** Default size of histogram bins. */
 	static final int DEFAULT_BIN_SIZE = 10;
 
-	/** Format for how decimals should be displayed. */
-	private static final DecimalFormat DFMT = new DecimalFormat("0.0");
-
 	/** The number of bins in this histogram. */
 	private int bins;
 
@@ -71,7 +66,8 @@ public class FrameRateElement implements Viewable, ConsoleCommandHandler {
 	
 	protected FontResource font;
 	
-	protected String fpsstring;
+	/** The frame rate as displayed, redrawn only when it changes. */
+	protected TextLabel fpsLabel;
 
 	protected GameClock theClock;
 
@@ -117,7 +113,7 @@ public class FrameRateElement implements Viewable, ConsoleCommandHandler {
 		ncalculations = 0;
 		fps = 0.0;
 		fpssum = 0.0;
-		fpsstring = "Frame Rate: ?";
+		fpsLabel = new TextLabel(font, "Frame Rate: ?", p.getX(), p.getY());
 		this.npc = npc;
 		this.cpu = cpu;
 		active = true;
@@ -159,8 +155,8 @@ public class FrameRateElement implements Viewable, ConsoleCommandHandler {
 	public void render(final RenderingContext rc) {
 		if (!active) { return; }
 		
-		font.render(fpsstring, rc, AffineTransform.getTranslateInstance(
-				position.getX(), position.getY()));
+		fpsLabel.setPosition(position.getX(), position.getY());
+		fpsLabel.render(rc);
 		
 	}
 
@@ -192,8 +188,8 @@ public class FrameRateElement implements Viewable, ConsoleCommandHandler {
 			fpssum += fps;
 
 			if (ncalculations >= cpu) {
-				fpsstring = "Frame Rate: "
-						+ DFMT.format(fpssum / ncalculations);
+				fpsLabel.setText("Frame Rate: ").append(
+						fpssum / ncalculations, 1);
 				ncalculations = 0;
 				fpssum = 0.0;
 			}
@@ -254,7 +250,7 @@ public class FrameRateElement implements Viewable, ConsoleCommandHandler {
 	 *         rate.
 	 */
 	public String toString() {
-		return "[Current " + fpsstring + "]";
+		return "[Current " + fpsLabel + "]";
 	}
 	
 	/**
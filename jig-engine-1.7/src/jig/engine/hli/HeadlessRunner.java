@@ -0,0 +1,325 @@
+package jig.engine.hli;
+
+import java.awt.event.KeyEvent;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.StringTokenizer;
+
+import jig.engine.GameClock;
+import jig.engine.none.NoneResourceFactory;
+import jig.engine.util.AllocationCounter;
+
+/**
+ * Runs a game without a display and without a frame rate cap, for
+ * throughput tests and benchmarks of a complete game.
+ *
+ * Creating a runner makes the <code>NoneResourceFactory</code> the current
+ * resource factory and drives the game clock with a
+ * <code>GameClock.SyntheticTimeManager</code>, so both must happen before
+ * the game is created. Every pass through the game loop then advances the
+ * game time by exactly one frame (1/60th of a second by default) without
+ * sleeping, so the game runs as fast as the machine allows while seeing the
+ * same passage of time as it would at its normal frame rate.
+ *
+ * Input is replayed from a timeline of key presses and releases, given in
+ * milliseconds of game time since the run started. A timeline can be built
+ * with {@link #press(long, int)} and {@link #release(long, int)} or read
+ * from a script with {@link #loadScript(Reader)}. A script has one event
+ * per line, e.g.:
+ *
+ * <pre>
+ * # ms     action   key
+ * 0        press    RIGHT
+ * 2000     press    SPACE
+ * 2600     release  SPACE
+ * </pre>
+ *
+ * where the key is the name of a <code>KeyEvent.VK_</code> constant without
+ * the prefix.
+ *
+ * {@link #run(AbstractSimpleGame, int)} reports the number of frames
+ * simulated per second of wall time, the time and memory spent in each
+ * phase of the loop (see <code>FrameProfiler</code>) and the garbage
+ * collections that occurred.
+ *
+ * Since the game time no longer follows the wall clock, games that use the
+ * system time for their own timing (e.g., animations or delays) should read
+ * it from the <code>GameClock</code> or count it in <code>update</code>
+ * instead, otherwise they will not replay the same way on every run.
+ */
+public class HeadlessRunner {
+
+	/** The frame rate simulated unless another is specified. */
+	public static final double DEFAULT_FRAME_RATE = 60;
+
+	private final double frameRate;
+
+	private final FrameProfiler profiler = new FrameProfiler();
+
+	private int frames;
+
+	private long wallNanos;
+
+	private long gameNanos;
+
+	private long allocatedBytes;
+
+	private long collections;
+
+	private long collectionMs;
+
+	/**
+	 * Prepares a headless run at the default frame rate.
+	 *
+	 * @see #HeadlessRunner(double)
+	 */
+	public HeadlessRunner() {
+		this(DEFAULT_FRAME_RATE);
+	}
+
+	/**
+	 * Prepares a headless run. This must be done before the game is created.
+	 *
+	 * @param framesPerSecond
+	 *            the number of frames in one second of game time
+	 * @throws IllegalStateException
+	 *             if the game clock has already been started
+	 */
+	public HeadlessRunner(final double framesPerSecond) {
+		if (framesPerSecond <= 0) {
+			throw new IllegalArgumentException("frame rate must be positive");
+		}
+		frameRate = framesPerSecond;
+		NoneResourceFactory.makeCurrentResourceFactory();
+		GameClock.getClock().setTimeManager(
+				new GameClock.SyntheticTimeManager(framesPerSecond));
+	}
+
+	/**
+	 * @return the number of frames in one second of game time
+	 */
+	public double getFrameRate() {
+		return frameRate;
+	}
+
+	/**
+	 * Schedules a key press.
+	 *
+	 * @param ms
+	 *            the game time of the press, in milliseconds since the run
+	 *            started
+	 * @param key
+	 *            the key code (defined in <code>KeyEvent</code>)
+	 */
+	public void press(final long ms, final int key) {
+		NoneResourceFactory.scheduleKeyEvent(ms, key, true);
+	}
+
+	/**
+	 * Schedules a key release.
+	 *
+	 * @param ms
+	 *            the game time of the release, in milliseconds since the run
+	 *            started
+	 * @param key
+	 *            the key code (defined in <code>KeyEvent</code>)
+	 */
+	public void release(final long ms, final int key) {
+		NoneResourceFactory.scheduleKeyEvent(ms, key, false);
+	}
+
+	/**
+	 * Schedules the key events in a script. Blank lines and lines starting
+	 * with '#' are ignored.
+	 *
+	 * @param script
+	 *            the script, which is read to the end but not closed
+	 * @return the number of events scheduled
+	 * @throws IOException
+	 *             if the script cannot be read
+	 * @throws IllegalArgumentException
+	 *             if a line of the script cannot be understood
+	 */
+	public int loadScript(final Reader script) throws IOException {
+		BufferedReader in = new BufferedReader(script);
+		int events = 0;
+		int lineNumber = 0;
+		String line;
+		while ((line = in.readLine()) != null) {
+			lineNumber++;
+			line = line.trim();
+			if (line.length() == 0 || line.startsWith("#")) {
+				continue;
+			}
+			StringTokenizer tok = new StringTokenizer(line);
+			if (tok.countTokens() != 3) {
+				throw new IllegalArgumentException("line " + lineNumber
+						+ ": expected '<ms> press|release <key>'");
+			}
+			long ms;
+			try {
+				ms = Long.parseLong(tok.nextToken());
+			} catch (NumberFormatException e) {
+				throw new IllegalArgumentException("line " + lineNumber
+						+ ": bad time", e);
+			}
+			String action = tok.nextToken();
+			int key = keyCode(tok.nextToken(), lineNumber);
+			if ("press".equals(action)) {
+				press(ms, key);
+			} else if ("release".equals(action)) {
+				release(ms, key);
+			} else {
+				throw new IllegalArgumentException("line " + lineNumber
+						+ ": unknown action '" + action + "'");
+			}
+			events++;
+		}
+		return events;
+	}
+
+	/**
+	 * Runs a game for a number of frames, or until it asks to exit, as fast
+	 * as possible.
+	 *
+	 * Unlike <code>AbstractSimpleGame.run</code>, this returns when it is
+	 * done rather than closing the game frame.
+	 *
+	 * @param game
+	 *            the game, created after this runner
+	 * @param maxFrames
+	 *            the number of frames to run
+	 * @return the number of frames actually run
+	 */
+	public int run(final AbstractSimpleGame game, final int maxFrames) {
+		game.beforeRunning();
+		game.startLoop();
+
+		profiler.reset();
+		game.setFrameProfiler(profiler);
+
+		long gcCount0 = gcCount();
+		long gcTime0 = gcTime();
+		long game0 = GameClock.getClock().getGameTime();
+		long bytes0 = AllocationCounter.getThreadAllocatedBytes();
+		long t0 = System.nanoTime();
+
+		int n = 0;
+		while (n < maxFrames && !game.getGameFrame().isExitAndCloseRequested()) {
+			game.loopOnce();
+			n++;
+		}
+
+		wallNanos = System.nanoTime() - t0;
+		allocatedBytes = AllocationCounter.getThreadAllocatedBytes() - bytes0;
+		gameNanos = GameClock.getClock().getGameTime() - game0;
+		collections = gcCount() - gcCount0;
+		collectionMs = gcTime() - gcTime0;
+		frames = n;
+
+		game.setFrameProfiler(null);
+		game.stopLoop();
+		return n;
+	}
+
+	/**
+	 * @return the number of frames in the last run
+	 */
+	public int getFrames() {
+		return frames;
+	}
+
+	/**
+	 * @return the wall time the last run took, in nanoseconds
+	 */
+	public long getWallNanos() {
+		return wallNanos;
+	}
+
+	/**
+	 * @return the game time simulated by the last run, in nanoseconds
+	 */
+	public long getGameNanos() {
+		return gameNanos;
+	}
+
+	/**
+	 * @return the number of frames simulated per second of wall time in the
+	 *         last run
+	 */
+	public double getSimulatedFramesPerSecond() {
+		return frames * (double) GameClock.NANOS_PER_SECOND
+				/ Math.max(1, wallNanos);
+	}
+
+	/**
+	 * @return the number of bytes allocated by the game thread during the
+	 *         last run, or 0 if allocation cannot be counted
+	 */
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/**
+	 * @return the per-phase measurements of the last run
+	 */
+	public FrameProfiler getProfiler() {
+		return profiler;
+	}
+
+	/**
+	 * Prints a summary of the last run.
+	 *
+	 * @param out
+	 *            the stream to print to
+	 */
+	public void printReport(final PrintStream out) {
+		out.printf("frames          %d (%.1f s of game time)%n", frames,
+				gameNanos / 1e9);
+		out.printf("wall time       %.1f ms%n", wallNanos / 1e6);
+		out.printf("simulated fps   %.1f (%.1fx real time)%n",
+				getSimulatedFramesPerSecond(), gameNanos
+						/ (double) Math.max(1, wallNanos));
+		if (AllocationCounter.isSupported()) {
+			out.printf("allocated       %.1f KB/frame, %.1f MB/s%n",
+					allocatedBytes / 1024.0 / Math.max(1, frames),
+					allocatedBytes * 1000.0 / Math.max(1, wallNanos));
+		}
+		out.printf("gc              %d collections, %d ms%n", collections,
+				collectionMs);
+		out.println();
+		profiler.print(out, frames, wallNanos);
+	}
+
+	private static int keyCode(final String name, final int lineNumber) {
+		try {
+			return KeyEvent.class.getField("VK_" + name.toUpperCase())
+					.getInt(null);
+		} catch (Exception e) {
+			throw new IllegalArgumentException("line " + lineNumber
+					+ ": unknown key '" + name + "'");
+		}
+	}
+
+	private static long gcCount() {
+		long n = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			n += Math.max(0, gc.getCollectionCount());
+		}
+		return n;
+	}
+
+	private static long gcTime() {
+		long ms = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory
+				.getGarbageCollectorMXBeans()) {
+			ms += Math.max(0, gc.getCollectionTime());
+		}
+		return ms;
+	}
+}
@@ -0,0 +1,123 @@
+package jig.engine.hli;
+
+import jig.engine.GameFrame;
+import jig.engine.RenderingContext;
+import jig.engine.SceneSnapshot;
+
+/**
+ * Draws recorded frames onto a game frame from a thread of its own.
+ *
+ * The game thread records each frame into a <code>SceneSnapshot</code>
+ * obtained from {@link #beginFrame()} and hands it over with
+ * {@link #publish()}. The render thread draws the most recently published
+ * snapshot, presents it and waits for the next one. Three snapshots rotate
+ * between the two threads (one being recorded, one ready, one being drawn)
+ * so neither thread ever waits for the other to finish a frame; if the game
+ * thread publishes faster than frames can be drawn, the older frames are
+ * simply skipped.
+ *
+ * @see AbstractSimpleGame#setPipelinedRendering(boolean)
+ */
+class PipelinedRenderer implements Runnable {
+
+	private final GameFrame frame;
+
+	private SceneSnapshot recording = new SceneSnapshot();
+
+	private SceneSnapshot ready = new SceneSnapshot();
+
+	private SceneSnapshot drawing = new SceneSnapshot();
+
+	/** <code>true</code> iff <code>ready</code> has not been drawn yet. */
+	private boolean fresh;
+
+	private boolean stopped;
+
+	private Thread thread;
+
+	/**
+	 * Creates a renderer for a game frame.
+	 *
+	 * @param frame
+	 *            the frame to present the recorded frames on
+	 */
+	PipelinedRenderer(final GameFrame frame) {
+		this.frame = frame;
+	}
+
+	/** Starts the render thread. */
+	void start() {
+		thread = new Thread(this, "JIG Renderer");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Stops the render thread, waiting for it to finish the frame it is
+	 * drawing.
+	 */
+	void stop() {
+		synchronized (this) {
+			stopped = true;
+			notifyAll();
+		}
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Gets an empty snapshot for the game thread to record the next frame
+	 * into.
+	 *
+	 * @return the snapshot to record into
+	 */
+	SceneSnapshot beginFrame() {
+		recording.clear();
+		return recording;
+	}
+
+	/**
+	 * Hands the frame recorded since <code>beginFrame</code> to the render
+	 * thread.
+	 */
+	synchronized void publish() {
+		SceneSnapshot s = ready;
+		ready = recording;
+		recording = s;
+		fresh = true;
+		notifyAll();
+	}
+
+	/**
+	 * The render thread's loop: waits for a published frame, then draws and
+	 * presents it.
+	 */
+	public void run() {
+		while (true) {
+			synchronized (this) {
+				while (!fresh && !stopped) {
+					try {
+						wait();
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+				if (stopped) {
+					return;
+				}
+				SceneSnapshot s = drawing;
+				drawing = ready;
+				ready = s;
+				fresh = false;
+			}
+
+			RenderingContext rc = frame.getRenderingContext();
+			drawing.play(rc);
+			frame.displayBackBuffer();
+			frame.clearBackBuffer();
+		}
+	}
+}
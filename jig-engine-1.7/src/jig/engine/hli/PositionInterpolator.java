@@ -0,0 +1,144 @@
+package jig.engine.hli;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import jig.engine.physics.Body;
+import jig.engine.physics.BodyLayer;
+
+/**
+ * Draws the members of some layers part of the way between where they were
+ * at the previous simulation tick and where they are now, which hides the
+ * mismatch between tick and frame rates in a game with a fixed time step.
+ *
+ * The game calls {@link #record()} at the start of each tick, before
+ * anything moves. In <code>render</code>, it calls {@link #apply(double)}
+ * with the game's interpolation alpha before the layers are drawn and
+ * {@link #restore()} afterwards, which puts every body back exactly where
+ * the simulation left it. Bodies added since the last tick, and bodies that
+ * moved further than a given distance in one tick (e.g., because they were
+ * respawned), are drawn where they are.
+ *
+ * @see AbstractSimpleGame#getInterpolationAlpha()
+ */
+public class PositionInterpolator {
+
+	private final List<BodyLayer<? extends Body>> layers =
+		new ArrayList<BodyLayer<? extends Body>>();
+
+	private final double maxDistance;
+
+	/** The members of the layers at the last tick, in layer order. */
+	private Body[] bodies = new Body[16];
+
+	/** Where each member was at the last tick. */
+	private double[] lastX = new double[16], lastY = new double[16];
+
+	/** Where each moved member really is, while it is moved. */
+	private double[] currentX = new double[16], currentY = new double[16];
+
+	private boolean[] moved = new boolean[16];
+
+	private int count;
+
+	/**
+	 * Creates an interpolator with no layers.
+	 *
+	 * @param maxDistance
+	 *            the furthest a body may move along either axis in one tick
+	 *            and still be interpolated
+	 */
+	public PositionInterpolator(final double maxDistance) {
+		this.maxDistance = maxDistance;
+	}
+
+	/**
+	 * Interpolates the members of a layer.
+	 *
+	 * @param layer
+	 *            the layer
+	 */
+	public void addLayer(final BodyLayer<? extends Body> layer) {
+		layers.add(layer);
+	}
+
+	/**
+	 * Records where the members of the layers are, at the start of a tick.
+	 */
+	public void record() {
+		count = 0;
+		for (BodyLayer<? extends Body> layer : layers) {
+			int n = layer.size();
+			for (int i = 0; i < n; i++) {
+				if (count == bodies.length) {
+					grow();
+				}
+				Body b = layer.get(i);
+				bodies[count] = b;
+				lastX[count] = b.getPositionX();
+				lastY[count] = b.getPositionY();
+				count++;
+			}
+		}
+	}
+
+	/**
+	 * Moves the members of the layers back towards where they were at the
+	 * start of the last tick, for rendering.
+	 *
+	 * @param alpha
+	 *            how far the game time is past the last tick, as a fraction
+	 *            of a tick
+	 */
+	public void apply(final double alpha) {
+		int k = 0;
+		for (BodyLayer<? extends Body> layer : layers) {
+			int n = layer.size();
+			for (int i = 0; i < n && k < count; i++, k++) {
+				Body b = layer.get(i);
+				moved[k] = false;
+				if (bodies[k] != b) {
+					continue;
+				}
+				double x = b.getPositionX();
+				double y = b.getPositionY();
+				double dx = x - lastX[k];
+				double dy = y - lastY[k];
+				if ((dx == 0 && dy == 0) || Math.abs(dx) > maxDistance
+						|| Math.abs(dy) > maxDistance) {
+					continue;
+				}
+				currentX[k] = x;
+				currentY[k] = y;
+				moved[k] = true;
+				b.setPosition(lastX[k] + dx * alpha, lastY[k] + dy * alpha);
+			}
+		}
+		for (; k < count; k++) {
+			moved[k] = false;
+		}
+	}
+
+	/**
+	 * Puts the members moved by {@link #apply(double)} back where they are.
+	 */
+	public void restore() {
+		for (int k = 0; k < count; k++) {
+			if (moved[k]) {
+				bodies[k].setPosition(currentX[k], currentY[k]);
+				moved[k] = false;
+			}
+		}
+	}
+
+	private void grow() {
+		int c = bodies.length * 2;
+		bodies = Arrays.copyOf(bodies, c);
+		lastX = Arrays.copyOf(lastX, c);
+		lastY = Arrays.copyOf(lastY, c);
+		currentX = Arrays.copyOf(currentX, c);
+		currentY = Arrays.copyOf(currentY, c);
+		moved = Arrays.copyOf(moved, c);
+	}
+}
@@ -4,12 +4,15 @@ import java.awt.Rectangle;
 import java.awt.geom.AffineTransform;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Point2D;
+import java.util.IdentityHashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import jig.engine.RenderingContext;
 import jig.engine.ViewableLayer;
 import jig.engine.physics.Body;
+import jig.engine.physics.BodyLayer;
 import jig.engine.util.Vector2D;
 
 /**
@@ -20,6 +23,10 @@ import jig.engine.util.Vector2D;
  * The Scrolling Screen Game supports translating between the world and screen
  * coordinate systems using an AffineTransform
  * 
+ * Layers of bodies can be rendered with viewport culling (see
+ * {@link #setViewportCulling(BodyLayer, boolean)}), in which case only the
+ * bodies that intersect the screen are drawn.
+ * 
  * @author Aaron Mills
  * 
  */
@@ -40,6 +47,10 @@ public class ScrollingScreenGame extends AbstractSimpleGame {
 	private Rectangle worldBounds;
 
 	private Vector2D screenCenter;
+
+	/** Cullers for the layers rendered with viewport culling. */
+	private final Map<ViewableLayer, ViewportCuller> cullers =
+		new IdentityHashMap<ViewableLayer, ViewportCuller>();
 	
 	/**
 	 * Creates a new static screen game.
@@ -161,14 +172,58 @@ public class ScrollingScreenGame extends AbstractSimpleGame {
 	public void render(final RenderingContext rc) {
 		AffineTransform tr = rc.getTransform();
 		rc.setTransform(worldToScreenTransform);
+
+		// the transform is always a translation, see matchPoints
+		double left = -worldToScreenTransform.getTranslateX();
+		double top = -worldToScreenTransform.getTranslateY();
+		double right = left + gameframe.getWidth();
+		double bottom = top + gameframe.getHeight();
+
+		ViewportCuller c;
 		for (ViewableLayer v : gameObjectLayers) {
-			v.render(rc);
+			c = cullers.isEmpty() ? null : cullers.get(v);
+			if (c == null) {
+				v.render(rc);
+			} else {
+				c.render(rc, left, top, right, bottom);
+			}
 		}
 		rc.setTransform(tr);
 		super.render(rc);
 
 	}
 
+	/**
+	 * Renders a layer with viewport culling: bodies in the layer that lie
+	 * entirely off the screen are not drawn. The layer should also be in
+	 * <code>gameObjectLayers</code>.
+	 * 
+	 * @param layer
+	 *            the layer to cull
+	 * @param staticLayer
+	 *            <code>true</code> if the bodies in the layer never move, in
+	 *            which case they are indexed by position. If bodies are
+	 *            moved or replaced without changing the size of the layer,
+	 *            call <code>invalidate</code> on the returned culler.
+	 * @return the culler used to render the layer
+	 */
+	public ViewportCuller setViewportCulling(
+			final BodyLayer<? extends Body> layer, final boolean staticLayer) {
+		ViewportCuller c = new ViewportCuller(layer, staticLayer);
+		cullers.put(layer, c);
+		return c;
+	}
+
+	/**
+	 * Renders a layer without viewport culling (the default).
+	 * 
+	 * @param layer
+	 *            the layer
+	 */
+	public void removeViewportCulling(final BodyLayer<? extends Body> layer) {
+		cullers.remove(layer);
+	}
+
 	/**
 	 * Sets the scrolling boundary of the world. You cannot scroll beyond it.
 	 * 
@@ -0,0 +1,354 @@
+package jig.engine.hli;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+
+import jig.engine.FontResource;
+import jig.engine.ImageResource;
+import jig.engine.RenderingContext;
+import jig.engine.ResourceFactory;
+import jig.engine.Viewable;
+
+/**
+ * A line of text, such as a score or a timer on a heads-up display, that is
+ * drawn from an image of the whole line rather than glyph by glyph.
+ *
+ * The image is made when the label is first rendered, and made again only
+ * when the text has changed since. The text is held in a character buffer
+ * that is filled with the <code>append</code> methods, which format numbers
+ * themselves, so a label whose text is set every frame allocates nothing
+ * unless the text actually changes:
+ *
+ * <pre>
+ * score.clear().append(&quot;SCORE &quot;).append(points);
+ * score.render(rc);
+ * </pre>
+ *
+ * Like other heads-up display elements, a label is rendered at a fixed
+ * position on top of the rendering context's current transform.
+ *
+ * @see FrameRateElement
+ */
+public class TextLabel implements Viewable {
+
+	private static final int INITIAL_CAPACITY = 16;
+
+	/** The largest number of digits of a <code>long</code>. */
+	private static final int MAX_DIGITS = 19;
+
+	private final FontResource font;
+
+	private char[] text = new char[INITIAL_CAPACITY];
+
+	private int length;
+
+	/** The text the image was made from. */
+	private char[] imageText = new char[INITIAL_CAPACITY];
+
+	/** The length of the text the image was made from, -1 if none. */
+	private int imageLength = -1;
+
+	/** The image of the text, or <code>null</code> if nothing shows. */
+	private ImageResource image;
+
+	private final char[] digits = new char[MAX_DIGITS];
+
+	private final AffineTransform at = new AffineTransform();
+
+	private double x;
+
+	private double y;
+
+	protected boolean active;
+
+	/**
+	 * Creates an empty label.
+	 *
+	 * @param font
+	 *            the font to draw the text with
+	 * @param x
+	 *            the x coordinate of the upper left corner of the text
+	 * @param y
+	 *            the y coordinate of the upper left corner of the text
+	 */
+	public TextLabel(final FontResource font, final double x, final double y) {
+		this.font = font;
+		this.x = x;
+		this.y = y;
+		active = true;
+	}
+
+	/**
+	 * Creates a label with some text.
+	 *
+	 * @param font
+	 *            the font to draw the text with
+	 * @param text
+	 *            the text
+	 * @param x
+	 *            the x coordinate of the upper left corner of the text
+	 * @param y
+	 *            the y coordinate of the upper left corner of the text
+	 */
+	public TextLabel(final FontResource font, final CharSequence text,
+			final double x, final double y) {
+		this(font, x, y);
+		append(text);
+	}
+
+	/**
+	 * Moves the label.
+	 *
+	 * @param x
+	 *            the x coordinate of the upper left corner of the text
+	 * @param y
+	 *            the y coordinate of the upper left corner of the text
+	 */
+	public void setPosition(final double x, final double y) {
+		this.x = x;
+		this.y = y;
+	}
+
+	/**
+	 * Empties the label's text.
+	 *
+	 * @return this label
+	 */
+	public TextLabel clear() {
+		length = 0;
+		return this;
+	}
+
+	/**
+	 * Replaces the label's text.
+	 *
+	 * @param s
+	 *            the new text
+	 * @return this label
+	 */
+	public TextLabel setText(final CharSequence s) {
+		length = 0;
+		return append(s);
+	}
+
+	/**
+	 * Appends a character to the label's text.
+	 *
+	 * @param c
+	 *            the character
+	 * @return this label
+	 */
+	public TextLabel append(final char c) {
+		if (length == text.length) {
+			char[] t = new char[text.length * 2];
+			System.arraycopy(text, 0, t, 0, length);
+			text = t;
+		}
+		text[length++] = c;
+		return this;
+	}
+
+	/**
+	 * Appends some characters to the label's text.
+	 *
+	 * @param s
+	 *            the characters
+	 * @return this label
+	 */
+	public TextLabel append(final CharSequence s) {
+		for (int i = 0, n = s.length(); i < n; i++) {
+			append(s.charAt(i));
+		}
+		return this;
+	}
+
+	/**
+	 * Appends the decimal representation of a number to the label's text,
+	 * just as <code>String.valueOf</code> would write it.
+	 *
+	 * @param v
+	 *            the number
+	 * @return this label
+	 */
+	public TextLabel append(final long v) {
+		return append(v, 1);
+	}
+
+	/**
+	 * Appends the decimal representation of a number to the label's text,
+	 * padded with leading zeros to a number of digits, e.g., for a score
+	 * shown as <code>000700</code>.
+	 *
+	 * @param v
+	 *            the number
+	 * @param minDigits
+	 *            the least number of digits to write
+	 * @return this label
+	 */
+	public TextLabel append(final long v, final int minDigits) {
+		if (v == Long.MIN_VALUE) {
+			// its magnitude does not fit in a long
+			return append(Long.toString(v));
+		}
+		long m = v;
+		if (m < 0) {
+			append('-');
+			m = -m;
+		}
+		int n = 0;
+		do {
+			digits[n++] = (char) ('0' + m % 10);
+			m /= 10;
+		} while (m != 0);
+		for (int i = n; i < minDigits; i++) {
+			append('0');
+		}
+		while (n > 0) {
+			append(digits[--n]);
+		}
+		return this;
+	}
+
+	/**
+	 * Appends a number to the label's text, rounded half up to a number of
+	 * decimal places, e.g., for a frame rate shown as <code>59.9</code>.
+	 *
+	 * @param v
+	 *            the number, which should be finite and of a magnitude
+	 *            representable as a <code>long</code> once scaled
+	 * @param decimals
+	 *            the number of decimal places, at most 18
+	 * @return this label
+	 */
+	public TextLabel append(final double v, final int decimals) {
+		long scale = 1;
+		for (int i = 0; i < decimals; i++) {
+			scale *= 10;
+		}
+		long scaled = Math.round(Math.abs(v) * scale);
+		if (v < 0 && scaled != 0) {
+			append('-');
+		}
+		append(scaled / scale);
+		if (decimals > 0) {
+			append('.');
+			append(scaled % scale, decimals);
+		}
+		return this;
+	}
+
+	/**
+	 * @return the number of characters in the label's text
+	 */
+	public int length() {
+		return length;
+	}
+
+	/**
+	 * @return the label's text
+	 */
+	public String getText() {
+		return new String(text, 0, length);
+	}
+
+	/**
+	 * Renders the label, first making an image of the text if it has
+	 * changed since the label was last rendered.
+	 *
+	 * @param rc
+	 *            the rendering context
+	 */
+	public void render(final RenderingContext rc) {
+		if (!active) {
+			return;
+		}
+		if (!isImageCurrent()) {
+			makeImage();
+		}
+		if (image != null) {
+			at.setToTranslation(x, y);
+			image.render(rc, at);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the label is rendered
+	 */
+	public boolean isActive() {
+		return active;
+	}
+
+	/**
+	 * @param a
+	 *            <code>true</code> iff the label should be rendered
+	 */
+	public void setActivation(final boolean a) {
+		active = a;
+	}
+
+	/**
+	 * @return the label's text
+	 */
+	@Override
+	public String toString() {
+		return getText();
+	}
+
+	private boolean isImageCurrent() {
+		if (imageLength != length) {
+			return false;
+		}
+		for (int i = 0; i < length; i++) {
+			if (imageText[i] != text[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Draws the text onto a new image, trimmed to the pixels the font
+	 * actually touched (glyphs may reach a little past their advance).
+	 */
+	private void makeImage() {
+		if (imageText.length < length) {
+			imageText = new char[text.length];
+		}
+		System.arraycopy(text, 0, imageText, 0, length);
+		imageLength = length;
+		image = null;
+
+		String s = new String(text, 0, length);
+		int advance = 0;
+		for (int i = 0; i < length; i++) {
+			advance += font.getCharWidth(text[i]);
+		}
+		int h = font.getHeight();
+		if (advance == 0 || h <= 0) {
+			return;
+		}
+
+		// leave room for the glyphs to overhang the line
+		BufferedImage img = new BufferedImage(advance + h, 2 * h,
+				BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = img.createGraphics();
+		font.draw(s, g, new AffineTransform());
+		g.dispose();
+
+		int w = 0;
+		int bottom = 0;
+		for (int py = 0; py < img.getHeight(); py++) {
+			for (int px = 0; px < img.getWidth(); px++) {
+				if ((img.getRGB(px, py) >>> 24) != 0) {
+					w = Math.max(w, px + 1);
+					bottom = py + 1;
+				}
+			}
+		}
+		if (w > 0) {
+			image = ResourceFactory.getFactory().createImage(
+					img.getSubimage(0, 0, w, bottom));
+		}
+	}
+}
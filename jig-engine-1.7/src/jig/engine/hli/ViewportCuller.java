@@ -0,0 +1,207 @@
+package jig.engine.hli;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+import jig.engine.RenderingContext;
+import jig.engine.physics.Body;
+import jig.engine.physics.BodyLayer;
+
+/**
+ * Renders only the members of a <code>BodyLayer</code> whose bounding boxes
+ * (position, width and height) intersect a visible region of the world.
+ * Members are still rendered in layer order, so overlapping bodies are drawn
+ * just as they would be without culling.
+ *
+ * For a static layer, one whose members neither move nor change, the
+ * members are kept sorted by their left edge so that the visible ones are
+ * found with a binary search rather than a scan of the whole layer. The
+ * index is rebuilt when the size of the layer changes, or when
+ * {@link #invalidate()} is called. Members of a dynamic layer are simply
+ * tested one by one, which is cheap compared to drawing them.
+ *
+ * Bodies that draw outside their own bounds should not be placed in a
+ * culled layer.
+ *
+ * @see ScrollingScreenGame#setViewportCulling(BodyLayer, boolean)
+ */
+public class ViewportCuller {
+
+	private final BodyLayer<? extends Body> layer;
+
+	private final boolean staticLayer;
+
+	private boolean indexValid;
+
+	/** The members of a static layer, in layer order. */
+	private Body[] members = new Body[0];
+
+	private int memberCount;
+
+	/** Member indices sorted by left edge, and the matching left edges. */
+	private int[] byX = new int[0];
+
+	private double[] sortedX = new double[0];
+
+	private double maxWidth;
+
+	private int[] visible = new int[16];
+
+	/**
+	 * Creates a culler for a layer.
+	 *
+	 * @param layer
+	 *            the layer to render
+	 * @param staticLayer
+	 *            <code>true</code> if the members of the layer do not move
+	 */
+	public ViewportCuller(final BodyLayer<? extends Body> layer,
+			final boolean staticLayer) {
+		this.layer = layer;
+		this.staticLayer = staticLayer;
+	}
+
+	/**
+	 * @return the layer rendered by this culler
+	 */
+	public BodyLayer<? extends Body> getLayer() {
+		return layer;
+	}
+
+	/**
+	 * @return <code>true</code> if the layer is indexed as a static layer
+	 */
+	public boolean isStatic() {
+		return staticLayer;
+	}
+
+	/**
+	 * Marks the index of a static layer as out of date, e.g., because its
+	 * members were replaced or moved. The index is rebuilt the next time
+	 * the layer is rendered.
+	 */
+	public void invalidate() {
+		indexValid = false;
+	}
+
+	/**
+	 * Renders the members of the layer that intersect the specified region.
+	 *
+	 * @param rc
+	 *            the rendering context, already transformed to world
+	 *            coordinates
+	 * @param left
+	 *            the left edge of the visible region, in world coordinates
+	 * @param top
+	 *            the top edge of the visible region
+	 * @param right
+	 *            the right edge of the visible region
+	 * @param bottom
+	 *            the bottom edge of the visible region
+	 */
+	public void render(final RenderingContext rc, final double left,
+			final double top, final double right, final double bottom) {
+		if (staticLayer) {
+			renderIndexed(rc, left, top, right, bottom);
+			return;
+		}
+
+		int n = layer.size();
+		Body b;
+		for (int i = 0; i < n; i++) {
+			b = layer.get(i);
+			if (intersects(b, left, top, right, bottom)) {
+				b.render(rc);
+			}
+		}
+	}
+
+	private void renderIndexed(final RenderingContext rc, final double left,
+			final double top, final double right, final double bottom) {
+		if (!indexValid || layer.size() != memberCount) {
+			build();
+		}
+
+		// the first member whose left edge could reach into the region
+		int lo = 0;
+		int hi = memberCount;
+		double minX = left - maxWidth;
+		while (lo < hi) {
+			int mid = (lo + hi) >>> 1;
+			if (sortedX[mid] < minX) {
+				lo = mid + 1;
+			} else {
+				hi = mid;
+			}
+		}
+
+		int count = 0;
+		for (int k = lo; k < memberCount && sortedX[k] < right; k++) {
+			int i = byX[k];
+			if (intersects(members[i], left, top, right, bottom)) {
+				if (count == visible.length) {
+					int[] grown = new int[visible.length * 2];
+					System.arraycopy(visible, 0, grown, 0, count);
+					visible = grown;
+				}
+				// insertion sort back into layer order
+				int j = count++;
+				while (j > 0 && visible[j - 1] > i) {
+					visible[j] = visible[j - 1];
+					j--;
+				}
+				visible[j] = i;
+			}
+		}
+
+		for (int k = 0; k < count; k++) {
+			members[visible[k]].render(rc);
+		}
+	}
+
+	/**
+	 * Copies the members of the layer and sorts them by left edge.
+	 */
+	private void build() {
+		int n = layer.size();
+		if (members.length < n) {
+			members = new Body[n];
+			byX = new int[n];
+			sortedX = new double[n];
+		}
+		maxWidth = 0;
+		for (int i = 0; i < n; i++) {
+			members[i] = layer.get(i);
+			maxWidth = Math.max(maxWidth, members[i].getWidth());
+		}
+		for (int i = n; i < memberCount; i++) {
+			members[i] = null;
+		}
+		memberCount = n;
+
+		// rebuilds are rare, so boxing the indices for the sort is fine
+		Integer[] order = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			order[i] = i;
+		}
+		Arrays.sort(order, new Comparator<Integer>() {
+			public int compare(final Integer a, final Integer b) {
+				return Double.compare(members[a].getPositionX(),
+						members[b].getPositionX());
+			}
+		});
+		for (int k = 0; k < n; k++) {
+			byX[k] = order[k];
+			sortedX[k] = members[byX[k]].getPositionX();
+		}
+		indexValid = true;
+	}
+
+	private static boolean intersects(final Body b, final double left,
+			final double top, final double right, final double bottom) {
+		double x = b.getPositionX();
+		double y = b.getPositionY();
+		return x < right && y < bottom && x + b.getWidth() > left
+				&& y + b.getHeight() > top;
+	}
+}
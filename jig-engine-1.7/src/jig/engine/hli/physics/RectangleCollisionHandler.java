@@ -1,11 +1,15 @@
 package jig.engine.hli.physics;
 
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import jig.engine.physics.AABBTree;
 import jig.engine.physics.BodyLayer;
 import jig.engine.physics.vpe.CollisionHandler;
+import jig.engine.physics.vpe.RectangleIndex;
+import jig.engine.physics.vpe.UniformGrid;
 import jig.engine.physics.vpe.VanillaAARectangle;
 import jig.engine.physics.vpe.VanillaSphere;
 import jig.engine.util.Vector2D;
@@ -16,6 +20,41 @@ import jig.engine.util.Vector2D;
  * A simple collision handler that models elastic collisions between pairs of
  * spheres. Rotation and friction are not dealt with by this model.
  * 
+ * If the handler is created with a cell size, the 'second' layer is treated
+ * as static: its members are indexed in a <code>UniformGrid</code> and each
+ * body in the 'first' layer is only tested against the members that share a
+ * grid cell with it. The index is rebuilt whenever the handler is told the
+ * static layer has changed (see {@link #invalidateIndex()}) or the size of
+ * the layer changes.
+ * 
+ * If the 'second' layer is itself a <code>RectangleIndex</code> (e.g., a
+ * <code>TileLayer</code>), the layer is queried directly and no grid is
+ * built.
+ * 
+ * Otherwise, the handler can find the members of the 'second' layer near
+ * each body of the 'first' with a dynamic tree (see
+ * {@link #setBroadPhase(AABBTree)}), which suits layers of bodies that move
+ * about. Without an index or a tree, every pair of bodies is tested.
+ * 
+ * Bodies are normally tested where they end up after their update, so a
+ * body that moves further than the size of a static body in one step can
+ * pass through it. If the handler is made continuous (see
+ * {@link #setContinuous(boolean, double)}) and the 'second' layer is
+ * indexed, each body is first swept from where it was before its update to
+ * where it is now; if it would enter a static body along the way and end up
+ * more than a given depth inside it, the body is moved back along its path
+ * to where it is that deep. The usual overlap test then reports the
+ * collision to <code>collide</code>, which resolves it as it would a slow
+ * body.
+ * 
+ * Bodies that walk along the ground touch the same few static bodies step
+ * after step. If contact caching is turned on (see
+ * {@link #setContactCache(boolean)}), the handler remembers, for each body,
+ * which cells of the index it covered and which static bodies were found
+ * there. As long as the body stays in the same cells and the index is not
+ * modified, only those static bodies are tested again, and the index is
+ * not searched.
+ * 
  * @param <A>
  *            the class type of objects in the 'first' layer. This should be the
  *            most specific type that covers all objects in the layer.
@@ -40,6 +79,29 @@ public abstract class RectangleCollisionHandler
 	protected List<A> layer1Additions;
 	protected List<B> layer2Additions;
 
+	/** Broad phase index of layer2, or <code>null</code> for brute force. */
+	private RectangleIndex<B> index;
+
+	/** The grid built from layer2, if this handler maintains one. */
+	private UniformGrid<B> grid;
+
+	private boolean indexValid;
+
+	/** The tree over layer2, used if there is no index. */
+	private AABBTree<B> tree;
+
+	private boolean continuous;
+
+	/** How deep a swept body is let into a static body. */
+	private double maxPenetration;
+
+	/**
+	 * The static bodies found near each body of the first layer, by the
+	 * body's position in the layer, or <code>null</code> if contacts are
+	 * not cached.
+	 */
+	private CachedContacts[] cache;
+
 	/**
 	 * Creates a collison handler to deal with interactions between objects in
 	 * two layers of spheres.
@@ -49,12 +111,127 @@ public abstract class RectangleCollisionHandler
 	 * @param layer2
 	 *            the 'second' layer of objects
 	 */
+	@SuppressWarnings("unchecked")
 	public RectangleCollisionHandler(final BodyLayer<A> layer1,
 			final BodyLayer<B> layer2) {
 		this.layer1 = layer1;
 		this.layer2 = layer2;
 		layer1Additions = new LinkedList<A>();
 		layer2Additions = new LinkedList<B>();
+		if (layer2 instanceof RectangleIndex) {
+			index = (RectangleIndex<B>) layer2;
+		}
+	}
+
+	/**
+	 * Creates a collision handler in which the 'second' layer is static and
+	 * indexed by a uniform grid.
+	 * 
+	 * @param layer1
+	 *            the 'first' layer of objects
+	 * @param layer2
+	 *            the 'second' layer of objects, which should not move
+	 * @param cellSize
+	 *            the size of the grid cells, typically the world's tile size
+	 */
+	public RectangleCollisionHandler(final BodyLayer<A> layer1,
+			final BodyLayer<B> layer2, final double cellSize) {
+		this(layer1, layer2);
+		if (index == null) {
+			grid = new UniformGrid<B>(cellSize);
+			index = grid;
+		}
+	}
+
+	/**
+	 * Marks the index of the static layer as out of date, typically because
+	 * the layer was cleared and reloaded. The index is rebuilt at the start
+	 * of the next call to <code>findAndReconcileCollisions</code>.
+	 * 
+	 * If this method is called from within <code>collide</code>, the current
+	 * collision pass ends immediately after <code>collide</code> returns. This
+	 * also holds when the 'second' layer is searched with a tree, so that a
+	 * callback which changes the layers is not handed bodies found before
+	 * the change.
+	 */
+	public void invalidateIndex() {
+		indexValid = false;
+	}
+
+	/**
+	 * Sets the tree used to find the members of the 'second' layer near
+	 * each body of the 'first', unless the layer is indexed. The handler
+	 * syncs the tree with the layer at the start of each collision pass, so
+	 * the tree should not be shared with other layers.
+	 * 
+	 * @param tree
+	 *            the tree, or <code>null</code> to test every pair
+	 */
+	public void setBroadPhase(final AABBTree<B> tree) {
+		this.tree = tree;
+	}
+
+	/**
+	 * Turns swept (continuous) collision detection against the static layer
+	 * on or off. It is off by default, and has no effect unless the 'second'
+	 * layer is indexed. The bodies of the 'first' layer must be updated by
+	 * a <code>VanillaPhysicsEngine</code>, which records where each body
+	 * starts its step.
+	 * 
+	 * The depth should be less than what <code>collide</code> can resolve,
+	 * e.g., the offset used by
+	 * {@link VanillaAARectangle#isOnTopSide(VanillaAARectangle)}, and
+	 * greater than how far a body usually moves in one step, so that slow
+	 * bodies are left alone.
+	 * 
+	 * @param yes
+	 *            <code>true</code> iff bodies should be swept
+	 * @param maxPenetration
+	 *            how far a body may move into a static body in one step
+	 */
+	public void setContinuous(final boolean yes, final double maxPenetration) {
+		if (yes && !(maxPenetration > 0)) {
+			throw new IllegalArgumentException(
+					"the penetration depth must be positive");
+		}
+		continuous = yes;
+		this.maxPenetration = maxPenetration;
+	}
+
+	/**
+	 * @return <code>true</code> iff bodies are swept against the static layer
+	 */
+	public boolean isContinuous() {
+		return continuous;
+	}
+
+	/**
+	 * Turns the caching of the static bodies found near each body on or
+	 * off. It is off by default, and has no effect unless the 'second' layer
+	 * is indexed.
+	 * 
+	 * When the cache is on, the index is searched over the whole cells a
+	 * body covers rather than over the body itself, so a static body that
+	 * spans several cells may be tested against a body it does not overlap.
+	 * 
+	 * @param yes
+	 *            <code>true</code> iff the static bodies near each body
+	 *            should be cached
+	 */
+	public void setContactCache(final boolean yes) {
+		if (!yes) {
+			cache = null;
+		} else if (cache == null) {
+			cache = new CachedContacts[16];
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the static bodies near each body are
+	 *         cached
+	 */
+	public boolean isContactCache() {
+		return cache != null;
 	}
 
 	/**
@@ -66,6 +243,28 @@ public abstract class RectangleCollisionHandler
 	 * @see #collide(VanillaSphere, VanillaSphere)
 	 */
 	public void findAndReconcileCollisions() {
+		if (index != null) {
+			findAndReconcileIndexedCollisions();
+		} else if (tree != null) {
+			findAndReconcileTreeCollisions();
+		} else {
+			findAndReconcileAllCollisions();
+		}
+		for (Iterator<A> iv = layer1Additions.iterator(); iv.hasNext();) {
+			layer1.add(iv.next());
+			iv.remove();
+		}
+		for (Iterator<B> iv = layer2Additions.iterator(); iv.hasNext();) {
+			layer2.add(iv.next());
+			iv.remove();
+		}
+
+	}
+
+	/**
+	 * Tests every pair of bodies from the two layers.
+	 */
+	private void findAndReconcileAllCollisions() {
 		int l1s = layer1.size();
 		int l2s = layer2.size();
 		int i, j;
@@ -77,34 +276,267 @@ public abstract class RectangleCollisionHandler
 
 		for (i = 0; i < l1s; i++) {
 			sphereLayer1 = layer1.get(i);
-			if (!sphereLayer1.isActive()) {
+			if (!sphereLayer1.isActive() || sphereLayer1.isSleeping()) {
 				continue;
 			}
 			
 
 			for (j = 0; j < l2s; j++) {
 				sphereLayer2 = layer2.get(j);
-				if (!sphereLayer2.isActive()) {
+				if (!sphereLayer2.isActive() || sphereLayer2.isSleeping()) {
 					continue;
 				}
 				
 
-				if (sphereLayer1.getBoundingBox().intersects(sphereLayer2.getBoundingBox())) {
+				if (sphereLayer1.overlaps(sphereLayer2)) {
 					collide(sphereLayer1, sphereLayer2);
 
 				}
 			}
 
 		}
-		for (Iterator<A> iv = layer1Additions.iterator(); iv.hasNext();) {
-			layer1.add(iv.next());
-			iv.remove();
+	}
+
+	/**
+	 * Tests each body in the first layer against the members of the second
+	 * layer reported by the tree.
+	 */
+	private void findAndReconcileTreeCollisions() {
+		tree.sync(layer2);
+		indexValid = true;
+
+		int l1s = layer1.size();
+		int i, j, n;
+
+		A rectLayer1;
+		B rectLayer2;
+
+		for (i = 0; i < l1s; i++) {
+			rectLayer1 = layer1.get(i);
+			if (!rectLayer1.isActive() || rectLayer1.isSleeping()) {
+				continue;
+			}
+
+			n = tree.query(rectLayer1.getPositionX(),
+					rectLayer1.getPositionY(), rectLayer1.getWidth(),
+					rectLayer1.getHeight());
+
+			for (j = 0; j < n; j++) {
+				rectLayer2 = tree.getCandidate(j);
+				if (!rectLayer2.isActive() || rectLayer2.isSleeping()) {
+					continue;
+				}
+
+				if (rectLayer1.overlaps(rectLayer2)) {
+					collide(rectLayer1, rectLayer2);
+
+					if (!indexValid) {
+						// the layers were changed by the callback
+						return;
+					}
+				}
+			}
 		}
-		for (Iterator<B> iv = layer2Additions.iterator(); iv.hasNext();) {
-			layer2.add(iv.next());
-			iv.remove();
+	}
+
+	/**
+	 * Tests each body in the first layer against the members of the static
+	 * layer reported by the index.
+	 */
+	private void findAndReconcileIndexedCollisions() {
+		if (grid != null && (!indexValid || layer2.size() != grid.size())) {
+			grid.build(layer2);
+		}
+		indexValid = true;
+
+		int l1s = layer1.size();
+		int i, j, n;
+
+		A rectLayer1;
+		B rectLayer2;
+
+		for (i = 0; i < l1s; i++) {
+			rectLayer1 = layer1.get(i);
+			if (!rectLayer1.isActive() || rectLayer1.isSleeping()) {
+				continue;
+			}
+			if (continuous) {
+				sweep(rectLayer1);
+			}
+
+			int[] keys = null;
+			if (cache != null) {
+				CachedContacts c = cachedQuery(i, rectLayer1);
+				keys = c.keys;
+				n = c.count;
+			} else {
+				n = index.query(rectLayer1.getPositionX(),
+						rectLayer1.getPositionY(), rectLayer1.getWidth(),
+						rectLayer1.getHeight());
+			}
+
+			for (j = 0; j < n; j++) {
+				if (keys != null) {
+					rectLayer2 = index.getMember(keys[j]);
+				} else {
+					rectLayer2 = index.getCandidate(j);
+				}
+				if (!rectLayer2.isActive() || rectLayer2.isSleeping()) {
+					continue;
+				}
+
+				if (rectLayer1.overlaps(rectLayer2)) {
+					collide(rectLayer1, rectLayer2);
+
+					if (!indexValid) {
+						// the layers were reloaded by the callback
+						return;
+					}
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the static bodies near a body of the first layer, searching the
+	 * index only if the body has moved to other cells, or the index has
+	 * been modified, since the last search.
+	 * 
+	 * @param i
+	 *            the body's position in the first layer
+	 * @param a
+	 *            the body
+	 * @return the cache entry holding the keys of the static bodies
+	 */
+	private CachedContacts cachedQuery(final int i, final A a) {
+		if (i >= cache.length) {
+			cache = Arrays.copyOf(cache, Math.max(i + 1, cache.length * 2));
+		}
+		CachedContacts c = cache[i];
+		if (c == null) {
+			c = new CachedContacts();
+			cache[i] = c;
+		}
+
+		double size = index.getCellSize();
+		double x = a.getPositionX();
+		double y = a.getPositionY();
+		int col0 = (int) Math.floor(x / size);
+		int col1 = Math.max(col0,
+				(int) Math.ceil((x + a.getWidth()) / size) - 1);
+		int row0 = (int) Math.floor(y / size);
+		int row1 = Math.max(row0,
+				(int) Math.ceil((y + a.getHeight()) / size) - 1);
+
+		if (c.body == a && c.modifications == index.getModificationCount()
+				&& c.col0 == col0 && c.col1 == col1 && c.row0 == row0
+				&& c.row1 == row1) {
+			return c;
+		}
+
+		int n = index.query(col0 * size, row0 * size, (col1 - col0 + 1)
+				* size, (row1 - row0 + 1) * size);
+		if (n > c.keys.length) {
+			c.keys = new int[Math.max(n, c.keys.length * 2)];
+		}
+		for (int j = 0; j < n; j++) {
+			c.keys[j] = index.getCandidateKey(j);
+		}
+		c.count = n;
+		c.body = a;
+		c.modifications = index.getModificationCount();
+		c.col0 = col0;
+		c.col1 = col1;
+		c.row0 = row0;
+		c.row1 = row1;
+		return c;
+	}
+
+	/**
+	 * Sweeps a body from where it started its step to where it is, and
+	 * moves it back along its path if it would end up deeper than
+	 * <code>maxPenetration</code> inside a static body.
+	 */
+	private void sweep(final A a) {
+		double x0 = a.getSweepStartX();
+		double y0 = a.getSweepStartY();
+		double dx = a.getPositionX() - x0;
+		double dy = a.getPositionY() - y0;
+		if (!(Math.abs(dx) > maxPenetration || Math.abs(dy) > maxPenetration)) {
+			// too short a move to go too deep (or no start was recorded)
+			return;
+		}
+
+		double w = a.getWidth();
+		double h = a.getHeight();
+		int n = index.query(Math.min(x0, x0 + dx), Math.min(y0, y0 + dy), w
+				+ Math.abs(dx), h + Math.abs(dy));
+		double stop = 1.0;
+		for (int j = 0; j < n; j++) {
+			B b = index.getCandidate(j);
+			if (!b.isActive() || b.isSleeping()) {
+				continue;
+			}
+			double t = stopTime(x0, y0, w, h, dx, dy, b);
+			if (t < stop) {
+				stop = t;
+			}
+		}
+		if (stop < 1.0) {
+			a.translateBy(dx * (stop - 1.0), dy * (stop - 1.0));
+		}
+	}
+
+	/**
+	 * Finds the fraction of a body's motion after which it is
+	 * <code>maxPenetration</code> deep inside a static body, measured along
+	 * the axis on which it entered the static body.
+	 * 
+	 * @return the fraction, which is 1 or more if the body does not enter
+	 *         the static body during the step, or is not that deep at the
+	 *         end of it, and also if the bodies overlapped at the start
+	 */
+	private double stopTime(final double x0, final double y0, final double w,
+			final double h, final double dx, final double dy, final B b) {
+		double bx = b.getPositionX();
+		double by = b.getPositionY();
+		double bw = b.getWidth();
+		double bh = b.getHeight();
+
+		// the times at which the body enters and leaves the slab of b along
+		// each axis
+		double enterX, exitX, enterY, exitY;
+		if (dx > 0) {
+			enterX = (bx - (x0 + w)) / dx;
+			exitX = (bx + bw - x0) / dx;
+		} else if (dx < 0) {
+			enterX = (bx + bw - x0) / dx;
+			exitX = (bx - (x0 + w)) / dx;
+		} else if (x0 < bx + bw && x0 + w > bx) {
+			enterX = Double.NEGATIVE_INFINITY;
+			exitX = Double.POSITIVE_INFINITY;
+		} else {
+			return Double.POSITIVE_INFINITY;
+		}
+		if (dy > 0) {
+			enterY = (by - (y0 + h)) / dy;
+			exitY = (by + bh - y0) / dy;
+		} else if (dy < 0) {
+			enterY = (by + bh - y0) / dy;
+			exitY = (by - (y0 + h)) / dy;
+		} else if (y0 < by + bh && y0 + h > by) {
+			enterY = Double.NEGATIVE_INFINITY;
+			exitY = Double.POSITIVE_INFINITY;
+		} else {
+			return Double.POSITIVE_INFINITY;
 		}
 
+		double enter = Math.max(enterX, enterY);
+		if (enter < 0 || enter >= 1.0 || enter >= Math.min(exitX, exitY)) {
+			return Double.POSITIVE_INFINITY;
+		}
+		double speed = enterX >= enterY ? Math.abs(dx) : Math.abs(dy);
+		return enter + maxPenetration / speed;
 	}
 
 	/**
@@ -122,4 +554,21 @@ public abstract class RectangleCollisionHandler
 	 */
 	public abstract void collide(A sphereLayer1, B sphereLayer2);
 
+	/**
+	 * The static bodies found near a body of the first layer, and the cells
+	 * they were searched for in.
+	 */
+	private static final class CachedContacts {
+
+		private VanillaAARectangle body;
+
+		private int modifications;
+
+		private int col0, row0, col1, row1;
+
+		private int[] keys = new int[8];
+
+		private int count;
+	}
+
 }
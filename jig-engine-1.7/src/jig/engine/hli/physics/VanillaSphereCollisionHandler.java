@@ -4,6 +4,7 @@ import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
 
+import jig.engine.physics.AABBTree;
 import jig.engine.physics.BodyLayer;
 import jig.engine.physics.vpe.CollisionHandler;
 import jig.engine.physics.vpe.VanillaSphere;
@@ -13,6 +14,11 @@ import jig.engine.util.Vector2D;
  * A simple collision handler that models elastic collisions between pairs of
  * spheres. Rotation and friction are not dealt with by this model.
  * 
+ * By default every sphere of the 'first' layer is tested against every
+ * sphere of the 'second'. With many spheres, the handler can instead find
+ * the spheres of the 'second' layer near each sphere of the 'first' with a
+ * dynamic tree (see {@link #setBroadPhase(AABBTree)}).
+ * 
  * @param <A>
  *            the class type of objects in the 'first' layer. This should be the
  *            most specific type that covers all objects in the layer.
@@ -37,6 +43,23 @@ public abstract class VanillaSphereCollisionHandler
 	protected List<A> layer1Additions;
 	protected List<B> layer2Additions;
 
+	/** The tree over layer2, or <code>null</code> for brute force. */
+	private AABBTree<B> tree;
+
+	private final AABBTree.PairCallback<A, B> touching =
+		new AABBTree.PairCallback<A, B>() {
+			public void pair(final A a, final B b) {
+				double dx = (a.getPositionX() + a.getWidth() / 2.0)
+						- (b.getPositionX() + b.getWidth() / 2.0);
+				double dy = (a.getPositionY() + a.getHeight() / 2.0)
+						- (b.getPositionY() + b.getHeight() / 2.0);
+				double r = a.getRadius() + b.getRadius();
+				if (dx * dx + dy * dy < r * r) {
+					collide(a, b);
+				}
+			}
+		};
+
 	/**
 	 * Creates a collison handler to deal with interactions between objects in
 	 * two layers of spheres.
@@ -54,6 +77,19 @@ public abstract class VanillaSphereCollisionHandler
 		layer2Additions = new LinkedList<B>();
 	}
 
+	/**
+	 * Sets the tree used to find the spheres of the 'second' layer near
+	 * each sphere of the 'first'. The handler syncs the tree with the layer
+	 * at the start of each collision pass, so the tree should not be shared
+	 * with other layers.
+	 * 
+	 * @param tree
+	 *            the tree, or <code>null</code> to test every pair
+	 */
+	public void setBroadPhase(final AABBTree<B> tree) {
+		this.tree = tree;
+	}
+
 	/**
 	 * Finds and reconciles collisions between spheres in each of the two
 	 * registered layers.
@@ -63,6 +99,27 @@ public abstract class VanillaSphereCollisionHandler
 	 * @see #collide(VanillaSphere, VanillaSphere)
 	 */
 	public void findAndReconcileCollisions() {
+		if (tree != null) {
+			tree.sync(layer2);
+			tree.findPairs(layer1, touching);
+		} else {
+			findAndReconcileAllCollisions();
+		}
+		for (Iterator<A> iv = layer1Additions.iterator(); iv.hasNext();) {
+			layer1.add(iv.next());
+			iv.remove();
+		}
+		for (Iterator<B> iv = layer2Additions.iterator(); iv.hasNext();) {
+			layer2.add(iv.next());
+			iv.remove();
+		}
+
+	}
+
+	/**
+	 * Tests every pair of spheres from the two layers.
+	 */
+	private void findAndReconcileAllCollisions() {
 		int l1s = layer1.size();
 		int l2s = layer2.size();
 		int i, j;
@@ -74,14 +131,14 @@ public abstract class VanillaSphereCollisionHandler
 
 		for (i = 0; i < l1s; i++) {
 			sphereLayer1 = layer1.get(i);
-			if (!sphereLayer1.isActive()) {
+			if (!sphereLayer1.isActive() || sphereLayer1.isSleeping()) {
 				continue;
 			}
 			sphereL1Position = sphereLayer1.getCenterPosition();
 
 			for (j = 0; j < l2s; j++) {
 				sphereLayer2 = layer2.get(j);
-				if (!sphereLayer2.isActive()) {
+				if (!sphereLayer2.isActive() || sphereLayer2.isSleeping()) {
 					continue;
 				}
 				dist2 = (sphereLayer1.getRadius() + sphereLayer2.getRadius())
@@ -97,15 +154,6 @@ public abstract class VanillaSphereCollisionHandler
 			}
 
 		}
-		for (Iterator<A> iv = layer1Additions.iterator(); iv.hasNext();) {
-			layer1.add(iv.next());
-			iv.remove();
-		}
-		for (Iterator<B> iv = layer2Additions.iterator(); iv.hasNext();) {
-			layer2.add(iv.next());
-			iv.remove();
-		}
-
 	}
 
 	/**
@@ -0,0 +1,542 @@
+package jig.engine.j2d;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.Transparency;
+import java.awt.geom.AffineTransform;
+import java.awt.image.VolatileImage;
+
+import jig.engine.FontResource;
+import jig.engine.ImageResource;
+import jig.engine.SceneSnapshot;
+
+/**
+ * Keeps a retained image of the last frame presented by a
+ * <code>J2DGameFrame</code> and brings it up to date with each new frame by
+ * repainting only what changed.
+ *
+ * Each frame is recorded into a <code>SceneSnapshot</code> and compared,
+ * entry by entry, with the frame before it. A frame identical to the last
+ * is not drawn at all. Otherwise only the screen regions covered by entries
+ * whose image, text or transform changed (where they were and where they
+ * are now) are cleared and drawn again, clipped to those regions. Entries
+ * are matched by their position in the recording, so a sprite that appears
+ * or disappears in the middle of a frame marks the entries after it as
+ * changed; the frame is still drawn correctly, only less is saved.
+ *
+ * When most of the first few changed entries moved the same whole number of
+ * pixels sideways, and nothing else about them changed, the frame is taken
+ * to have scrolled (a parallax layer drawn first need not move with it). The
+ * retained image is then shifted with <code>copyArea</code>, and entries are
+ * compared with the frame before as shifted, so only the newly exposed
+ * strip and the entries that did not move with the scene (e.g., the
+ * heads-up display, and sprites that moved on their own) are drawn again.
+ *
+ * If the changed regions cover most of the screen, the frame is simply
+ * drawn in full.
+ *
+ * @see J2DGameFrame#setIncrementalPresentation(boolean)
+ */
+final class IncrementalPresenter {
+
+	/** The most regions repainted separately, before they are merged. */
+	private static final int MAX_REGIONS = 8;
+
+	/** The fraction of the screen above which a frame is drawn in full. */
+	private static final double FULL_REPAINT_FRACTION = 0.6;
+
+	/**
+	 * The number of unchanged frames after which the retained image is shown
+	 * again anyway, in case the window was uncovered in the meantime.
+	 */
+	private static final int REFRESH_FRAMES = 30;
+
+	/** The number of changed entries looked at to detect a scroll. */
+	private static final int SCROLL_PROBES = 8;
+
+	/** How far a scrolled entry may be from a whole pixel's move. */
+	private static final double SCROLL_TOLERANCE = 1e-6;
+
+	private final int width;
+
+	private final int height;
+
+	private VolatileImage retained;
+
+	/** The frame the retained image shows. */
+	private SceneSnapshot previous = new SceneSnapshot();
+
+	/** The snapshot handed back to record the next frame into. */
+	private SceneSnapshot spare = new SceneSnapshot();
+
+	/** The screen bounds of each entry of <code>previous</code>. */
+	private int[] previousBounds = new int[64 * 4];
+
+	/** The screen bounds of each entry of the frame being presented. */
+	private int[] bounds = new int[64 * 4];
+
+	/** <code>false</code> if the retained image must be drawn in full. */
+	private boolean valid;
+
+	private int unchangedFrames;
+
+	/** The regions to repaint, as left, top, right and bottom. */
+	private final int[] regions = new int[MAX_REGIONS * 4];
+
+	private int regionCount;
+
+	private int regionArea;
+
+	private final double[] ma = new double[6];
+
+	private final double[] mb = new double[6];
+
+	private final int[] probes = new int[SCROLL_PROBES];
+
+	private final AffineTransform identity = new AffineTransform();
+
+	private final AffineTransform entry = new AffineTransform();
+
+	/**
+	 * Creates a presenter for a frame of a certain size.
+	 *
+	 * @param width
+	 *            the width of the frame
+	 * @param height
+	 *            the height of the frame
+	 */
+	IncrementalPresenter(final int width, final int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Has the next frame drawn in full.
+	 */
+	void invalidate() {
+		valid = false;
+	}
+
+	/**
+	 * Brings the retained image up to date with a new frame.
+	 *
+	 * The presenter keeps the frame to compare the next one with, and hands
+	 * back a snapshot that is no longer needed, to record the next frame
+	 * into; see {@link #takeSpare()}.
+	 *
+	 * @param scene
+	 *            the new frame
+	 * @param gc
+	 *            the graphics configuration of the screen
+	 * @param background
+	 *            the color to clear the frame with
+	 * @return <code>true</code> iff the retained image should be shown,
+	 *         <code>false</code> if the screen already shows it
+	 */
+	boolean update(final SceneSnapshot scene, final GraphicsConfiguration gc,
+			final Color background) {
+		if (retained == null) {
+			retained = gc.createCompatibleVolatileImage(width, height,
+					Transparency.OPAQUE);
+			valid = false;
+		} else {
+			int v = retained.validate(gc);
+			if (v == VolatileImage.IMAGE_INCOMPATIBLE) {
+				retained = gc.createCompatibleVolatileImage(width, height,
+						Transparency.OPAQUE);
+				valid = false;
+			} else if (v == VolatileImage.IMAGE_RESTORED) {
+				valid = false;
+			}
+		}
+
+		Graphics2D g = retained.createGraphics();
+		boolean changed = paint(scene, g, background);
+		g.dispose();
+		if (retained.contentsLost()) {
+			valid = false;
+			changed = true;
+		}
+
+		if (changed) {
+			unchangedFrames = 0;
+			return true;
+		}
+		if (++unchangedFrames >= REFRESH_FRAMES) {
+			unchangedFrames = 0;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * @return a snapshot to record the next frame into
+	 */
+	SceneSnapshot takeSpare() {
+		return spare;
+	}
+
+	/**
+	 * Draws the retained image onto the screen's back buffer.
+	 *
+	 * @param g
+	 *            the back buffer's graphics context
+	 */
+	void show(final Graphics2D g) {
+		g.drawImage(retained, 0, 0, null);
+	}
+
+	/**
+	 * Brings an image holding the previous frame up to date with a new one.
+	 *
+	 * @param scene
+	 *            the new frame
+	 * @param g
+	 *            a graphics context onto the image
+	 * @param background
+	 *            the color to clear the image with
+	 * @return <code>false</code> iff nothing changed
+	 */
+	boolean paint(final SceneSnapshot scene, final Graphics2D g,
+			final Color background) {
+		g.setBackground(background);
+
+		if (valid && isUnchanged(scene)) {
+			// keep the older snapshot, its bounds are known
+			spare = scene;
+			return false;
+		}
+
+		int n = scene.size();
+		if (bounds.length < n * 4) {
+			bounds = new int[n * 8];
+		}
+		for (int i = 0; i < n; i++) {
+			measure(scene, i, bounds, i * 4);
+		}
+
+		boolean full = !valid;
+		int dx = 0;
+		if (!full) {
+			dx = findScroll(scene);
+			if (dx == 0 || !findRegions(scene, dx)) {
+				dx = 0;
+				full = !findRegions(scene, 0);
+			}
+		}
+
+		if (full) {
+			g.setClip(null);
+			g.clearRect(0, 0, width, height);
+			scene.draw(g, identity);
+		} else {
+			if (dx != 0) {
+				g.copyArea(0, 0, width, height, dx, 0);
+			}
+			for (int r = 0; r < regionCount; r++) {
+				int k = r * 4;
+				repaint(scene, g, regions[k], regions[k + 1],
+						regions[k + 2], regions[k + 3]);
+			}
+			g.setClip(null);
+		}
+
+		spare = previous;
+		previous = scene;
+		int[] b = previousBounds;
+		previousBounds = bounds;
+		bounds = b;
+		valid = true;
+		return true;
+	}
+
+	/**
+	 * Clears a region and draws the entries of a frame that reach into it.
+	 */
+	private void repaint(final SceneSnapshot scene, final Graphics2D g,
+			final int x0, final int y0, final int x1, final int y1) {
+		g.setClip(x0, y0, x1 - x0, y1 - y0);
+		g.clearRect(x0, y0, x1 - x0, y1 - y0);
+		for (int i = 0, n = scene.size(); i < n; i++) {
+			int k = i * 4;
+			if (bounds[k] >= x1 || bounds[k + 2] <= x0 || bounds[k + 1] >= y1
+					|| bounds[k + 3] <= y0) {
+				continue;
+			}
+			scene.getMatrix(i, ma);
+			entry.setTransform(ma[0], ma[1], ma[2], ma[3], ma[4], ma[5]);
+			String s = scene.getString(i);
+			if (s == null) {
+				((ImageResource) scene.getResource(i)).draw(g, entry);
+			} else {
+				((FontResource) scene.getResource(i)).draw(s, g, entry);
+			}
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff a frame draws exactly what the previous
+	 *         one did
+	 */
+	private boolean isUnchanged(final SceneSnapshot scene) {
+		int n = scene.size();
+		if (n != previous.size()) {
+			return false;
+		}
+		for (int i = 0; i < n; i++) {
+			if (!isSame(scene, i, 0)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Guesses how far a frame scrolled sideways from the previous one, from
+	 * the first few entries that changed.
+	 *
+	 * @return the number of pixels the scene moved right, or 0 if it did not
+	 *         appear to scroll
+	 */
+	private int findScroll(final SceneSnapshot scene) {
+		int count = 0;
+		int n = Math.min(scene.size(), previous.size());
+		for (int i = 0; i < n && count < SCROLL_PROBES; i++) {
+			if (isSame(scene, i, 0)) {
+				continue;
+			}
+			probes[count++] = sidewaysMove(scene, i);
+		}
+
+		// the move most of the probes agree on
+		for (int p = 0; p < count; p++) {
+			if (probes[p] == 0) {
+				continue;
+			}
+			int votes = 0;
+			for (int q = 0; q < count; q++) {
+				if (probes[q] == probes[p]) {
+					votes++;
+				}
+			}
+			if (2 * votes > count) {
+				return probes[p];
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the whole number of pixels an entry moved right since the
+	 *         previous frame, or 0 if it changed in any other way
+	 */
+	private int sidewaysMove(final SceneSnapshot scene, final int i) {
+		if (!isSameDrawing(scene, i)) {
+			return 0;
+		}
+		scene.getMatrix(i, ma);
+		previous.getMatrix(i, mb);
+		if (ma[0] != mb[0] || ma[1] != mb[1] || ma[2] != mb[2]
+				|| ma[3] != mb[3] || ma[5] != mb[5]) {
+			return 0;
+		}
+		double d = ma[4] - mb[4];
+		long dx = Math.round(d);
+		if (Math.abs(d - dx) >= SCROLL_TOLERANCE || Math.abs(dx) >= width) {
+			return 0;
+		}
+		return (int) dx;
+	}
+
+	/**
+	 * Finds the regions to repaint, assuming that the retained image is
+	 * first shifted some pixels sideways.
+	 *
+	 * @param dx
+	 *            the number of pixels the image is shifted right
+	 * @return <code>false</code> if the regions cover too much of the screen
+	 *         to be worth repainting separately
+	 */
+	private boolean findRegions(final SceneSnapshot scene, final int dx) {
+		regionCount = 0;
+		regionArea = 0;
+		int limit = (int) (width * height * FULL_REPAINT_FRACTION);
+
+		if (dx > 0) {
+			addRegion(0, 0, dx, height);
+		} else if (dx < 0) {
+			addRegion(width + dx, 0, width, height);
+		}
+
+		int n = scene.size();
+		int m = previous.size();
+		for (int i = 0, common = Math.min(n, m); i < common; i++) {
+			if (!isSame(scene, i, dx)) {
+				addBounds(bounds, i, 0);
+				addBounds(previousBounds, i, dx);
+				if (regionArea > limit) {
+					return false;
+				}
+			}
+		}
+		for (int i = m; i < n; i++) {
+			addBounds(bounds, i, 0);
+		}
+		for (int i = n; i < m; i++) {
+			addBounds(previousBounds, i, dx);
+		}
+		return regionArea <= limit;
+	}
+
+	/**
+	 * @return <code>true</code> iff an entry of a frame draws the same image
+	 *         or text as the previous frame's entry at the same index
+	 */
+	private boolean isSameDrawing(final SceneSnapshot scene, final int i) {
+		if (scene.getResource(i) != previous.getResource(i)) {
+			return false;
+		}
+		String s = scene.getString(i);
+		String t = previous.getString(i);
+		return s == null ? t == null : s.equals(t);
+	}
+
+	/**
+	 * @return <code>true</code> iff an entry of a frame is drawn just as the
+	 *         previous frame's entry at the same index, moved some pixels
+	 *         sideways
+	 */
+	private boolean isSame(final SceneSnapshot scene, final int i, final int dx) {
+		if (!isSameDrawing(scene, i)) {
+			return false;
+		}
+		scene.getMatrix(i, ma);
+		previous.getMatrix(i, mb);
+		if (ma[0] != mb[0] || ma[1] != mb[1] || ma[2] != mb[2]
+				|| ma[3] != mb[3] || ma[5] != mb[5]) {
+			return false;
+		}
+		if (dx == 0) {
+			return ma[4] == mb[4];
+		}
+		// the scene's translation and the entry's position may not add up
+		// to the last bit in both frames
+		return Math.abs(ma[4] - mb[4] - dx) < SCROLL_TOLERANCE
+				&& Math.floor(ma[4] + 0.5) == Math.floor(mb[4] + 0.5) + dx;
+	}
+
+	/**
+	 * Computes the screen bounds of an entry, a pixel larger all round for
+	 * rounding and filtering.
+	 */
+	private void measure(final SceneSnapshot scene, final int i,
+			final int[] out, final int k) {
+		double w, h, x, y;
+		String s = scene.getString(i);
+		if (s == null) {
+			ImageResource img = (ImageResource) scene.getResource(i);
+			x = 0;
+			y = 0;
+			w = img.getWidth();
+			h = img.getHeight();
+		} else {
+			// glyphs may overhang the line a little
+			FontResource f = (FontResource) scene.getResource(i);
+			int fh = f.getHeight();
+			x = -fh;
+			y = -fh;
+			w = f.getStringWidth(s) + 2 * fh;
+			h = 3 * fh;
+		}
+
+		scene.getMatrix(i, ma);
+		double minX = Double.POSITIVE_INFINITY;
+		double minY = Double.POSITIVE_INFINITY;
+		double maxX = Double.NEGATIVE_INFINITY;
+		double maxY = Double.NEGATIVE_INFINITY;
+		for (int c = 0; c < 4; c++) {
+			double cx = (c & 1) == 0 ? x : x + w;
+			double cy = (c & 2) == 0 ? y : y + h;
+			double px = ma[0] * cx + ma[2] * cy + ma[4];
+			double py = ma[1] * cx + ma[3] * cy + ma[5];
+			minX = Math.min(minX, px);
+			minY = Math.min(minY, py);
+			maxX = Math.max(maxX, px);
+			maxY = Math.max(maxY, py);
+		}
+		out[k] = clamp(Math.floor(minX) - 1);
+		out[k + 1] = clamp(Math.floor(minY) - 1);
+		out[k + 2] = clamp(Math.ceil(maxX) + 1);
+		out[k + 3] = clamp(Math.ceil(maxY) + 1);
+	}
+
+	private static int clamp(final double v) {
+		return (int) Math.max(-(1 << 24), Math.min(1 << 24, v));
+	}
+
+	private void addBounds(final int[] b, final int i, final int dx) {
+		int k = i * 4;
+		addRegion(b[k] + dx, b[k + 1], b[k + 2] + dx, b[k + 3]);
+	}
+
+	/**
+	 * Adds a region to repaint, merging it with the regions it overlaps or
+	 * touches, or with all of them once there are too many.
+	 */
+	private void addRegion(final int left, final int top, final int right,
+			final int bottom) {
+		int x0 = Math.max(0, left);
+		int y0 = Math.max(0, top);
+		int x1 = Math.min(width, right);
+		int y1 = Math.min(height, bottom);
+		if (x0 >= x1 || y0 >= y1) {
+			return;
+		}
+
+		int r = 0;
+		while (r < regionCount) {
+			int k = r * 4;
+			if (regions[k] <= x1 && regions[k + 2] >= x0
+					&& regions[k + 1] <= y1 && regions[k + 3] >= y0) {
+				// take the region out and start over with the union
+				x0 = Math.min(x0, regions[k]);
+				y0 = Math.min(y0, regions[k + 1]);
+				x1 = Math.max(x1, regions[k + 2]);
+				y1 = Math.max(y1, regions[k + 3]);
+				removeRegion(r);
+				r = 0;
+			} else {
+				r++;
+			}
+		}
+
+		if (regionCount == MAX_REGIONS) {
+			for (r = 0; r < regionCount; r++) {
+				int k = r * 4;
+				x0 = Math.min(x0, regions[k]);
+				y0 = Math.min(y0, regions[k + 1]);
+				x1 = Math.max(x1, regions[k + 2]);
+				y1 = Math.max(y1, regions[k + 3]);
+			}
+			regionCount = 0;
+			regionArea = 0;
+		}
+
+		int k = regionCount * 4;
+		regions[k] = x0;
+		regions[k + 1] = y0;
+		regions[k + 2] = x1;
+		regions[k + 3] = y1;
+		regionCount++;
+		regionArea += (x1 - x0) * (y1 - y0);
+	}
+
+	private void removeRegion(final int r) {
+		int k = r * 4;
+		regionArea -= (regions[k + 2] - regions[k]) * (regions[k + 3]
+				- regions[k + 1]);
+		regionCount--;
+		System.arraycopy(regions, regionCount * 4, regions, k, 4);
+	}
+}
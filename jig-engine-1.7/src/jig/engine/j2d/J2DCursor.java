@@ -45,7 +45,7 @@ class J2DCursor implements CursorResource {
 		cursor = new Cursor[frames.size()];
 		Image[] ia = new Image[frames.size()];
 		for (ImageResource ir : frames) {
-			ia[i] = ((J2DImage) ir).image;
+			ia[i] = ((J2DImage) ir).getFrameImage();
 			i++;
 		}
 	
@@ -40,6 +40,7 @@ import jig.engine.Keyboard;
 import jig.engine.Mouse;
 import jig.engine.RenderingContext;
 import jig.engine.ResourceFactory;
+import jig.engine.SceneSnapshot;
 
 /**
  * A concrete Game Frame class for the Java-2D backend.
@@ -71,6 +72,12 @@ final class J2DGameFrame extends Frame implements GameFrame {
 
 	private boolean rcReleased;
 
+	/** Presents frames incrementally, or <code>null</code> if not. */
+	private IncrementalPresenter presenter;
+
+	/** The frame being recorded when presenting incrementally. */
+	private SceneSnapshot scene;
+
 	DisplayMode dispModeBeforeFrameCreation;
 
 	private ExitHandler exitHandler;
@@ -332,6 +339,9 @@ final class J2DGameFrame extends Frame implements GameFrame {
 
 		theRC = new J2DGameFrame.J2DRenderingContext();
 		rcReleased = false;
+		if (presenter != null) {
+			presenter.invalidate();
+		}
 		setVisible(visibility);
 		configuration = newConfig;
 			
@@ -389,6 +399,12 @@ final class J2DGameFrame extends Frame implements GameFrame {
 			return null;
 		}
 
+		if (presenter != null) {
+			scene.clear();
+			rcReleased = true;
+			return scene;
+		}
+
 		theRC.prelude();
 		rcReleased = true;
 		return theRC;
@@ -417,6 +433,11 @@ final class J2DGameFrame extends Frame implements GameFrame {
 		}
 		*/
 		
+		if (presenter != null) {
+			presentIncrementally();
+			return;
+		}
+
 		if (bufferStrategy != null && !bufferStrategy.contentsLost()) {
 			// Transfer the contents of the buffer to the screen
 			if (rcReleased) {
@@ -451,10 +472,79 @@ final class J2DGameFrame extends Frame implements GameFrame {
 		}
 		*/
 		
+		if (presenter != null) {
+			// the retained frame is cleared region by region as needed
+			return;
+		}
+
 		bufferStrategy.getDrawGraphics().clearRect(0, 0, width, height);
 
 	}
 
+	/**
+	 * Turns incremental presentation on or off.
+	 * 
+	 * When presenting incrementally, the game frame keeps an image of the
+	 * last frame it presented and the rendering context is a
+	 * <code>SceneSnapshot</code> that records each new frame. A frame that
+	 * draws exactly what the last one did is neither drawn nor shown; for
+	 * other frames, only the regions covered by images and strings that were
+	 * added, removed or moved are drawn again, and a frame that scrolled
+	 * sideways by a whole number of pixels is shifted onto the image with
+	 * <code>copyArea</code> so that only the exposed strip is drawn. The
+	 * image is then copied to the back buffer and shown. This suits games
+	 * whose screens are mostly still, or scroll a pixel-aligned camera,
+	 * especially under software rendering.
+	 * 
+	 * As with pipelined rendering, a game presented incrementally must draw
+	 * only through image and font resources.
+	 * 
+	 * @param yes
+	 *            <code>true</code> to present frames incrementally
+	 */
+	public void setIncrementalPresentation(final boolean yes) {
+		if (yes && presenter == null) {
+			presenter = new IncrementalPresenter(width, height);
+			scene = new SceneSnapshot();
+		} else if (!yes) {
+			presenter = null;
+			scene = null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff frames are presented incrementally
+	 */
+	public boolean isIncrementalPresentation() {
+		return presenter != null;
+	}
+
+	/**
+	 * Brings the retained frame up to date with the recorded one and shows
+	 * it, unless the screen already shows it.
+	 */
+	private void presentIncrementally() {
+		if (!rcReleased || bufferStrategy == null) {
+			return;
+		}
+		rcReleased = false;
+
+		Graphics2D g = (Graphics2D) bufferStrategy.getDrawGraphics();
+		boolean show = presenter.update(scene, getGraphicsConfiguration(), g
+				.getBackground());
+		scene = presenter.takeSpare();
+		if (!show && !console.isVisible() && !bufferStrategy.contentsLost()) {
+			g.dispose();
+			return;
+		}
+
+		presenter.show(g);
+		g.dispose();
+		console.renderToBackBuffer();
+		bufferStrategy.show();
+		Toolkit.getDefaultToolkit().sync();
+	}
+
 	/**
 	 * An empty method. There's no reason to call this.
 	 * 
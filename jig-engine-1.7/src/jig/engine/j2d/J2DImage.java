@@ -11,6 +11,7 @@ import java.util.logging.Logger;
 import jig.engine.ImageResource;
 import jig.engine.RenderingContext;
 import jig.engine.ResourceFactory;
+import jig.engine.SceneSnapshot;
 
 /**
  * An immutable ImageResource for the J2DResourceFactory backend.
@@ -29,6 +30,12 @@ final class J2DImage implements ImageResource {
 	/* not accessible to the outside world, and created during initialization */
 	BufferedImage image;
 
+	/* the rectangle of the image shown by this resource */
+	private final int sx, sy, width, height;
+
+	/* true iff this resource shows only part of its image (an atlas) */
+	private final boolean region;
+
 	/**
 	 * Create an 'accelerated' and immutable image from an image sheet that may
 	 * comprise multiple frames.
@@ -59,6 +66,11 @@ final class J2DImage implements ImageResource {
 		GraphicsConfiguration gc = frame.getGraphicsConfiguration();
 		image = gc.createCompatibleImage(w, h, transparency);
 		image.getGraphics().drawImage(i, xoffset, yoffset, null);
+		sx = 0;
+		sy = 0;
+		width = w;
+		height = h;
+		region = false;
 
 		Logger l = ResourceFactory.getJIGLogger();
 		if (l.isLoggable(Level.FINE)) {
@@ -71,18 +83,62 @@ final class J2DImage implements ImageResource {
 
 	}
 
+	/**
+	 * Creates an image resource showing a rectangle of another's image,
+	 * which is shared rather than copied.
+	 * 
+	 * @param atlas
+	 *            the image resource holding the rectangle
+	 * @param x
+	 *            the x coordinate of the rectangle within the atlas
+	 * @param y
+	 *            the y coordinate of the rectangle within the atlas
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 */
+	J2DImage(final J2DImage atlas, final int x, final int y, final int w,
+			final int h) {
+		if (x < 0 || y < 0 || w <= 0 || h <= 0 || x + w > atlas.width
+				|| y + h > atlas.height) {
+			throw new IllegalArgumentException("Region [" + x + "," + y
+					+ " " + w + "x" + h + "] is not within the image");
+		}
+		image = atlas.image;
+		sx = atlas.sx + x;
+		sy = atlas.sy + y;
+		width = w;
+		height = h;
+		region = true;
+	}
+
 	/**
 	 * @return the height of the image encapsulated by this resource
 	 */
 	public int getHeight() {
-		return image.getHeight(null);
+		return height;
 	}
 
 	/**
 	 * @return the width of the image encapsulated by this resource
 	 */
 	public int getWidth() {
-		return image.getWidth(null);
+		return width;
+	}
+
+	/**
+	 * Gets the pixels shown by this resource as an image of their own, for
+	 * uses such as cursors that need a whole image rather than a rectangle
+	 * of an atlas.
+	 * 
+	 * @return the image, or a subimage of the atlas for a region
+	 */
+	BufferedImage getFrameImage() {
+		if (region) {
+			return image.getSubimage(sx, sy, width, height);
+		}
+		return image;
 	}
 
 	/**
@@ -100,19 +156,58 @@ final class J2DImage implements ImageResource {
 		if (rc == null) {
 			throw new IllegalStateException("Rendering Context is null when trying to render J2DImage");
 		}
+		if (rc instanceof SceneSnapshot) {
+			((SceneSnapshot) rc).record(this, at);
+			return;
+		}
 
 		j2drc = (J2DGameFrame.J2DRenderingContext) rc;
 		
 		
 		
-		j2drc.theG.drawImage(image, at, null);
+		if (region) {
+			drawRegion(j2drc.theG, at);
+		} else {
+			j2drc.theG.drawImage(image, at, null);
+		}
 	}
 
 	/**
 	 * TODO: Incomplete!
 	 */
 	public void draw(Graphics2D g, AffineTransform at) {
-		g.drawImage(image, at, null);
+		if (region) {
+			drawRegion(g, at);
+		} else {
+			g.drawImage(image, at, null);
+		}
+	}
+
+	/**
+	 * Draws the rectangle of the image shown by this resource.
+	 * 
+	 * @param g
+	 *            the graphics context
+	 * @param at
+	 *            the transform which should be applied to the rectangle
+	 */
+	private void drawRegion(final Graphics2D g, final AffineTransform at) {
+		double tx = at.getTranslateX();
+		double ty = at.getTranslateY();
+		int dx = (int) tx;
+		int dy = (int) ty;
+		if ((at.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0
+				&& dx == tx && dy == ty) {
+			// e.g., glyphs: blit without touching the graphics' transform
+			g.drawImage(image, dx, dy, dx + width, dy + height, sx, sy, sx
+					+ width, sy + height, null);
+		} else {
+			AffineTransform saved = g.getTransform();
+			g.transform(at);
+			g.drawImage(image, 0, 0, width, height, sx, sy, sx + width, sy
+					+ height, null);
+			g.setTransform(saved);
+		}
 	}
 
 }
@@ -10,6 +10,7 @@ import java.awt.geom.Rectangle2D;
 
 import jig.engine.FontResource;
 import jig.engine.RenderingContext;
+import jig.engine.SceneSnapshot;
 
 /**
  * A Vector Font class for fast drawing of smooth font images
@@ -61,6 +62,10 @@ class J2DVectorFont implements FontResource {
 			final AffineTransform at) {
 		J2DGameFrame.J2DRenderingContext j2drc;
 		
+		if (rc instanceof SceneSnapshot) {
+			((SceneSnapshot) rc).record(this, s, at);
+			return;
+		}
 		j2drc = (J2DGameFrame.J2DRenderingContext) rc;
 		Graphics2D g = j2drc.theG;
 		
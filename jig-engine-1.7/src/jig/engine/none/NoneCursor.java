@@ -45,7 +45,7 @@ class NoneCursor implements CursorResource {
 		cursor = new Cursor[frames.size()];
 		Image[] ia = new Image[frames.size()];
 		for (ImageResource ir : frames) {
-			ia[i] = ((NoneImage) ir).image;
+			ia[i] = ((NoneImage) ir).getFrameImage();
 			i++;
 		}
 	
@@ -148,8 +148,8 @@ final class NoneGameFrame implements GameFrame {
 		//System.out.println("Time is: " + GameClock.getClock().getGameTime() + " ready to issue " + fke.alarm.remainingTime());
 		while (fke != null && fke.alarm.expired()) {
 			
-			System.out.println("Time is: " + GameClock.getClock().getGameTime() + " ready to issue " + fke.toString());
 			fke = nrf.futureKeys.poll();
+			ResourceFactory.getJIGLogger().fine("Time is: " + GameClock.getClock().getGameTime() + " issuing key " + fke.key + (fke.pressed ? " press" : " release"));
 			((NoneKeyboard)getKeyboard()).enqueue(fke.getKeyInfo());
 			fke = nrf.futureKeys.peek();
 		}
@@ -185,6 +185,22 @@ final class NoneGameFrame implements GameFrame {
 
 	}
 
+	/**
+	 * Has no effect, since nothing is presented.
+	 * 
+	 * @param yes
+	 *            ignored
+	 */
+	public void setIncrementalPresentation(final boolean yes) {
+	}
+
+	/**
+	 * @return <code>false</code>, since nothing is presented
+	 */
+	public boolean isIncrementalPresentation() {
+		return false;
+	}
+
 	
 
 
@@ -403,13 +419,11 @@ final class NoneGameFrame implements GameFrame {
 	}
 
 	public int getHeight() {
-		// TODO Auto-generated method stub
-		return 0;
+		return height;
 	}
 
 	public int getWidth() {
-		// TODO Auto-generated method stub
-		return 0;
+		return width;
 	}
 
 	public boolean requestExitAndClose(boolean forcedExit) {
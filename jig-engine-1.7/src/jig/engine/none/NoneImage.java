@@ -10,6 +10,7 @@ import java.util.logging.Logger;
 import jig.engine.ImageResource;
 import jig.engine.RenderingContext;
 import jig.engine.ResourceFactory;
+import jig.engine.SceneSnapshot;
 import jig.engine.none.NoneGameFrame.NoneRenderingContext;
 
 /**
@@ -29,6 +30,12 @@ final class NoneImage implements ImageResource {
 	/* not accessible to the outside world, and created during initialization */
 	BufferedImage image;
 
+	/* the rectangle of the image shown by this resource */
+	private final int sx, sy, width, height;
+
+	/* true iff this resource shows only part of its image (an atlas) */
+	private final boolean region;
+
 	/**
 	 * Create an 'accelerated' and immutable image from an image sheet that may
 	 * comprise multiple frames.
@@ -58,6 +65,11 @@ final class NoneImage implements ImageResource {
 
 		image = new BufferedImage(w,h,transparency);
 		image.getGraphics().drawImage(i, xoffset, yoffset, null);
+		sx = 0;
+		sy = 0;
+		width = w;
+		height = h;
+		region = false;
 
 		Logger l = ResourceFactory.getJIGLogger();
 		if (l.isLoggable(Level.FINE)) {
@@ -67,18 +79,62 @@ final class NoneImage implements ImageResource {
 
 	}
 
+	/**
+	 * Creates an image resource showing a rectangle of another's image,
+	 * which is shared rather than copied.
+	 * 
+	 * @param atlas
+	 *            the image resource holding the rectangle
+	 * @param x
+	 *            the x coordinate of the rectangle within the atlas
+	 * @param y
+	 *            the y coordinate of the rectangle within the atlas
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 */
+	NoneImage(final NoneImage atlas, final int x, final int y, final int w,
+			final int h) {
+		if (x < 0 || y < 0 || w <= 0 || h <= 0 || x + w > atlas.width
+				|| y + h > atlas.height) {
+			throw new IllegalArgumentException("Region [" + x + "," + y
+					+ " " + w + "x" + h + "] is not within the image");
+		}
+		image = atlas.image;
+		sx = atlas.sx + x;
+		sy = atlas.sy + y;
+		width = w;
+		height = h;
+		region = true;
+	}
+
 	/**
 	 * @return the height of the image encapsulated by this resource
 	 */
 	public int getHeight() {
-		return image.getHeight(null);
+		return height;
 	}
 
 	/**
 	 * @return the width of the image encapsulated by this resource
 	 */
 	public int getWidth() {
-		return image.getWidth(null);
+		return width;
+	}
+
+	/**
+	 * Gets the pixels shown by this resource as an image of their own, for
+	 * uses such as cursors that need a whole image rather than a rectangle
+	 * of an atlas.
+	 * 
+	 * @return the image, or a subimage of the atlas for a region
+	 */
+	BufferedImage getFrameImage() {
+		if (region) {
+			return image.getSubimage(sx, sy, width, height);
+		}
+		return image;
 	}
 
 
@@ -92,11 +148,19 @@ final class NoneImage implements ImageResource {
 	 *            rendering
 	 */
 	public void render(final RenderingContext rc, final AffineTransform at) {
+		if (rc instanceof SceneSnapshot) {
+			((SceneSnapshot) rc).record(this, at);
+			return;
+		}
 		NoneRenderingContext nrc = (NoneRenderingContext) rc;
 		
 		if (!nrc.rendering) return;
 
-		nrc.theG.drawImage(image, at, null);
+		if (region) {
+			drawRegion(nrc.theG, at);
+		} else {
+			nrc.theG.drawImage(image, at, null);
+		}
 
 		
 	}
@@ -105,7 +169,38 @@ final class NoneImage implements ImageResource {
 	 * TODO: Incomplete!
 	 */
 	public void draw(Graphics2D g, AffineTransform at) {
-		g.drawImage(image, at, null);
+		if (region) {
+			drawRegion(g, at);
+		} else {
+			g.drawImage(image, at, null);
+		}
+	}
+
+	/**
+	 * Draws the rectangle of the image shown by this resource.
+	 * 
+	 * @param g
+	 *            the graphics context
+	 * @param at
+	 *            the transform which should be applied to the rectangle
+	 */
+	private void drawRegion(final Graphics2D g, final AffineTransform at) {
+		double tx = at.getTranslateX();
+		double ty = at.getTranslateY();
+		int dx = (int) tx;
+		int dy = (int) ty;
+		if ((at.getType() & ~AffineTransform.TYPE_TRANSLATION) == 0
+				&& dx == tx && dy == ty) {
+			// e.g., glyphs: blit without touching the graphics' transform
+			g.drawImage(image, dx, dy, dx + width, dy + height, sx, sy, sx
+					+ width, sy + height, null);
+		} else {
+			AffineTransform saved = g.getTransform();
+			g.transform(at);
+			g.drawImage(image, 0, 0, width, height, sx, sy, sx + width, sy
+					+ height, null);
+			g.setTransform(saved);
+		}
 	}
 
 }
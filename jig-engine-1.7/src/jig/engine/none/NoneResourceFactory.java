@@ -140,6 +140,27 @@ public final class NoneResourceFactory extends ResourceFactory {
 		return r;
 	}
 
+	/**
+	 * Creates an image resource showing a rectangle of another.
+	 * 
+	 * @param atlas
+	 *            a None image resource
+	 * @param x
+	 *            the x coordinate of the rectangle's upper left corner
+	 * @param y
+	 *            the y coordinate of the rectangle's upper left corner
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 * @return a new image resource sharing the atlas' image
+	 */
+	@Override
+	protected ImageResource createImageRegion(final ImageResource atlas,
+			final int x, final int y, final int w, final int h) {
+		return new NoneImage((NoneImage) atlas, x, y, w, h);
+	}
+
 	/**
 	 * Creates a container for displaying the game.
 	 *  
@@ -0,0 +1,555 @@
+package jig.engine.physics;
+
+import java.util.Arrays;
+
+/**
+ * A dynamic bounding volume tree over the members of a layer, used as a
+ * broad phase for collisions between bodies that move about, and that may
+ * be of different shapes and sizes, where a uniform grid is a poor fit.
+ *
+ * Each member is kept in a leaf whose box is the member's bounding box
+ * grown by a margin on every side (a 'fat' box). Internal nodes hold the
+ * union of their children's boxes, and the tree is kept balanced by
+ * rotations as leaves are inserted and removed, so finding the members
+ * near a box takes O(log n) steps plus the members found.
+ *
+ * The tree is brought up to date with {@link #sync(BodyLayer)}, typically
+ * once per step. A member that still fits inside its fat box is left where
+ * it is, only the members that moved out of theirs are removed and
+ * reinserted, and members added to or removed from the layer are inserted
+ * or removed.
+ *
+ * Like a <code>RectangleIndex</code>, the tree reports the members near a
+ * box in layer order, and neither syncing nor querying the tree creates
+ * garbage unless its arrays have to grow.
+ *
+ * @param <V>
+ *            the type of body in the tree
+ *
+ * @see jig.engine.hli.physics.RectangleCollisionHandler
+ * @see jig.engine.hli.physics.VanillaSphereCollisionHandler
+ */
+public class AABBTree<V extends Body> {
+
+	/**
+	 * Receives the pairs found by
+	 * {@link AABBTree#findPairs(BodyLayer, AABBTree.PairCallback)}.
+	 *
+	 * @param <A>
+	 *            the type of body in the layer searched for
+	 * @param <B>
+	 *            the type of body in the tree
+	 */
+	public interface PairCallback<A extends Body, B extends Body> {
+
+		/**
+		 * Handles a pair of bodies whose boxes overlap. The callback may
+		 * move the bodies, but should not query the tree.
+		 *
+		 * @param a
+		 *            the member of the layer
+		 * @param b
+		 *            the member of the tree
+		 */
+		void pair(A a, B b);
+	}
+
+	private static final int NULL = -1;
+
+	private final double margin;
+
+	// the nodes, in parallel arrays; freed nodes are chained by parent
+	private double[] minX = new double[16];
+
+	private double[] minY = new double[16];
+
+	private double[] maxX = new double[16];
+
+	private double[] maxY = new double[16];
+
+	private int[] parent = new int[16];
+
+	private int[] child1 = new int[16];
+
+	private int[] child2 = new int[16];
+
+	private int[] height = new int[16];
+
+	/** The layer position of the member in each leaf. */
+	private int[] order = new int[16];
+
+	private int root = NULL;
+
+	private int free = NULL;
+
+	/** The number of nodes ever allocated, free or not. */
+	private int nodeCount;
+
+	/** The members of the layer, by position, when the tree was synced. */
+	private Body[] bodies = new Body[16];
+
+	/** The leaf of each member, by position. */
+	private int[] leaf = new int[16];
+
+	private int size;
+
+	private int[] stack = new int[32];
+
+	private int[] candidates = new int[16];
+
+	private int candidateCount;
+
+	/**
+	 * Creates a new, empty, tree.
+	 *
+	 * @param margin
+	 *            how far a member may move from where it was inserted
+	 *            before it is reinserted
+	 */
+	public AABBTree(final double margin) {
+		if (margin < 0) {
+			throw new IllegalArgumentException("margin must not be negative");
+		}
+		this.margin = margin;
+	}
+
+	/**
+	 * @return the number of bodies in the tree
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Brings the tree up to date with the members of a layer. Members whose
+	 * bounding boxes have moved out of their fat boxes are reinserted, and
+	 * members added to or removed from the layer since the last sync are
+	 * inserted or removed. A member that has moved to another position in
+	 * the layer is reinserted.
+	 *
+	 * @param layer
+	 *            the layer, which should be the same at every sync
+	 */
+	public void sync(final BodyLayer<? extends V> layer) {
+		int n = layer.size();
+		if (bodies.length < n) {
+			int c = Math.max(n, bodies.length * 2);
+			bodies = Arrays.copyOf(bodies, c);
+			leaf = Arrays.copyOf(leaf, c);
+		}
+
+		for (int i = 0; i < n; i++) {
+			Body b = layer.get(i);
+			if (i < size && bodies[i] == b) {
+				int node = leaf[i];
+				double x = b.getPositionX();
+				double y = b.getPositionY();
+				if (x >= minX[node] && y >= minY[node]
+						&& x + b.getWidth() <= maxX[node]
+						&& y + b.getHeight() <= maxY[node]) {
+					continue;
+				}
+				removeLeaf(node);
+				fatten(node, b);
+				insertLeaf(node);
+			} else {
+				if (i < size) {
+					removeLeaf(leaf[i]);
+					freeNode(leaf[i]);
+				}
+				int node = allocateNode();
+				order[node] = i;
+				fatten(node, b);
+				insertLeaf(node);
+				bodies[i] = b;
+				leaf[i] = node;
+			}
+		}
+		for (int i = n; i < size; i++) {
+			removeLeaf(leaf[i]);
+			freeNode(leaf[i]);
+			bodies[i] = null;
+		}
+		size = n;
+	}
+
+	/** Removes all bodies from the tree. */
+	public void clear() {
+		for (int i = 0; i < size; i++) {
+			bodies[i] = null;
+		}
+		size = 0;
+		root = NULL;
+		free = NULL;
+		nodeCount = 0;
+		candidateCount = 0;
+	}
+
+	/**
+	 * Finds the members whose fat boxes overlap or touch the specified
+	 * rectangle. The results are retrieved with {@link #getCandidate(int)}
+	 * and remain valid until the next query or sync. Candidates are reported
+	 * in the order of the layer.
+	 *
+	 * Note that candidates are only <i>potentially</i> overlapping, an exact
+	 * intersection test is still needed.
+	 *
+	 * @param x
+	 *            the x coordinate of the upper left corner
+	 * @param y
+	 *            the y coordinate of the upper left corner
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 * @return the number of candidates found
+	 */
+	public int query(final double x, final double y, final double w,
+			final double h) {
+		candidateCount = 0;
+		if (root == NULL) {
+			return 0;
+		}
+		double x1 = x + w;
+		double y1 = y + h;
+
+		int top = 0;
+		stack[top++] = root;
+		while (top > 0) {
+			int node = stack[--top];
+			if (minX[node] > x1 || minY[node] > y1 || maxX[node] < x
+					|| maxY[node] < y) {
+				continue;
+			}
+			if (child1[node] == NULL) {
+				if (candidateCount == candidates.length) {
+					candidates = Arrays.copyOf(candidates,
+							candidateCount * 2);
+				}
+				candidates[candidateCount++] = order[node];
+			} else {
+				if (top + 2 > stack.length) {
+					stack = Arrays.copyOf(stack, stack.length * 2);
+				}
+				stack[top++] = child2[node];
+				stack[top++] = child1[node];
+			}
+		}
+		Arrays.sort(candidates, 0, candidateCount);
+		return candidateCount;
+	}
+
+	/**
+	 * Gets a result of the most recent query.
+	 *
+	 * @param i
+	 *            the candidate's index in the range [0, query(...))
+	 * @return the candidate body
+	 */
+	@SuppressWarnings("unchecked")
+	public V getCandidate(final int i) {
+		return (V) bodies[candidates[i]];
+	}
+
+	/**
+	 * Finds, for each member of a layer in turn, the members of the tree
+	 * whose fat boxes overlap or touch the member's bounding box, and hands
+	 * each such pair to a callback. Members of either that are inactive or
+	 * asleep are skipped. The pairs are reported in the order in which a
+	 * nested loop over the layer and the tree's layer would visit them.
+	 *
+	 * @param <A>
+	 *            the type of body in the layer
+	 * @param layer
+	 *            the layer to find pairs for
+	 * @param callback
+	 *            receives the pairs
+	 */
+	public <A extends Body> void findPairs(final BodyLayer<A> layer,
+			final PairCallback<? super A, ? super V> callback) {
+		int n = layer.size();
+		for (int i = 0; i < n; i++) {
+			A a = layer.get(i);
+			if (!a.isActive() || a.isSleeping()) {
+				continue;
+			}
+			int m = query(a.getPositionX(), a.getPositionY(), a.getWidth(),
+					a.getHeight());
+			for (int j = 0; j < m; j++) {
+				V b = getCandidate(j);
+				if (!b.isActive() || b.isSleeping()) {
+					continue;
+				}
+				callback.pair(a, b);
+			}
+		}
+	}
+
+	/**
+	 * Sets the box of a leaf to the bounding box of its body grown by the
+	 * margin.
+	 */
+	private void fatten(final int node, final Body b) {
+		double x = b.getPositionX();
+		double y = b.getPositionY();
+		minX[node] = x - margin;
+		minY[node] = y - margin;
+		maxX[node] = x + b.getWidth() + margin;
+		maxY[node] = y + b.getHeight() + margin;
+	}
+
+	private int allocateNode() {
+		int node;
+		if (free != NULL) {
+			node = free;
+			free = parent[node];
+		} else {
+			if (nodeCount == minX.length) {
+				int c = nodeCount * 2;
+				minX = Arrays.copyOf(minX, c);
+				minY = Arrays.copyOf(minY, c);
+				maxX = Arrays.copyOf(maxX, c);
+				maxY = Arrays.copyOf(maxY, c);
+				parent = Arrays.copyOf(parent, c);
+				child1 = Arrays.copyOf(child1, c);
+				child2 = Arrays.copyOf(child2, c);
+				height = Arrays.copyOf(height, c);
+				order = Arrays.copyOf(order, c);
+			}
+			node = nodeCount++;
+		}
+		parent[node] = NULL;
+		child1[node] = NULL;
+		child2[node] = NULL;
+		height[node] = 0;
+		order[node] = NULL;
+		return node;
+	}
+
+	private void freeNode(final int node) {
+		parent[node] = free;
+		height[node] = -1;
+		free = node;
+	}
+
+	/**
+	 * Inserts a leaf next to the node where it adds the least to the
+	 * perimeters of the boxes above it, then rebalances the tree.
+	 */
+	private void insertLeaf(final int node) {
+		if (root == NULL) {
+			root = node;
+			parent[node] = NULL;
+			return;
+		}
+
+		// find the best sibling
+		int index = root;
+		while (child1[index] != NULL) {
+			int c1 = child1[index];
+			int c2 = child2[index];
+
+			double area = perimeter(index);
+			double combined = unionPerimeter(index, node);
+
+			// the cost of making a new parent for this node and the leaf
+			double cost = 2 * combined;
+
+			// the least cost of pushing the leaf further down the tree
+			double inheritance = 2 * (combined - area);
+			double cost1 = unionPerimeter(c1, node) + inheritance;
+			if (child1[c1] != NULL) {
+				cost1 -= perimeter(c1);
+			}
+			double cost2 = unionPerimeter(c2, node) + inheritance;
+			if (child1[c2] != NULL) {
+				cost2 -= perimeter(c2);
+			}
+
+			if (cost < cost1 && cost < cost2) {
+				break;
+			}
+			index = cost1 < cost2 ? c1 : c2;
+		}
+
+		// make a new parent for the sibling and the leaf
+		int sibling = index;
+		int oldParent = parent[sibling];
+		int newParent = allocateNode();
+		parent[newParent] = oldParent;
+		union(newParent, sibling, node);
+		height[newParent] = height[sibling] + 1;
+
+		if (oldParent != NULL) {
+			if (child1[oldParent] == sibling) {
+				child1[oldParent] = newParent;
+			} else {
+				child2[oldParent] = newParent;
+			}
+		} else {
+			root = newParent;
+		}
+		child1[newParent] = sibling;
+		child2[newParent] = node;
+		parent[sibling] = newParent;
+		parent[node] = newParent;
+
+		refit(parent[node]);
+	}
+
+	/**
+	 * Takes a leaf out of the tree, replacing its parent by its sibling. The
+	 * leaf itself is not freed.
+	 */
+	private void removeLeaf(final int node) {
+		if (node == root) {
+			root = NULL;
+			return;
+		}
+
+		int p = parent[node];
+		int grandParent = parent[p];
+		int sibling = child1[p] == node ? child2[p] : child1[p];
+
+		if (grandParent != NULL) {
+			if (child1[grandParent] == p) {
+				child1[grandParent] = sibling;
+			} else {
+				child2[grandParent] = sibling;
+			}
+			parent[sibling] = grandParent;
+			freeNode(p);
+			refit(grandParent);
+		} else {
+			root = sibling;
+			parent[sibling] = NULL;
+			freeNode(p);
+		}
+		parent[node] = NULL;
+	}
+
+	/**
+	 * Walks from a node up to the root, rebalancing the nodes and updating
+	 * their heights and boxes.
+	 */
+	private void refit(final int from) {
+		int index = from;
+		while (index != NULL) {
+			index = balance(index);
+
+			int c1 = child1[index];
+			int c2 = child2[index];
+			height[index] = 1 + Math.max(height[c1], height[c2]);
+			union(index, c1, c2);
+
+			index = parent[index];
+		}
+	}
+
+	/**
+	 * Performs a left or right rotation if node A is imbalanced.
+	 *
+	 * @return the node that took the place of A
+	 */
+	private int balance(final int a) {
+		if (child1[a] == NULL || height[a] < 2) {
+			return a;
+		}
+
+		int b = child1[a];
+		int c = child2[a];
+		int diff = height[c] - height[b];
+
+		if (diff > 1) {
+			// rotate C up
+			int f = child1[c];
+			int g = child2[c];
+			child1[c] = a;
+			parent[c] = parent[a];
+			parent[a] = c;
+			replaceChild(parent[c], a, c);
+
+			if (height[f] > height[g]) {
+				child2[c] = f;
+				child2[a] = g;
+				parent[g] = a;
+				union(a, b, g);
+				union(c, a, f);
+				height[a] = 1 + Math.max(height[b], height[g]);
+				height[c] = 1 + Math.max(height[a], height[f]);
+			} else {
+				child2[c] = g;
+				child2[a] = f;
+				parent[f] = a;
+				union(a, b, f);
+				union(c, a, g);
+				height[a] = 1 + Math.max(height[b], height[f]);
+				height[c] = 1 + Math.max(height[a], height[g]);
+			}
+			return c;
+		}
+
+		if (diff < -1) {
+			// rotate B up
+			int d = child1[b];
+			int e = child2[b];
+			child1[b] = a;
+			parent[b] = parent[a];
+			parent[a] = b;
+			replaceChild(parent[b], a, b);
+
+			if (height[d] > height[e]) {
+				child2[b] = d;
+				child1[a] = e;
+				parent[e] = a;
+				union(a, c, e);
+				union(b, a, d);
+				height[a] = 1 + Math.max(height[c], height[e]);
+				height[b] = 1 + Math.max(height[a], height[d]);
+			} else {
+				child2[b] = e;
+				child1[a] = d;
+				parent[d] = a;
+				union(a, c, d);
+				union(b, a, e);
+				height[a] = 1 + Math.max(height[c], height[d]);
+				height[b] = 1 + Math.max(height[a], height[e]);
+			}
+			return b;
+		}
+
+		return a;
+	}
+
+	/**
+	 * Points the parent of a rotated node at the node that replaced it.
+	 */
+	private void replaceChild(final int p, final int oldChild,
+			final int newChild) {
+		if (p == NULL) {
+			root = newChild;
+		} else if (child1[p] == oldChild) {
+			child1[p] = newChild;
+		} else {
+			child2[p] = newChild;
+		}
+	}
+
+	/** Sets the box of a node to the union of the boxes of two others. */
+	private void union(final int node, final int n1, final int n2) {
+		minX[node] = Math.min(minX[n1], minX[n2]);
+		minY[node] = Math.min(minY[n1], minY[n2]);
+		maxX[node] = Math.max(maxX[n1], maxX[n2]);
+		maxY[node] = Math.max(maxY[n1], maxY[n2]);
+	}
+
+	private double perimeter(final int node) {
+		return 2 * (maxX[node] - minX[node] + maxY[node] - minY[node]);
+	}
+
+	private double unionPerimeter(final int n1, final int n2) {
+		double w = Math.max(maxX[n1], maxX[n2]) - Math.min(minX[n1], minX[n2]);
+		double h = Math.max(maxY[n1], maxY[n2]) - Math.min(minY[n1], minY[n2]);
+		return 2 * (w + h);
+	}
+}
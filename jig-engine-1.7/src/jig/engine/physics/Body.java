@@ -15,8 +15,25 @@ import jig.engine.util.Vector2D;
  */
 public abstract class Body extends Sprite {
 
+	/**
+	 * The body's velocity. As with <code>position</code>, this field may lag
+	 * behind the body's true velocity once the in-place methods are used.
+	 * 
+	 * @see #setVelocity(double, double)
+	 */
 	protected Vector2D velocity;
 
+	/** The body's velocity, possibly more recent than the field above. */
+	private double velocityX, velocityY;
+
+	/** The vector that velocityX and velocityY were last taken from. */
+	private Vector2D syncedVelocity;
+
+	/** <code>true</code> iff velocityX, velocityY are newer than velocity. */
+	private boolean velocityChanged;
+
+	/** <code>true</code> iff the physics engine has put the body to sleep. */
+	private boolean sleeping;
 	
 	/**
 	 * Creates a new generic body with the specified image resources.
@@ -51,6 +68,22 @@ public abstract class Body extends Sprite {
 	 */
 	public void setVelocity(final Vector2D v) {
 		velocity = v;
+		syncVelocity();
+	}
+
+	/**
+	 * Sets the body's velocity in place, without creating a vector.
+	 * 
+	 * @param vx
+	 *            the velocity along the x axis
+	 * @param vy
+	 *            the velocity along the y axis
+	 */
+	public void setVelocity(final double vx, final double vy) {
+		velocityX = vx;
+		velocityY = vy;
+		syncedVelocity = velocity;
+		velocityChanged = true;
 	}
 
 	/**
@@ -58,9 +91,85 @@ public abstract class Body extends Sprite {
 	 * @return the body's velocity
 	 */
 	public Vector2D getVelocity() {
+		if (velocity != syncedVelocity) {
+			syncVelocity();
+		} else if (velocityChanged) {
+			velocity = new Vector2D(velocityX, velocityY);
+			syncedVelocity = velocity;
+			velocityChanged = false;
+		}
 		return velocity;
 	}
 
+	/**
+	 * @return the x component of the body's velocity
+	 */
+	public double getVelocityX() {
+		if (velocity != syncedVelocity) {
+			syncVelocity();
+		}
+		return velocityX;
+	}
+
+	/**
+	 * @return the y component of the body's velocity
+	 */
+	public double getVelocityY() {
+		if (velocity != syncedVelocity) {
+			syncVelocity();
+		}
+		return velocityY;
+	}
+
+	/**
+	 * Moves the body along its current velocity for the specified amount of
+	 * time. This is the in-place equivalent of
+	 * <code>position = position.translate(velocity.scale(deltaMs / 1000.0))
+	 * </code> and creates no objects.
+	 * 
+	 * @param deltaMs
+	 *            the amount of time to move for, in milliseconds
+	 */
+	public void integrate(final long deltaMs) {
+		double t = deltaMs / 1000.0;
+		translateBy(getVelocityX() * t, getVelocityY() * t);
+	}
+
+	/**
+	 * Takes the primitive components from the <code>velocity</code> field
+	 * after it has been assigned directly.
+	 */
+	private void syncVelocity() {
+		if (velocity != null) {
+			velocityX = velocity.getX();
+			velocityY = velocity.getY();
+		}
+		syncedVelocity = velocity;
+		velocityChanged = false;
+	}
+
+	/**
+	 * A sleeping body is neither updated nor considered for collisions by
+	 * the physics engine. Unlike an inactive body, a sleeping body is still
+	 * rendered, and it is woken by the engine rather than by the game.
+	 * 
+	 * @return <code>true</code> iff the body is asleep
+	 */
+	public boolean isSleeping() {
+		return sleeping;
+	}
+
+	/**
+	 * Puts the body to sleep or wakes it. This is normally done by the
+	 * physics engine.
+	 * 
+	 * @param yes
+	 *            <code>true</code> if the body should sleep
+	 */
+	public void setSleeping(final boolean yes) {
+		sleeping = yes;
+	}
+
 	/**
 	 * This method is used to perform some kind of update on a Body, typically
 	 * the Body's position or state.
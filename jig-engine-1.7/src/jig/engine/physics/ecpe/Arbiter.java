@@ -6,9 +6,6 @@ import java.util.List;
 import jig.engine.ImageResource;
 import jig.engine.RenderingContext;
 import jig.engine.ResourceFactory;
-import jig.engine.util.Matrix22;
-import jig.engine.util.Vector2D;
-import jig.engine.util.VectorOpsBuffer;
 
 /**
  * An dynamic arbitration object created to respond to collisions between Catto
@@ -31,6 +28,22 @@ public class Arbiter {
 
 	private static final int FACE_BY = 4;
 
+	// the layout of a feature pair in the clipping scratch storage
+	private static final int IN_EDGE1 = 0;
+
+	private static final int OUT_EDGE1 = 1;
+
+	private static final int IN_EDGE2 = 2;
+
+	private static final int OUT_EDGE2 = 3;
+
+	// the first of the two vertices of each stage of the clipping
+	private static final int INCIDENT = 0;
+
+	private static final int CLIP1 = 2;
+
+	private static final int CLIP2 = 4;
+
 	static List<ImageResource> arbiterImages;
 
 	static int halfArbiterImgWidth;
@@ -46,6 +59,24 @@ public class Arbiter {
 
 	protected double friction;
 
+	/** The broad phase step in which this arbiter was last renewed. */
+	int stamp;
+
+	/**
+	 * Scratch storage for the vertices clipped in <code>collide</code>, with
+	 * four edges per vertex for their feature pairs. It belongs to the
+	 * arbiter rather than the class so that arbiters can be collided on
+	 * different threads.
+	 */
+	private final double[] clipX = new double[6], clipY = new double[6];
+
+	private final int[] clipFeature = new int[24];
+
+	// the centers and velocities of the boxes while they are being solved
+	private double center1X, center1Y, center2X, center2Y;
+
+	private double v1x, v1y, w1, v2x, v2y, w2;
+
 	/**
 	 * Creates an Arbiter between two Boxes which share a contact point.
 	 * 
@@ -55,6 +86,24 @@ public class Arbiter {
 	 *            another box touching <code>b1</code>
 	 */
 	protected Arbiter(final Box b1, final Box b2) {
+		contacts = new Contact[2];
+		for (int i = 0; i < 2; i++) {
+			contacts[i] = new Contact();
+		}
+		set(b1, b2);
+	}
+
+	/**
+	 * Reinitializes this arbiter for a (possibly) different pair of boxes,
+	 * reusing its contacts, so that the physics engine can recycle arbiters
+	 * instead of creating new ones.
+	 * 
+	 * @param b1
+	 *            a box touching <code>b2</code>
+	 * @param b2
+	 *            another box touching <code>b1</code>
+	 */
+	void set(final Box b1, final Box b2) {
 		if (b1.compareTo(b2) < 0) {
 			body1 = b1;
 			body2 = b2;
@@ -62,14 +111,13 @@ public class Arbiter {
 			body1 = b2;
 			body2 = b1;
 		}
-		contacts = new Contact[2];
 		for (int i = 0; i < 2; i++) {
-			contacts[i] = new Contact();
+			contacts[i].accNormalImpulse = 0.0;
+			contacts[i].accTangetImpulse = 0.0;
 		}
-		numContacts = collide(contacts, body1, body2);
+		numContacts = collide();
 
 		friction = Math.sqrt(body1.friction * body2.friction);
-
 	}
 
 	/**
@@ -110,9 +158,8 @@ public class Arbiter {
 	void render(final RenderingContext rc) {
 		AffineTransform at;
 		for (int i = 0; i < numContacts; i++) {
-			at = AffineTransform.getTranslateInstance(contacts[i].position
-					.getX()
-					- halfArbiterImgWidth, contacts[i].position.getY()
+			at = AffineTransform.getTranslateInstance(contacts[i].positionX
+					- halfArbiterImgWidth, contacts[i].positionY
 					- halfArbiterImgHeight);
 			arbiterImages.get(0).render(rc, at);
 		}
@@ -127,34 +174,40 @@ public class Arbiter {
 	 *            which will replace the contact points in this Arbiter
 	 */
 	protected void update(final Arbiter newArbiter) {
-		Contact[] mergedContacts = { new Contact(), new Contact() };
-		Contact cNew, cOld, c;
-		int k;
+		Contact cNew, cOld;
 		int j;
 
+		// impulses accumulated for the same features carry over (warm
+		// starting); they are gathered before any contact is overwritten
+		double accNormal0 = 0.0, accTangent0 = 0.0;
+		double accNormal1 = 0.0, accTangent1 = 0.0;
+
 		for (int i = 0; i < newArbiter.numContacts; i++) {
 			cNew = newArbiter.contacts[i];
-			k = -1;
 			for (j = 0; j < numContacts; j++) {
 				cOld = contacts[j];
 				if (cNew.feature.equals(cOld.feature)) {
-					k = j;
+					if (i == 0) {
+						accNormal0 = cOld.accNormalImpulse;
+						accTangent0 = cOld.accTangetImpulse;
+					} else {
+						accNormal1 = cOld.accNormalImpulse;
+						accTangent1 = cOld.accTangetImpulse;
+					}
 					break;
 				}
 			}
-			// NOTE (performance) it unclear if this is faster than replacement
-			if (k > -1) {
-				cOld = contacts[k];
-				mergedContacts[i] = new Contact(cNew);
-				c = mergedContacts[i];
-				c.accNormalImpulse = cOld.accNormalImpulse;
-				c.accTangetImpulse = cOld.accTangetImpulse;
-			} else {
-				mergedContacts[i] = newArbiter.contacts[i];
-			}
 		}
 		for (int i = 0; i < newArbiter.numContacts; i++) {
-			contacts[i] = mergedContacts[i];
+			contacts[i].set(newArbiter.contacts[i]);
+		}
+		if (newArbiter.numContacts > 0) {
+			contacts[0].accNormalImpulse = accNormal0;
+			contacts[0].accTangetImpulse = accTangent0;
+		}
+		if (newArbiter.numContacts > 1) {
+			contacts[1].accNormalImpulse = accNormal1;
+			contacts[1].accTangetImpulse = accTangent1;
 		}
 		numContacts = newArbiter.numContacts;
 	}
@@ -167,79 +220,87 @@ public class Arbiter {
 	 * 
 	 * @param inverseDeltaTime
 	 *            the inverse time since the last iteration of the game loop
+	 * @param state
+	 *            the arrays holding the state of the boxes, or
+	 *            <code>null</code> if the boxes hold it themselves
 	 */
-	void preStep(final double inverseDeltaTime) {
+	void preStep(final double inverseDeltaTime, final BoxArrays state) {
 		final double kAllowedPenetration = .01;
 		Contact c;
 		double rn1, rn2, kNormal, rt1, rt2, kTangent;
-		Vector2D tangent;
-		Vector2D impulse;
+		double r1x, r1y, r2x, r2y;
+		double tangentX, tangentY;
+		double impulseX, impulseY;
+
+		load(state);
 
 		for (int i = 0; i < numContacts; i++) {
 			c = contacts[i];
-			Vector2D r1 = c.position.difference(body1.getCenterPosition());
-			Vector2D r2 = c.position.difference(body2.getCenterPosition());
+			r1x = c.positionX - center1X;
+			r1y = c.positionY - center1Y;
+			r2x = c.positionX - center2X;
+			r2y = c.positionY - center2Y;
 
-			rn1 = r1.dot(c.normal);
-			rn2 = r2.dot(c.normal);
+			rn1 = r1x * c.normalX + r1y * c.normalY;
+			rn2 = r2x * c.normalX + r2y * c.normalY;
 			kNormal = body1.inverseMass + body2.inverseMass;
-			kNormal += body1.invMomentOfInertia * (r1.dot(r1) - rn1 * rn1)
-					+ body2.invMomentOfInertia * (r2.dot(r2) - rn2 * rn2);
+			kNormal += body1.invMomentOfInertia * ((r1x * r1x + r1y * r1y) - rn1 * rn1)
+					+ body2.invMomentOfInertia * ((r2x * r2x + r2y * r2y) - rn2 * rn2);
 			c.massNormal = 1.0 / kNormal;
 
-			tangent = c.normal.dCrossV(-1.0);
-			rt1 = r1.dot(tangent);
-			rt2 = r2.dot(tangent);
+			// the normal crossed with -1
+			tangentX = c.normalY;
+			tangentY = -c.normalX;
+			rt1 = r1x * tangentX + r1y * tangentY;
+			rt2 = r2x * tangentX + r2y * tangentY;
 			kTangent = body1.inverseMass + body2.inverseMass;
-			kTangent += body1.invMomentOfInertia * (r1.dot(r1) - rt1 * rt1)
-					+ body2.invMomentOfInertia * (r2.dot(r2) - rt2 * rt2);
+			kTangent += body1.invMomentOfInertia * ((r1x * r1x + r1y * r1y) - rt1 * rt1)
+					+ body2.invMomentOfInertia * ((r2x * r2x + r2y * r2y) - rt2 * rt2);
 			c.massTangent = 1.0 / kTangent;
 
 			c.bias = -.1f * inverseDeltaTime
 					* Math.min(0.0, c.separation + kAllowedPenetration);
 
 			// apply normal + friction impulse
-			impulse = c.normal.scale(c.accNormalImpulse).translate(
-					tangent.scale(c.accTangetImpulse));
-
-			body1.setVelocity(body1.getVelocity().translate(
-					impulse.scale(-1.0 * body1.inverseMass)));
-			double applied = body1.invMomentOfInertia * r1.cross(impulse);
-			body1.angularVelocity -= applied;
-
-			body2.setVelocity(body2.getVelocity().translate(
-					impulse.scale(body2.inverseMass)));
-			applied = body2.invMomentOfInertia * r2.cross(impulse);
-			body2.angularVelocity += applied;
+			impulseX = c.normalX * c.accNormalImpulse + tangentX * c.accTangetImpulse;
+			impulseY = c.normalY * c.accNormalImpulse + tangentY * c.accTangetImpulse;
+			applyImpulse(r1x, r1y, r2x, r2y, impulseX, impulseY);
 		}
+
+		store(state);
 	}
 
 	/**
 	 * Applies the calculated impulses to the bodies managed by this arbiter.
 	 * 
+	 * @param state
+	 *            the arrays holding the state of the boxes, or
+	 *            <code>null</code> if the boxes hold it themselves
 	 */
-	void applyImpulse() {
+	void applyImpulse(final BoxArrays state) {
 
-		Box b1 = body1;
-		Box b2 = body2;
 		Contact c;
-		Vector2D r1, r2, impulse, tangent;
-		VectorOpsBuffer dv;
+		double r1x, r1y, r2x, r2y;
+		double dvx, dvy, tangentX, tangentY;
 		double vn, normalImpulse, oldNormalImpulse;
 		double maxTangentImpulse, vt, tangentImpulse, oldTangentImpulse;
 
+		load(state);
+
 		for (int i = 0; i < numContacts; i++) {
 			c = contacts[i];
-			r1 = c.position.difference(b1.getCenterPosition());
-			r2 = c.position.difference(b2.getCenterPosition());
+			r1x = c.positionX - center1X;
+			r1y = c.positionY - center1Y;
+			r2x = c.positionX - center2X;
+			r2y = c.positionY - center2Y;
 
-			dv = new VectorOpsBuffer(b2.getVelocity());
-			dv.translateMe(r2.dCrossV(b2.angularVelocity));
-			dv.differenceMe(b1.getVelocity());
-			dv.translateMe(r1.dCrossV(-1.0 * b1.angularVelocity));
+			// relative velocity at contact:
+			// v2 + w2 x r2 - v1 - w1 x r1
+			dvx = v2x - w2 * r2y - v1x + w1 * r1y;
+			dvy = v2y + w2 * r2x - v1y - w1 * r1x;
 
 			// compute normal impulse
-			vn = dv.getDot(c.normal);
+			vn = dvx * c.normalX + dvy * c.normalY;
 			normalImpulse = c.massNormal * (-vn + c.bias);
 
 			// Clamp
@@ -249,36 +310,18 @@ public class Arbiter {
 			normalImpulse = c.accNormalImpulse - oldNormalImpulse;
 
 			// Apply contact impulse
-			impulse = c.normal.scale(normalImpulse);
-
-			// b1.velocity.translateMe( impulse.scale( -1.0 * b1.inverseMass )
-			// );
-			b1.setVelocity(b1.getVelocity().translate(
-					impulse.scale(-1.0 * b1.inverseMass)));
-
-			double applied = b1.invMomentOfInertia * r1.cross(impulse);
-			b1.angularVelocity -= applied;
-
-			b2.setVelocity(b2.getVelocity().translate(
-					impulse.scale(b2.inverseMass)));
-
-			applied = b2.invMomentOfInertia * r2.cross(impulse);
-			b2.angularVelocity += applied;
+			applyImpulse(r1x, r1y, r2x, r2y, c.normalX * normalImpulse,
+					c.normalY * normalImpulse);
 
 			// relative velocity at contact
-			// dv = b2.velocity.translate( r2.vCrossD( -1.0 * b2.angularVelocity
-			// ) );
-			// dv.differenceMe( b1.velocity ).translateMe( r1.vCrossD(
-			// b1.angularVelocity ));
-			dv = new VectorOpsBuffer(b2.getVelocity());
-			dv.translateMe(r2.dCrossV(b2.angularVelocity));
-			dv.differenceMe(b1.getVelocity());
-			dv.translateMe(r1.dCrossV(-1.0 * b1.angularVelocity));
+			dvx = v2x - w2 * r2y - v1x + w1 * r1y;
+			dvy = v2y + w2 * r2x - v1y - w1 * r1x;
 
 			maxTangentImpulse = friction * c.accNormalImpulse;
-			tangent = c.normal.dCrossV(-1.0);
+			tangentX = c.normalY;
+			tangentY = -c.normalX;
 
-			vt = dv.getDot(tangent);
+			vt = dvx * tangentX + dvy * tangentY;
 			tangentImpulse = c.massTangent * -vt;
 
 			// clamp
@@ -287,18 +330,87 @@ public class Arbiter {
 					-maxTangentImpulse, maxTangentImpulse);
 			tangentImpulse = c.accTangetImpulse - oldTangentImpulse;
 
-			impulse = tangent.scale(tangentImpulse);
-			b1.setVelocity(b1.getVelocity().difference(
-					impulse.scale(b1.inverseMass)));
-			applied = b1.invMomentOfInertia * r1.cross(impulse);
-			b1.angularVelocity -= applied;
+			applyImpulse(r1x, r1y, r2x, r2y, tangentX * tangentImpulse,
+					tangentY * tangentImpulse);
+		}
+
+		store(state);
+	}
+
+	/**
+	 * Applies an impulse at a contact point to the solver's copy of the
+	 * velocities, pushing body2 along the impulse and body1 against it.
+	 */
+	private void applyImpulse(final double r1x, final double r1y,
+			final double r2x, final double r2y, final double impulseX,
+			final double impulseY) {
+		v1x = v1x - impulseX * body1.inverseMass;
+		v1y = v1y - impulseY * body1.inverseMass;
+		w1 -= body1.invMomentOfInertia * (r1x * impulseY - r1y * impulseX);
+
+		v2x = v2x + impulseX * body2.inverseMass;
+		v2y = v2y + impulseY * body2.inverseMass;
+		w2 += body2.invMomentOfInertia * (r2x * impulseY - r2y * impulseX);
+	}
 
-			applied = b2.invMomentOfInertia * r2.cross(impulse);
-			b2.setVelocity(b2.getVelocity().translate(
-					impulse.scale(b2.inverseMass)));
-			b2.angularVelocity += applied;
+	/**
+	 * Copies the centers and velocities of the boxes into the solver fields.
+	 */
+	private void load(final BoxArrays state) {
+		if (state == null) {
+			center1X = body1.getPositionX() + body1.halfWidth;
+			center1Y = body1.getPositionY() + body1.halfHeight;
+			center2X = body2.getPositionX() + body2.halfWidth;
+			center2Y = body2.getPositionY() + body2.halfHeight;
+			v1x = body1.getVelocityX();
+			v1y = body1.getVelocityY();
+			w1 = body1.angularVelocity;
+			v2x = body2.getVelocityX();
+			v2y = body2.getVelocityY();
+			w2 = body2.angularVelocity;
+		} else {
+			int s1 = body1.slot, s2 = body2.slot;
+			center1X = state.positionX[s1] + body1.halfWidth;
+			center1Y = state.positionY[s1] + body1.halfHeight;
+			center2X = state.positionX[s2] + body2.halfWidth;
+			center2Y = state.positionY[s2] + body2.halfHeight;
+			v1x = state.velocityX[s1];
+			v1y = state.velocityY[s1];
+			w1 = state.angularVelocity[s1];
+			v2x = state.velocityX[s2];
+			v2y = state.velocityY[s2];
+			w2 = state.angularVelocity[s2];
 		}
+	}
 
+	/**
+	 * Copies the solver's velocities back to the movable boxes; immovable
+	 * boxes are never written, see CattoPhysicsEngine.
+	 */
+	private void store(final BoxArrays state) {
+		if (state == null) {
+			if (body1.inverseMass != 0.0) {
+				body1.setVelocity(v1x, v1y);
+				body1.angularVelocity = w1;
+			}
+			if (body2.inverseMass != 0.0) {
+				body2.setVelocity(v2x, v2y);
+				body2.angularVelocity = w2;
+			}
+		} else {
+			if (body1.inverseMass != 0.0) {
+				int s1 = body1.slot;
+				state.velocityX[s1] = v1x;
+				state.velocityY[s1] = v1y;
+				state.angularVelocity[s1] = w1;
+			}
+			if (body2.inverseMass != 0.0) {
+				int s2 = body2.slot;
+				state.velocityX[s2] = v2x;
+				state.velocityY[s2] = v2y;
+				state.angularVelocity[s2] = w2;
+			}
+		}
 	}
 
 	/**
@@ -318,59 +430,57 @@ public class Arbiter {
 	}
 
 	/**
-	 * Clips a line.
+	 * Clips the segment between two vertices of the scratch storage against
+	 * a line, keeping the part on the line's negative side.
 	 * 
-	 * TODO: what does this actually do? Improve parameter documentation
-	 * 
-	 * @param vOut
-	 *            the vertex output array. These ClipVerticies are initialized
-	 *            by this method. There should be 2 ClipVerticies in this array,
-	 *            created with the default constructor.
-	 * 
-	 * @param vIn
-	 *            the vertex input array. These verticies have not been clipped,
-	 *            but are used to initialize the clipped verticies.
-	 * @param normal
-	 *            the normal to the reference edge
+	 * @param out
+	 *            the index of the first of the two output vertices
+	 * @param in
+	 *            the index of the first of the two input vertices
+	 * @param normalX
+	 *            the x component of the line's normal
+	 * @param normalY
+	 *            the y component of the line's normal
 	 * @param offset
-	 *            the relative position
+	 *            the distance of the line from the origin along its normal
 	 * @param clipEdge
-	 *            an edge identifier
-	 * @return the number of valid verticies in the vOut array
+	 *            the edge that the line belongs to, recorded in the feature
+	 *            pair of a clipped vertex
+	 * @return the number of output vertices
 	 */
-	static int clipSegmentToLine(final ClipVertex[] vOut,
-			final ClipVertex[] vIn, final Vector2D normal, final double offset,
+	private int clipSegmentToLine(final int out, final int in,
+			final double normalX, final double normalY, final double offset,
 			final int clipEdge) {
 
 		int numOut = 0;
 
-		double d0 = normal.dot(vIn[0].getV()) - offset;
-		double d1 = normal.dot(vIn[1].getV()) - offset;
+		double d0 = normalX * clipX[in] + normalY * clipY[in] - offset;
+		double d1 = normalX * clipX[in + 1] + normalY * clipY[in + 1] - offset;
 
 		if (d0 <= 0.0) {
-			vOut[numOut++] = vIn[0];
+			copyVertex(in, out + numOut++);
 		}
 		if (d1 <= 0.0) {
-			vOut[numOut++] = vIn[1];
+			copyVertex(in + 1, out + numOut++);
 		}
 
 		if (d0 * d1 < 0.0) {
 
 			// Find intersection point of edge and plane
 			double interp = d0 / (d0 - d1);
-			// vOut[numOut].v = vIn[0].v.translate( vIn[1].v.difference(
-			// vIn[0].v ).scale( interp ));
-			vOut[numOut].vx = vIn[0].vx + (vIn[1].vx - vIn[0].vx) * interp;
-			vOut[numOut].vy = vIn[0].vy + (vIn[1].vy - vIn[0].vy) * interp;
+			int v = out + numOut;
+			clipX[v] = clipX[in] + (clipX[in + 1] - clipX[in]) * interp;
+			clipY[v] = clipY[in] + (clipY[in + 1] - clipY[in]) * interp;
 
+			int f = v * 4;
 			if (d0 > 0.0) {
-				vOut[numOut].fp = vIn[0].fp;
-				vOut[numOut].fp.inEdge1 = clipEdge;
-				vOut[numOut].fp.inEdge2 = FeaturePair.NO_EDGE;
+				System.arraycopy(clipFeature, in * 4, clipFeature, f, 4);
+				clipFeature[f + IN_EDGE1] = clipEdge;
+				clipFeature[f + IN_EDGE2] = FeaturePair.NO_EDGE;
 			} else {
-				vOut[numOut].fp = vIn[1].fp;
-				vOut[numOut].fp.outEdge1 = clipEdge;
-				vOut[numOut].fp.outEdge2 = FeaturePair.NO_EDGE;
+				System.arraycopy(clipFeature, (in + 1) * 4, clipFeature, f, 4);
+				clipFeature[f + OUT_EDGE1] = clipEdge;
+				clipFeature[f + OUT_EDGE2] = FeaturePair.NO_EDGE;
 			}
 			numOut++;
 		}
@@ -378,6 +488,29 @@ public class Arbiter {
 
 	}
 
+	/**
+	 * Copies a vertex of the scratch storage, with its feature pair.
+	 */
+	private void copyVertex(final int from, final int to) {
+		clipX[to] = clipX[from];
+		clipY[to] = clipY[from];
+		System.arraycopy(clipFeature, from * 4, clipFeature, to * 4, 4);
+	}
+
+	/**
+	 * Sets a vertex of the scratch storage.
+	 */
+	private void setVertex(final int v, final double x, final double y,
+			final int inEdge2, final int outEdge2) {
+		clipX[v] = x;
+		clipY[v] = y;
+		int f = v * 4;
+		clipFeature[f + IN_EDGE1] = FeaturePair.NO_EDGE;
+		clipFeature[f + OUT_EDGE1] = FeaturePair.NO_EDGE;
+		clipFeature[f + IN_EDGE2] = inEdge2;
+		clipFeature[f + OUT_EDGE2] = outEdge2;
+	}
+
 	/**
 	 * @return a hash code for the Arbiter.
 	 */
@@ -405,249 +538,247 @@ public class Arbiter {
 	}
 
 	/**
-	 * Computes the incident edge.
-	 * 
-	 * TODO improve parameter documentation
+	 * Computes the incident edge of a box, i.e., the edge most opposed to a
+	 * reference face normal, and stores its two vertices, in world
+	 * coordinates, in the first two slots of the scratch storage.
 	 * 
-	 * @param c
-	 *            a 2 element vector of ClipVerticies which are initialized
-	 *            during this method.
-	 * 
-	 * @param h
-	 *            a vector
-	 * @param pos
-	 *            another vector
-	 * @param rot
-	 *            the rotation matrix
-	 * @param normal
-	 *            the normal
+	 * @param halfWidth
+	 *            half the width of the incident box
+	 * @param halfHeight
+	 *            half the height of the incident box
+	 * @param posX
+	 *            the x coordinate of the center of the incident box
+	 * @param posY
+	 *            the y coordinate of the center of the incident box
+	 * @param cos
+	 *            the cosine of the incident box's rotation
+	 * @param sin
+	 *            the sine of the incident box's rotation
+	 * @param normalX
+	 *            the x component of the reference face normal
+	 * @param normalY
+	 *            the y component of the reference face normal
 	 */
-	static void computeIncidentEdge(final ClipVertex[] c, final Vector2D h,
-			final Vector2D pos, final Matrix22 rot, final Vector2D normal) {
-
-		Matrix22 rotT = rot.transpose();
-		Vector2D n = (rotT.multiply(normal).scale(-1.0));
-		Vector2D nAbs = n.abs();
-
-		if (nAbs.getX() > nAbs.getY()) {
-			if (n.getX() > 0.0) {
-				c[0].vx = h.getX();
-				c[0].vy = -h.getY();
-				c[0].fp.inEdge2 = FeaturePair.EDGE3;
-				c[0].fp.outEdge2 = FeaturePair.EDGE4;
-
-				c[1].vx = h.getX();
-				c[1].vy = h.getY();
-				c[1].fp.inEdge2 = FeaturePair.EDGE4;
-				c[1].fp.outEdge2 = FeaturePair.EDGE1;
-
+	private void computeIncidentEdge(final double halfWidth,
+			final double halfHeight, final double posX, final double posY,
+			final double cos, final double sin, final double normalX,
+			final double normalY) {
+
+		// the normal in the incident box's frame, reversed
+		double nx = -(cos * normalX + sin * normalY);
+		double ny = -(-sin * normalX + cos * normalY);
+
+		if (Math.abs(nx) > Math.abs(ny)) {
+			if (nx > 0.0) {
+				setVertex(0, halfWidth, -halfHeight, FeaturePair.EDGE3,
+						FeaturePair.EDGE4);
+				setVertex(1, halfWidth, halfHeight, FeaturePair.EDGE4,
+						FeaturePair.EDGE1);
 			} else {
-				c[0].vx = -h.getX();
-				c[0].vy = h.getY();
-				c[0].fp.inEdge2 = FeaturePair.EDGE1;
-				c[0].fp.outEdge2 = FeaturePair.EDGE2;
-
-				c[1].vx = -h.getX();
-				c[1].vy = -h.getY();
-				c[1].fp.inEdge2 = FeaturePair.EDGE2;
-				c[1].fp.outEdge2 = FeaturePair.EDGE3;
-
+				setVertex(0, -halfWidth, halfHeight, FeaturePair.EDGE1,
+						FeaturePair.EDGE2);
+				setVertex(1, -halfWidth, -halfHeight, FeaturePair.EDGE2,
+						FeaturePair.EDGE3);
 			}
 		} else {
-
-			if (n.getY() > 0.0) {
-				c[0].vx = h.getX();
-				c[0].vy = h.getY();
-				c[0].fp.inEdge2 = FeaturePair.EDGE4;
-				c[0].fp.outEdge2 = FeaturePair.EDGE1;
-
-				c[1].vx = -h.getX();
-				c[1].vy = h.getY();
-				c[1].fp.inEdge2 = FeaturePair.EDGE1;
-				c[1].fp.outEdge2 = FeaturePair.EDGE2;
-
+			if (ny > 0.0) {
+				setVertex(0, halfWidth, halfHeight, FeaturePair.EDGE4,
+						FeaturePair.EDGE1);
+				setVertex(1, -halfWidth, halfHeight, FeaturePair.EDGE1,
+						FeaturePair.EDGE2);
 			} else {
-				c[0].vx = -h.getX();
-				c[0].vy = -h.getY();
-				c[0].fp.inEdge2 = FeaturePair.EDGE2;
-				c[0].fp.outEdge2 = FeaturePair.EDGE3;
-
-				c[1].vx = h.getX();
-				c[1].vy = -h.getY();
-				c[1].fp.inEdge2 = FeaturePair.EDGE3;
-				c[1].fp.outEdge2 = FeaturePair.EDGE4;
-
+				setVertex(0, -halfWidth, -halfHeight, FeaturePair.EDGE2,
+						FeaturePair.EDGE3);
+				setVertex(1, halfWidth, -halfHeight, FeaturePair.EDGE3,
+						FeaturePair.EDGE4);
 			}
 		}
 
-		// c[0].v = rot.multiply( c[0].v ).translateMe( pos );
-		// c[1].v = rot.multiply( c[1].v ).translateMe( pos );
-		Vector2D rc0 = rot.multiply(c[0].getV());
-		Vector2D rc1 = rot.multiply(c[1].getV());
-		c[0].vx = rc0.getX() + pos.getX();
-		c[0].vy = rc0.getY() + pos.getY();
-		c[1].vx = rc1.getX() + pos.getX();
-		c[1].vy = rc1.getY() + pos.getY();
-
+		double x, y;
+		for (int v = 0; v < 2; v++) {
+			x = clipX[v];
+			y = clipY[v];
+			clipX[v] = cos * x + -sin * y + posX;
+			clipY[v] = sin * x + cos * y + posY;
+		}
 	}
 
 	/**
-	 * Computes the contact points between two boxes.
+	 * Computes the contact points between the two boxes of this arbiter and
+	 * stores them in its contacts.
 	 * 
-	 * @param contacts
-	 *            an array of 2 Contact objects created with the default
-	 *            construct and uninitialized.
+	 * The rotation matrices of the original algorithm are worked out inline
+	 * and the clipped vertices are kept in scratch storage owned by the
+	 * arbiter, so this creates no objects.
 	 * 
-	 * @param bodyA
-	 *            one box involved in the collision
-	 * @param bodyB
-	 *            the other box involved in the collision
-	 * @return the number of valid contact points in the array
+	 * @return the number of valid contact points
 	 */
-	private static int collide(final Contact[] contacts, final Box bodyA,
-			final Box bodyB) {
+	private int collide() {
+		final Box bodyA = body1;
+		final Box bodyB = body2;
 
 		// Setup
-		Vector2D hA = new Vector2D(bodyA.halfWidth, bodyA.halfHeight);
-		Vector2D hB = new Vector2D(bodyB.halfWidth, bodyB.halfHeight);
+		double hAx = bodyA.halfWidth, hAy = bodyA.halfHeight;
+		double hBx = bodyB.halfWidth, hBy = bodyB.halfHeight;
 
-		Vector2D posA = bodyA.getCenterPosition();
-		Vector2D posB = bodyB.getCenterPosition();
+		double posAx = bodyA.getPositionX() + hAx;
+		double posAy = bodyA.getPositionY() + hAy;
+		double posBx = bodyB.getPositionX() + hBx;
+		double posBy = bodyB.getPositionY() + hBy;
 
-		Matrix22 rotA = new Matrix22(bodyA.rotation);
-		Matrix22 rotB = new Matrix22(bodyB.rotation);
+		// the rotation of A is (cA -sA; sA cA), that of B (cB -sB; sB cB)
+		double cA = Math.cos(bodyA.rotation), sA = Math.sin(bodyA.rotation);
+		double cB = Math.cos(bodyB.rotation), sB = Math.sin(bodyB.rotation);
 
-		Matrix22 rotAT = rotA.transpose();
-		Matrix22 rotBT = rotB.transpose();
+		double dpx = posBx - posAx;
+		double dpy = posBy - posAy;
 
-		Vector2D dp = posB.difference(posA);
-		Vector2D dA = rotAT.multiply(dp);
-		Vector2D dB = rotBT.multiply(dp);
+		// the offset in the frames of A and B (rotAT * dp, rotBT * dp)
+		double dAx = cA * dpx + sA * dpy;
+		double dAy = -sA * dpx + cA * dpy;
+		double dBx = cB * dpx + sB * dpy;
+		double dBy = -sB * dpx + cB * dpy;
 
-		Matrix22 c = rotAT.multiply(rotB);
-		Matrix22 absC = c.abs();
-		Matrix22 absCT = absC.transpose();
+		// absC = |rotAT * rotB|
+		double absC11 = Math.abs(cA * cB + sA * sB);
+		double absC12 = Math.abs(cA * -sB + sA * cB);
+		double absC21 = Math.abs(-sA * cB + cA * sB);
+		double absC22 = Math.abs(-sA * -sB + cA * cB);
 
-		VectorOpsBuffer faceA = new VectorOpsBuffer(dA);
-		faceA.absMe();
-		faceA.differenceMe(hA);
-		faceA.differenceMe(absC.multiply(hB));
+		double faceAx = (Math.abs(dAx) - hAx) - (absC11 * hBx + absC12 * hBy);
+		double faceAy = (Math.abs(dAy) - hAy) - (absC21 * hBx + absC22 * hBy);
 
-		if (faceA.x > 0.0 || faceA.y > 0.0) {
+		if (faceAx > 0.0 || faceAy > 0.0) {
 			return 0;
 		}
 
-		VectorOpsBuffer faceB = new VectorOpsBuffer(dB);
-		faceB.absMe();
-		faceB.differenceMe(absCT.multiply(hA));
-		faceB.differenceMe(hB);
+		double faceBx = (Math.abs(dBx) - (absC11 * hAx + absC21 * hAy)) - hBx;
+		double faceBy = (Math.abs(dBy) - (absC12 * hAx + absC22 * hAy)) - hBy;
 
-		if (faceB.x > 0.0 || faceB.y > 0.0) {
+		if (faceBx > 0.0 || faceBy > 0.0) {
 			return 0;
 		}
 
 		// Find best axis
 		int axis;
 		double seperation;
-		Vector2D normal;
+		double normalX, normalY;
 
 		axis = FACE_AX;
-		seperation = faceA.x;
-		if (dA.getX() > 0.0) {
-			normal = new Vector2D(rotA.a, rotA.c);
+		seperation = faceAx;
+		if (dAx > 0.0) {
+			normalX = cA;
+			normalY = sA;
 		} else {
-			normal = new Vector2D(-rotA.a, -rotA.c);
+			normalX = -cA;
+			normalY = -sA;
 		}
 
-		if (faceA.y > 1.05 * seperation + .01 * hA.getY()) {
+		if (faceAy > 1.05 * seperation + .01 * hAy) {
 			axis = FACE_AY;
-			seperation = faceA.y;
-			if (dA.getY() > 0) {
-				normal = new Vector2D(rotA.b, rotA.d);
+			seperation = faceAy;
+			if (dAy > 0) {
+				normalX = -sA;
+				normalY = cA;
 			} else {
-				normal = new Vector2D(-rotA.b, -rotA.d);
+				normalX = sA;
+				normalY = -cA;
 			}
 		}
 
-		if (faceB.x > 1.05f * seperation + .01f * hB.getX()) {
+		if (faceBx > 1.05f * seperation + .01f * hBx) {
 			axis = FACE_BX;
-			seperation = faceB.x;
-			if (dB.getX() > 0.0) {
-				normal = new Vector2D(rotB.a, rotB.c);
+			seperation = faceBx;
+			if (dBx > 0.0) {
+				normalX = cB;
+				normalY = sB;
 			} else {
-				normal = new Vector2D(-rotB.a, -rotB.c);
+				normalX = -cB;
+				normalY = -sB;
 			}
 		}
 
-		if (faceB.y > 1.05f * seperation + .01f * hB.getY()) {
+		if (faceBy > 1.05f * seperation + .01f * hBy) {
 			axis = FACE_BY;
-			seperation = faceB.y;
-			if (dB.getY() > 0.0) {
-				normal = new Vector2D(rotB.b, rotB.d);
+			seperation = faceBy;
+			if (dBy > 0.0) {
+				normalX = -sB;
+				normalY = cB;
 			} else {
-				normal = new Vector2D(-rotB.b, -rotB.d);
+				normalX = sB;
+				normalY = -cB;
 			}
 		}
 
 		// Setup clipping plane
-		Vector2D frontNormal = new Vector2D(0, 0), sideNormal = new Vector2D(0,
-				0);
-		ClipVertex[] incidentEdge = { new ClipVertex(), new ClipVertex() };
+		double frontNormalX = 0, frontNormalY = 0;
+		double sideNormalX = 0, sideNormalY = 0;
 		double front = 0, negSide = 0, posSide = 0;
 		int negEdge = 0, posEdge = 0;
 		double side = 0;
 
 		switch (axis) {
 		case FACE_AX:
-			frontNormal = normal;
-			front = posA.dot(frontNormal) + hA.getX();
-			sideNormal = new Vector2D(rotA.b, rotA.d);
-			side = posA.dot(sideNormal);
-			negSide = -side + hA.getY();
-			posSide = side + hA.getY();
+			frontNormalX = normalX;
+			frontNormalY = normalY;
+			front = (posAx * frontNormalX + posAy * frontNormalY) + hAx;
+			sideNormalX = -sA;
+			sideNormalY = cA;
+			side = posAx * sideNormalX + posAy * sideNormalY;
+			negSide = -side + hAy;
+			posSide = side + hAy;
 			negEdge = FeaturePair.EDGE3;
 			posEdge = FeaturePair.EDGE1;
-			computeIncidentEdge(incidentEdge, hB, posB, rotB, frontNormal);
+			computeIncidentEdge(hBx, hBy, posBx, posBy, cB, sB, frontNormalX,
+					frontNormalY);
 
 			break;
 
 		case FACE_AY:
-			frontNormal = normal;
-			front = posA.dot(frontNormal) + hA.getY();
-			sideNormal = new Vector2D(rotA.a, rotA.c);
-			side = posA.dot(sideNormal);
-			negSide = -side + hA.getX();
-			posSide = side + hA.getX();
+			frontNormalX = normalX;
+			frontNormalY = normalY;
+			front = (posAx * frontNormalX + posAy * frontNormalY) + hAy;
+			sideNormalX = cA;
+			sideNormalY = sA;
+			side = posAx * sideNormalX + posAy * sideNormalY;
+			negSide = -side + hAx;
+			posSide = side + hAx;
 			negEdge = FeaturePair.EDGE2;
 			posEdge = FeaturePair.EDGE4;
-			computeIncidentEdge(incidentEdge, hB, posB, rotB, frontNormal);
+			computeIncidentEdge(hBx, hBy, posBx, posBy, cB, sB, frontNormalX,
+					frontNormalY);
 
 			break;
 
 		case FACE_BX:
-
-			frontNormal = normal.scale(-1.0);
-			front = posB.dot(frontNormal) + hB.getX();
-			sideNormal = new Vector2D(rotB.b, rotB.d);
-			side = posB.dot(sideNormal);
-			negSide = -side + hB.getY();
-			posSide = side + hB.getY();
+			frontNormalX = -normalX;
+			frontNormalY = -normalY;
+			front = (posBx * frontNormalX + posBy * frontNormalY) + hBx;
+			sideNormalX = -sB;
+			sideNormalY = cB;
+			side = posBx * sideNormalX + posBy * sideNormalY;
+			negSide = -side + hBy;
+			posSide = side + hBy;
 			negEdge = FeaturePair.EDGE3;
 			posEdge = FeaturePair.EDGE1;
-			computeIncidentEdge(incidentEdge, hA, posA, rotA, frontNormal);
+			computeIncidentEdge(hAx, hAy, posAx, posAy, cA, sA, frontNormalX,
+					frontNormalY);
 
 			break;
 
 		case FACE_BY:
-			frontNormal = normal.scale(-1.0);
-			front = posB.dot(frontNormal) + hB.getY();
-			sideNormal = new Vector2D(rotB.a, rotB.c);
-			side = posB.dot(sideNormal);
-			negSide = -side + hB.getX();
-			posSide = side + hB.getX();
+			frontNormalX = -normalX;
+			frontNormalY = -normalY;
+			front = (posBx * frontNormalX + posBy * frontNormalY) + hBy;
+			sideNormalX = cB;
+			sideNormalY = sB;
+			side = posBx * sideNormalX + posBy * sideNormalY;
+			negSide = -side + hBx;
+			posSide = side + hBx;
 			negEdge = FeaturePair.EDGE2;
 			posEdge = FeaturePair.EDGE4;
-			computeIncidentEdge(incidentEdge, hA, posA, rotA, frontNormal);
+			computeIncidentEdge(hAx, hAy, posAx, posAy, cA, sA, frontNormalX,
+					frontNormalY);
 
 			break;
 
@@ -656,241 +787,52 @@ public class Arbiter {
 					"Unexpected condition in jig.engine.physics.ecpe.Arbiter");
 			break;
 		}
-		ClipVertex[] clipPoints1 = { new ClipVertex(), new ClipVertex() };
-		ClipVertex[] clipPoints2 = { new ClipVertex(), new ClipVertex() };
 
 		int np;
 
 		// Clip to box side 1
-		np = clipSegmentToLine(clipPoints1, incidentEdge, sideNormal
-				.scale(-1.0), negSide, negEdge);
+		np = clipSegmentToLine(CLIP1, INCIDENT, -sideNormalX, -sideNormalY,
+				negSide, negEdge);
 		if (np < 2) {
 			return 0;
 		}
 
 		// Clip to - box side 1
-		np = clipSegmentToLine(clipPoints2, clipPoints1, sideNormal, posSide,
-				posEdge);
+		np = clipSegmentToLine(CLIP2, CLIP1, sideNormalX, sideNormalY,
+				posSide, posEdge);
 		if (np < 2) {
 			return 0;
 		}
 
 		// Due to roundoff, clipping may remove all points
-		int numContacts = 0;
-		for (int i = 0; i < 2; ++i) {
-			double separation = frontNormal.dot(clipPoints2[i].getV()) - front;
+		int n = 0;
+		Contact c;
+		for (int v = CLIP2; v < CLIP2 + 2; ++v) {
+			double separation = (frontNormalX * clipX[v] + frontNormalY
+					* clipY[v])
+					- front;
 
 			if (separation <= 0) {
-				contacts[numContacts].separation = separation;
-				contacts[numContacts].normal = normal;
+				c = contacts[n];
+				c.separation = separation;
+				c.normalX = normalX;
+				c.normalY = normalY;
 				// slide contact point onto reference face (easy to cull)
-				contacts[numContacts].position = clipPoints2[i].getV()
-						.difference(frontNormal.scale(separation));
-				contacts[numContacts].feature = clipPoints2[i].fp;
+				c.positionX = clipX[v] - frontNormalX * separation;
+				c.positionY = clipY[v] - frontNormalY * separation;
+				int f = v * 4;
+				c.feature.inEdge1 = clipFeature[f + IN_EDGE1];
+				c.feature.outEdge1 = clipFeature[f + OUT_EDGE1];
+				c.feature.inEdge2 = clipFeature[f + IN_EDGE2];
+				c.feature.outEdge2 = clipFeature[f + OUT_EDGE2];
 				if (axis == FACE_BX || axis == FACE_BY) {
-					contacts[numContacts].feature.flip();
+					c.feature.flip();
 				}
-				++numContacts;
+				++n;
 			}
 		}
 
-		return numContacts;
-
-	}
-}
-
-/**
- * A contact point between two bodies.
- * 
- * @author Scott Wallace
- */
-class Contact {
-	Vector2D position;
-
-	Vector2D normal;
-
-	double separation;
-
-	double accNormalImpulse = 0.0;
-
-	double accTangetImpulse = 0.0;
-
-	double massNormal, massTangent;
-
-	double bias;
-
-	FeaturePair feature;
-
-	/**
-	 * Creates a new, essentially uninitialized, contact point between two
-	 * bodies.
-	 */
-	public Contact() {
-		position = new Vector2D(0.0, 0.0);
-		normal = new Vector2D(0.0, 0.0);
-		feature = new FeaturePair();
-	}
-
-	/**
-	 * Copies a contact point.
-	 * 
-	 * @param c
-	 *            the contact point to copy
-	 */
-	public Contact(final Contact c) {
-		position = c.position; // new Vector2D(c.position);
-		normal = c.normal; // new Vector2D(c.normal);
-		separation = c.separation;
-		accNormalImpulse = c.accNormalImpulse;
-		accTangetImpulse = c.accTangetImpulse;
-		massNormal = c.massNormal;
-		massTangent = c.massTangent;
-		bias = c.bias;
-		feature = new FeaturePair(c.feature);
-	}
-}
-
-/**
- * An indicator of where contact points lie with respect to the edges of each
- * box involved in the collision.
- * 
- * <pre>
- *              EDGE1 
- *            +-------+ 
- *     EDGE2  |       |  EDGE4
- *            |       | 
- *            +-------+ 
- *              EDGE3
- * </pre>
- * 
- * @author Erin Catto
- * @author (Ported by) Scott Wallace
- * 
- */
-class FeaturePair {
-	static final int NO_EDGE = 0;
-
-	static final int EDGE1 = 1;
-
-	static final int EDGE2 = 2;
-
-	static final int EDGE3 = 3;
-
-	static final int EDGE4 = 4;
-
-	int inEdge1;
-
-	int outEdge1;
-
-	int inEdge2;
-
-	int outEdge2;
-
-	/**
-	 * Creates a new, essentially uninitialized, FeaturePair.
-	 */
-	FeaturePair() {
-		inEdge1 = 0;
-		outEdge1 = 0;
-		inEdge2 = 0;
-		outEdge2 = 0;
-	}
-
-	/**
-	 * Copies an existing FeaturePair.
-	 * 
-	 * @param f
-	 *            the FeaturePair to be copied.
-	 */
-	FeaturePair(final FeaturePair f) {
-		inEdge1 = f.inEdge1;
-		inEdge2 = f.inEdge2;
-		outEdge1 = f.outEdge1;
-		outEdge2 = f.outEdge2;
-
-	}
-
-	/**
-	 * Determines if two FeaturePairs are equal.
-	 * 
-	 * @param fp
-	 *            the object to compare against.
-	 * @return <code>true</code> iff the FeaturePairs are equal
-	 */
-	@Override
-	public boolean equals(final Object fp) {
-		if (!(fp instanceof FeaturePair)) {
-			return false;
-		}
-		FeaturePair f = (FeaturePair) fp;
-
-		if (inEdge1 != f.inEdge1) {
-			return false;
-		}
-		if (inEdge2 != f.inEdge2) {
-			return false;
-		}
-		if (outEdge2 != f.outEdge2) {
-			return false;
-		}
-		if (outEdge1 != f.outEdge1) {
-			return false;
-		}
-		return true;
-	}
-
-	/**
-	 * @return a (perfect/collision free) hash code for the FeaturePair.
-	 */
-	@Override
-	public int hashCode() {
-		// maximum = 4 + 20 + 100 + 500 = 624 //
-		return outEdge1 + outEdge2 * 5 + inEdge1 * 25 + inEdge2 * 125;
-	}
-
-	/**
-	 * Flip the feature pair by swapping Edge1 and Edge2.
-	 */
-	void flip() {
-		int tmp;
-		tmp = inEdge1;
-		inEdge1 = inEdge2;
-		inEdge2 = tmp;
-
-		tmp = outEdge1;
-		outEdge1 = outEdge2;
-		outEdge2 = tmp;
-	}
-}
+		return n;
 
-/**
- * A point of contact between two boxes managed by the Arbiter.
- * 
- * @author Erin Catto
- * @author (Ported by) Scott Wallace
- * 
- */
-class ClipVertex {
-
-	FeaturePair fp;
-
-	double vx, vy;
-
-	/**
-	 * Creates a new uninitialized ClipVertex.
-	 */
-	ClipVertex() {
-
-		fp = new FeaturePair();
-		vx = 0.0;
-		vy = 0.0;
 	}
-
-	/**
-	 * @return a vector representation of the ClipVertex position
-	 */
-	Vector2D getV() {
-		return new Vector2D(vx, vy);
-	}
-
 }
@@ -0,0 +1,116 @@
+package jig.engine.physics.ecpe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An open addressing hash table of arbiters, keyed by the ordered pair of
+ * boxes they arbitrate (the identity defined by <code>Arbiter.equals</code>).
+ * Collisions are resolved by linear probing.
+ *
+ * Entries cannot be removed one by one; the engine evicts arbiters by
+ * compacting its list of arbiters and then rebuilding the table from it with
+ * {@link #rebuild(List)}. Neither looking up, adding nor rebuilding creates
+ * garbage unless the table has to grow.
+ */
+final class ArbiterTable {
+
+	private Arbiter[] slots = new Arbiter[64];
+
+	private int mask = slots.length - 1;
+
+	private int size;
+
+	/**
+	 * Finds the arbiter for two boxes.
+	 *
+	 * @param body1
+	 *            the first box of the pair, in the order used by
+	 *            <code>Arbiter</code>
+	 * @param body2
+	 *            the second box of the pair
+	 * @return the arbiter, or <code>null</code> if there is none
+	 */
+	Arbiter get(final Box body1, final Box body2) {
+		int i = hash(body1.id, body2.id) & mask;
+		Arbiter a;
+		while ((a = slots[i]) != null) {
+			if (a.body1.id == body1.id && a.body2.id == body2.id) {
+				return a;
+			}
+			i = (i + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Adds an arbiter, which must not be in the table yet.
+	 *
+	 * @param a
+	 *            the arbiter
+	 */
+	void put(final Arbiter a) {
+		if (2 * (size + 1) > slots.length) {
+			grow();
+		}
+		insert(a);
+		size++;
+	}
+
+	/**
+	 * Replaces the contents of the table.
+	 *
+	 * @param arbiters
+	 *            the arbiters to keep, all for different pairs of boxes
+	 */
+	void rebuild(final List<Arbiter> arbiters) {
+		clear();
+		int n = arbiters.size();
+		for (int i = 0; i < n; i++) {
+			put(arbiters.get(i));
+		}
+	}
+
+	/** Removes all arbiters. */
+	void clear() {
+		Arrays.fill(slots, null);
+		size = 0;
+	}
+
+	/**
+	 * @return the number of arbiters in the table
+	 */
+	int size() {
+		return size;
+	}
+
+	private void insert(final Arbiter a) {
+		int i = hash(a.body1.id, a.body2.id) & mask;
+		while (slots[i] != null) {
+			i = (i + 1) & mask;
+		}
+		slots[i] = a;
+	}
+
+	private void grow() {
+		Arbiter[] old = slots;
+		slots = new Arbiter[old.length * 2];
+		mask = slots.length - 1;
+		for (Arbiter a : old) {
+			if (a != null) {
+				insert(a);
+			}
+		}
+	}
+
+	/**
+	 * Hashes a pair of box ids. Box ids are small consecutive numbers, so
+	 * <code>Arbiter.hashCode</code> would put the arbiters of neighboring
+	 * boxes in runs of neighboring slots; the ids are mixed instead.
+	 */
+	private static int hash(final int id1, final int id2) {
+		int h = (id1 * 0x9E3779B9) ^ id2;
+		h *= 0x85EBCA6B;
+		return h ^ (h >>> 16);
+	}
+}
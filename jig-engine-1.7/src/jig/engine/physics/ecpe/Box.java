@@ -56,6 +56,28 @@ public class Box extends Body implements Comparable<Box> {
 
 	int id;
 
+	/**
+	 * The axis aligned bounding box of this (possibly rotated) box, as of the
+	 * last call to <code>updateBounds</code>. Maintained by the engine's broad
+	 * phase.
+	 */
+	double minX, minY, maxX, maxY;
+
+	/** The broad phase step in which this box was last seen in its layer. */
+	int sweepStamp;
+
+	/** This box's index in the island solver, valid in step islandStamp. */
+	int islandIndex, islandStamp;
+
+	/** The slot of the box in the engine's <code>BoxArrays</code>. */
+	int slot, slotStamp;
+
+	/** How long (in seconds) this box has been nearly at rest. */
+	double sleepTime;
+
+	/** Where this box was put to sleep, to notice when it is moved. */
+	private double sleepX, sleepY, sleepRotation;
+
 	/**
 	 * Creates a new Box with the specified image resources.
 	 * 
@@ -95,8 +117,8 @@ public class Box extends Body implements Comparable<Box> {
 		}
 
 		// Should be the same as above but actually one less operation
-		AffineTransform at = AffineTransform.getTranslateInstance(position
-				.getX() + halfWidth, position.getY() + halfHeight);
+		AffineTransform at = AffineTransform.getTranslateInstance(
+				getPositionX() + halfWidth, getPositionY() + halfHeight);
 		at.rotate(rotation);
 		at.translate(-halfWidth, -halfHeight);
 
@@ -149,7 +171,7 @@ public class Box extends Body implements Comparable<Box> {
 	 * @param p the desired position
 	 */
 	public void setPosition(final Vector2D p) {
-		position = p;
+		super.setPosition(p);
 	}
 	
 	/**
@@ -157,7 +179,7 @@ public class Box extends Body implements Comparable<Box> {
 	 * rotation were ignored.
 	 */
 	public Vector2D getPosition() {
-		return position;
+		return super.getPosition();
 	}
 	/**
 	 * Sets the position of this box's center.
@@ -166,15 +188,66 @@ public class Box extends Body implements Comparable<Box> {
 	 *            the box's new position
 	 */
 	public void setCenterPosition(final Vector2D p) {
-		position = new Vector2D(p.getX() - halfWidth, p.getY() - halfHeight);
+		setPosition(p.getX() - halfWidth, p.getY() - halfHeight);
 	}
 
 	/**
 	 * @return the position of the box's center.
 	 */
 	public Vector2D getCenterPosition() {
-		return new Vector2D(position.getX() + halfWidth, 
-				position.getY() + halfHeight);
+		return new Vector2D(getPositionX() + halfWidth, 
+				getPositionY() + halfHeight);
+	}
+
+	/**
+	 * Recomputes the axis aligned bounding box of this box from its current
+	 * position and rotation.
+	 */
+	void updateBounds() {
+		double c = Math.abs(Math.cos(rotation));
+		double s = Math.abs(Math.sin(rotation));
+		double ex = c * halfWidth + s * halfHeight;
+		double ey = s * halfWidth + c * halfHeight;
+		double cx = getPositionX() + halfWidth;
+		double cy = getPositionY() + halfHeight;
+
+		minX = cx - ex;
+		maxX = cx + ex;
+		minY = cy - ey;
+		maxY = cy + ey;
+	}
+
+	/**
+	 * Puts this box to sleep, stopping it where it is.
+	 */
+	void sleep() {
+		setSleeping(true);
+		setVelocity(0.0, 0.0);
+		angularVelocity = 0.0;
+		updateBounds();
+		sleepX = getPositionX();
+		sleepY = getPositionY();
+		sleepRotation = rotation;
+	}
+
+	/**
+	 * Wakes this box, if it is asleep, and restarts its rest timer.
+	 */
+	void wake() {
+		setSleeping(false);
+		sleepTime = 0.0;
+	}
+
+	/**
+	 * @return <code>true</code> iff this box has been given a force, torque
+	 *         or velocity, or has been moved or rotated, since it was put to
+	 *         sleep
+	 */
+	boolean isDisturbed() {
+		return force.getX() != 0.0 || force.getY() != 0.0 || torque != 0.0
+				|| getVelocityX() != 0.0 || getVelocityY() != 0.0
+				|| angularVelocity != 0.0 || getPositionX() != sleepX
+				|| getPositionY() != sleepY || rotation != sleepRotation;
 	}
 
 	/**
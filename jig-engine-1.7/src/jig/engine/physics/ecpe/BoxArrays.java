@@ -0,0 +1,225 @@
+package jig.engine.physics.ecpe;
+
+import java.util.Arrays;
+import java.util.List;
+
+import jig.engine.physics.BodyLayer;
+import jig.engine.util.Vector2D;
+
+/**
+ * The state of the boxes of a <code>CattoPhysicsEngine</code> during a step,
+ * kept in parallel arrays (a structure of arrays) rather than in the boxes.
+ *
+ * Each box managed by the engine is given a slot when the arrays are loaded
+ * at the start of a step. The integration loops then walk the arrays
+ * linearly, and the solver reads and writes velocities by slot, without
+ * going through the boxes. When the step is done the state is stored back
+ * in the boxes, which remain the authoritative copy between steps, so game
+ * code (and subclasses of <code>Box</code>) need not know about the arrays.
+ *
+ * @see CattoPhysicsEngine#setStructureOfArrays(boolean)
+ */
+final class BoxArrays {
+
+	private Box[] boxes = new Box[64];
+
+	double[] positionX = new double[64];
+
+	double[] positionY = new double[64];
+
+	double[] rotation = new double[64];
+
+	double[] velocityX = new double[64];
+
+	double[] velocityY = new double[64];
+
+	double[] angularVelocity = new double[64];
+
+	double[] forceX = new double[64];
+
+	double[] forceY = new double[64];
+
+	double[] torque = new double[64];
+
+	double[] inverseMass = new double[64];
+
+	double[] invMomentOfInertia = new double[64];
+
+	boolean[] asleep = new boolean[64];
+
+	/** The number of slots in use. */
+	private int size;
+
+	/**
+	 * The number of slots holding boxes of the managed layers; the slots
+	 * after them hold boxes that are only connected by joints, which are
+	 * solved but not integrated.
+	 */
+	private int layerSize;
+
+	private int stamp;
+
+	/**
+	 * Gives every box of the layers, and of the joints, a slot and copies its
+	 * state into the arrays.
+	 *
+	 * @param layers
+	 *            the layers managed by the engine
+	 * @param joints
+	 *            the engine's joints
+	 */
+	void load(final List<BodyLayer<? extends Box>> layers,
+			final List<Joint> joints) {
+		stamp++;
+		size = 0;
+		int nLayers = layers.size();
+		for (int k = 0; k < nLayers; k++) {
+			BodyLayer<? extends Box> layer = layers.get(k);
+			int n = layer.size();
+			for (int i = 0; i < n; i++) {
+				add(layer.get(i));
+			}
+		}
+		layerSize = size;
+		int nJoints = joints.size();
+		for (int i = 0; i < nJoints; i++) {
+			Joint j = joints.get(i);
+			add(j.body1);
+			add(j.body2);
+		}
+	}
+
+	/**
+	 * @return the number of slots in use
+	 */
+	int size() {
+		return size;
+	}
+
+	private void add(final Box b) {
+		if (b.slotStamp == stamp) {
+			return;
+		}
+		if (size == boxes.length) {
+			grow();
+		}
+		int s = size++;
+		b.slot = s;
+		b.slotStamp = stamp;
+		boxes[s] = b;
+		positionX[s] = b.getPositionX();
+		positionY[s] = b.getPositionY();
+		rotation[s] = b.rotation;
+		velocityX[s] = b.getVelocityX();
+		velocityY[s] = b.getVelocityY();
+		angularVelocity[s] = b.angularVelocity;
+		forceX[s] = b.force.getX();
+		forceY[s] = b.force.getY();
+		torque[s] = b.torque;
+		inverseMass[s] = b.inverseMass;
+		invMomentOfInertia[s] = b.invMomentOfInertia;
+		asleep[s] = b.isSleeping();
+	}
+
+	private void grow() {
+		int n = boxes.length * 2;
+		boxes = Arrays.copyOf(boxes, n);
+		positionX = Arrays.copyOf(positionX, n);
+		positionY = Arrays.copyOf(positionY, n);
+		rotation = Arrays.copyOf(rotation, n);
+		velocityX = Arrays.copyOf(velocityX, n);
+		velocityY = Arrays.copyOf(velocityY, n);
+		angularVelocity = Arrays.copyOf(angularVelocity, n);
+		forceX = Arrays.copyOf(forceX, n);
+		forceY = Arrays.copyOf(forceY, n);
+		torque = Arrays.copyOf(torque, n);
+		inverseMass = Arrays.copyOf(inverseMass, n);
+		invMomentOfInertia = Arrays.copyOf(invMomentOfInertia, n);
+		asleep = Arrays.copyOf(asleep, n);
+	}
+
+	/**
+	 * Notes that a box was woken by the solver, so that it is integrated
+	 * and stored.
+	 *
+	 * @param b
+	 *            the box
+	 */
+	void wake(final Box b) {
+		if (b.slotStamp == stamp) {
+			asleep[b.slot] = false;
+		}
+	}
+
+	/**
+	 * Applies the forces, and gravity, to the velocities of the movable boxes
+	 * that are awake.
+	 *
+	 * @param gx
+	 *            the x component of gravity
+	 * @param gy
+	 *            the y component of gravity
+	 * @param dt
+	 *            the time step
+	 */
+	void integrateForces(final double gx, final double gy, final double dt) {
+		for (int i = 0; i < layerSize; i++) {
+			if (inverseMass[i] == 0.0 || asleep[i]) {
+				continue;
+			}
+			velocityX[i] = velocityX[i] + (forceX[i] * inverseMass[i] + gx)
+					* dt;
+			velocityY[i] = velocityY[i] + (forceY[i] * inverseMass[i] + gy)
+					* dt;
+			angularVelocity[i] += dt * invMomentOfInertia[i] * torque[i];
+		}
+	}
+
+	/**
+	 * Moves and rotates the boxes that are awake by their velocities.
+	 *
+	 * @param dt
+	 *            the time step
+	 */
+	void integratePositions(final double dt) {
+		for (int i = 0; i < layerSize; i++) {
+			if (asleep[i]) {
+				continue;
+			}
+			positionX[i] = positionX[i] + velocityX[i] * dt;
+			positionY[i] = positionY[i] + velocityY[i] * dt;
+			rotation[i] += dt * angularVelocity[i];
+		}
+	}
+
+	/**
+	 * Copies the state of the boxes that are awake back into them, clears
+	 * their forces and torques, and lets go of the boxes.
+	 */
+	void store() {
+		for (int i = 0; i < layerSize; i++) {
+			if (asleep[i]) {
+				boxes[i] = null;
+				continue;
+			}
+			Box b = boxes[i];
+			b.setPosition(positionX[i], positionY[i]);
+			b.rotation = rotation[i];
+			b.setVelocity(velocityX[i], velocityY[i]);
+			b.angularVelocity = angularVelocity[i];
+			b.force = Vector2D.ZERO;
+			b.torque = 0.0;
+			boxes[i] = null;
+		}
+		for (int i = layerSize; i < size; i++) {
+			Box b = boxes[i];
+			if (b.inverseMass != 0.0) {
+				b.setVelocity(velocityX[i], velocityY[i]);
+				b.angularVelocity = angularVelocity[i];
+			}
+			boxes[i] = null;
+		}
+		size = 0;
+		layerSize = 0;
+	}
+}
@@ -15,6 +15,8 @@
 package jig.engine.physics.ecpe;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
 
 import jig.engine.PhysicsEngine;
@@ -65,12 +67,63 @@ public class CattoPhysicsEngine implements PhysicsEngine<Box> {
 	/** DESIGN: consider making this private. */
 	protected ArrayList<Arbiter> arbiters;
 
+	/** Indexes <code>arbiters</code> by the pair of boxes. */
+	private final ArbiterTable arbiterTable = new ArbiterTable();
+
+	/** Arbiters no longer in use, kept for reuse. */
+	private Arbiter[] arbiterPool = new Arbiter[16];
+
+	private int pooledArbiters;
+
+	/**
+	 * Solves the constraints island by island (concurrently, or to let
+	 * islands sleep), or <code>null</code> to solve them serially.
+	 */
+	private IslandSolver islandSolver;
+
+	private int solverThreads = 1;
+
+	private boolean sleepAllowed;
+
+	/** The speed (in pixels per second) below which a box is at rest. */
+	private double linearSleepTolerance = 2.0;
+
+	/** The angular speed (in radians per second) below which a box is at rest. */
+	private double angularSleepTolerance = 2.0 * Math.PI / 180.0;
+
+	/** How long (in seconds) an island must be at rest to fall asleep. */
+	private double timeToSleep = 0.5;
+
+	/**
+	 * The state of the boxes during a step, or <code>null</code> if the
+	 * boxes are stepped in place.
+	 */
+	private BoxArrays boxArrays;
+
+	/**
+	 * Solves the contacts in batches that share no movable box, or
+	 * <code>null</code> to solve them arbiter by arbiter.
+	 */
+	private ContactBatches contactBatches;
+
+	/** <code>true</code> if the batches should be solved in lanes. */
+	private boolean vectorSolver;
+
 	private Vector2D gravity;
 
 	protected LinkedList<BodyLayer<? extends Box>> managedLayers;
 
 	boolean drawArbiters = false;
 
+	/**
+	 * The boxes of each managed layer, sorted by the left edge of their
+	 * bounding boxes; parallel to <code>managedLayers</code>.
+	 */
+	private final ArrayList<SweepList> sweepLists = new ArrayList<SweepList>();
+
+	/** Counts broad phase passes, for detecting changes to the layers. */
+	private int sweepStamp;
+
 	/**
 	 * Creates a physics engine with the gravitational Vector (0,100).
 	 */
@@ -118,6 +171,7 @@ public class CattoPhysicsEngine implements PhysicsEngine<Box> {
 	 */
 	public void manageViewableSet(final BodyLayer<? extends Box> v) {
 		managedLayers.add(v);
+		sweepLists.add(new SweepList(v));
 
 		int maxCollisions = 0;
 		for (BodyLayer<?> l : managedLayers) {
@@ -144,6 +198,214 @@ public class CattoPhysicsEngine implements PhysicsEngine<Box> {
 		}
 	}
 
+	/**
+	 * Sets the number of threads used to solve the contact and joint
+	 * constraints in each step. With more than one thread, the engine finds
+	 * the islands of movable boxes connected by arbiters and joints, and
+	 * solves independent islands concurrently; scenes made of many separate
+	 * stacks or piles then use several cores. The result is exactly the same
+	 * as when solving on one thread.
+	 * 
+	 * The extra threads are daemon threads, kept until the number of threads
+	 * is changed again. By default the constraints are solved serially in
+	 * the thread calling <code>applyLawsOfPhysics</code>.
+	 * 
+	 * @param n
+	 *            the number of threads, including the calling thread; 1 (or
+	 *            less) solves serially, and
+	 *            <code>Runtime.getRuntime().availableProcessors()</code> uses
+	 *            every core
+	 */
+	public void setSolverThreads(final int n) {
+		solverThreads = Math.max(1, n);
+		configureIslandSolver();
+	}
+
+	/**
+	 * @return the number of threads solving the constraints in each step
+	 * @see #setSolverThreads(int)
+	 */
+	public int getSolverThreads() {
+		return solverThreads;
+	}
+
+	/**
+	 * Allows (or forbids) boxes to sleep. A box has been at rest while its
+	 * speed and angular speed stay below the sleep tolerances. Once every box
+	 * of an island (the movable boxes connected by arbiters and joints) has
+	 * been at rest for a while, the whole island is put to sleep: its boxes
+	 * are stopped, and they are no longer collided, solved or moved, so that
+	 * settled stacks cost next to nothing.
+	 * 
+	 * A sleeping island wakes when an awake box touches it, when a joint
+	 * connects it to an awake box, or when a force, torque, velocity,
+	 * position or rotation is given to one of its boxes. Forbidding sleep
+	 * wakes every box.
+	 * 
+	 * Sleep is not allowed by default.
+	 * 
+	 * @param allowed
+	 *            <code>true</code> if boxes may sleep
+	 * @see #setSleepTolerances(double, double, double)
+	 * @see jig.engine.physics.Body#isSleeping()
+	 */
+	public void setSleepAllowed(final boolean allowed) {
+		sleepAllowed = allowed;
+		if (!allowed) {
+			for (BodyLayer<? extends Box> layer : managedLayers) {
+				for (Box b : layer) {
+					b.wake();
+				}
+			}
+		}
+		configureIslandSolver();
+	}
+
+	/**
+	 * @return <code>true</code> iff boxes may sleep
+	 * @see #setSleepAllowed(boolean)
+	 */
+	public boolean isSleepAllowed() {
+		return sleepAllowed;
+	}
+
+	/**
+	 * Sets when boxes are considered to be at rest, and how long it takes
+	 * an island at rest to fall asleep. The defaults are 2 pixels per
+	 * second, 2 degrees per second and half a second.
+	 * 
+	 * @param linear
+	 *            the speed (in pixels per second) below which a box is at rest
+	 * @param angular
+	 *            the angular speed (in radians per second) below which a box
+	 *            is at rest
+	 * @param time
+	 *            how long (in seconds) all boxes of an island must be at rest
+	 *            before it falls asleep
+	 */
+	public void setSleepTolerances(final double linear, final double angular,
+			final double time) {
+		linearSleepTolerance = linear;
+		angularSleepTolerance = angular;
+		timeToSleep = time;
+	}
+
+	/**
+	 * Sets whether the state of the boxes is copied into parallel arrays (a
+	 * structure of arrays) for each step. The integration loops then walk
+	 * the arrays linearly rather than visiting every box, and the solver
+	 * reads and writes the velocities in the arrays; the results are copied
+	 * back into the boxes at the end of the step. The simulation is the same
+	 * either way, so this only affects speed, which depends on the number of
+	 * boxes and on how they are laid out in memory.
+	 * 
+	 * The arrays are not used by default.
+	 * 
+	 * @param useArrays
+	 *            <code>true</code> to step the boxes in arrays
+	 */
+	public void setStructureOfArrays(final boolean useArrays) {
+		if (useArrays && boxArrays == null) {
+			boxArrays = new BoxArrays();
+		} else if (!useArrays) {
+			boxArrays = null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the boxes are stepped in arrays
+	 * @see #setStructureOfArrays(boolean)
+	 */
+	public boolean isStructureOfArrays() {
+		return boxArrays != null;
+	}
+
+	/**
+	 * Sets whether the contacts are solved in batches. The contacts are
+	 * colored so that those of a batch share no movable box, and each batch
+	 * is solved in one tight loop over packed arrays of contacts, in which
+	 * the contacts do not depend on each other. The boxes are stepped in a
+	 * structure of arrays while this is on (see
+	 * {@link #setStructureOfArrays(boolean)}).
+	 * 
+	 * Since the contacts are solved in another order, the simulation is
+	 * slightly different from the default solver's, though just as stable.
+	 * Batches are only used when the constraints are solved serially, i.e.,
+	 * with one solver thread and sleep not allowed; otherwise the island
+	 * solver is used as usual.
+	 * 
+	 * Contacts are not solved in batches by default.
+	 * 
+	 * @param batched
+	 *            <code>true</code> to solve the contacts in batches
+	 */
+	public void setBatchedSolver(final boolean batched) {
+		if (batched && contactBatches == null) {
+			contactBatches = new ContactBatches();
+			contactBatches.setLaneSolver(vectorSolver);
+		} else if (!batched) {
+			contactBatches = null;
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the contacts are solved in batches
+	 * @see #setBatchedSolver(boolean)
+	 */
+	public boolean isBatchedSolver() {
+		return contactBatches != null;
+	}
+
+	/**
+	 * Sets whether the batches of contacts are solved with the Vector API,
+	 * several contacts at a time, when the contacts are solved in batches
+	 * (see {@link #setBatchedSolver(boolean)}). Since the contacts of a batch
+	 * share no movable box, the simulation is exactly the same either way.
+	 * 
+	 * The vector solver is in the separate <code>jig-engine-vector</code>
+	 * module, which is only built with JDK 16 or later. It is used if that
+	 * module is on the class path and the JVM was started with
+	 * <code>--add-modules jdk.incubator.vector</code>; otherwise the batches
+	 * are solved one contact at a time, and {@link #isVectorSolver()} tells
+	 * which.
+	 * 
+	 * The vector solver is not used by default.
+	 * 
+	 * @param vector
+	 *            <code>true</code> to solve the batches with the Vector API
+	 */
+	public void setVectorSolver(final boolean vector) {
+		vectorSolver = vector;
+		if (contactBatches != null) {
+			contactBatches.setLaneSolver(vector);
+		}
+	}
+
+	/**
+	 * @return <code>true</code> iff the contacts are solved in batches, and
+	 *         the batches with the Vector API
+	 * @see #setVectorSolver(boolean)
+	 */
+	public boolean isVectorSolver() {
+		return contactBatches != null && contactBatches.hasLaneSolver();
+	}
+
+	/**
+	 * Creates or discards the island solver, which is needed for more than
+	 * one solver thread or for sleep.
+	 */
+	private void configureIslandSolver() {
+		boolean needed = solverThreads > 1 || sleepAllowed;
+		if (islandSolver != null
+				&& (!needed || islandSolver.getThreads() != solverThreads)) {
+			islandSolver.shutdown();
+			islandSolver = null;
+		}
+		if (needed && islandSolver == null) {
+			islandSolver = new IslandSolver(solverThreads);
+		}
+	}
+
 	/**
 	 * Joints are not Viewable objects, and so are not members of the managed
 	 * ViewableLayers. Instead, joints must be added using this method.
@@ -153,6 +415,8 @@ public class CattoPhysicsEngine implements PhysicsEngine<Box> {
 	 */
 	public void add(final Joint j) {
 		joints.add(j);
+		j.body1.wake();
+		j.body2.wake();
 	}
 
 	/**
@@ -160,8 +424,10 @@ public class CattoPhysicsEngine implements PhysicsEngine<Box> {
 	 */
 	public void clear() {
 		managedLayers.clear();
+		sweepLists.clear();
 		joints.clear();
 		arbiters.clear();
+		arbiterTable.clear();
 
 	}
 
@@ -189,56 +455,188 @@ public class CattoPhysicsEngine implements PhysicsEngine<Box> {
 			inverseDeltaTime = 0.0;
 		}
 
+		if (sleepAllowed) {
+			wakeDisturbedBoxes();
+		}
+
 		broadPhase();
-		Vector2D n;
 
-		for (BodyLayer<? extends Box> layer : managedLayers) {
-			for (Box b : layer) {
-				// b = bi.next();
+		BoxArrays state = boxArrays;
+		if (state == null && contactBatches != null && islandSolver == null) {
+			state = contactBatches.boxArrays;
+		}
 
-				if (b.inverseMass == 0.0) {
+		if (state != null) {
+			state.load(managedLayers, joints);
+			state.integrateForces(gravity.getX(), gravity.getY(), dt);
+			solve(inverseDeltaTime, state);
+			state.integratePositions(dt);
+			state.store();
+		} else {
+			integrateForces(dt);
+			solve(inverseDeltaTime, null);
+			integratePositions(dt);
+		}
+
+		if (sleepAllowed) {
+			sleepRestingIslands(dt);
+		}
+	}
+
+	/**
+	 * Applies the forces, and gravity, to the velocities of the movable boxes
+	 * that are awake.
+	 * 
+	 * The loops of the step are indexed and the vector math is done in
+	 * place, so that a step creates no garbage once the arbiters exist.
+	 */
+	private void integrateForces(final double dt) {
+		double gx = gravity.getX();
+		double gy = gravity.getY();
+		int nLayers = managedLayers.size();
+		for (int k = 0; k < nLayers; k++) {
+			BodyLayer<? extends Box> layer = managedLayers.get(k);
+			int n = layer.size();
+			for (int i = 0; i < n; i++) {
+				Box b = layer.get(i);
+
+				if (b.inverseMass == 0.0 || b.isSleeping()) {
 					continue;
 				}
-				n = b.force.scale(b.inverseMass);
-				n = n.translate(gravity);
-				n = n.scale(dt);
 
-				b.setVelocity(b.getVelocity().translate(n));
+				b.setVelocity(b.getVelocityX()
+						+ (b.force.getX() * b.inverseMass + gx) * dt, b
+						.getVelocityY()
+						+ (b.force.getY() * b.inverseMass + gy) * dt);
 				b.angularVelocity += dt * b.invMomentOfInertia * b.torque;
 
 			}
 		}
-		for (Arbiter a : arbiters) {
-			a.preStep(inverseDeltaTime);
+	}
+
+	/**
+	 * Solves the contact and joint constraints, serially, with the island
+	 * solver, or in batches.
+	 * 
+	 * @param state
+	 *            the arrays holding the state of the boxes, or
+	 *            <code>null</code> if the boxes hold it themselves
+	 */
+	private void solve(final double inverseDeltaTime, final BoxArrays state) {
+		if (islandSolver != null) {
+			islandSolver.solve(arbiters, joints, inverseDeltaTime, iterations,
+					state);
+			return;
+		}
+		if (contactBatches != null && state != null) {
+			contactBatches.solve(arbiters, joints, inverseDeltaTime,
+					iterations, state);
+			return;
+		}
+		int nArbiters = arbiters.size();
+		int nJoints = joints.size();
+		for (int i = 0; i < nArbiters; i++) {
+			arbiters.get(i).preStep(inverseDeltaTime, state);
 		}
 
-		for (Joint j : joints) {
-			j.preStep(inverseDeltaTime);
+		for (int i = 0; i < nJoints; i++) {
+			joints.get(i).preStep(inverseDeltaTime, state);
 		}
 
-		for (int i = 0; i < iterations; i++) {
+		for (int it = 0; it < iterations; it++) {
 
-			for (Arbiter a : arbiters) {
-				a.applyImpulse();
+			for (int i = 0; i < nArbiters; i++) {
+				arbiters.get(i).applyImpulse(state);
 			}
-			for (Joint j : joints) {
-				j.applyImpulse();
+			for (int i = 0; i < nJoints; i++) {
+				joints.get(i).applyImpulse(state);
 			}
 		}
-		for (BodyLayer<? extends Box> layer : managedLayers) {
-			for (Box b : layer) {
+	}
 
-				b.setPosition(b.getPosition().translate(
-						b.getVelocity().scale(dt)));
+	/**
+	 * Moves and rotates the boxes that are awake by their velocities, and
+	 * clears their forces.
+	 */
+	private void integratePositions(final double dt) {
+		int nLayers = managedLayers.size();
+		for (int k = 0; k < nLayers; k++) {
+			BodyLayer<? extends Box> layer = managedLayers.get(k);
+			int n = layer.size();
+			for (int i = 0; i < n; i++) {
+				Box b = layer.get(i);
+				if (b.isSleeping()) {
+					continue;
+				}
+
+				b.setPosition(b.getPositionX() + b.getVelocityX() * dt, b
+						.getPositionY()
+						+ b.getVelocityY() * dt);
 
 				b.rotation += dt * b.angularVelocity;
-				b.force = new Vector2D(0.0, 0.0);
+				b.force = Vector2D.ZERO;
 				b.torque = 0.0;
 
 			}
 		}
 	}
 
+	/**
+	 * Wakes the sleeping boxes that have been pushed, moved or rotated since
+	 * they fell asleep. Their islands are woken by the island solver.
+	 */
+	private void wakeDisturbedBoxes() {
+		int nLayers = managedLayers.size();
+		for (int k = 0; k < nLayers; k++) {
+			BodyLayer<? extends Box> layer = managedLayers.get(k);
+			int n = layer.size();
+			for (int i = 0; i < n; i++) {
+				Box b = layer.get(i);
+				if (b.isSleeping() && b.isDisturbed()) {
+					b.wake();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Advances the rest timers of the awake boxes, and puts islands (and
+	 * boxes not touching anything) to sleep once they have been at rest for
+	 * long enough.
+	 * 
+	 * @param dt
+	 *            the time step
+	 */
+	private void sleepRestingIslands(final double dt) {
+		double lin2 = linearSleepTolerance * linearSleepTolerance;
+		double ang2 = angularSleepTolerance * angularSleepTolerance;
+
+		int nLayers = managedLayers.size();
+		for (int k = 0; k < nLayers; k++) {
+			BodyLayer<? extends Box> layer = managedLayers.get(k);
+			int n = layer.size();
+			for (int i = 0; i < n; i++) {
+				Box b = layer.get(i);
+				if (b.inverseMass == 0.0 || b.isSleeping()) {
+					continue;
+				}
+				double vx = b.getVelocityX();
+				double vy = b.getVelocityY();
+				if (vx * vx + vy * vy > lin2
+						|| b.angularVelocity * b.angularVelocity > ang2) {
+					b.sleepTime = 0.0;
+				} else {
+					b.sleepTime += dt;
+					if (b.sleepTime >= timeToSleep
+							&& !islandSolver.isInIsland(b)) {
+						b.sleep();
+					}
+				}
+			}
+		}
+		islandSolver.sleepIslands(timeToSleep);
+	}
+
 	/**
 	 * Performs high-level collision detection to determine which objects are in
 	 * contact. Resolution of the colliding objects is handled by iteratively
@@ -246,63 +644,310 @@ public class CattoPhysicsEngine implements PhysicsEngine<Box> {
 	 * This calculation is performed by the <code>Arbiter</code> instances.
 	 * 
 	 * Games which want to add minor tweaks to this physics engine may be able
-	 * to do so simply by overriding this method and providing their own Arbiter
-	 * subclasses using the <code>generateArbiter(Box, Box)</code> method.
+	 * to do so simply by providing their own Arbiter subclasses using the
+	 * <code>createArbiter(Box, Box)</code> method.
+	 * 
+	 * Only boxes in the same layer can collide. The boxes of each layer are
+	 * kept sorted by the left edge of their axis aligned bounding boxes
+	 * (sort and sweep). Since boxes move little from one step to the next,
+	 * the order is restored with an insertion sort in close to linear time,
+	 * and sweeping the sorted boxes finds the pairs whose bounding boxes
+	 * overlap without testing every pair. Only those pairs are tested for
+	 * contact, with arbiters from <code>createArbiter</code>. Arbiters that
+	 * were not renewed during the sweep, because their boxes have come apart,
+	 * are discarded afterwards.
 	 * 
 	 * @see #step(double)
-	 * @see #generateArbiter(Box, Box)
+	 * @see #createArbiter(Box, Box)
 	 */
 	protected void broadPhase() {
-		// NOTE (efficiency): broad phase is O(n^2); could be improved
-		Box bi, bj;
-		int i, j;
-		int nbodies;
+		sweepStamp++;
+
+		int nLayers = managedLayers.size();
+		int k = 0;
+		for (; k < nLayers; k++) {
+			BodyLayer<? extends Box> layer = managedLayers.get(k);
+			SweepList list;
+			if (k < sweepLists.size() && sweepLists.get(k).layer == layer) {
+				list = sweepLists.get(k);
+			} else {
+				// managedLayers was changed directly (e.g., by a subclass)
+				list = new SweepList(layer);
+				sweepLists.add(k, list);
+			}
+			list.prepare(sweepStamp);
+		}
+		while (sweepLists.size() > k) {
+			sweepLists.remove(sweepLists.size() - 1);
+		}
 
-		for (BodyLayer<? extends Box> layer : managedLayers) {
+		for (int i = 0; i < nLayers; i++) {
+			sweepLists.get(i).sweep();
+		}
 
-			nbodies = layer.size();
+		discardStaleArbiters();
+	}
 
-			for (i = 0; i < nbodies; i++) {
-				bi = layer.get(i);
+	/**
+	 * Removes the arbiters that were not renewed during the current broad
+	 * phase, keeping the order of the others, and recycles them. Arbiters
+	 * between boxes that are asleep (or immovable) are kept as they are, for
+	 * when the boxes wake.
+	 */
+	private void discardStaleArbiters() {
+		int n = arbiters.size();
+		int kept = 0;
+		for (int i = 0; i < n; i++) {
+			Arbiter a = arbiters.get(i);
+			if (a.stamp == sweepStamp
+					|| !(isAwake(a.body1) || isAwake(a.body2))) {
+				if (kept != i) {
+					arbiters.set(kept, a);
+				}
+				kept++;
+			} else {
+				recycleArbiter(a);
+			}
+		}
+		if (kept < n) {
+			while (n > kept) {
+				arbiters.remove(--n);
+			}
+			arbiterTable.rebuild(arbiters);
+		}
+	}
 
-				for (j = i + 1; j < nbodies; j++) {
-					bj = layer.get(j);
+	/**
+	 * @param b
+	 *            a box
+	 * @return <code>true</code> iff the box is movable and not asleep
+	 */
+	private static boolean isAwake(final Box b) {
+		return b.inverseMass != 0.0 && !b.isSleeping();
+	}
 
-					if (bi.inverseMass == 0.0 && bj.inverseMass == 0.0) {
-						continue;
-					}
-					generateArbiter(bi, bj);
-				}
+	/**
+	 * Gets an arbiter for two boxes, reusing a recycled one if possible.
+	 * 
+	 * @param bi
+	 *            one of the boxes in the (potential) collision
+	 * @param bj
+	 *            the other box involved in the (potential) collision
+	 * @return an arbiter holding the boxes' current contact points
+	 */
+	protected Arbiter obtainArbiter(final Box bi, final Box bj) {
+		if (pooledArbiters == 0) {
+			return new Arbiter(bi, bj);
+		}
+		Arbiter a = arbiterPool[--pooledArbiters];
+		arbiterPool[pooledArbiters] = null;
+		a.set(bi, bj);
+		return a;
+	}
 
-			}
+	/**
+	 * Returns an arbiter that is no longer used to the pool. Instances of
+	 * <code>Arbiter</code> subclasses are not pooled, since they would be
+	 * handed out for other pairs of boxes.
+	 * 
+	 * @param a
+	 *            the arbiter
+	 */
+	protected void recycleArbiter(final Arbiter a) {
+		if (a.getClass() != Arbiter.class) {
+			return;
+		}
+		if (pooledArbiters == arbiterPool.length) {
+			Arbiter[] p = new Arbiter[pooledArbiters * 2];
+			System.arraycopy(arbiterPool, 0, p, 0, pooledArbiters);
+			arbiterPool = p;
 		}
+		arbiterPool[pooledArbiters++] = a;
 	}
 
 	/**
-	 * Creates an Arbiter to manage the (potential) collision between two boxes.
-	 * This method should create a temporary arbiter, and use it to check if the
-	 * collision actually occurred.
+	 * Keeps an arbiter for the current step: it is added if it is not
+	 * managed yet, and it survives the end of the broad phase.
+	 * 
+	 * @param a
+	 *            an arbiter with at least one contact
+	 */
+	protected void renewArbiter(final Arbiter a) {
+		if (a.stamp != sweepStamp
+				&& arbiterTable.get(a.body1, a.body2) != a) {
+			arbiters.add(a);
+			arbiterTable.put(a);
+		}
+		a.stamp = sweepStamp;
+	}
+
+	/**
+	 * Creates a temporary arbiter for the (potential) collision between two
+	 * boxes, which checks whether the collision actually occurred. The
+	 * default takes a recycled arbiter with <code>obtainArbiter</code>.
 	 * 
 	 * Overriding this method may be useful to inject a new <code>Arbiter</code>
-	 * subclass.
+	 * subclass. The engine looks up, updates, keeps and discards the arbiters
+	 * it returns like its own, so an override should only create them.
 	 * 
 	 * @param bi
 	 *            one of the boxes in the (potential) collision
 	 * @param bj
 	 *            the other box involved in the (potential) collision
+	 * @return an arbiter holding the boxes' current contact points
 	 */
-	protected void generateArbiter(final Box bi, final Box bj) {
-		Arbiter newArb = new Arbiter(bi, bj);
+	protected Arbiter createArbiter(final Box bi, final Box bj) {
+		return obtainArbiter(bi, bj);
+	}
+
+	/**
+	 * Manages the (potential) collision between two boxes, as the broad phase
+	 * does for every pair of boxes whose bounding boxes overlap.
+	 * 
+	 * This method used to create the arbiters and could be overridden to
+	 * inject an <code>Arbiter</code> subclass. It is final now, so that such
+	 * an override fails to compile instead of never being called: override
+	 * <code>createArbiter(Box, Box)</code> instead, and return the new
+	 * arbiter from it rather than managing it here.
+	 * 
+	 * @param bi
+	 *            one of the boxes in the (potential) collision
+	 * @param bj
+	 *            the other box involved in the (potential) collision
+	 * @deprecated override {@link #createArbiter(Box, Box)} to inject
+	 *             <code>Arbiter</code> subclasses
+	 */
+	@Deprecated
+	protected final void generateArbiter(final Box bi, final Box bj) {
+		collideBoxes(bi, bj);
+	}
+
+	/**
+	 * Manages the (potential) collision between two boxes, using a temporary
+	 * arbiter from <code>createArbiter</code>.
+	 * 
+	 * Arbiters are looked up by the pair of boxes in a hash table, and only
+	 * live for as long as they are renewed (with
+	 * <code>renewArbiter</code>) in every broad phase. Temporary and
+	 * discarded arbiters are recycled, so this creates no garbage once the
+	 * pool has grown to the size of the scene.
+	 * 
+	 * @param bi
+	 *            one of the boxes in the (potential) collision
+	 * @param bj
+	 *            the other box involved in the (potential) collision
+	 */
+	private void collideBoxes(final Box bi, final Box bj) {
+		Arbiter newArb = createArbiter(bi, bj);
 
 		if (newArb.numContacts > 0) {
-			int index = arbiters.indexOf(newArb);
-			if (index > -1) {
-				arbiters.get(index).update(newArb);
+			Arbiter arb = arbiterTable.get(newArb.body1, newArb.body2);
+			if (arb != null) {
+				arb.update(newArb);
+				recycleArbiter(newArb);
 			} else {
-				arbiters.add(newArb);
+				arb = newArb;
 			}
+			renewArbiter(arb);
 		} else {
-			arbiters.remove(newArb);
+			recycleArbiter(newArb);
+		}
+	}
+
+	/** Orders boxes by the left edge of their bounding boxes. */
+	private static final Comparator<Box> BY_MIN_X = new Comparator<Box>() {
+		public int compare(final Box a, final Box b) {
+			return Double.compare(a.minX, b.minX);
+		}
+	};
+
+	/**
+	 * The boxes of one managed layer, sorted along the x axis for the broad
+	 * phase. The order is kept from one step to the next.
+	 */
+	private final class SweepList {
+
+		final BodyLayer<? extends Box> layer;
+
+		Box[] boxes = new Box[16];
+
+		int size;
+
+		SweepList(final BodyLayer<? extends Box> l) {
+			layer = l;
+		}
+
+		/**
+		 * Updates the bounding boxes of the layer's boxes and restores the
+		 * sorted order, rebuilding the list if boxes were added to or
+		 * removed from the layer.
+		 */
+		void prepare(final int stamp) {
+			int n = layer.size();
+			for (int i = 0; i < n; i++) {
+				Box b = layer.get(i);
+				if (!b.isSleeping()) {
+					b.updateBounds();
+				}
+				b.sweepStamp = stamp;
+			}
+
+			boolean same = (n == size);
+			for (int i = 0; same && i < size; i++) {
+				same = (boxes[i].sweepStamp == stamp);
+			}
+
+			if (!same) {
+				if (boxes.length < n) {
+					boxes = new Box[Math.max(n, boxes.length * 2)];
+				}
+				for (int i = 0; i < n; i++) {
+					boxes[i] = layer.get(i);
+				}
+				for (int i = n; i < size; i++) {
+					boxes[i] = null;
+				}
+				size = n;
+				Arrays.sort(boxes, 0, size, BY_MIN_X);
+				return;
+			}
+
+			// insertion sort: the boxes are almost in order already
+			for (int i = 1; i < size; i++) {
+				Box b = boxes[i];
+				double x = b.minX;
+				int j = i - 1;
+				while (j >= 0 && boxes[j].minX > x) {
+					boxes[j + 1] = boxes[j];
+					j--;
+				}
+				boxes[j + 1] = b;
+			}
+		}
+
+		/**
+		 * Passes every pair of boxes whose bounding boxes overlap, and of
+		 * which at least one is movable and awake, to
+		 * <code>collideBoxes</code>.
+		 */
+		void sweep() {
+			for (int i = 0; i < size; i++) {
+				Box bi = boxes[i];
+				double maxX = bi.maxX;
+
+				for (int j = i + 1; j < size; j++) {
+					Box bj = boxes[j];
+					if (bj.minX > maxX) {
+						break;
+					}
+					if (!isAwake(bi) && !isAwake(bj)) {
+						continue;
+					}
+					if (bi.minY <= bj.maxY && bj.minY <= bi.maxY) {
+						collideBoxes(bi, bj);
+					}
+				}
+			}
 		}
 	}
 
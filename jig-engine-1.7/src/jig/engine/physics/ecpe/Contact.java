@@ -0,0 +1,64 @@
+package jig.engine.physics.ecpe;
+
+/**
+ * A contact point between two bodies.
+ * 
+ * @author Scott Wallace
+ */
+class Contact {
+	double positionX, positionY;
+
+	double normalX, normalY;
+
+	double separation;
+
+	double accNormalImpulse = 0.0;
+
+	double accTangetImpulse = 0.0;
+
+	double massNormal, massTangent;
+
+	double bias;
+
+	FeaturePair feature;
+
+	/**
+	 * Creates a new, essentially uninitialized, contact point between two
+	 * bodies.
+	 */
+	public Contact() {
+		feature = new FeaturePair();
+	}
+
+	/**
+	 * Copies a contact point.
+	 * 
+	 * @param c
+	 *            the contact point to copy
+	 */
+	public Contact(final Contact c) {
+		feature = new FeaturePair();
+		set(c);
+	}
+
+	/**
+	 * Copies a contact point into this one, keeping this contact's own
+	 * feature pair.
+	 * 
+	 * @param c
+	 *            the contact point to copy
+	 */
+	void set(final Contact c) {
+		positionX = c.positionX;
+		positionY = c.positionY;
+		normalX = c.normalX;
+		normalY = c.normalY;
+		separation = c.separation;
+		accNormalImpulse = c.accNormalImpulse;
+		accTangetImpulse = c.accTangetImpulse;
+		massNormal = c.massNormal;
+		massTangent = c.massTangent;
+		bias = c.bias;
+		feature.set(c.feature);
+	}
+}
@@ -0,0 +1,409 @@
+package jig.engine.physics.ecpe;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Solves the contacts of a <code>CattoPhysicsEngine</code> in batches of
+ * contacts that share no movable box.
+ *
+ * Each step, the contacts of all arbiters are colored greedily, in the order
+ * of the engine's arbiters, so that no two contacts of the same color touch
+ * the same movable box (immovable boxes are never written, so they may be
+ * shared). The contacts are then packed by color into parallel arrays, with
+ * the contact geometry worked out once per step. Within a batch the
+ * contacts do not depend on each other, so the loop over a batch has no
+ * chain of loads and stores through the boxes' velocities, and every
+ * contact of a batch could be solved in its own lane of a vector unit.
+ * Contacts that cannot be given one of the 63 colors go to a last batch,
+ * which is solved in order.
+ *
+ * Since the contacts are solved in a different order than by the arbiters,
+ * the iterations converge to slightly different impulses, and the
+ * simulation is not exactly the same as with the default solver. The
+ * pre-step, including warm starting, and the joints are solved as usual.
+ *
+ * The batches of independent contacts may be handed to a {@link LaneSolver}
+ * that solves several contacts at once. The lane solver built on the Vector
+ * API is in the separate <code>jig-engine-vector</code> module, since the
+ * API is an incubating module of JDK 16 and later; it is loaded by name
+ * when asked for (see {@link #setLaneSolver(boolean)}), and if it cannot be
+ * loaded, the batches are solved one contact at a time as usual.
+ */
+final class ContactBatches {
+
+	/**
+	 * Solves the contacts of a batch several at a time, each in its own lane
+	 * of a vector unit. Since the contacts of a batch share no movable box,
+	 * the result is the same as solving them one after the other.
+	 */
+	interface LaneSolver {
+
+		/**
+		 * Applies the impulses of a range of the packed contacts, which
+		 * share no movable box, just as <code>solveContacts</code> does.
+		 *
+		 * @param batches
+		 *            the packed contacts
+		 * @param from
+		 *            the first contact of the range
+		 * @param to
+		 *            the end of the range, exclusive
+		 * @param state
+		 *            the arrays holding the state of the boxes
+		 */
+		void solveBatch(ContactBatches batches, int from, int to,
+				BoxArrays state);
+	}
+
+	/** The class of the lane solver in the jig-engine-vector module. */
+	private static final String VECTOR_LANE_SOLVER =
+		"jig.engine.physics.ecpe.VectorLaneSolver";
+
+	/** The number of colors before a contact goes to the last batch. */
+	private static final int COLORS = 63;
+
+	/** The arrays used to step the boxes if the engine has none of its own. */
+	final BoxArrays boxArrays = new BoxArrays();
+
+	// the contacts in the order of the arbiters, with their colors
+	private Arbiter[] owner = new Arbiter[128];
+
+	private int[] index = new int[128];
+
+	private int[] color = new int[128];
+
+	// the packed contacts, sorted by color; the arrays after packed are
+	// read and written by the lane solver
+	private Contact[] packed = new Contact[128];
+
+	int[] body1 = new int[128];
+
+	int[] body2 = new int[128];
+
+	double[] r1x = new double[128];
+
+	double[] r1y = new double[128];
+
+	double[] r2x = new double[128];
+
+	double[] r2y = new double[128];
+
+	double[] normalX = new double[128];
+
+	double[] normalY = new double[128];
+
+	double[] massNormal = new double[128];
+
+	double[] massTangent = new double[128];
+
+	double[] bias = new double[128];
+
+	double[] friction = new double[128];
+
+	double[] accNormal = new double[128];
+
+	double[] accTangent = new double[128];
+
+	/** The colors used by the contacts of each box, by slot. */
+	private long[] usedColors = new long[64];
+
+	/** Where the contacts of each color go while they are packed. */
+	private final int[] colorStart = new int[COLORS + 2];
+
+	/** Where each batch starts; batch i ends where batch i + 1 starts. */
+	private final int[] batchStart = new int[COLORS + 2];
+
+	private int batchCount;
+
+	/**
+	 * The number of batches whose contacts share no movable box: all of
+	 * them, unless the contacts of the last could not be given a color.
+	 */
+	private int independentBatches;
+
+	private int count;
+
+	/** Solves the independent batches, or <code>null</code>. */
+	private LaneSolver laneSolver;
+
+	/**
+	 * Sets whether the independent batches are solved by the lane solver in
+	 * the <code>jig-engine-vector</code> module. That module must be on the
+	 * class path, and the JVM must be started with
+	 * <code>--add-modules jdk.incubator.vector</code>; otherwise the batches
+	 * are solved one contact at a time.
+	 *
+	 * @param lanes
+	 *            <code>true</code> to use the lane solver if it can be loaded
+	 * @return <code>true</code> iff the lane solver is used
+	 */
+	boolean setLaneSolver(final boolean lanes) {
+		laneSolver = lanes ? loadLaneSolver() : null;
+		return laneSolver != null;
+	}
+
+	/**
+	 * @return <code>true</code> iff the independent batches are solved by
+	 *         the lane solver
+	 */
+	boolean hasLaneSolver() {
+		return laneSolver != null;
+	}
+
+	/**
+	 * Loads the lane solver of the jig-engine-vector module.
+	 *
+	 * @return the lane solver, or <code>null</code> if it is not available
+	 */
+	private static LaneSolver loadLaneSolver() {
+		try {
+			return (LaneSolver) Class.forName(VECTOR_LANE_SOLVER)
+					.newInstance();
+		} catch (ClassNotFoundException e) {
+			// the module is not on the class path
+			return null;
+		} catch (LinkageError e) {
+			// the Vector API module was not added to the JVM
+			return null;
+		} catch (InstantiationException e) {
+			return null;
+		} catch (IllegalAccessException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Performs the pre-step of every arbiter and joint, and then iteratively
+	 * applies the impulses of the contacts, batch by batch, and of the
+	 * joints.
+	 *
+	 * @param arbiters
+	 *            the engine's arbiters
+	 * @param joints
+	 *            the engine's joints
+	 * @param inverseDeltaTime
+	 *            the inverse time step
+	 * @param iterations
+	 *            the number of impulse iterations
+	 * @param state
+	 *            the arrays holding the state of the boxes
+	 */
+	void solve(final List<Arbiter> arbiters, final List<Joint> joints,
+			final double inverseDeltaTime, final int iterations,
+			final BoxArrays state) {
+		int nArbiters = arbiters.size();
+		int nJoints = joints.size();
+		for (int i = 0; i < nArbiters; i++) {
+			arbiters.get(i).preStep(inverseDeltaTime, state);
+		}
+		for (int i = 0; i < nJoints; i++) {
+			joints.get(i).preStep(inverseDeltaTime, state);
+		}
+
+		pack(arbiters, state);
+
+		for (int it = 0; it < iterations; it++) {
+			for (int b = 0; b < batchCount; b++) {
+				if (laneSolver != null && b < independentBatches) {
+					laneSolver.solveBatch(this, batchStart[b],
+							batchStart[b + 1], state);
+				} else {
+					solveContacts(batchStart[b], batchStart[b + 1], state);
+				}
+			}
+			for (int i = 0; i < nJoints; i++) {
+				joints.get(i).applyImpulse(state);
+			}
+		}
+
+		// keep the accumulated impulses for warm starting the next step
+		for (int k = 0; k < count; k++) {
+			packed[k].accNormalImpulse = accNormal[k];
+			packed[k].accTangetImpulse = accTangent[k];
+			packed[k] = null;
+		}
+	}
+
+	/**
+	 * Colors the contacts of the arbiters and packs them by color.
+	 */
+	private void pack(final List<Arbiter> arbiters, final BoxArrays state) {
+		int nArbiters = arbiters.size();
+		count = 0;
+		for (int i = 0; i < nArbiters; i++) {
+			count += arbiters.get(i).numContacts;
+		}
+		if (count > packed.length) {
+			grow(Math.max(count, packed.length * 2));
+		}
+		if (usedColors.length < state.size()) {
+			usedColors = new long[Math.max(state.size(),
+					usedColors.length * 2)];
+		} else {
+			Arrays.fill(usedColors, 0, state.size(), 0L);
+		}
+		Arrays.fill(colorStart, 0);
+
+		// color the contacts, counting the contacts of each color
+		int n = 0;
+		for (int i = 0; i < nArbiters; i++) {
+			Arbiter a = arbiters.get(i);
+			int s1 = a.body1.inverseMass != 0.0 ? a.body1.slot : -1;
+			int s2 = a.body2.inverseMass != 0.0 ? a.body2.slot : -1;
+			for (int j = 0; j < a.numContacts; j++) {
+				long used = (s1 < 0 ? 0L : usedColors[s1])
+						| (s2 < 0 ? 0L : usedColors[s2]);
+				int c = Long.numberOfTrailingZeros(~used);
+				if (c < COLORS) {
+					long bit = 1L << c;
+					if (s1 >= 0) {
+						usedColors[s1] |= bit;
+					}
+					if (s2 >= 0) {
+						usedColors[s2] |= bit;
+					}
+				} else {
+					c = COLORS;
+				}
+				owner[n] = a;
+				index[n] = j;
+				color[n] = c;
+				colorStart[c + 1]++;
+				n++;
+			}
+		}
+
+		// turn the counts into the starts of the colors and of the batches,
+		// leaving out the colors that are not used
+		batchCount = 0;
+		for (int c = 0; c <= COLORS; c++) {
+			int m = colorStart[c + 1];
+			colorStart[c + 1] = colorStart[c] + m;
+			if (m > 0) {
+				batchStart[batchCount++] = colorStart[c];
+			}
+		}
+		batchStart[batchCount] = n;
+		independentBatches = colorStart[COLORS + 1] > colorStart[COLORS]
+				? batchCount - 1 : batchCount;
+
+		for (int k = 0; k < n; k++) {
+			Arbiter a = owner[k];
+			Contact c = a.contacts[index[k]];
+			int at = colorStart[color[k]]++;
+			int s1 = a.body1.slot, s2 = a.body2.slot;
+
+			packed[at] = c;
+			body1[at] = s1;
+			body2[at] = s2;
+			r1x[at] = c.positionX - (state.positionX[s1] + a.body1.halfWidth);
+			r1y[at] = c.positionY - (state.positionY[s1] + a.body1.halfHeight);
+			r2x[at] = c.positionX - (state.positionX[s2] + a.body2.halfWidth);
+			r2y[at] = c.positionY - (state.positionY[s2] + a.body2.halfHeight);
+			normalX[at] = c.normalX;
+			normalY[at] = c.normalY;
+			massNormal[at] = c.massNormal;
+			massTangent[at] = c.massTangent;
+			bias[at] = c.bias;
+			friction[at] = a.friction;
+			accNormal[at] = c.accNormalImpulse;
+			accTangent[at] = c.accTangetImpulse;
+			owner[k] = null;
+		}
+	}
+
+	/**
+	 * Applies the impulses of a range of the packed contacts, one after the
+	 * other. This is the contact loop of <code>Arbiter.applyImpulse</code>
+	 * over the packed contacts. The lane solver uses it for the contacts
+	 * left over after the last full set of lanes.
+	 */
+	void solveContacts(final int from, final int to, final BoxArrays state) {
+		final double[] vx = state.velocityX, vy = state.velocityY;
+		final double[] w = state.angularVelocity;
+		final double[] inverseMass = state.inverseMass;
+		final double[] invI = state.invMomentOfInertia;
+
+		for (int k = from; k < to; k++) {
+			int s1 = body1[k], s2 = body2[k];
+			double v1x = vx[s1], v1y = vy[s1], w1 = w[s1];
+			double v2x = vx[s2], v2y = vy[s2], w2 = w[s2];
+			double im1 = inverseMass[s1], im2 = inverseMass[s2];
+			double ii1 = invI[s1], ii2 = invI[s2];
+			double ax = r1x[k], ay = r1y[k], bx = r2x[k], by = r2y[k];
+			double nx = normalX[k], ny = normalY[k];
+
+			// normal impulse
+			double dvx = v2x - w2 * by - v1x + w1 * ay;
+			double dvy = v2y + w2 * bx - v1y - w1 * ax;
+			double vn = dvx * nx + dvy * ny;
+			double impulse = massNormal[k] * (-vn + bias[k]);
+			double old = accNormal[k];
+			double acc = Math.max(old + impulse, 0.0);
+			accNormal[k] = acc;
+			impulse = acc - old;
+
+			double px = nx * impulse, py = ny * impulse;
+			v1x -= px * im1;
+			v1y -= py * im1;
+			w1 -= ii1 * (ax * py - ay * px);
+			v2x += px * im2;
+			v2y += py * im2;
+			w2 += ii2 * (bx * py - by * px);
+
+			// friction impulse, along the normal crossed with -1
+			dvx = v2x - w2 * by - v1x + w1 * ay;
+			dvy = v2y + w2 * bx - v1y - w1 * ax;
+			double maxFriction = friction[k] * acc;
+			double vt = dvx * ny - dvy * nx;
+			impulse = massTangent[k] * -vt;
+			old = accTangent[k];
+			acc = Arbiter.clamp(old + impulse, -maxFriction, maxFriction);
+			accTangent[k] = acc;
+			impulse = acc - old;
+
+			px = ny * impulse;
+			py = -nx * impulse;
+			v1x -= px * im1;
+			v1y -= py * im1;
+			w1 -= ii1 * (ax * py - ay * px);
+			v2x += px * im2;
+			v2y += py * im2;
+			w2 += ii2 * (bx * py - by * px);
+
+			// immovable boxes are never written, see CattoPhysicsEngine
+			if (im1 != 0.0) {
+				vx[s1] = v1x;
+				vy[s1] = v1y;
+				w[s1] = w1;
+			}
+			if (im2 != 0.0) {
+				vx[s2] = v2x;
+				vy[s2] = v2y;
+				w[s2] = w2;
+			}
+		}
+	}
+
+	private void grow(final int n) {
+		owner = new Arbiter[n];
+		index = new int[n];
+		color = new int[n];
+		packed = new Contact[n];
+		body1 = new int[n];
+		body2 = new int[n];
+		r1x = new double[n];
+		r1y = new double[n];
+		r2x = new double[n];
+		r2y = new double[n];
+		normalX = new double[n];
+		normalY = new double[n];
+		massNormal = new double[n];
+		massTangent = new double[n];
+		bias = new double[n];
+		friction = new double[n];
+		accNormal = new double[n];
+		accTangent = new double[n];
+	}
+}
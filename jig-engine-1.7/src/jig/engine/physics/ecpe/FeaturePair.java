@@ -0,0 +1,123 @@
+package jig.engine.physics.ecpe;
+
+/**
+ * An indicator of where contact points lie with respect to the edges of each
+ * box involved in the collision.
+ * 
+ * <pre>
+ *              EDGE1 
+ *            +-------+ 
+ *     EDGE2  |       |  EDGE4
+ *            |       | 
+ *            +-------+ 
+ *              EDGE3
+ * </pre>
+ * 
+ * @author Erin Catto
+ * @author (Ported by) Scott Wallace
+ * 
+ */
+class FeaturePair {
+	static final int NO_EDGE = 0;
+
+	static final int EDGE1 = 1;
+
+	static final int EDGE2 = 2;
+
+	static final int EDGE3 = 3;
+
+	static final int EDGE4 = 4;
+
+	int inEdge1;
+
+	int outEdge1;
+
+	int inEdge2;
+
+	int outEdge2;
+
+	/**
+	 * Creates a new, essentially uninitialized, FeaturePair.
+	 */
+	FeaturePair() {
+		inEdge1 = 0;
+		outEdge1 = 0;
+		inEdge2 = 0;
+		outEdge2 = 0;
+	}
+
+	/**
+	 * Copies an existing FeaturePair.
+	 * 
+	 * @param f
+	 *            the FeaturePair to be copied.
+	 */
+	FeaturePair(final FeaturePair f) {
+		set(f);
+	}
+
+	/**
+	 * Copies an existing FeaturePair into this one.
+	 * 
+	 * @param f
+	 *            the FeaturePair to be copied.
+	 */
+	void set(final FeaturePair f) {
+		inEdge1 = f.inEdge1;
+		inEdge2 = f.inEdge2;
+		outEdge1 = f.outEdge1;
+		outEdge2 = f.outEdge2;
+	}
+
+	/**
+	 * Determines if two FeaturePairs are equal.
+	 * 
+	 * @param fp
+	 *            the object to compare against.
+	 * @return <code>true</code> iff the FeaturePairs are equal
+	 */
+	@Override
+	public boolean equals(final Object fp) {
+		if (!(fp instanceof FeaturePair)) {
+			return false;
+		}
+		FeaturePair f = (FeaturePair) fp;
+
+		if (inEdge1 != f.inEdge1) {
+			return false;
+		}
+		if (inEdge2 != f.inEdge2) {
+			return false;
+		}
+		if (outEdge2 != f.outEdge2) {
+			return false;
+		}
+		if (outEdge1 != f.outEdge1) {
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * @return a (perfect/collision free) hash code for the FeaturePair.
+	 */
+	@Override
+	public int hashCode() {
+		// maximum = 4 + 20 + 100 + 500 = 624 //
+		return outEdge1 + outEdge2 * 5 + inEdge1 * 25 + inEdge2 * 125;
+	}
+
+	/**
+	 * Flip the feature pair by swapping Edge1 and Edge2.
+	 */
+	void flip() {
+		int tmp;
+		tmp = inEdge1;
+		inEdge1 = inEdge2;
+		inEdge2 = tmp;
+
+		tmp = outEdge1;
+		outEdge1 = outEdge2;
+		outEdge2 = tmp;
+	}
+}
@@ -0,0 +1,477 @@
+package jig.engine.physics.ecpe;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Solves the contact and joint constraints of a <code>CattoPhysicsEngine</code>
+ * one island at a time, possibly on several threads.
+ *
+ * An island is a set of movable boxes connected by arbiters and joints,
+ * together with those constraints. Immovable boxes do not connect islands,
+ * since the constraints never change their velocities. Because no movable
+ * box belongs to two islands, islands can be solved in any order, and
+ * concurrently, with exactly the same result as solving all of the
+ * constraints in one pass: within an island, the constraints are solved in
+ * the order they have in the engine's lists.
+ *
+ * Islands are numbered in the order their first constraint appears in the
+ * engine's lists, and the worker threads take them in that order.
+ *
+ * Islands are also the unit of sleep: an island in which every box is asleep
+ * is not solved, an island with any box awake is woken as a whole, and an
+ * island whose boxes have all been at rest long enough is put to sleep as a
+ * whole (see {@link #sleepIslands(double)}).
+ */
+final class IslandSolver {
+
+	private final int threads;
+
+	private final ExecutorService executor;
+
+	private final Runnable[] workers;
+
+	/** The movable boxes in constraints, indexed by their islandIndex. */
+	private Box[] bodies = new Box[64];
+
+	/** The union-find forest over <code>bodies</code>. */
+	private int[] parent = new int[64];
+
+	/** The island of each root in <code>parent</code>, or -1. */
+	private int[] islandOfRoot = new int[64];
+
+	private int bodyCount;
+
+	/** The island of each constraint, arbiters first and then joints. */
+	private int[] constraintIsland = new int[64];
+
+	private Arbiter[] islandArbiters = new Arbiter[64];
+
+	private Joint[] islandJoints = new Joint[16];
+
+	/**
+	 * Where each island's constraints start in <code>islandArbiters</code>
+	 * and <code>islandJoints</code>; island i ends where island i + 1 starts.
+	 */
+	private int[] arbiterStart = new int[17];
+
+	private int[] jointStart = new int[17];
+
+	private int[] cursor = new int[16];
+
+	/** Whether each island has a box that is awake. */
+	private boolean[] islandAwake = new boolean[16];
+
+	/** The shortest rest time of the boxes of each island. */
+	private double[] islandRestTime = new double[16];
+
+	private int islandCount;
+
+	private int stamp;
+
+	// the current solve, read by the workers
+	private double inverseDeltaTime;
+
+	private int iterations;
+
+	private BoxArrays state;
+
+	private final AtomicInteger nextIsland = new AtomicInteger();
+
+	private volatile CountDownLatch done;
+
+	private volatile RuntimeException failure;
+
+	/**
+	 * Creates a solver with its worker threads, which are daemon threads.
+	 *
+	 * @param nThreads
+	 *            the number of threads solving islands, including the one
+	 *            calling <code>solve</code>
+	 */
+	IslandSolver(final int nThreads) {
+		threads = Math.max(1, nThreads);
+		workers = new Runnable[threads - 1];
+		if (workers.length == 0) {
+			executor = null;
+			return;
+		}
+		executor = Executors.newFixedThreadPool(nThreads - 1,
+				new ThreadFactory() {
+					private int n;
+
+					public Thread newThread(final Runnable r) {
+						Thread t = new Thread(r, "CattoPhysicsEngine solver "
+								+ (++n));
+						t.setDaemon(true);
+						return t;
+					}
+				});
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Runnable() {
+				public void run() {
+					try {
+						solveIslands();
+					} catch (RuntimeException e) {
+						failure = e;
+					} finally {
+						done.countDown();
+					}
+				}
+			};
+		}
+	}
+
+	/**
+	 * @return the number of threads solving islands
+	 */
+	int getThreads() {
+		return threads;
+	}
+
+	/** Stops the worker threads. */
+	void shutdown() {
+		if (executor != null) {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Performs the pre-step of, and then iteratively applies the impulses
+	 * of, every arbiter and joint, returning when all islands are solved.
+	 * Sleeping boxes in an island with a box that is awake are woken first;
+	 * islands that are entirely asleep are skipped.
+	 *
+	 * @param arbiters
+	 *            the engine's arbiters
+	 * @param joints
+	 *            the engine's joints
+	 * @param invDt
+	 *            the inverse time step
+	 * @param nIterations
+	 *            the number of impulse iterations
+	 * @param boxArrays
+	 *            the arrays holding the state of the boxes, or
+	 *            <code>null</code> if the boxes hold it themselves
+	 */
+	void solve(final List<Arbiter> arbiters, final List<Joint> joints,
+			final double invDt, final int nIterations,
+			final BoxArrays boxArrays) {
+		state = boxArrays;
+		buildIslands(arbiters, joints);
+		wakeIslands();
+
+		inverseDeltaTime = invDt;
+		iterations = nIterations;
+		nextIsland.set(0);
+
+		int helpers = Math.min(workers.length, islandCount - 1);
+		if (helpers <= 0) {
+			solveIslands();
+			return;
+		}
+
+		failure = null;
+		done = new CountDownLatch(helpers);
+		for (int i = 0; i < helpers; i++) {
+			executor.execute(workers[i]);
+		}
+		try {
+			solveIslands();
+		} finally {
+			awaitHelpers();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/** Waits for the worker threads to finish the current solve. */
+	private void awaitHelpers() {
+		boolean interrupted = false;
+		while (true) {
+			try {
+				done.await();
+				break;
+			} catch (InterruptedException e) {
+				interrupted = true;
+			}
+		}
+		if (interrupted) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/** Solves islands until there are none left. */
+	private void solveIslands() {
+		int k;
+		while ((k = nextIsland.getAndIncrement()) < islandCount) {
+			solveIsland(k);
+		}
+	}
+
+	private void solveIsland(final int k) {
+		if (!islandAwake[k]) {
+			return;
+		}
+		int a0 = arbiterStart[k], a1 = arbiterStart[k + 1];
+		int j0 = jointStart[k], j1 = jointStart[k + 1];
+
+		for (int i = a0; i < a1; i++) {
+			islandArbiters[i].preStep(inverseDeltaTime, state);
+		}
+		for (int i = j0; i < j1; i++) {
+			islandJoints[i].preStep(inverseDeltaTime, state);
+		}
+		for (int n = 0; n < iterations; n++) {
+			for (int i = a0; i < a1; i++) {
+				islandArbiters[i].applyImpulse(state);
+			}
+			for (int i = j0; i < j1; i++) {
+				islandJoints[i].applyImpulse(state);
+			}
+		}
+	}
+
+	/**
+	 * Finds the islands and sorts the constraints by island, keeping their
+	 * order within each island.
+	 */
+	private void buildIslands(final List<Arbiter> arbiters,
+			final List<Joint> joints) {
+		stamp++;
+		bodyCount = 0;
+
+		int na = arbiters.size();
+		int nj = joints.size();
+		for (int i = 0; i < na; i++) {
+			Arbiter a = arbiters.get(i);
+			union(index(a.body1), index(a.body2));
+		}
+		for (int i = 0; i < nj; i++) {
+			Joint j = joints.get(i);
+			union(index(j.body1), index(j.body2));
+		}
+
+		// number the islands and count their constraints
+		if (constraintIsland.length < na + nj) {
+			constraintIsland = new int[Math.max(na + nj,
+					constraintIsland.length * 2)];
+		}
+		for (int i = 0; i < bodyCount; i++) {
+			islandOfRoot[i] = -1;
+		}
+		islandCount = 0;
+		// a joint between two immovable boxes forms an island of its own
+		for (int i = 0; i < na; i++) {
+			Arbiter a = arbiters.get(i);
+			constraintIsland[i] = island(a.body1, a.body2);
+		}
+		for (int i = 0; i < nj; i++) {
+			Joint j = joints.get(i);
+			constraintIsland[na + i] = island(j.body1, j.body2);
+		}
+
+		if (arbiterStart.length < islandCount + 1) {
+			arbiterStart = new int[Math.max(islandCount + 1,
+					arbiterStart.length * 2)];
+			jointStart = new int[arbiterStart.length];
+		}
+		for (int k = 0; k <= islandCount; k++) {
+			arbiterStart[k] = 0;
+			jointStart[k] = 0;
+		}
+		for (int i = 0; i < na; i++) {
+			arbiterStart[constraintIsland[i] + 1]++;
+		}
+		for (int i = 0; i < nj; i++) {
+			jointStart[constraintIsland[na + i] + 1]++;
+		}
+		for (int k = 0; k < islandCount; k++) {
+			arbiterStart[k + 1] += arbiterStart[k];
+			jointStart[k + 1] += jointStart[k];
+		}
+
+		// distribute the constraints
+		if (islandArbiters.length < na) {
+			islandArbiters = new Arbiter[Math.max(na,
+					islandArbiters.length * 2)];
+		}
+		if (islandJoints.length < nj) {
+			islandJoints = new Joint[Math.max(nj, islandJoints.length * 2)];
+		}
+		cursor = ensure(cursor, islandCount);
+		for (int k = 0; k < islandCount; k++) {
+			cursor[k] = arbiterStart[k];
+		}
+		for (int i = 0; i < na; i++) {
+			islandArbiters[cursor[constraintIsland[i]]++] = arbiters.get(i);
+		}
+		for (int k = 0; k < islandCount; k++) {
+			cursor[k] = jointStart[k];
+		}
+		for (int i = 0; i < nj; i++) {
+			islandJoints[cursor[constraintIsland[na + i]]++] = joints.get(i);
+		}
+	}
+
+	/**
+	 * Gets the index of a box in the union-find forest, adding the box if
+	 * it is new in this step.
+	 *
+	 * @return the index, or -1 if the box is immovable
+	 */
+	private int index(final Box b) {
+		if (b.inverseMass == 0.0) {
+			// settle the box's lazily synchronized vectors now, so that
+			// the solver threads only ever read it
+			b.getPositionX();
+			b.getVelocityX();
+			return -1;
+		}
+		if (b.islandStamp != stamp) {
+			if (bodyCount == parent.length) {
+				parent = ensure(parent, bodyCount + 1);
+				islandOfRoot = ensure(islandOfRoot, bodyCount + 1);
+			}
+			if (bodyCount == bodies.length) {
+				Box[] g = new Box[bodyCount * 2];
+				System.arraycopy(bodies, 0, g, 0, bodyCount);
+				bodies = g;
+			}
+			b.islandStamp = stamp;
+			b.islandIndex = bodyCount;
+			bodies[bodyCount] = b;
+			parent[bodyCount] = bodyCount;
+			bodyCount++;
+		}
+		return b.islandIndex;
+	}
+
+	/**
+	 * Finds the islands with a box that is awake, and wakes their other
+	 * boxes.
+	 */
+	private void wakeIslands() {
+		if (islandAwake.length < islandCount) {
+			islandAwake = new boolean[Math.max(islandCount,
+					islandAwake.length * 2)];
+			islandRestTime = new double[islandAwake.length];
+		}
+		for (int k = 0; k < islandCount; k++) {
+			islandAwake[k] = false;
+		}
+		for (int i = 0; i < bodyCount; i++) {
+			if (!bodies[i].isSleeping()) {
+				islandAwake[islandOfRoot[find(i)]] = true;
+			}
+		}
+		for (int i = 0; i < bodyCount; i++) {
+			Box b = bodies[i];
+			if (b.isSleeping() && islandAwake[islandOfRoot[find(i)]]) {
+				b.wake();
+				if (state != null) {
+					state.wake(b);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts the islands solved in the last step to sleep if all of their
+	 * boxes have been at rest for long enough.
+	 *
+	 * @param timeToSleep
+	 *            how long (in seconds) every box of an island must have been
+	 *            at rest
+	 */
+	void sleepIslands(final double timeToSleep) {
+		for (int k = 0; k < islandCount; k++) {
+			islandRestTime[k] = Double.MAX_VALUE;
+		}
+		for (int i = 0; i < bodyCount; i++) {
+			int k = islandOfRoot[find(i)];
+			islandRestTime[k] = Math.min(islandRestTime[k],
+					bodies[i].sleepTime);
+		}
+		for (int i = 0; i < bodyCount; i++) {
+			Box b = bodies[i];
+			int k = islandOfRoot[find(i)];
+			if (islandAwake[k] && islandRestTime[k] >= timeToSleep) {
+				b.sleep();
+			}
+		}
+	}
+
+	/**
+	 * @param b
+	 *            a box
+	 * @return <code>true</code> iff the box is movable and was in an island
+	 *         in the last step
+	 */
+	boolean isInIsland(final Box b) {
+		return b.inverseMass != 0.0 && b.islandStamp == stamp;
+	}
+
+	private int find(final int i) {
+		int r = i;
+		while (parent[r] != r) {
+			r = parent[r];
+		}
+		// path compression
+		int j = i;
+		while (parent[j] != r) {
+			int next = parent[j];
+			parent[j] = r;
+			j = next;
+		}
+		return r;
+	}
+
+	private void union(final int i, final int j) {
+		if (i < 0 || j < 0) {
+			return;
+		}
+		int ri = find(i);
+		int rj = find(j);
+		if (ri != rj) {
+			if (ri < rj) {
+				parent[rj] = ri;
+			} else {
+				parent[ri] = rj;
+			}
+		}
+	}
+
+	/**
+	 * @return the island of a constraint between two boxes, numbering the
+	 *         island if it has not been seen yet
+	 */
+	private int island(final Box b1, final Box b2) {
+		int i = (b1.inverseMass != 0.0) ? b1.islandIndex : -1;
+		if (i < 0 && b2.inverseMass != 0.0) {
+			i = b2.islandIndex;
+		}
+		if (i < 0) {
+			return islandCount++;
+		}
+		int r = find(i);
+		if (islandOfRoot[r] < 0) {
+			islandOfRoot[r] = islandCount++;
+		}
+		return islandOfRoot[r];
+	}
+
+	private static int[] ensure(final int[] a, final int n) {
+		if (a.length >= n) {
+			return a;
+		}
+		int[] g = new int[Math.max(n, a.length * 2)];
+		System.arraycopy(a, 0, g, 0, a.length);
+		return g;
+	}
+}
@@ -57,17 +57,22 @@ public class Joint {
 
 	Vector2D localAnchor1, localAnchor2;
 
-	Vector2D r1, r2;
+	// the anchors relative to the box centers, in world coordinates
+	double r1x, r1y, r2x, r2y;
 
-	Vector2D bias;
+	double biasX, biasY;
 
-	Vector2D accumulatedImpulse;
+	double accumulatedImpulseX, accumulatedImpulseY;
 
 	Box body1, body2;
 
 	double relaxation;
 
-	Matrix22 m;
+	// the inverse of the joint's effective mass matrix
+	double m11, m12, m21, m22;
+
+	// the velocities of the boxes while they are being solved
+	private double v1x, v1y, w1, v2x, v2y, w2;
 
 	/**
 	 * Creates a new joint between two Boxes.
@@ -103,7 +108,6 @@ public class Joint {
 		localAnchor2 = rot2T.multiply(anchor.difference(body2
 				.getCenterPosition()));
 
-		accumulatedImpulse = new Vector2D(0, 0);
 		relaxation = relax;
 
 	}
@@ -115,49 +119,71 @@ public class Joint {
 	 * 
 	 * @param inverseDeltaTime
 	 *            the inverse time since the last iteration of the game loop
+	 * @param state
+	 *            the arrays holding the state of the boxes, or
+	 *            <code>null</code> if the boxes hold it themselves
 	 */
-	void preStep(final double inverseDeltaTime) {
-		Matrix22 rot1 = new Matrix22(body1.rotation);
-		Matrix22 rot2 = new Matrix22(body2.rotation);
-
-		r1 = rot1.multiply(localAnchor1);
-		r2 = rot2.multiply(localAnchor2);
-
-		Matrix22 k1 = new Matrix22(body1.inverseMass + body2.inverseMass, 0.0,
-				0.0, body1.inverseMass + body2.inverseMass);
-
-		Matrix22 k2 = new Matrix22(body1.invMomentOfInertia * r1.getY()
-				* r1.getY(), -body1.invMomentOfInertia * r1.getX() * r1.getY(),
-				-body1.invMomentOfInertia * r1.getX() * r1.getY(),
-				body1.invMomentOfInertia * r1.getX() * r1.getX());
-
-		Matrix22 k3 = new Matrix22(body2.invMomentOfInertia * r2.getY()
-				* r2.getY(), -body2.invMomentOfInertia * r2.getX() * r2.getY(),
-				-body2.invMomentOfInertia * r2.getX() * r2.getY(),
-				body2.invMomentOfInertia * r2.getX() * r2.getX());
-
-		Matrix22 k = k1.add(k2).add(k3);
-		m = k.invert();
-
-		Vector2D p1 = body1.getCenterPosition().translate(r1);
-		Vector2D p2 = body2.getCenterPosition().translate(r2);
-		Vector2D dp = p2.difference(p1);
-		bias = dp.scale(-.1 * inverseDeltaTime);
+	void preStep(final double inverseDeltaTime, final BoxArrays state) {
+		double rotation1, rotation2, p1x, p1y, p2x, p2y;
+		if (state == null) {
+			rotation1 = body1.rotation;
+			rotation2 = body2.rotation;
+			p1x = body1.getPositionX();
+			p1y = body1.getPositionY();
+			p2x = body2.getPositionX();
+			p2y = body2.getPositionY();
+		} else {
+			rotation1 = state.rotation[body1.slot];
+			rotation2 = state.rotation[body2.slot];
+			p1x = state.positionX[body1.slot];
+			p1y = state.positionY[body1.slot];
+			p2x = state.positionX[body2.slot];
+			p2y = state.positionY[body2.slot];
+		}
+		double c1 = Math.cos(rotation1), s1 = Math.sin(rotation1);
+		double c2 = Math.cos(rotation2), s2 = Math.sin(rotation2);
+
+		r1x = c1 * localAnchor1.getX() + -s1 * localAnchor1.getY();
+		r1y = s1 * localAnchor1.getX() + c1 * localAnchor1.getY();
+		r2x = c2 * localAnchor2.getX() + -s2 * localAnchor2.getY();
+		r2y = s2 * localAnchor2.getX() + c2 * localAnchor2.getY();
+
+		// k = k1 + k2 + k3, where k1 holds the inverse masses and k2 and k3
+		// the inverse moments of inertia of the boxes
+		double inverseMass = body1.inverseMass + body2.inverseMass;
+		double i1 = body1.invMomentOfInertia, i2 = body2.invMomentOfInertia;
+
+		double k11 = (inverseMass + i1 * r1y * r1y) + i2 * r2y * r2y;
+		double k12 = -i1 * r1x * r1y + -i2 * r2x * r2y;
+		double k22 = (inverseMass + i1 * r1x * r1x) + i2 * r2x * r2x;
+
+		// m = inverse of k
+		double det = k11 * k22 - k12 * k12;
+		if (det == 0.0) {
+			throw new IllegalArgumentException("Matrix is not invertable");
+		}
+		det = 1.0 / det;
+		m11 = det * k22;
+		m12 = -det * k12;
+		m21 = m12;
+		m22 = det * k11;
+
+		double dpx = (p2x + body2.halfWidth + r2x)
+				- (p1x + body1.halfWidth + r1x);
+		double dpy = (p2y + body2.halfHeight + r2y)
+				- (p1y + body1.halfHeight + r1y);
+		biasX = dpx * (-.1 * inverseDeltaTime);
+		biasY = dpy * (-.1 * inverseDeltaTime);
 
 		// when relaxation is non-zero, we're essentially doing
 		// a 'warm start' (using the impulse from the last time
 		// as an initial guess).
-		accumulatedImpulse = accumulatedImpulse.scale(relaxation);
-
-		body1.setVelocity(body1.getVelocity().difference(
-				accumulatedImpulse.scale(body1.inverseMass)));
-		body1.angularVelocity -= body1.invMomentOfInertia
-				* r1.cross(accumulatedImpulse);
+		accumulatedImpulseX *= relaxation;
+		accumulatedImpulseY *= relaxation;
 
-		body2.setVelocity(body2.getVelocity().translate(
-				accumulatedImpulse.scale(body2.inverseMass)));
-		body2.angularVelocity += body2.invMomentOfInertia
-				* r2.cross(accumulatedImpulse);
+		load(state);
+		applyImpulse(accumulatedImpulseX, accumulatedImpulseY);
+		store(state);
 
 	}
 
@@ -167,24 +193,97 @@ public class Joint {
 	 * 
 	 */
 	public void applyImpulse() {
-		Vector2D dv = body2.getVelocity().translate(
-				r2.dCrossV(body2.angularVelocity));
-		Vector2D q = body1.getVelocity().translate(
-				r1.dCrossV(body1.angularVelocity));
+		applyImpulse(null);
+	}
 
-		dv = dv.difference(q);
+	/**
+	 * Iteratively applies impulses to calculate the final positions of the
+	 * boxes and anchor on each iteration of the game loop.
+	 * 
+	 * @param state
+	 *            the arrays holding the state of the boxes, or
+	 *            <code>null</code> if the boxes hold it themselves
+	 */
+	void applyImpulse(final BoxArrays state) {
+		load(state);
+
+		double dvx = (v2x - w2 * r2y) - (v1x - w1 * r1y);
+		double dvy = (v2y + w2 * r2x) - (v1y + w1 * r1x);
+
+		double bx = biasX - dvx;
+		double by = biasY - dvy;
+		double impulseX = m11 * bx + m12 * by;
+		double impulseY = m21 * bx + m22 * by;
 
-		Vector2D impulse = m.multiply(bias.difference(dv));
+		applyImpulse(impulseX, impulseY);
+		store(state);
 
-		body1.setVelocity(body1.getVelocity().difference(
-				impulse.scale(body1.inverseMass)));
-		body1.angularVelocity -= body1.invMomentOfInertia * r1.cross(impulse);
+		accumulatedImpulseX += impulseX;
+		accumulatedImpulseY += impulseY;
+	}
+
+	/**
+	 * Applies an impulse to the solver's copy of the velocities, pushing
+	 * body2 along the impulse and body1 against it.
+	 */
+	private void applyImpulse(final double impulseX, final double impulseY) {
+		v1x = v1x - impulseX * body1.inverseMass;
+		v1y = v1y - impulseY * body1.inverseMass;
+		w1 -= body1.invMomentOfInertia * (r1x * impulseY - r1y * impulseX);
+
+		v2x = v2x + impulseX * body2.inverseMass;
+		v2y = v2y + impulseY * body2.inverseMass;
+		w2 += body2.invMomentOfInertia * (r2x * impulseY - r2y * impulseX);
+	}
 
-		body2.setVelocity(body2.getVelocity().translate(
-				impulse.scale(body2.inverseMass)));
-		body2.angularVelocity += body2.invMomentOfInertia * r2.cross(impulse);
+	/** Copies the velocities of the boxes into the solver fields. */
+	private void load(final BoxArrays state) {
+		if (state == null) {
+			v1x = body1.getVelocityX();
+			v1y = body1.getVelocityY();
+			w1 = body1.angularVelocity;
+			v2x = body2.getVelocityX();
+			v2y = body2.getVelocityY();
+			w2 = body2.angularVelocity;
+		} else {
+			int s1 = body1.slot, s2 = body2.slot;
+			v1x = state.velocityX[s1];
+			v1y = state.velocityY[s1];
+			w1 = state.angularVelocity[s1];
+			v2x = state.velocityX[s2];
+			v2y = state.velocityY[s2];
+			w2 = state.angularVelocity[s2];
+		}
+	}
 
-		accumulatedImpulse = accumulatedImpulse.translate(impulse);
+	/**
+	 * Copies the solver's velocities back to the movable boxes; immovable
+	 * boxes are never written, see CattoPhysicsEngine.
+	 */
+	private void store(final BoxArrays state) {
+		if (state == null) {
+			if (body1.inverseMass != 0.0) {
+				body1.setVelocity(v1x, v1y);
+				body1.angularVelocity = w1;
+			}
+			if (body2.inverseMass != 0.0) {
+				body2.setVelocity(v2x, v2y);
+				body2.angularVelocity = w2;
+			}
+		} else {
+			if (body1.inverseMass != 0.0) {
+				int s1 = body1.slot;
+				state.velocityX[s1] = v1x;
+				state.velocityY[s1] = v1y;
+				state.angularVelocity[s1] = w1;
+			}
+			if (body2.inverseMass != 0.0) {
+				int s2 = body2.slot;
+				state.velocityX[s2] = v2x;
+				state.velocityY[s2] = v2y;
+				state.angularVelocity[s2] = w2;
+			}
+		}
 	}
 
 	/**
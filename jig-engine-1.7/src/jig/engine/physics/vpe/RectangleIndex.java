@@ -0,0 +1,89 @@
+package jig.engine.physics.vpe;
+
+/**
+ * A spatial index over a set of axis-aligned rectangles that can report
+ * which members may overlap a given region. Collision handlers use an index
+ * as a broad phase so that each moving body is only tested against the
+ * members near it.
+ *
+ * Queries do not allocate. The results of a query are read back with
+ * {@link #getCandidate(int)}. An index may return a shared 'flyweight'
+ * rectangle for members that have no body of their own, so a candidate
+ * should be used before the next candidate is fetched, and should not be
+ * retained. To come back to a candidate later, keep its key (see
+ * {@link #getCandidateKey(int)}) instead.
+ *
+ * Queries are made over cells of a fixed size, aligned at multiples of
+ * that size. A query reports every member that a query over a smaller
+ * rectangle would, so a query over whole cells finds every member that
+ * may overlap any rectangle inside those cells.
+ *
+ * @param <V>
+ *            the type of rectangle in the index
+ *
+ * @see UniformGrid
+ * @see TileLayer
+ * @see jig.engine.hli.physics.RectangleCollisionHandler
+ */
+public interface RectangleIndex<V extends VanillaAARectangle> {
+
+	/**
+	 * Finds the members that may overlap the specified rectangle. Members
+	 * are reported in a stable order: the order in which they were added to
+	 * the index.
+	 *
+	 * @param x
+	 *            the x coordinate of the upper left corner
+	 * @param y
+	 *            the y coordinate of the upper left corner
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 * @return the number of candidates found
+	 */
+	int query(double x, double y, double w, double h);
+
+	/**
+	 * Gets a result of the most recent query.
+	 *
+	 * @param i
+	 *            the candidate's index in the range [0, query(...))
+	 * @return the candidate rectangle
+	 */
+	V getCandidate(int i);
+
+	/**
+	 * Gets a key for a result of the most recent query. The key identifies
+	 * the candidate until the index is modified.
+	 *
+	 * @param i
+	 *            the candidate's index in the range [0, query(...))
+	 * @return the candidate's key
+	 * @see #getModificationCount()
+	 */
+	int getCandidateKey(int i);
+
+	/**
+	 * Gets a candidate of an earlier query by its key, as
+	 * {@link #getCandidate(int)} would have reported it.
+	 *
+	 * @param key
+	 *            a key returned by <code>getCandidateKey</code> since the
+	 *            index was last modified
+	 * @return the candidate rectangle
+	 */
+	V getMember(int key);
+
+	/**
+	 * @return a count that changes whenever members are added to, removed
+	 *         from or replaced in the index, which invalidates the keys of
+	 *         earlier queries
+	 */
+	int getModificationCount();
+
+	/**
+	 * @return the width and height of the index's cells
+	 */
+	double getCellSize();
+}
@@ -0,0 +1,338 @@
+package jig.engine.physics.vpe;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+import jig.engine.ImageResource;
+import jig.engine.ResourceFactory;
+import jig.engine.SceneSnapshot;
+
+/**
+ * Images of the static tiles of a <code>TileLayer</code>, baked in chunks
+ * of a fixed number of whole columns, so that the layer can be drawn with a
+ * few large images rather than tile by tile.
+ *
+ * Each image only spans the rows from the first to the last row holding a
+ * baked tile, so empty sky is not drawn.
+ *
+ * A chunk is baked from a copy of the tile codes around it and from
+ * snapshots of the prototypes, so baking never touches the layer and may
+ * run on a background thread. Finished chunks are handed back to the
+ * layer's thread by {@link #collect()}. A chunk that is invalidated while it
+ * is being baked is baked again, since the stale result is dropped.
+ *
+ * All methods other than <code>collect</code> are called only by the
+ * thread that renders (and changes) the layer.
+ *
+ * @see TileLayer#setChunkCache(int, boolean)
+ */
+final class TileChunkCache {
+
+	/** A chunk being baked, and then the result. */
+	private final class Bake implements Runnable {
+
+		private final int chunk;
+
+		private final int version;
+
+		private final int epoch;
+
+		private final short[] codes;
+
+		private final int stride;
+
+		private final SceneSnapshot[] kinds;
+
+		private final int[] spans;
+
+		private ImageResource image;
+
+		private double top;
+
+		Bake(final int chunk, final int version, final int epoch,
+				final short[] codes, final int stride,
+				final SceneSnapshot[] kinds, final int[] spans) {
+			this.chunk = chunk;
+			this.version = version;
+			this.epoch = epoch;
+			this.codes = codes;
+			this.stride = stride;
+			this.kinds = kinds;
+			this.spans = spans;
+		}
+
+		public void run() {
+			int rows = codes.length / stride;
+			int lead = stride - chunkColumns;
+
+			// find the rows the baked tiles cover
+			int r0 = rows, r1 = -1;
+			for (int r = 0; r < rows; r++) {
+				for (int j = 0; j < stride; j++) {
+					short code = codes[r * stride + j];
+					if (code > 0 && kinds[code] != null) {
+						r0 = Math.min(r0, r);
+						r1 = Math.max(r1, r + spans[code] - 1);
+					}
+				}
+			}
+			if (r1 >= 0) {
+				top = r0 * tileSize;
+				BufferedImage img = new BufferedImage((int) Math
+						.ceil(chunkColumns * tileSize), (int) Math.ceil((r1
+						- r0 + 1)
+						* tileSize), BufferedImage.TYPE_INT_ARGB);
+				Graphics2D g = img.createGraphics();
+				AffineTransform at = new AffineTransform();
+				for (int r = r0; r < rows; r++) {
+					for (int j = 0; j < stride; j++) {
+						short code = codes[r * stride + j];
+						if (code > 0 && kinds[code] != null) {
+							at.setToTranslation((j - lead) * tileSize,
+									(r - r0) * tileSize);
+							kinds[code].draw(g, at);
+						}
+					}
+				}
+				g.dispose();
+				image = ResourceFactory.getFactory().createImage(img);
+			}
+			synchronized (finished) {
+				finished.add(this);
+			}
+		}
+	}
+
+	private final int chunkColumns;
+
+	private final double tileSize;
+
+	/** The baking thread, or <code>null</code> to bake when asked. */
+	private final ExecutorService executor;
+
+	/** The chunks baked since the last call to collect. */
+	private final List<Bake> finished = new ArrayList<Bake>();
+
+	private ImageResource[] images = new ImageResource[0];
+
+	/** The y coordinate of the top of each chunk's image. */
+	private double[] tops = new double[0];
+
+	/** <code>true</code> iff a chunk's image (maybe none) is up to date. */
+	private boolean[] ready = new boolean[0];
+
+	private boolean[] pending = new boolean[0];
+
+	private int[] versions = new int[0];
+
+	/** Changes whenever the chunks are resized, to drop older bakes. */
+	private int epoch;
+
+	/**
+	 * Creates an empty cache.
+	 *
+	 * @param chunkColumns
+	 *            the number of columns in a chunk
+	 * @param tileSize
+	 *            the width and height of each cell
+	 * @param background
+	 *            <code>true</code> to bake on a background thread
+	 */
+	TileChunkCache(final int chunkColumns, final double tileSize,
+			final boolean background) {
+		this.chunkColumns = chunkColumns;
+		this.tileSize = tileSize;
+		if (background) {
+			executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+				public Thread newThread(final Runnable r) {
+					Thread t = new Thread(r, "TileLayer chunk baker");
+					t.setDaemon(true);
+					return t;
+				}
+			});
+		} else {
+			executor = null;
+		}
+	}
+
+	/**
+	 * @return the number of columns in a chunk
+	 */
+	int getChunkColumns() {
+		return chunkColumns;
+	}
+
+	/**
+	 * @return <code>true</code> iff chunks are baked on a background thread
+	 */
+	boolean isBackground() {
+		return executor != null;
+	}
+
+	/**
+	 * Discards all chunks and makes room for the chunks of a map of the
+	 * specified width.
+	 *
+	 * @param columns
+	 *            the number of columns in the map
+	 */
+	void resize(final int columns) {
+		int n = (columns + chunkColumns - 1) / chunkColumns;
+		images = new ImageResource[n];
+		tops = new double[n];
+		ready = new boolean[n];
+		pending = new boolean[n];
+		versions = new int[n];
+		epoch++;
+	}
+
+	/** Marks every chunk as out of date. */
+	void invalidateAll() {
+		invalidate(0, ready.length - 1);
+	}
+
+	/**
+	 * Marks the chunks holding a range of columns as out of date.
+	 *
+	 * @param col0
+	 *            the first column
+	 * @param col1
+	 *            the last column
+	 */
+	void invalidateColumns(final int col0, final int col1) {
+		invalidate(Math.max(0, col0) / chunkColumns, col1 / chunkColumns);
+	}
+
+	private void invalidate(final int k0, final int k1) {
+		for (int k = k0; k <= k1 && k < ready.length; k++) {
+			versions[k]++;
+			ready[k] = false;
+			images[k] = null;
+		}
+	}
+
+	/**
+	 * @param k
+	 *            a chunk
+	 * @return <code>true</code> iff the chunk exists and is up to date
+	 */
+	boolean isReady(final int k) {
+		return k >= 0 && k < ready.length && ready[k];
+	}
+
+	/**
+	 * @param k
+	 *            a chunk that is ready
+	 * @return the chunk's image, or <code>null</code> if it has no static
+	 *         tiles
+	 */
+	ImageResource getImage(final int k) {
+		return images[k];
+	}
+
+	/**
+	 * @param k
+	 *            a chunk that is ready and has an image
+	 * @return the y coordinate of the top of the chunk's image
+	 */
+	double getTop(final int k) {
+		return tops[k];
+	}
+
+	/**
+	 * Bakes a chunk unless it is ready or being baked. Without a background
+	 * thread, the chunk is ready when this method returns.
+	 *
+	 * @param k
+	 *            the chunk
+	 * @param codes
+	 *            the tile codes of the cells the chunk's tiles may be
+	 *            anchored at, row by row, from the columns left of the chunk
+	 *            to the chunk's last column
+	 * @param stride
+	 *            the number of codes in a row
+	 * @param kinds
+	 *            a snapshot of the prototype of each tile code that is
+	 *            baked, <code>null</code> for the codes that are not
+	 * @param spans
+	 *            the height of each kind of tile, in rows
+	 */
+	void bake(final int k, final short[] codes, final int stride,
+			final SceneSnapshot[] kinds, final int[] spans) {
+		pending[k] = true;
+		Bake b = new Bake(k, versions[k], epoch, codes, stride, kinds, spans);
+		if (executor != null) {
+			executor.execute(b);
+		} else {
+			b.run();
+			collect();
+		}
+	}
+
+	/**
+	 * @param k
+	 *            a chunk
+	 * @return <code>true</code> iff the chunk exists and needs baking
+	 */
+	boolean needsBake(final int k) {
+		return k >= 0 && k < ready.length && !ready[k] && !pending[k];
+	}
+
+	/**
+	 * Takes in the chunks baked since the last call, dropping those that
+	 * went out of date while they were baked.
+	 */
+	void collect() {
+		synchronized (finished) {
+			int n = finished.size();
+			for (int i = 0; i < n; i++) {
+				Bake b = finished.get(i);
+				if (b.epoch != epoch) {
+					continue;
+				}
+				pending[b.chunk] = false;
+				if (b.version == versions[b.chunk]) {
+					images[b.chunk] = b.image;
+					tops[b.chunk] = b.top;
+					ready[b.chunk] = true;
+				}
+			}
+			finished.clear();
+		}
+	}
+
+	/**
+	 * Lets go of the images of the chunks far from a range of chunks.
+	 *
+	 * @param k0
+	 *            the first chunk in use
+	 * @param k1
+	 *            the last chunk in use
+	 * @param keep
+	 *            how many chunks to keep on either side of the range
+	 */
+	void retain(final int k0, final int k1, final int keep) {
+		for (int k = 0; k < ready.length; k++) {
+			if (ready[k] && (k < k0 - keep || k > k1 + keep)) {
+				ready[k] = false;
+				images[k] = null;
+			}
+		}
+	}
+
+	/** Stops the background thread, if any, and drops all chunks. */
+	void dispose() {
+		if (executor != null) {
+			executor.shutdownNow();
+		}
+		Arrays.fill(images, null);
+		Arrays.fill(ready, false);
+	}
+}
@@ -0,0 +1,779 @@
+package jig.engine.physics.vpe;
+
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import jig.engine.ImageResource;
+import jig.engine.RenderingContext;
+import jig.engine.SceneSnapshot;
+import jig.engine.physics.AbstractBodyLayer;
+
+/**
+ * A layer of static, tile aligned, rectangles backed by a compact grid of
+ * tile codes rather than by one <code>Body</code> per tile.
+ *
+ * Each kind of tile is described once by a 'prototype' rectangle passed to
+ * {@link #defineTile(VanillaAARectangle)}, which returns the code for that
+ * kind. The map itself is then just a <code>short</code> per cell. When a
+ * tile is rendered or reported by a collision query, the prototype is moved
+ * to that tile's position and used in its place (i.e., the prototype is a
+ * flyweight). Tiles may span more than one cell; each tile is anchored at
+ * the cell containing its upper left corner.
+ *
+ * Tiles that need state of their own (e.g., blocks that can be broken) can
+ * be defined with a {@link Promoter}. Queries report such tiles as their
+ * prototype like any other, and have no side effects. When the game needs
+ * the state of one tile (e.g., because the block was hit), it calls
+ * {@link #promote(int)} with the tile's key; the promoter is then asked to
+ * create a real body for it, and that body takes the tile's place in the
+ * grid from then on.
+ *
+ * The members of the layer, as seen through <code>get</code>,
+ * <code>size</code> and <code>iterator</code>, are the prototypes followed
+ * by the promoted bodies. This lets a physics engine managing the layer
+ * update (e.g., animate) all unpromoted tiles of a kind at once, while only
+ * the few promoted bodies are updated individually. A promoted body may be
+ * removed with the iterator, which empties its cell; prototypes cannot be
+ * removed, and tiles are emptied with {@link #clearTile(int, int)}.
+ *
+ * Rendering is limited to the tiles that fall inside the viewport, which is
+ * found from the rendering context's transform and the viewport size given
+ * to the constructor. Most tiles of a level never change, so the layer can
+ * also bake them into images of a few columns each and draw those instead
+ * (see {@link #setChunkCache(int, boolean)}).
+ *
+ * @param <V>
+ *            the type of rectangle in this layer
+ *
+ * @see RectangleIndex
+ * @see jig.engine.hli.physics.RectangleCollisionHandler
+ */
+public class TileLayer<V extends VanillaAARectangle> extends
+		AbstractBodyLayer<V> implements RectangleIndex<V> {
+
+	/**
+	 * Creates the body that replaces a tile when the tile is promoted.
+	 *
+	 * @param <V>
+	 *            the type of rectangle in the layer
+	 */
+	public interface Promoter<V extends VanillaAARectangle> {
+
+		/**
+		 * Creates a body for the tile at the specified cell.
+		 *
+		 * @param col
+		 *            the tile's column
+		 * @param row
+		 *            the tile's row
+		 * @return a new body positioned at the tile, never <code>null</code>
+		 */
+		V promote(int col, int row);
+	}
+
+	/** The most kinds of tile that can be defined. */
+	public static final int MAX_TILE_CODES = Short.MAX_VALUE;
+
+	private final double tileSize;
+
+	private final double viewWidth;
+
+	private final double viewHeight;
+
+	private int cols, rows;
+
+	/**
+	 * The tile code of each cell, row major. Zero is an empty cell, a
+	 * positive value is an (unpromoted) tile code and a negative value
+	 * <code>-(i + 1)</code> refers to the promoted body <code>members[i]</code>.
+	 */
+	private short[] cells = new short[0];
+
+	/** The prototype for each tile code; slot zero is unused. */
+	private final ArrayList<V> prototypes = new ArrayList<V>();
+
+	private final ArrayList<Promoter<V>> promoters =
+		new ArrayList<Promoter<V>>();
+
+	/** The largest tile dimensions, in cells, used to widen queries. */
+	private int spanCols = 1, spanRows = 1;
+
+	/** The cell of each promoted body, in member list order. */
+	private int[] bodyCells = new int[16];
+
+	private int[] candidateCells = new int[16];
+
+	private int candidateCount;
+
+	private int modifications;
+
+	/** The baked chunks of static tiles, or <code>null</code>. */
+	private TileChunkCache chunks;
+
+	/**
+	 * The prototype of each tile code, recorded at the origin, or
+	 * <code>null</code> for codes whose tiles are not baked.
+	 */
+	private SceneSnapshot[] kinds;
+
+	/** The width of each kind of tile, in cells. */
+	private int[] kindSpans;
+
+	/** The height of each kind of tile, in cells. */
+	private int[] kindDepths;
+
+	/** The left edge of the view when the layer was last rendered. */
+	private double lastLeft = Double.NaN;
+
+	/**
+	 * Creates a new, empty, tile layer.
+	 *
+	 * @param tileSize
+	 *            the width and height of each cell
+	 * @param viewWidth
+	 *            the width of the viewport the layer is rendered into
+	 * @param viewHeight
+	 *            the height of the viewport the layer is rendered into
+	 */
+	public TileLayer(final double tileSize, final double viewWidth,
+			final double viewHeight) {
+		if (tileSize <= 0) {
+			throw new IllegalArgumentException("tile size must be positive");
+		}
+		this.tileSize = tileSize;
+		this.viewWidth = viewWidth;
+		this.viewHeight = viewHeight;
+		prototypes.add(null);
+		promoters.add(null);
+	}
+
+	/**
+	 * @return the width and height of each cell
+	 */
+	public double getTileSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @return the width and height of each cell, the same as
+	 *         {@link #getTileSize()}
+	 */
+	public double getCellSize() {
+		return tileSize;
+	}
+
+	/**
+	 * @return the number of columns in the map
+	 */
+	public int getColumns() {
+		return cols;
+	}
+
+	/**
+	 * @return the number of rows in the map
+	 */
+	public int getRows() {
+		return rows;
+	}
+
+	/**
+	 * Defines a kind of tile that never needs state of its own.
+	 *
+	 * @param prototype
+	 *            the rectangle used to render and collide with every tile
+	 *            of this kind
+	 * @return the code used to place tiles of this kind
+	 */
+	public short defineTile(final V prototype) {
+		return defineTile(prototype, null);
+	}
+
+	/**
+	 * Defines a kind of tile that is replaced by a body of its own when it is
+	 * promoted.
+	 *
+	 * @param prototype
+	 *            the rectangle used to render tiles of this kind until they
+	 *            are promoted
+	 * @param promoter
+	 *            creates the body that replaces a tile, or <code>null</code>
+	 *            if tiles of this kind are never promoted
+	 * @return the code used to place tiles of this kind
+	 */
+	public short defineTile(final V prototype, final Promoter<V> promoter) {
+		if (prototypes.size() > MAX_TILE_CODES) {
+			throw new IllegalStateException("too many tile kinds");
+		}
+		short code = (short) prototypes.size();
+
+		prototypes.add(prototype);
+		promoters.add(promoter);
+		members.add(code - 1, prototype);
+		renumberPromoted(1);
+		modifications++;
+		if (chunks != null) {
+			recordKinds();
+			chunks.invalidateAll();
+		}
+
+		spanCols = Math.max(spanCols,
+				(int) Math.ceil(prototype.getWidth() / tileSize));
+		spanRows = Math.max(spanRows,
+				(int) Math.ceil(prototype.getHeight() / tileSize));
+		return code;
+	}
+
+	/**
+	 * Discards all tiles and promoted bodies and resizes the map. Tile
+	 * definitions are kept.
+	 *
+	 * @param columns
+	 *            the new number of columns
+	 * @param rows
+	 *            the new number of rows
+	 */
+	public void reset(final int columns, final int rows) {
+		clear();
+		this.cols = columns;
+		this.rows = rows;
+		if (cells.length < columns * rows) {
+			cells = new short[columns * rows];
+		}
+		if (chunks != null) {
+			chunks.resize(columns);
+		}
+	}
+
+	/**
+	 * Turns on (or off) the baking of static tiles into chunks, each an
+	 * image of a fixed number of whole columns of the map. Once the chunks
+	 * in view are baked, the layer is drawn with a few large images, plus
+	 * the tiles that are not baked: those whose prototype has more than one
+	 * frame (they may be animated) and the promoted bodies. Since baked
+	 * tiles are drawn first, a tile that is not baked is always drawn on top
+	 * of baked tiles that overlap it.
+	 * 
+	 * Chunks are baked when they come into view, and dropped when they are
+	 * more than two chunks away from it. Placing, clearing or promoting a
+	 * tile only rebakes the chunks it touches. Baking on a background thread
+	 * also bakes the next chunk in the direction of scrolling ahead of time;
+	 * until a chunk is baked, its tiles are drawn one by one.
+	 * 
+	 * The chunks span the height of the map, so this suits side scrollers.
+	 * 
+	 * @param chunkColumns
+	 *            the number of columns in each chunk, or zero to turn the
+	 *            cache off
+	 * @param background
+	 *            <code>true</code> to bake on a background thread
+	 */
+	public void setChunkCache(final int chunkColumns,
+			final boolean background) {
+		if (chunkColumns < 0) {
+			throw new IllegalArgumentException(
+					"the number of columns must not be negative");
+		}
+		if (chunks != null) {
+			chunks.dispose();
+			chunks = null;
+		}
+		if (chunkColumns > 0) {
+			chunks = new TileChunkCache(chunkColumns, tileSize, background);
+			chunks.resize(cols);
+			recordKinds();
+		}
+		lastLeft = Double.NaN;
+	}
+
+	/**
+	 * Places a tile in the map, replacing whatever was in the cell (a body
+	 * that was promoted in the cell is removed from the layer). Placing a
+	 * tile in a cell outside the map has no effect.
+	 *
+	 * @param col
+	 *            the tile's column
+	 * @param row
+	 *            the tile's row
+	 * @param code
+	 *            the tile code returned by <code>defineTile</code>, or zero
+	 *            to empty the cell
+	 */
+	public void setTile(final int col, final int row, final short code) {
+		if (code < 0 || code >= prototypes.size()) {
+			throw new IllegalArgumentException("undefined tile code " + code);
+		}
+		if (col >= 0 && col < cols && row >= 0 && row < rows) {
+			int cell = row * cols + col;
+			if (cells[cell] < 0) {
+				removeBody(cell);
+			}
+			cells[cell] = code;
+			modifications++;
+			if (chunks != null) {
+				chunks.invalidateColumns(col, col + spanCols - 1);
+			}
+		}
+	}
+
+	/**
+	 * Empties a cell, removing the tile anchored at it (or the body that
+	 * was promoted in its place) from the layer.
+	 *
+	 * @param col
+	 *            the cell's column
+	 * @param row
+	 *            the cell's row
+	 */
+	public void clearTile(final int col, final int row) {
+		setTile(col, row, (short) 0);
+	}
+
+	/**
+	 * Gets the tile code of a cell.
+	 *
+	 * @param col
+	 *            the cell's column
+	 * @param row
+	 *            the cell's row
+	 * @return the tile code, zero if the cell is empty or outside the map,
+	 *         or a negative value if the tile has been promoted
+	 */
+	public short getTile(final int col, final int row) {
+		if (col < 0 || col >= cols || row < 0 || row >= rows) {
+			return 0;
+		}
+		return cells[row * cols + col];
+	}
+
+	/**
+	 * Adds a body to the map at the cell containing its upper left corner,
+	 * replacing whatever was in the cell. Bodies outside the map are
+	 * ignored.
+	 *
+	 * @param e
+	 *            the body to add
+	 */
+	@Override
+	public void add(final V e) {
+		int col = (int) Math.floor(e.getPositionX() / tileSize);
+		int row = (int) Math.floor(e.getPositionY() / tileSize);
+
+		if (col >= 0 && col < cols && row >= 0 && row < rows) {
+			placeBody(row * cols + col, e);
+			modifications++;
+		}
+	}
+
+	/**
+	 * Creates an iterator over the members of the layer: the prototypes,
+	 * then the promoted bodies. Removing a promoted body with the iterator
+	 * empties its cell. Prototypes cannot be removed, since every tile of
+	 * their kind refers to them.
+	 *
+	 * @return a new iterator
+	 */
+	@Override
+	public Iterator<V> iterator() {
+		return new Iterator<V>() {
+			private int next;
+
+			private int last = -1;
+
+			public boolean hasNext() {
+				return next < members.size();
+			}
+
+			public V next() {
+				if (next >= members.size()) {
+					throw new NoSuchElementException();
+				}
+				last = next++;
+				return members.get(last);
+			}
+
+			public void remove() {
+				if (last < 0) {
+					throw new IllegalStateException();
+				}
+				if (last < prototypes.size() - 1) {
+					throw new UnsupportedOperationException(
+							"tile prototypes cannot be removed;"
+									+ " use clearTile to empty cells");
+				}
+				int cell = bodyCells[last - firstBody()];
+				clearTile(cell % cols, cell / cols);
+				next = last;
+				last = -1;
+			}
+		};
+	}
+
+	/**
+	 * Clears all tiles and promoted bodies from this layer. Tile definitions
+	 * (and hence the prototypes) are kept.
+	 */
+	@Override
+	public void clear() {
+		for (int c = 0; c < cols * rows; c++) {
+			cells[c] = 0;
+		}
+		for (int i = members.size() - 1; i >= prototypes.size() - 1; i--) {
+			members.remove(i);
+		}
+		candidateCount = 0;
+		modifications++;
+		if (chunks != null) {
+			chunks.invalidateAll();
+		}
+	}
+
+	/**
+	 * This method is empty and does nothing, a physics engine should manage
+	 * the members of this layer.
+	 *
+	 * @param deltaMs
+	 *            ignored
+	 */
+	@Override
+	public void update(final long deltaMs) {
+	}
+
+	/**
+	 * Renders the tiles that are inside the viewport, in row major order.
+	 *
+	 * @param rc
+	 *            the rendering context of Game Frame
+	 */
+	@Override
+	public void render(final RenderingContext rc) {
+		int c0 = 0, c1 = cols - 1;
+		int r0 = 0, r1 = rows - 1;
+
+		boolean chunked = false;
+
+		AffineTransform at = rc.getTransform();
+		if ((at.getType() & ~(AffineTransform.TYPE_TRANSLATION
+				| AffineTransform.TYPE_UNIFORM_SCALE)) == 0) {
+			double scale = at.getScaleX();
+			double left = -at.getTranslateX() / scale;
+			double top = -at.getTranslateY() / scale;
+
+			c0 = Math.max(0, (int) Math.floor(left / tileSize) - spanCols + 1);
+			c1 = Math.min(cols - 1,
+					(int) Math.floor((left + viewWidth / scale) / tileSize));
+			r0 = Math.max(0, (int) Math.floor(top / tileSize) - spanRows + 1);
+			r1 = Math.min(rows - 1,
+					(int) Math.floor((top + viewHeight / scale) / tileSize));
+
+			if (chunks != null && c1 >= 0) {
+				renderChunks(rc, left, c1);
+				chunked = true;
+			}
+		}
+
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				short code = cells[r * cols + c];
+				if (code > 0) {
+					if (chunked && isBaked(code, c)) {
+						continue;
+					}
+					V proto = prototypes.get(code);
+					proto.setPosition(c * tileSize, r * tileSize);
+					proto.render(rc);
+				} else if (code < 0) {
+					members.get(-code - 1).render(rc);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds the tiles that overlap the specified rectangle. Candidates are
+	 * reported in row major order of the cells they are anchored at. Tiles
+	 * are not promoted by queries.
+	 *
+	 * @param x
+	 *            the x coordinate of the upper left corner
+	 * @param y
+	 *            the y coordinate of the upper left corner
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 * @return the number of candidates found
+	 */
+	public int query(final double x, final double y, final double w,
+			final double h) {
+		candidateCount = 0;
+
+		int c0 = Math.max(0, (int) Math.floor(x / tileSize) - spanCols + 1);
+		int c1 = Math.min(cols - 1, (int) Math.ceil((x + w) / tileSize) - 1);
+		int r0 = Math.max(0, (int) Math.floor(y / tileSize) - spanRows + 1);
+		int r1 = Math.min(rows - 1, (int) Math.ceil((y + h) / tileSize) - 1);
+
+		for (int r = r0; r <= r1; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int cell = r * cols + c;
+				short code = cells[cell];
+				if (code == 0) {
+					continue;
+				}
+
+				VanillaAARectangle tile;
+				if (code > 0) {
+					tile = prototypes.get(code);
+				} else {
+					tile = members.get(-code - 1);
+				}
+				double tx = c * tileSize;
+				double ty = r * tileSize;
+				if (tx >= x + w || ty >= y + h || tx + tile.getWidth() <= x
+						|| ty + tile.getHeight() <= y) {
+					continue;
+				}
+
+				addCandidate(cell);
+			}
+		}
+		return candidateCount;
+	}
+
+	/**
+	 * Gets a result of the most recent query. Unpromoted tiles are reported
+	 * as their (shared) prototype, moved to the tile's position.
+	 *
+	 * @param i
+	 *            the candidate's index in the range [0, query(...))
+	 * @return the candidate rectangle
+	 */
+	public V getCandidate(final int i) {
+		return getMember(candidateCells[i]);
+	}
+
+	/**
+	 * Gets the key of a result of the most recent query, which is the cell
+	 * the tile is anchored at. A tile that is promoted keeps its key.
+	 *
+	 * @param i
+	 *            the candidate's index in the range [0, query(...))
+	 * @return the candidate's key
+	 */
+	public int getCandidateKey(final int i) {
+		return candidateCells[i];
+	}
+
+	/**
+	 * Gets the tile anchored at a cell, moving the prototype to the cell if
+	 * the tile is not promoted.
+	 *
+	 * @param cell
+	 *            the cell, in row major order
+	 * @return the tile
+	 */
+	public V getMember(final int cell) {
+		short code = cells[cell];
+
+		if (code < 0) {
+			return members.get(-code - 1);
+		}
+		V proto = prototypes.get(code);
+		proto.setPosition((cell % cols) * tileSize, (cell / cols) * tileSize);
+		return proto;
+	}
+
+	/**
+	 * Promotes the tile anchored at a cell, if it is not promoted yet and its
+	 * kind was defined with a promoter: the promoter's body replaces the
+	 * tile in the grid and is reported by queries from then on. Bodies are
+	 * only removed when their cell is cleared, so a game should promote the
+	 * tiles whose state really changes (e.g., a block that is hit) rather
+	 * than every tile that is touched.
+	 *
+	 * @param cell
+	 *            the cell, in row major order, as returned by
+	 *            {@link #getCandidateKey(int)}
+	 * @return the tile anchored at the cell, which is its prototype if its
+	 *         kind has no promoter
+	 */
+	public V promote(final int cell) {
+		short code = cells[cell];
+
+		if (code > 0 && promoters.get(code) != null) {
+			placeBody(cell, promoters.get(code).promote(cell % cols,
+					cell / cols));
+		}
+		return getMember(cell);
+	}
+
+	/**
+	 * Draws the chunks in view, baking those that are not, and bakes the
+	 * next chunk in the direction of scrolling ahead of time.
+	 */
+	private void renderChunks(final RenderingContext rc, final double left,
+			final int lastCol) {
+		chunks.collect();
+		int cc = chunks.getChunkColumns();
+		int k0 = Math.max(0, (int) Math.floor(left / tileSize)) / cc;
+		int k1 = lastCol / cc;
+
+		for (int k = k0; k <= k1; k++) {
+			if (chunks.needsBake(k)) {
+				bakeChunk(k);
+			}
+			if (chunks.isReady(k)) {
+				ImageResource img = chunks.getImage(k);
+				if (img != null) {
+					img.render(rc, AffineTransform.getTranslateInstance(k * cc
+							* tileSize, chunks.getTop(k)));
+				}
+			}
+		}
+
+		if (chunks.isBackground() && left != lastLeft
+				&& !Double.isNaN(lastLeft)) {
+			int ahead = left > lastLeft ? k1 + 1 : k0 - 1;
+			if (chunks.needsBake(ahead)) {
+				bakeChunk(ahead);
+			}
+		}
+		lastLeft = left;
+		chunks.retain(k0, k1, 2);
+	}
+
+	/**
+	 * @return <code>true</code> iff an unpromoted tile anchored at a column
+	 *         is drawn by the chunks
+	 */
+	private boolean isBaked(final short code, final int col) {
+		int cc = chunks.getChunkColumns();
+		return kinds[code] != null && chunks.isReady(col / cc)
+				&& chunks.isReady((col + kindSpans[code] - 1) / cc);
+	}
+
+	/**
+	 * Hands a chunk to the cache for baking, along with a copy of the tile
+	 * codes of the cells whose tiles may reach into it.
+	 */
+	private void bakeChunk(final int k) {
+		int cc = chunks.getChunkColumns();
+		int lead = spanCols - 1;
+		int stride = cc + lead;
+		int col0 = k * cc - lead;
+		short[] codes = new short[rows * stride];
+		for (int r = 0; r < rows; r++) {
+			for (int j = 0; j < stride; j++) {
+				int col = col0 + j;
+				if (col >= 0 && col < cols) {
+					codes[r * stride + j] = cells[r * cols + col];
+				}
+			}
+		}
+		chunks.bake(k, codes, stride, kinds, kindDepths);
+	}
+
+	/**
+	 * Records the prototypes of the kinds of tile that are baked, which are
+	 * those with a single frame.
+	 */
+	private void recordKinds() {
+		int n = prototypes.size();
+		SceneSnapshot[] k = new SceneSnapshot[n];
+		int[] spans = new int[n];
+		int[] depths = new int[n];
+		for (int code = 1; code < n; code++) {
+			V proto = prototypes.get(code);
+			spans[code] = Math.max(1,
+					(int) Math.ceil(proto.getWidth() / tileSize));
+			depths[code] = Math.max(1,
+					(int) Math.ceil(proto.getHeight() / tileSize));
+			if (proto.getFrameCount() == 1) {
+				proto.setPosition(0, 0);
+				k[code] = new SceneSnapshot();
+				proto.render(k[code]);
+			}
+		}
+		kinds = k;
+		kindSpans = spans;
+		kindDepths = depths;
+	}
+
+	private void placeBody(final int cell, final V body) {
+		if (chunks != null) {
+			int col = cell % cols;
+			chunks.invalidateColumns(col, col + spanCols - 1);
+		}
+		if (cells[cell] < 0) {
+			members.set(-cells[cell] - 1, body);
+			return;
+		}
+		if (members.size() >= MAX_TILE_CODES) {
+			throw new IllegalStateException("too many bodies in tile layer");
+		}
+		int j = members.size() - firstBody();
+		if (j == bodyCells.length) {
+			int[] grown = new int[bodyCells.length * 2];
+			System.arraycopy(bodyCells, 0, grown, 0, j);
+			bodyCells = grown;
+		}
+		bodyCells[j] = cell;
+		members.add(body);
+		cells[cell] = (short) -members.size();
+	}
+
+	/**
+	 * Removes the promoted body in a cell from the member list and shifts
+	 * the references to the bodies after it, leaving the cell empty.
+	 */
+	private void removeBody(final int cell) {
+		int i = -cells[cell] - 1;
+		members.remove(i);
+		cells[cell] = 0;
+		int n = members.size() - firstBody();
+		for (int j = i - firstBody(); j < n; j++) {
+			bodyCells[j] = bodyCells[j + 1];
+			cells[bodyCells[j]]++;
+		}
+		if (chunks != null) {
+			int col = cell % cols;
+			chunks.invalidateColumns(col, col + spanCols - 1);
+		}
+	}
+
+	/**
+	 * @return a count that changes whenever tiles are placed or cleared, or
+	 *         bodies added, other than by promotion
+	 */
+	public int getModificationCount() {
+		return modifications;
+	}
+
+	/**
+	 * Shifts the references to promoted bodies after a prototype has been
+	 * inserted ahead of them in the member list.
+	 */
+	private void renumberPromoted(final int shift) {
+		int n = members.size() - firstBody();
+		for (int j = 0; j < n; j++) {
+			cells[bodyCells[j]] -= shift;
+		}
+	}
+
+	/**
+	 * @return the index of the first promoted body in the member list
+	 */
+	private int firstBody() {
+		return prototypes.size() - 1;
+	}
+
+	private void addCandidate(final int cell) {
+		if (candidateCount == candidateCells.length) {
+			int[] grown = new int[candidateCells.length * 2];
+			System.arraycopy(candidateCells, 0, grown, 0, candidateCount);
+			candidateCells = grown;
+		}
+		candidateCells[candidateCount++] = cell;
+	}
+}
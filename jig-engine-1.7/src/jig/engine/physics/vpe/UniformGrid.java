@@ -0,0 +1,334 @@
+package jig.engine.physics.vpe;
+
+import jig.engine.physics.BodyLayer;
+
+/**
+ * A uniform grid used as a broad phase for collisions against a layer of
+ * axis-aligned rectangles that (mostly) do not move, such as the tiles that
+ * make up a level.
+ *
+ * The grid is built once from the contents of a <code>BodyLayer</code> and
+ * then queried with the bounding box of a moving body. Each query returns the
+ * (distinct) indexed bodies whose cells overlap that box, so the cost of a
+ * query depends on the size of the box rather than the size of the layer.
+ *
+ * Internally, the cell membership lists are stored in a single packed
+ * array (cell start offsets plus a flat list of body indices) so that
+ * building and querying the grid does not create garbage.
+ *
+ * The grid is not aware of changes made to the layer after it is built. If
+ * bodies are added, removed or moved, the grid must be rebuilt.
+ *
+ * @param <V>
+ *            the type of rectangle indexed by this grid
+ *
+ * @see RectangleIndex
+ * @see jig.engine.hli.physics.RectangleCollisionHandler
+ */
+public class UniformGrid<V extends VanillaAARectangle> implements
+		RectangleIndex<V> {
+
+	private final double cellSize;
+
+	private double originX, originY;
+
+	private int cols, rows;
+
+	/** The indexed bodies, in layer order. */
+	private VanillaAARectangle[] bodies = new VanillaAARectangle[0];
+
+	private int bodyCount;
+
+	/** cellStart[c] .. cellStart[c+1] index into cellItems for cell c. */
+	private int[] cellStart = new int[1];
+
+	private int[] cellItems = new int[0];
+
+	/** The query number in which each body was last reported. */
+	private int[] stamp = new int[0];
+
+	private int queryStamp;
+
+	private int[] candidates = new int[16];
+
+	private int candidateCount;
+
+	private int modifications;
+
+	/**
+	 * Creates a new, empty, grid.
+	 *
+	 * @param cellSize
+	 *            the width and height of each (square) cell. For tile based
+	 *            worlds, the tile size is a good choice.
+	 */
+	public UniformGrid(final double cellSize) {
+		if (cellSize <= 0) {
+			throw new IllegalArgumentException("cell size must be positive");
+		}
+		this.cellSize = cellSize;
+	}
+
+	/**
+	 * @return the width and height of each cell
+	 */
+	public double getCellSize() {
+		return cellSize;
+	}
+
+	/**
+	 * @return the number of bodies in the grid
+	 */
+	public int size() {
+		return bodyCount;
+	}
+
+	/**
+	 * Discards the current contents of the grid and indexes each member of
+	 * the specified layer at its current position.
+	 *
+	 * @param layer
+	 *            the layer to index
+	 */
+	public void build(final BodyLayer<? extends V> layer) {
+		int n = layer.size();
+		modifications++;
+
+		if (bodies.length < n) {
+			bodies = new VanillaAARectangle[n];
+			stamp = new int[n];
+		}
+		bodyCount = n;
+
+		if (n == 0) {
+			cols = rows = 0;
+			cellStart = new int[1];
+			return;
+		}
+
+		double minX = Double.MAX_VALUE;
+		double minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE;
+		double maxY = -Double.MAX_VALUE;
+		VanillaAARectangle r;
+
+		for (int i = 0; i < n; i++) {
+			r = layer.get(i);
+			bodies[i] = r;
+			stamp[i] = 0;
+			minX = Math.min(minX, r.getPositionX());
+			minY = Math.min(minY, r.getPositionY());
+			maxX = Math.max(maxX, r.getPositionX() + r.getWidth());
+			maxY = Math.max(maxY, r.getPositionY() + r.getHeight());
+		}
+		for (int i = n; i < bodies.length; i++) {
+			bodies[i] = null;
+		}
+		queryStamp = 0;
+
+		originX = Math.floor(minX / cellSize) * cellSize;
+		originY = Math.floor(minY / cellSize) * cellSize;
+		cols = Math.max(1, (int) Math.ceil((maxX - originX) / cellSize));
+		rows = Math.max(1, (int) Math.ceil((maxY - originY) / cellSize));
+
+		// first pass: count the members of each cell
+		cellStart = new int[cols * rows + 1];
+		int total = 0;
+		for (int i = 0; i < n; i++) {
+			r = bodies[i];
+			int c0 = col(r.getPositionX());
+			int c1 = Math.max(c0,
+					lastCol(r.getPositionX() + r.getWidth()));
+			int r0 = row(r.getPositionY());
+			int r1 = Math.max(r0,
+					lastRow(r.getPositionY() + r.getHeight()));
+			for (int y = r0; y <= r1; y++) {
+				for (int x = c0; x <= c1; x++) {
+					cellStart[y * cols + x + 1]++;
+					total++;
+				}
+			}
+		}
+		for (int c = 1; c < cellStart.length; c++) {
+			cellStart[c] += cellStart[c - 1];
+		}
+
+		// second pass: fill the cells, preserving layer order within a cell
+		if (cellItems.length < total) {
+			cellItems = new int[total];
+		}
+		int[] fill = new int[cols * rows];
+		for (int i = 0; i < n; i++) {
+			r = bodies[i];
+			int c0 = col(r.getPositionX());
+			int c1 = Math.max(c0,
+					lastCol(r.getPositionX() + r.getWidth()));
+			int r0 = row(r.getPositionY());
+			int r1 = Math.max(r0,
+					lastRow(r.getPositionY() + r.getHeight()));
+			for (int y = r0; y <= r1; y++) {
+				for (int x = c0; x <= c1; x++) {
+					int c = y * cols + x;
+					cellItems[cellStart[c] + fill[c]++] = i;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Finds all indexed bodies whose cells overlap the specified rectangle.
+	 * The results are retrieved with {@link #getCandidate(int)} and remain
+	 * valid until the next query or build. Candidates are reported in the
+	 * same order as they appeared in the indexed layer.
+	 *
+	 * Note that candidates are only <i>potentially</i> overlapping, an exact
+	 * intersection test is still needed.
+	 *
+	 * @param x
+	 *            the x coordinate of the upper left corner
+	 * @param y
+	 *            the y coordinate of the upper left corner
+	 * @param w
+	 *            the width of the rectangle
+	 * @param h
+	 *            the height of the rectangle
+	 * @return the number of candidates found
+	 */
+	public int query(final double x, final double y, final double w,
+			final double h) {
+		candidateCount = 0;
+		if (bodyCount == 0 || x + w < originX || y + h < originY
+				|| x > originX + cols * cellSize
+				|| y > originY + rows * cellSize) {
+			return 0;
+		}
+
+		int c0 = col(x);
+		int c1 = Math.max(c0, lastCol(x + w));
+		int r0 = row(y);
+		int r1 = Math.max(r0, lastRow(y + h));
+
+		queryStamp++;
+		if (queryStamp == 0) {
+			// wrapped around, forget the old stamps
+			for (int i = 0; i < bodyCount; i++) {
+				stamp[i] = 0;
+			}
+			queryStamp = 1;
+		}
+
+		for (int cy = r0; cy <= r1; cy++) {
+			for (int cx = c0; cx <= c1; cx++) {
+				int c = cy * cols + cx;
+				for (int k = cellStart[c]; k < cellStart[c + 1]; k++) {
+					int i = cellItems[k];
+					if (stamp[i] != queryStamp) {
+						stamp[i] = queryStamp;
+						addCandidate(i);
+					}
+				}
+			}
+		}
+		return candidateCount;
+	}
+
+	/**
+	 * Gets a result of the most recent query.
+	 *
+	 * @param i
+	 *            the candidate's index in the range [0, query(...))
+	 * @return the candidate body
+	 */
+	@SuppressWarnings("unchecked")
+	public V getCandidate(final int i) {
+		return (V) bodies[candidates[i]];
+	}
+
+	/**
+	 * Gets the key of a result of the most recent query, which is the
+	 * body's position in the indexed layer.
+	 *
+	 * @param i
+	 *            the candidate's index in the range [0, query(...))
+	 * @return the candidate's key
+	 */
+	public int getCandidateKey(final int i) {
+		return candidates[i];
+	}
+
+	/**
+	 * Gets an indexed body by its key.
+	 *
+	 * @param key
+	 *            the body's position in the indexed layer
+	 * @return the body
+	 */
+	@SuppressWarnings("unchecked")
+	public V getMember(final int key) {
+		return (V) bodies[key];
+	}
+
+	/**
+	 * @return a count that changes each time the grid is built or cleared
+	 */
+	public int getModificationCount() {
+		return modifications;
+	}
+
+	/** Discards the contents of the grid. */
+	public void clear() {
+		for (int i = 0; i < bodyCount; i++) {
+			bodies[i] = null;
+		}
+		bodyCount = 0;
+		cols = rows = 0;
+		candidateCount = 0;
+		modifications++;
+		cellStart = new int[1];
+	}
+
+	/**
+	 * Inserts a body index into the candidate list keeping the list sorted
+	 * so that candidates are visited in layer order. Candidate lists are
+	 * short, so an insertion sort is all that's needed.
+	 */
+	private void addCandidate(final int i) {
+		if (candidateCount == candidates.length) {
+			int[] grown = new int[candidates.length * 2];
+			System.arraycopy(candidates, 0, grown, 0, candidateCount);
+			candidates = grown;
+		}
+		int k = candidateCount++;
+		while (k > 0 && candidates[k - 1] > i) {
+			candidates[k] = candidates[k - 1];
+			k--;
+		}
+		candidates[k] = i;
+	}
+
+	private int col(final double x) {
+		return clamp((int) Math.floor((x - originX) / cellSize), cols);
+	}
+
+	private int lastCol(final double x) {
+		return clamp((int) Math.ceil((x - originX) / cellSize) - 1, cols);
+	}
+
+	private int row(final double y) {
+		return clamp((int) Math.floor((y - originY) / cellSize), rows);
+	}
+
+	private int lastRow(final double y) {
+		return clamp((int) Math.ceil((y - originY) / cellSize) - 1, rows);
+	}
+
+	private static int clamp(final int v, final int n) {
+		if (v < 0) {
+			return 0;
+		}
+		if (v >= n) {
+			return n - 1;
+		}
+		return v;
+	}
+}
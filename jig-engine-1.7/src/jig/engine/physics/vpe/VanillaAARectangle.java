@@ -11,6 +11,7 @@ import jig.engine.RenderingContext;
 import jig.engine.ResourceFactory;
 import jig.engine.PaintableCanvas.JIGSHAPE;
 import jig.engine.physics.Body;
+import jig.engine.util.AABB;
 import jig.engine.util.Vector2D;
 
 /**
@@ -31,6 +32,9 @@ public abstract class VanillaAARectangle extends Body {
 
 	private boolean renderMarkup = false;
 
+	/** Where the rectangle was when the current step began, or NaN. */
+	private double sweepStartX = Double.NaN, sweepStartY = Double.NaN;
+
 	/**
 	 * Creates a new AA-Rectangle with the specified image resources.
 	 * 
@@ -77,6 +81,70 @@ public abstract class VanillaAARectangle extends Body {
 
 	}
 
+	/**
+	 * Records the rectangle's current position as the start of its motion
+	 * for the current step. <code>VanillaPhysicsEngine</code> calls this just
+	 * before it updates the rectangle, so that a collision handler can
+	 * sweep the rectangle along the path it took during the update rather
+	 * than only test where it ended up.
+	 * 
+	 * @see jig.engine.hli.physics.RectangleCollisionHandler#setContinuous(boolean,
+	 *      double)
+	 */
+	public void markSweepStart() {
+		sweepStartX = getPositionX();
+		sweepStartY = getPositionY();
+	}
+
+	/**
+	 * @return the x coordinate the rectangle moved from during the current
+	 *         step, or NaN if it was never recorded
+	 * @see #markSweepStart()
+	 */
+	public double getSweepStartX() {
+		return sweepStartX;
+	}
+
+	/**
+	 * @return the y coordinate the rectangle moved from during the current
+	 *         step, or NaN if it was never recorded
+	 * @see #markSweepStart()
+	 */
+	public double getSweepStartY() {
+		return sweepStartY;
+	}
+
+	/**
+	 * Places the rectangle. Unlike moving it with <code>translateBy</code>,
+	 * placing the rectangle (e.g., respawning it) also restarts its sweep, so
+	 * it is not swept from where it was before.
+	 * 
+	 * @param p
+	 *            the new position
+	 */
+	@Override
+	public void setPosition(final Vector2D p) {
+		super.setPosition(p);
+		sweepStartX = p.getX();
+		sweepStartY = p.getY();
+	}
+
+	/**
+	 * Places the rectangle in place, restarting its sweep.
+	 * 
+	 * @param x
+	 *            the x coordinate of the upper left corner
+	 * @param y
+	 *            the y coordinate of the upper left corner
+	 * @see #setPosition(Vector2D)
+	 */
+	@Override
+	public void setPosition(final double x, final double y) {
+		super.setPosition(x, y);
+		sweepStartX = x;
+		sweepStartY = y;
+	}
+
 	/**
 	 * Currently, intersection tests are best done using this method
 	 * to return a bounding box, and then the <code>AABB</code> utility
@@ -84,6 +152,10 @@ public abstract class VanillaAARectangle extends Body {
 	 * tests can also be done directly with the <code>Rectangle2D</code>
 	 * class methods.
 	 * 
+	 * Note that a new rectangle is created on each call, so inside
+	 * collision loops {@link #overlaps(VanillaAARectangle)} and the other
+	 * primitive queries below should be preferred.
+	 * 
 	 * @return the object's bounding box.
 	 * 
 	 * @see jig.util.AABB
@@ -92,11 +164,106 @@ public abstract class VanillaAARectangle extends Body {
 	 * @see java.awt.geom.Rectangle2D#intersects(Rectangle2D)
 	 */
 	public Rectangle2D getBoundingBox() {
-		return new Rectangle2D.Double(position.getX(), position.getY(), width,
+		return new Rectangle2D.Double(getPositionX(), getPositionY(), width,
 				height);
 
 	}
 
+	/**
+	 * Tests whether this rectangle's interior intersects the specified
+	 * rectangle. Rectangles that merely share an edge do not overlap. This
+	 * gives the same answer as
+	 * <code>getBoundingBox().intersects(x, y, w, h)</code> without creating
+	 * any objects.
+	 * 
+	 * @param x
+	 *            the x coordinate of the other rectangle's upper left corner
+	 * @param y
+	 *            the y coordinate of the other rectangle's upper left corner
+	 * @param w
+	 *            the width of the other rectangle
+	 * @param h
+	 *            the height of the other rectangle
+	 * @return <code>true</code> iff the rectangles overlap
+	 */
+	public boolean overlaps(final double x, final double y, final double w,
+			final double h) {
+		if (width <= 0 || height <= 0 || w <= 0 || h <= 0) {
+			return false;
+		}
+		double px = getPositionX();
+		double py = getPositionY();
+		return x + w > px && y + h > py && x < px + width && y < py + height;
+	}
+
+	/**
+	 * Tests whether this rectangle overlaps another. This gives the same
+	 * answer as <code>getBoundingBox().intersects(b.getBoundingBox())</code>
+	 * without creating any objects.
+	 * 
+	 * @param b
+	 *            the other rectangle
+	 * @return <code>true</code> iff the rectangles overlap
+	 */
+	public boolean overlaps(final VanillaAARectangle b) {
+		return overlaps(b.getPositionX(), b.getPositionY(), b.width,
+				b.height);
+	}
+
+	/**
+	 * Gets the amount by which this rectangle and another overlap along the
+	 * x axis. This is the distance one of them would have to move
+	 * horizontally for the two to just touch.
+	 * 
+	 * @param b
+	 *            the other rectangle
+	 * @return the horizontal penetration depth, negative if the rectangles
+	 *         are separated along the x axis (in which case its magnitude is
+	 *         the gap between them)
+	 */
+	public double xPenetration(final VanillaAARectangle b) {
+		double ax = getPositionX();
+		double bx = b.getPositionX();
+		return Math.min(ax + width, bx + b.width) - Math.max(ax, bx);
+	}
+
+	/**
+	 * Gets the amount by which this rectangle and another overlap along the
+	 * y axis.
+	 * 
+	 * @param b
+	 *            the other rectangle
+	 * @return the vertical penetration depth, negative if the rectangles are
+	 *         separated along the y axis
+	 * 
+	 * @see #xPenetration(VanillaAARectangle)
+	 */
+	public double yPenetration(final VanillaAARectangle b) {
+		double ay = getPositionY();
+		double by = b.getPositionY();
+		return Math.min(ay + height, by + b.height) - Math.max(ay, by);
+	}
+
+	/**
+	 * Finds the axis of least penetration between this rectangle and
+	 * another, which is usually the axis along which an overlap should be
+	 * resolved. This is a primitive counterpart of
+	 * {@link jig.engine.util.AABB#minSeparation(Rectangle2D, Rectangle2D)}.
+	 * 
+	 * @param b
+	 *            the other rectangle
+	 * @return <code>AABB.AXIS_X</code> or <code>AABB.AXIS_Y</code> if the
+	 *         rectangles overlap, <code>AABB.AXIS_NONE</code> otherwise
+	 */
+	public int minSeparationAxis(final VanillaAARectangle b) {
+		double px = xPenetration(b);
+		double py = yPenetration(b);
+		if (px <= 0 || py <= 0) {
+			return AABB.AXIS_NONE;
+		}
+		return (py < px) ? AABB.AXIS_Y : AABB.AXIS_X;
+	}
+
 
 	/**
 	 * Renders the VanillaRectangle.
@@ -110,65 +277,87 @@ public abstract class VanillaAARectangle extends Body {
 			return;
 		}
 
-		AffineTransform at = AffineTransform.getTranslateInstance(position
-				.getX(), position.getY());
+		AffineTransform at = AffineTransform.getTranslateInstance(
+				getPositionX(), getPositionY());
 		super.render(rc, at);
 
 		if (renderMarkup) {
 			imgBoundingRectangle.get(0).render(rc, at);
 		}
 	}
-	
-	public boolean isOnLeftSide(VanillaAARectangle b){
-		if(position.getX()+getWidth() > b.getPosition().getX() && position.getX() < b.getPosition().getX()){
-			return true;
-		}
-		return false;
+
+	/**
+	 * @param b
+	 *            the other rectangle
+	 * @return <code>true</code> iff this rectangle straddles the left edge
+	 *         of <code>b</code>
+	 */
+	public boolean isOnLeftSide(final VanillaAARectangle b) {
+		double ax = getPositionX();
+		double bx = b.getPositionX();
+		return ax + width > bx && ax < bx;
 	}
-	
-public boolean isOnRightSide(VanillaAARectangle b){
-		if(position.getX() < b.getPosition().getX() + b.getWidth() && position.getX() + getWidth() > b.getPosition().getX() + b.getWidth()){
-			return true;
-		}
-		return false;
+
+	/**
+	 * @param b
+	 *            the other rectangle
+	 * @return <code>true</code> iff this rectangle straddles the right edge
+	 *         of <code>b</code>
+	 */
+	public boolean isOnRightSide(final VanillaAARectangle b) {
+		double ax = getPositionX();
+		double bRight = b.getPositionX() + b.width;
+		return ax < bRight && ax + width > bRight;
 	}
 
-public boolean isOnTopSide(VanillaAARectangle b){
-	if(position.getY()+getHeight() > b.getPosition().getY() && position.getY() < b.getPosition().getY() && position.getY()+getHeight() - b.getPosition().getY() < offset){
-		return true;
+	/**
+	 * @param b
+	 *            the other rectangle
+	 * @return <code>true</code> iff this rectangle's bottom edge is just
+	 *         inside the top edge of <code>b</code>
+	 */
+	public boolean isOnTopSide(final VanillaAARectangle b) {
+		double ay = getPositionY();
+		double by = b.getPositionY();
+		return ay + height > by && ay < by && ay + height - by < offset;
 	}
-	return false;
-}
 
-public boolean isOnBottomSide(VanillaAARectangle b){
-	if(position.getY() < b.getPosition().getY() + b.getHeight() && position.getY() + getHeight() > b.getPosition().getY() + b.getHeight() && b.getPosition().getY() + b.getHeight()-position.getY()<offset){
-		return true;
+	/**
+	 * @param b
+	 *            the other rectangle
+	 * @return <code>true</code> iff this rectangle's top edge is just inside
+	 *         the bottom edge of <code>b</code>
+	 */
+	public boolean isOnBottomSide(final VanillaAARectangle b) {
+		double ay = getPositionY();
+		double bBottom = b.getPositionY() + b.height;
+		return ay < bBottom && ay + height > bBottom && bBottom - ay < offset;
 	}
-	return false;
-}
 
-public double leftCollidingDistance(VanillaAARectangle b){
-	return (position.getX()+getWidth()) - b.getPosition().getX() + sideCollisionBounceOff;
-}
+	public double leftCollidingDistance(final VanillaAARectangle b) {
+		return (getPositionX() + width) - b.getPositionX()
+				+ sideCollisionBounceOff;
+	}
 
-public double rightCollidingDistance(VanillaAARectangle b){
-	return (b.getPosition().getX() + b.getWidth()) - position.getX() + sideCollisionBounceOff;
-}
+	public double rightCollidingDistance(final VanillaAARectangle b) {
+		return (b.getPositionX() + b.width) - getPositionX()
+				+ sideCollisionBounceOff;
+	}
 
-public double topCollidingDistance(VanillaAARectangle b){
-	return (position.getY()+getHeight()) - b.getPosition().getY() + safenum;
-}
+	public double topCollidingDistance(final VanillaAARectangle b) {
+		return (getPositionY() + height) - b.getPositionY() + safenum;
+	}
 
-public double bottomCollidingDistance(VanillaAARectangle b){
-	return (b.getPosition().getY() + b.getHeight()) - position.getY() + safenum;
-}
+	public double bottomCollidingDistance(final VanillaAARectangle b) {
+		return (b.getPositionY() + b.height) - getPositionY() + safenum;
+	}
 
-public void setOppositeXVelocity(){
-	velocity= new Vector2D(-velocity.getX(),velocity.getY());
-}
+	public void setOppositeXVelocity() {
+		setVelocity(-getVelocityX(), getVelocityY());
+	}
 
-public void setOppositeYVelocity(){
-	velocity= new Vector2D(velocity.getX(),-velocity.getY());
-}
+	public void setOppositeYVelocity() {
+		setVelocity(getVelocityX(), -getVelocityY());
+	}
 
 }
@@ -1,9 +1,11 @@
 package jig.engine.physics.vpe;
 
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import jig.engine.PhysicsEngine;
 import jig.engine.RenderingContext;
@@ -19,11 +21,30 @@ import jig.engine.physics.BodyLayer;
  * and resolving collisions are stored in a list of 
  * <code>CollisionHandler</code> instances.
  * 
+ * Each managed layer has an {@link UpdatePolicy}. Bodies in a
+ * <code>WINDOWED</code> layer are only updated while they overlap the
+ * activation region (typically the camera's view plus a margin); outside
+ * of it they are put to sleep, which also removes them from collision
+ * handling, and they are woken as soon as the region reaches them again.
+ * <code>STATIC</code> layers are never iterated for update at all.
+ * 
  * 
  * @author Scott Wallace
  *
  */
 public class VanillaPhysicsEngine implements PhysicsEngine<Body> {
+
+	/**
+	 * How the bodies in a managed layer are updated.
+	 */
+	public enum UpdatePolicy {
+		/** Every body is updated on every step (the default). */
+		ALWAYS,
+		/** Only bodies that overlap the activation region are updated. */
+		WINDOWED,
+		/** The layer's bodies never change, so they are never updated. */
+		STATIC
+	}
 	
 	/**
 	 *  A list of <code>ViewableLayer</code> instances
@@ -37,6 +58,16 @@ public class VanillaPhysicsEngine implements PhysicsEngine<Body> {
 	 */
 	protected ArrayList<CollisionHandler> handlers;
 
+	/** The update policy of each layer that does not use the default. */
+	private final Map<BodyLayer<? extends Body>, UpdatePolicy> policies =
+		new IdentityHashMap<BodyLayer<? extends Body>, UpdatePolicy>();
+
+	private boolean hasRegion;
+
+	private double regionLeft, regionTop, regionRight, regionBottom;
+
+	private double margin;
+
 	/**
 	 * Creates a new physics engine.
 	 */
@@ -60,6 +91,66 @@ public class VanillaPhysicsEngine implements PhysicsEngine<Body> {
 		bodies.add(v);
 	}
 
+	/**
+	 * Registers a <code>ViewableLayer</code> with a specific update policy.
+	 * 
+	 * @see #manageViewableSet(BodyLayer)
+	 * @param v a layer of physical bodies
+	 * @param policy how the bodies in the layer are updated
+	 */
+	public void manageViewableSet(final BodyLayer<? extends Body> v,
+			final UpdatePolicy policy) {
+
+		bodies.add(v);
+		if (policy != UpdatePolicy.ALWAYS) {
+			policies.put(v, policy);
+		}
+	}
+
+	/**
+	 * Sets the activation region used for <code>WINDOWED</code> layers,
+	 * typically the area of the world that is currently visible. Games
+	 * that scroll should update the region on every step.
+	 * 
+	 * @param x the x coordinate of the region's upper left corner
+	 * @param y the y coordinate of the region's upper left corner
+	 * @param w the width of the region
+	 * @param h the height of the region
+	 */
+	public void setActivationRegion(final double x, final double y,
+			final double w, final double h) {
+		regionLeft = x;
+		regionTop = y;
+		regionRight = x + w;
+		regionBottom = y + h;
+		hasRegion = true;
+	}
+
+	/**
+	 * Removes the activation region, so that every body in a
+	 * <code>WINDOWED</code> layer is updated (and woken if asleep).
+	 */
+	public void clearActivationRegion() {
+		hasRegion = false;
+	}
+
+	/**
+	 * Sets how far beyond the activation region bodies stay awake. A margin
+	 * lets bodies that are about to come into view settle first.
+	 * 
+	 * @param m the margin, applied on every side of the region
+	 */
+	public void setActivationMargin(final double m) {
+		margin = m;
+	}
+
+	/**
+	 * @return the margin applied around the activation region
+	 */
+	public double getActivationMargin() {
+		return margin;
+	}
+
 	/**
 	 * Registers a <code>CollisionHandler</code> indicating that
 	 * this handler can find and resolve collisions between objects
@@ -79,13 +170,19 @@ public class VanillaPhysicsEngine implements PhysicsEngine<Body> {
 	public void clear() {
 		bodies.clear();
 		handlers.clear();
+		policies.clear();
+		hasRegion = false;
 	}
 
 	/**
 	 * Applies the laws of physics to registered bodies by:
 	 * <ol>
 	 * <li> Iterating over all physical bodies in the registered layers 
-	 * and updating each body.
+	 * and updating each body. Bodies in <code>WINDOWED</code> layers that
+	 * are outside the activation region are put to sleep instead, and
+	 * <code>STATIC</code> layers are skipped. The position of each
+	 * <code>VanillaAARectangle</code> is recorded before it is updated (see
+	 * {@link VanillaAARectangle#markSweepStart()}).
 	 * <li> Iterating over each collision handler to find and reconcile
 	 * collisions.
 	 * </ol>
@@ -104,8 +201,26 @@ public class VanillaPhysicsEngine implements PhysicsEngine<Body> {
 	 */
 	public void applyLawsOfPhysics(final long deltaMs) {
 		
+		UpdatePolicy policy;
+		boolean windowed;
+
 		for (BodyLayer<? extends Body> layer : bodies) {
+			policy = policies.isEmpty() ? null : policies.get(layer);
+			if (policy == UpdatePolicy.STATIC) {
+				continue;
+			}
+			windowed = policy == UpdatePolicy.WINDOWED;
+
 			for (Body b : layer) {
+				if (windowed) {
+					b.setSleeping(hasRegion && !inActivationRegion(b));
+					if (b.isSleeping()) {
+						continue;
+					}
+				}
+				if (b instanceof VanillaAARectangle) {
+					((VanillaAARectangle) b).markSweepStart();
+				}
 				b.update(deltaMs);				
 			}
 		}
@@ -114,6 +229,19 @@ public class VanillaPhysicsEngine implements PhysicsEngine<Body> {
 		}
 	}
 
+	/**
+	 * @param b a body
+	 * @return <code>true</code> iff the body overlaps the activation region,
+	 *         extended by the margin
+	 */
+	private boolean inActivationRegion(final Body b) {
+		double x = b.getPositionX();
+		double y = b.getPositionY();
+		return x < regionRight + margin && x + b.getWidth() > regionLeft - margin
+				&& y < regionBottom + margin
+				&& y + b.getHeight() > regionTop - margin;
+	}
+
 	/**
 	 * Renders markup for debugging or visualization onto the drawing surface.
 	 * 
@@ -166,7 +166,7 @@ public abstract class VanillaSphere extends Body {
 			return;
 		}
 
-		Vector2D p = position;
+		Vector2D p = getPosition();
 		AffineTransform at = AffineTransform.getTranslateInstance(p.getX()
 				+ radius, p.getY() + radius);
 
@@ -0,0 +1,90 @@
+package jig.engine.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Reads the number of bytes the current thread has allocated, for measuring
+ * how much garbage a piece of code creates.
+ *
+ * The count comes from the HotSpot extension of <code>ThreadMXBean</code>,
+ * which is looked up reflectively since it is not part of the standard
+ * library. On virtual machines without it {@link #isSupported()} returns
+ * <code>false</code> and the count is always 0.
+ *
+ * Reading the count may itself allocate a few bytes; that amount is
+ * estimated once and reported by {@link #getOverhead()} so that callers
+ * measuring small differences can subtract it.
+ */
+public final class AllocationCounter {
+
+	private static final ThreadMXBean THREADS = ManagementFactory
+			.getThreadMXBean();
+
+	/** <code>getThreadAllocatedBytes(long)</code>, if supported. */
+	private static final Method ALLOCATED_BYTES;
+
+	private static final long OVERHEAD;
+
+	static {
+		Method m = null;
+		try {
+			Class<?> c = Class.forName("com.sun.management.ThreadMXBean");
+			if (c.isInstance(THREADS)
+					&& (Boolean) c.getMethod(
+							"isThreadAllocatedMemorySupported").invoke(THREADS)) {
+				c.getMethod("setThreadAllocatedMemoryEnabled", boolean.class)
+						.invoke(THREADS, true);
+				m = c.getMethod("getThreadAllocatedBytes", long.class);
+			}
+		} catch (Exception e) {
+			m = null;
+		}
+		ALLOCATED_BYTES = m;
+
+		long overhead = Long.MAX_VALUE;
+		for (int i = 0; i < 16; i++) {
+			long a = getThreadAllocatedBytes();
+			long b = getThreadAllocatedBytes();
+			overhead = Math.min(overhead, b - a);
+		}
+		OVERHEAD = Math.max(0, overhead);
+	}
+
+	/** Static methods only. */
+	private AllocationCounter() {
+	}
+
+	/**
+	 * @return <code>true</code> if allocation can be counted on this virtual
+	 *         machine
+	 */
+	public static boolean isSupported() {
+		return ALLOCATED_BYTES != null;
+	}
+
+	/**
+	 * @return the total number of bytes allocated by the current thread so
+	 *         far, or 0 if this is not supported
+	 */
+	public static long getThreadAllocatedBytes() {
+		if (ALLOCATED_BYTES == null) {
+			return 0;
+		}
+		try {
+			return (Long) ALLOCATED_BYTES.invoke(THREADS, Thread
+					.currentThread().getId());
+		} catch (Exception e) {
+			return 0;
+		}
+	}
+
+	/**
+	 * @return the (approximate) number of bytes allocated by one call of
+	 *         {@link #getThreadAllocatedBytes()}
+	 */
+	public static long getOverhead() {
+		return OVERHEAD;
+	}
+}
@@ -0,0 +1,57 @@
+package jig.engine;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * An image resource that draws nothing, so sprites can be created in tests
+ * without a game frame.
+ */
+public class BlankImage implements ImageResource {
+
+	private final int width, height;
+
+	/**
+	 * Creates a blank image.
+	 * 
+	 * @param width
+	 *            the image's width
+	 * @param height
+	 *            the image's height
+	 */
+	public BlankImage(final int width, final int height) {
+		this.width = width;
+		this.height = height;
+	}
+
+	/**
+	 * Creates a single blank frame.
+	 * 
+	 * @param width
+	 *            the frame's width
+	 * @param height
+	 *            the frame's height
+	 * @return a frame set holding one blank image
+	 */
+	public static List<ImageResource> frames(final int width, final int height) {
+		List<ImageResource> frames = new ArrayList<ImageResource>(1);
+		frames.add(new BlankImage(width, height));
+		return frames;
+	}
+
+	public int getHeight() {
+		return height;
+	}
+
+	public int getWidth() {
+		return width;
+	}
+
+	public void render(final RenderingContext rc, final AffineTransform at) {
+	}
+
+	public void draw(final Graphics2D g, final AffineTransform at) {
+	}
+}
@@ -0,0 +1,37 @@
+package jig.engine;
+
+import static org.junit.Assert.assertEquals;
+import jig.engine.util.Vector2D;
+
+import org.junit.Test;
+
+public class SpriteTest {
+
+	private static final double EPSILON = 1e-9;
+
+	@Test
+	public void restoresSavedPosition() {
+		Sprite s = new Sprite(BlankImage.frames(16, 16));
+		s.setPosition(new Vector2D(10, 20));
+
+		Vector2D p = s.getPosition();
+		s.translateBy(5, 0);
+		assertEquals(15, s.getPositionX(), EPSILON);
+
+		s.setPosition(p);
+		assertEquals(10, s.getPositionX(), EPSILON);
+		assertEquals(20, s.getPositionY(), EPSILON);
+		assertEquals(10, s.getPosition().getX(), EPSILON);
+	}
+
+	@Test
+	public void readsPositionSetInPlace() {
+		Sprite s = new Sprite(BlankImage.frames(16, 16));
+		s.setPosition(new Vector2D(10, 20));
+		s.setPosition(3, 4);
+
+		Vector2D p = s.getPosition();
+		assertEquals(3, p.getX(), EPSILON);
+		assertEquals(4, p.getY(), EPSILON);
+	}
+}
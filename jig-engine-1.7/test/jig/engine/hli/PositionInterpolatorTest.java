@@ -0,0 +1,52 @@
+package jig.engine.hli;
+
+import static org.junit.Assert.assertEquals;
+import jig.engine.BlankImage;
+import jig.engine.physics.AbstractBodyLayer;
+import jig.engine.physics.Body;
+import jig.engine.physics.BodyLayer;
+import jig.engine.util.Vector2D;
+
+import org.junit.Test;
+
+public class PositionInterpolatorTest {
+
+	private static final double EPSILON = 1e-9;
+
+	private static Body body(final double x, final double y) {
+		Body b = new Body(BlankImage.frames(16, 16)) {
+			@Override
+			public void update(final long deltaMs) {
+			}
+		};
+		b.setPosition(new Vector2D(x, y));
+		return b;
+	}
+
+	@Test
+	public void drawsBetweenTicksAndRestores() {
+		BodyLayer<Body> layer = new AbstractBodyLayer.NoUpdate<Body>();
+		Body walker = body(10, 20);
+		Body respawned = body(0, 0);
+		layer.add(walker);
+		layer.add(respawned);
+		PositionInterpolator interpolator = new PositionInterpolator(32);
+		interpolator.addLayer(layer);
+
+		interpolator.record();
+		walker.translateBy(0.3, -8);
+		respawned.setPosition(500, 0);
+		Body added = body(7, 7);
+		layer.add(added);
+
+		interpolator.apply(0.25);
+		assertEquals(10.075, walker.getPositionX(), EPSILON);
+		assertEquals(18, walker.getPositionY(), EPSILON);
+		assertEquals(500, respawned.getPositionX(), EPSILON);
+		assertEquals(7, added.getPositionX(), EPSILON);
+
+		interpolator.restore();
+		assertEquals(10 + 0.3, walker.getPositionX(), 0);
+		assertEquals(12, walker.getPositionY(), 0);
+	}
+}
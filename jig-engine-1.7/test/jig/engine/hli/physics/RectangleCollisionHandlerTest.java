@@ -0,0 +1,56 @@
+package jig.engine.hli.physics;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import jig.engine.BlankImage;
+import jig.engine.physics.AABBTree;
+import jig.engine.physics.AbstractBodyLayer;
+import jig.engine.physics.BodyLayer;
+import jig.engine.physics.vpe.VanillaAARectangle;
+import jig.engine.util.Vector2D;
+
+import org.junit.Test;
+
+public class RectangleCollisionHandlerTest {
+
+	private static class Rect extends VanillaAARectangle {
+		Rect(final double x, final double y) {
+			super(BlankImage.frames(16, 16));
+			setPosition(new Vector2D(x, y));
+		}
+
+		@Override
+		public void update(final long deltaMs) {
+		}
+	}
+
+	@Test
+	public void treePassEndsWhenCollideInvalidatesIndex() {
+		final BodyLayer<Rect> movers = new AbstractBodyLayer.NoUpdate<Rect>();
+		final BodyLayer<Rect> walls = new AbstractBodyLayer.NoUpdate<Rect>();
+		movers.add(new Rect(8, 0));
+		walls.add(new Rect(0, 0));
+		walls.add(new Rect(16, 0));
+
+		final List<Rect> collided = new ArrayList<Rect>();
+		RectangleCollisionHandler<Rect, Rect> handler =
+			new RectangleCollisionHandler<Rect, Rect>(movers, walls) {
+				@Override
+				public void collide(final Rect a, final Rect b) {
+					collided.add(b);
+					walls.clear();
+					invalidateIndex();
+				}
+			};
+		handler.setBroadPhase(new AABBTree<Rect>(0));
+
+		handler.findAndReconcileCollisions();
+		assertEquals(1, collided.size());
+
+		handler.findAndReconcileCollisions();
+		assertEquals(1, collided.size());
+	}
+}
@@ -0,0 +1,216 @@
+package jig.engine.j2d;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.fail;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+
+import jig.engine.ImageResource;
+import jig.engine.RenderingContext;
+import jig.engine.SceneSnapshot;
+
+import org.junit.Test;
+
+/**
+ * Checks that the image kept up to date by the presenter shows, frame after
+ * frame, exactly what drawing each frame in full shows.
+ */
+public class IncrementalPresenterTest {
+
+	private static final int WIDTH = 320, HEIGHT = 240;
+
+	private static final int TILE = 32;
+
+	private static final int COLUMNS = 100, ROWS = 8;
+
+	private static final Color BACKGROUND = new Color(92, 148, 252);
+
+	/** An image of random pixels, so that any misplaced pixel shows. */
+	private static class PatternImage implements ImageResource {
+
+		private final BufferedImage image;
+
+		PatternImage(final int width, final int height, final Random random) {
+			image = new BufferedImage(width, height,
+					BufferedImage.TYPE_INT_ARGB);
+			for (int y = 0; y < height; y++) {
+				for (int x = 0; x < width; x++) {
+					// a transparent border, like most sprites
+					boolean edge = x == 0 || y == 0 || x == width - 1
+							|| y == height - 1;
+					image.setRGB(x, y, edge ? 0 : 0xff000000 | random
+							.nextInt(0x1000000));
+				}
+			}
+		}
+
+		public int getWidth() {
+			return image.getWidth();
+		}
+
+		public int getHeight() {
+			return image.getHeight();
+		}
+
+		public void render(final RenderingContext rc,
+				final AffineTransform at) {
+			((SceneSnapshot) rc).record(this, at);
+		}
+
+		public void draw(final Graphics2D g, final AffineTransform at) {
+			g.drawImage(image, at, null);
+		}
+	}
+
+	private final Random random = new Random(7);
+
+	private final PatternImage cloud = new PatternImage(64, 24, random);
+
+	private final PatternImage[] tiles = {
+			new PatternImage(TILE, TILE, random),
+			new PatternImage(TILE, TILE, random),
+			new PatternImage(TILE, 2 * TILE, random) };
+
+	private final PatternImage sprite = new PatternImage(16, 16, random);
+
+	private final PatternImage[] digits = {
+			new PatternImage(24, 12, random), new PatternImage(24, 12, random) };
+
+	/** The tile kind in each cell, or -1. */
+	private final int[] map = new int[COLUMNS * ROWS];
+
+	private double[] spriteX = new double[12], spriteY = new double[12];
+
+	private int sprites = 6;
+
+	private double camera;
+
+	private int score;
+
+	private void record(final SceneSnapshot s) {
+		AffineTransform at = new AffineTransform();
+
+		// a parallax layer, moving at half the speed of the scene
+		for (int i = 0; i < 2; i++) {
+			at.setToTranslation(i * 240 - camera / 2, 20 + i * 10);
+			s.record(cloud, at);
+		}
+
+		// the tiles in view, as a culling tile layer would draw them
+		int c0 = Math.max(0, (int) Math.floor(camera / TILE));
+		int c1 = Math.min(COLUMNS - 1, (int) Math.floor((camera + WIDTH)
+				/ TILE));
+		for (int r = 0; r < ROWS; r++) {
+			for (int c = c0; c <= c1; c++) {
+				int kind = map[r * COLUMNS + c];
+				if (kind >= 0) {
+					at.setToTranslation(c * TILE - camera, r * TILE);
+					s.record(tiles[kind], at);
+				}
+			}
+		}
+
+		for (int i = 0; i < sprites; i++) {
+			at.setToTranslation(spriteX[i] - camera, spriteY[i]);
+			s.record(sprite, at);
+		}
+
+		// the heads-up display does not scroll
+		at.setToTranslation(8, 8);
+		s.record(digits[score % 2], at);
+		at.setToTranslation(40, 8);
+		s.record(digits[(score / 2) % 2], at);
+	}
+
+	/** Moves the camera and the sprites, much as a side scroller would. */
+	private void advance(final int frame) {
+		double p = random.nextDouble();
+		if (frame % 50 < 10) {
+			// nothing moves
+			return;
+		} else if (p < 0.6) {
+			camera += random.nextInt(9) - 3;
+		} else if (p < 0.65) {
+			camera += random.nextDouble() * 4 - 2;
+		} else if (p < 0.67) {
+			camera = random.nextInt(COLUMNS * TILE - WIDTH);
+		}
+		camera = Math.max(0, Math.min(COLUMNS * TILE - WIDTH, camera));
+
+		for (int i = 0; i < sprites; i++) {
+			if (random.nextDouble() < 0.7) {
+				spriteX[i] += random.nextDouble() * 6 - 3;
+				spriteY[i] += random.nextDouble() * 6 - 3;
+			}
+		}
+		if (random.nextDouble() < 0.1 && sprites < spriteX.length) {
+			spriteX[sprites] = camera + random.nextDouble() * WIDTH;
+			spriteY[sprites] = random.nextDouble() * HEIGHT;
+			sprites++;
+		} else if (random.nextDouble() < 0.1 && sprites > 0) {
+			sprites--;
+		}
+		if (random.nextDouble() < 0.05) {
+			score++;
+		}
+	}
+
+	@Test
+	public void retainedImageMatchesFullRepaint() {
+		for (int c = 0; c < COLUMNS; c++) {
+			map[6 * COLUMNS + c] = 0;
+			map[7 * COLUMNS + c] = 0;
+			for (int r = 0; r < 6; r++) {
+				double p = random.nextDouble();
+				map[r * COLUMNS + c] = r > 1 && p < 0.15 ? 1
+						: r == 4 && p < 0.2 ? 2 : -1;
+			}
+		}
+		for (int i = 0; i < spriteX.length; i++) {
+			spriteX[i] = random.nextDouble() * WIDTH;
+			spriteY[i] = random.nextDouble() * HEIGHT;
+		}
+
+		IncrementalPresenter presenter = new IncrementalPresenter(WIDTH,
+				HEIGHT);
+		BufferedImage retained = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		BufferedImage full = new BufferedImage(WIDTH, HEIGHT,
+				BufferedImage.TYPE_INT_RGB);
+		Graphics2D gr = retained.createGraphics();
+		Graphics2D gf = full.createGraphics();
+		gf.setBackground(BACKGROUND);
+		int[] a = new int[WIDTH * HEIGHT];
+		int[] b = new int[WIDTH * HEIGHT];
+
+		int unchanged = 0;
+		for (int frame = 0; frame < 500; frame++) {
+			advance(frame);
+			SceneSnapshot scene = presenter.takeSpare();
+			scene.clear();
+			record(scene);
+
+			gf.clearRect(0, 0, WIDTH, HEIGHT);
+			scene.draw(gf, new AffineTransform());
+			if (!presenter.paint(scene, gr, BACKGROUND)) {
+				unchanged++;
+			}
+
+			retained.getRGB(0, 0, WIDTH, HEIGHT, a, 0, WIDTH);
+			full.getRGB(0, 0, WIDTH, HEIGHT, b, 0, WIDTH);
+			for (int k = 0; k < a.length; k++) {
+				if (a[k] != b[k]) {
+					fail("frame " + frame + " differs at (" + k % WIDTH + ", "
+							+ k / WIDTH + ")");
+				}
+			}
+		}
+		gr.dispose();
+		gf.dispose();
+		assertFalse(unchanged == 0);
+	}
+}
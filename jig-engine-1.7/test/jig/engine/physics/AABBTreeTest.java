@@ -0,0 +1,280 @@
+package jig.engine.physics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+import jig.engine.BlankImage;
+import jig.engine.hli.physics.RectangleCollisionHandler;
+import jig.engine.hli.physics.VanillaSphereCollisionHandler;
+import jig.engine.physics.vpe.VanillaAARectangle;
+import jig.engine.physics.vpe.VanillaSphere;
+
+import org.junit.Test;
+
+/**
+ * Checks the tree against brute force over random scenes that change from
+ * one step to the next: bodies jitter inside their fat boxes, jump out of
+ * them, are added and removed, and are switched on and off.
+ */
+public class AABBTreeTest {
+
+	private static final double MARGIN = 8;
+
+	private static final double WORLD = 640;
+
+	private static final int STEPS = 200;
+
+	private static class Rect extends VanillaAARectangle {
+		Rect(final int w, final int h) {
+			super(BlankImage.frames(w, h));
+		}
+
+		void setActive(final boolean yes) {
+			active = yes;
+		}
+
+		@Override
+		public void update(final long deltaMs) {
+		}
+	}
+
+	private static class Ball extends VanillaSphere {
+		Ball(final int w, final int h) {
+			super(BlankImage.frames(w, h));
+		}
+
+		void setActive(final boolean yes) {
+			active = yes;
+		}
+
+		@Override
+		public void update(final long deltaMs) {
+		}
+	}
+
+	/** Records the pairs handed to a collision handler, as strings. */
+	private static class Log {
+		final List<String> pairs = new ArrayList<String>();
+
+		void pair(final Body a, final Body b) {
+			pairs.add(System.identityHashCode(a) + "/"
+					+ System.identityHashCode(b));
+		}
+	}
+
+	private final Random random = new Random(42);
+
+	private Rect rect() {
+		Rect r = new Rect(4 + random.nextInt(60), 4 + random.nextInt(60));
+		r.setPosition(random.nextDouble() * WORLD, random.nextDouble() * WORLD);
+		return r;
+	}
+
+	private Ball ball() {
+		Ball b = new Ball(4 + random.nextInt(60), 4 + random.nextInt(60));
+		b.setPosition(random.nextDouble() * WORLD, random.nextDouble() * WORLD);
+		return b;
+	}
+
+	/**
+	 * Moves, adds, removes and switches the members of a layer at random.
+	 * Most moves stay well inside the margin, some leave the fat box.
+	 */
+	private <V extends Body> void shake(final BodyLayer<V> layer,
+			final List<V> spares) {
+		for (Iterator<V> i = layer.iterator(); i.hasNext();) {
+			V b = i.next();
+			double p = random.nextDouble();
+			if (p < 0.5) {
+				b.setPosition(b.getPositionX() + random.nextDouble() * 4 - 2,
+						b.getPositionY() + random.nextDouble() * 4 - 2);
+			} else if (p < 0.6) {
+				b.setPosition(b.getPositionX() + random.nextDouble() * 80
+						- 40, b.getPositionY() + random.nextDouble() * 80 - 40);
+			} else if (p < 0.62) {
+				b.setPosition(random.nextDouble() * WORLD, random.nextDouble()
+						* WORLD);
+			} else if (p < 0.64) {
+				i.remove();
+				spares.add(b);
+			} else if (p < 0.66) {
+				b.setSleeping(!b.isSleeping());
+			}
+		}
+		while (!spares.isEmpty() && random.nextDouble() < 0.8) {
+			layer.add(spares.remove(random.nextInt(spares.size())));
+		}
+	}
+
+	private static boolean touches(final Body b, final double x,
+			final double y, final double w, final double h) {
+		return b.getPositionX() <= x + w && x <= b.getPositionX() + b.getWidth()
+				&& b.getPositionY() <= y + h
+				&& y <= b.getPositionY() + b.getHeight();
+	}
+
+	@Test
+	public void queryFindsEveryTouchingMember() {
+		BodyLayer<Rect> layer = new AbstractBodyLayer.NoUpdate<Rect>();
+		List<Rect> spares = new ArrayList<Rect>();
+		for (int i = 0; i < 100; i++) {
+			layer.add(rect());
+		}
+		for (int i = 0; i < 20; i++) {
+			spares.add(rect());
+		}
+		AABBTree<Rect> tree = new AABBTree<Rect>(MARGIN);
+
+		for (int step = 0; step < STEPS; step++) {
+			shake(layer, spares);
+			tree.sync(layer);
+			assertEquals(layer.size(), tree.size());
+
+			for (int q = 0; q < 20; q++) {
+				double x = random.nextDouble() * WORLD;
+				double y = random.nextDouble() * WORLD;
+				double w = random.nextDouble() * 100;
+				double h = random.nextDouble() * 100;
+
+				int n = tree.query(x, y, w, h);
+				List<Rect> found = new ArrayList<Rect>();
+				for (int i = 0; i < n; i++) {
+					Rect r = tree.getCandidate(i);
+					// a candidate's fat box touches the query box
+					assertTrue(touches(r, x - 2 * MARGIN, y - 2 * MARGIN, w
+							+ 4 * MARGIN, h + 4 * MARGIN));
+					found.add(r);
+				}
+
+				int k = 0;
+				for (Rect r : layer) {
+					if (touches(r, x, y, w, h)) {
+						// in layer order, among the other candidates
+						while (k < found.size() && found.get(k) != r) {
+							k++;
+						}
+						assertTrue("missed a member at step " + step,
+								k < found.size());
+					}
+				}
+			}
+		}
+	}
+
+	@Test
+	public void rectangleHandlerMatchesBruteForce() {
+		BodyLayer<Rect> movers = new AbstractBodyLayer.NoUpdate<Rect>();
+		BodyLayer<Rect> others = new AbstractBodyLayer.NoUpdate<Rect>();
+		List<Rect> moverSpares = new ArrayList<Rect>();
+		List<Rect> otherSpares = new ArrayList<Rect>();
+		for (int i = 0; i < 30; i++) {
+			movers.add(rect());
+		}
+		for (int i = 0; i < 100; i++) {
+			others.add(rect());
+		}
+		for (int i = 0; i < 20; i++) {
+			otherSpares.add(rect());
+		}
+
+		final Log brute = new Log();
+		final Log tree = new Log();
+		RectangleCollisionHandler<Rect, Rect> bruteHandler =
+			new RectangleCollisionHandler<Rect, Rect>(movers, others) {
+				@Override
+				public void collide(final Rect a, final Rect b) {
+					brute.pair(a, b);
+				}
+			};
+		RectangleCollisionHandler<Rect, Rect> treeHandler =
+			new RectangleCollisionHandler<Rect, Rect>(movers, others) {
+				@Override
+				public void collide(final Rect a, final Rect b) {
+					tree.pair(a, b);
+				}
+			};
+		treeHandler.setBroadPhase(new AABBTree<Rect>(MARGIN));
+
+		int total = 0;
+		for (int step = 0; step < STEPS; step++) {
+			shake(movers, moverSpares);
+			shake(others, otherSpares);
+			if (step % 10 == 0) {
+				others.get(random.nextInt(others.size())).setActive(false);
+			} else if (step % 10 == 5) {
+				for (Rect r : others) {
+					r.setActive(true);
+				}
+			}
+
+			bruteHandler.findAndReconcileCollisions();
+			treeHandler.findAndReconcileCollisions();
+			assertEquals("step " + step, brute.pairs, tree.pairs);
+			total += brute.pairs.size();
+			brute.pairs.clear();
+			tree.pairs.clear();
+		}
+		assertTrue(total > STEPS);
+	}
+
+	@Test
+	public void sphereHandlerMatchesBruteForce() {
+		BodyLayer<Ball> movers = new AbstractBodyLayer.NoUpdate<Ball>();
+		BodyLayer<Ball> others = new AbstractBodyLayer.NoUpdate<Ball>();
+		List<Ball> moverSpares = new ArrayList<Ball>();
+		List<Ball> otherSpares = new ArrayList<Ball>();
+		for (int i = 0; i < 30; i++) {
+			movers.add(ball());
+		}
+		for (int i = 0; i < 100; i++) {
+			others.add(ball());
+		}
+		for (int i = 0; i < 20; i++) {
+			otherSpares.add(ball());
+		}
+
+		final Log brute = new Log();
+		final Log tree = new Log();
+		VanillaSphereCollisionHandler<Ball, Ball> bruteHandler =
+			new VanillaSphereCollisionHandler<Ball, Ball>(movers, others) {
+				@Override
+				public void collide(final Ball a, final Ball b) {
+					brute.pair(a, b);
+				}
+			};
+		VanillaSphereCollisionHandler<Ball, Ball> treeHandler =
+			new VanillaSphereCollisionHandler<Ball, Ball>(movers, others) {
+				@Override
+				public void collide(final Ball a, final Ball b) {
+					tree.pair(a, b);
+				}
+			};
+		treeHandler.setBroadPhase(new AABBTree<Ball>(MARGIN));
+
+		int total = 0;
+		for (int step = 0; step < STEPS; step++) {
+			shake(movers, moverSpares);
+			shake(others, otherSpares);
+			if (step % 10 == 0) {
+				others.get(random.nextInt(others.size())).setActive(false);
+			} else if (step % 10 == 5) {
+				for (Ball b : others) {
+					b.setActive(true);
+				}
+			}
+
+			bruteHandler.findAndReconcileCollisions();
+			treeHandler.findAndReconcileCollisions();
+			assertEquals("step " + step, brute.pairs, tree.pairs);
+			total += brute.pairs.size();
+			brute.pairs.clear();
+			tree.pairs.clear();
+		}
+		assertTrue(total > STEPS);
+	}
+}
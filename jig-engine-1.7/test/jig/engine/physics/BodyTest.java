@@ -0,0 +1,37 @@
+package jig.engine.physics;
+
+import static org.junit.Assert.assertEquals;
+import jig.engine.BlankImage;
+import jig.engine.util.Vector2D;
+
+import org.junit.Test;
+
+public class BodyTest {
+
+	private static final double EPSILON = 1e-9;
+
+	private static Body body() {
+		return new Body(BlankImage.frames(16, 16)) {
+			@Override
+			public void update(final long deltaMs) {
+			}
+		};
+	}
+
+	@Test
+	public void restoresSavedVelocity() {
+		Body b = body();
+		b.setVelocity(new Vector2D(100, 0));
+
+		Vector2D v = b.getVelocity();
+		b.setVelocity(-100, 50);
+		b.setVelocity(v);
+		assertEquals(100, b.getVelocityX(), EPSILON);
+		assertEquals(0, b.getVelocityY(), EPSILON);
+
+		b.setPosition(new Vector2D(0, 0));
+		b.integrate(500);
+		assertEquals(50, b.getPositionX(), EPSILON);
+		assertEquals(0, b.getPositionY(), EPSILON);
+	}
+}
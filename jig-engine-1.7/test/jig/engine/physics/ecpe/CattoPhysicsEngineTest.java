@@ -0,0 +1,68 @@
+package jig.engine.physics.ecpe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import jig.engine.BlankImage;
+import jig.engine.physics.AbstractBodyLayer;
+import jig.engine.physics.BodyLayer;
+import jig.engine.util.Vector2D;
+
+import org.junit.Test;
+
+public class CattoPhysicsEngineTest {
+
+	private static class MarkedArbiter extends Arbiter {
+		MarkedArbiter(final Box b1, final Box b2) {
+			super(b1, b2);
+		}
+	}
+
+	private static Box box(final double mass, final double x, final double y) {
+		Box b = new Box(BlankImage.frames(32, 32));
+		b.set(mass, .2, 0.0);
+		b.setPosition(new Vector2D(x, y));
+		return b;
+	}
+
+	@Test
+	public void keepsArbitersFromCreateArbiter() {
+		CattoPhysicsEngine engine = new CattoPhysicsEngine() {
+			@Override
+			protected Arbiter createArbiter(final Box bi, final Box bj) {
+				return new MarkedArbiter(bi, bj);
+			}
+		};
+		engine.setSleepAllowed(false);
+
+		BodyLayer<Box> layer = new AbstractBodyLayer.NoUpdate<Box>();
+		layer.add(box(Double.MAX_VALUE, 0, 32));
+		layer.add(box(1, 0, 1));
+		engine.manageViewableSet(layer);
+
+		engine.step(1 / 60.0);
+		assertEquals(1, engine.arbiters.size());
+		Arbiter a = engine.arbiters.get(0);
+		assertTrue(a instanceof MarkedArbiter);
+
+		for (int i = 0; i < 10; i++) {
+			engine.step(1 / 60.0);
+			assertEquals(1, engine.arbiters.size());
+			assertSame(a, engine.arbiters.get(0));
+		}
+	}
+
+	@Test
+	@SuppressWarnings("deprecation")
+	public void generateArbiterStillManagesTheCollision() {
+		CattoPhysicsEngine engine = new CattoPhysicsEngine();
+		Box ground = box(Double.MAX_VALUE, 0, 32);
+		Box b = box(1, 0, 1);
+		engine.step(1 / 60.0);
+
+		engine.generateArbiter(ground, b);
+		assertEquals(1, engine.arbiters.size());
+		engine.generateArbiter(ground, b);
+		assertEquals(1, engine.arbiters.size());
+	}
+}
@@ -0,0 +1,126 @@
+package jig.engine.physics.vpe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.Iterator;
+
+import jig.engine.BlankImage;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TileLayerTest {
+
+	private static final double EPSILON = 1e-9;
+
+	private static class Tile extends VanillaAARectangle {
+		Tile() {
+			super(BlankImage.frames(16, 16));
+		}
+
+		@Override
+		public void update(final long deltaMs) {
+		}
+	}
+
+	private TileLayer<Tile> layer;
+
+	private Tile prototype;
+
+	@Before
+	public void setUp() {
+		layer = new TileLayer<Tile>(16, 160, 64);
+		prototype = new Tile();
+		short brick = layer.defineTile(prototype,
+				new TileLayer.Promoter<Tile>() {
+					public Tile promote(final int col, final int row) {
+						Tile t = new Tile();
+						t.setPosition(col * 16, row * 16);
+						return t;
+					}
+				});
+		layer.reset(10, 4);
+		for (int col = 1; col <= 3; col++) {
+			layer.setTile(col, 2, brick);
+		}
+		assertEquals(3, layer.query(0, 32, 160, 16));
+		for (int i = 0; i < 3; i++) {
+			assertSame(prototype, layer.getCandidate(i));
+		}
+		assertEquals(1, layer.size());
+
+		for (int i = 0; i < 3; i++) {
+			layer.promote(layer.getCandidateKey(i));
+		}
+		assertEquals(4, layer.size());
+	}
+
+	/** Checks that a query along the row finds the tiles in the columns. */
+	private void assertRow(final int... cols) {
+		assertEquals(cols.length, layer.query(0, 32, 160, 16));
+		for (int i = 0; i < cols.length; i++) {
+			Tile t = layer.getCandidate(i);
+			assertNotSame(prototype, t);
+			assertEquals(cols[i] * 16, t.getPositionX(), EPSILON);
+			assertSame(t, layer.getMember(layer.getCandidateKey(i)));
+		}
+	}
+
+	@Test
+	public void promotesOnce() {
+		int key = 2 * 10 + 2;
+		Tile t = layer.promote(key);
+		assertNotSame(prototype, t);
+		assertSame(t, layer.promote(key));
+		assertEquals(4, layer.size());
+		assertRow(1, 2, 3);
+	}
+
+	@Test
+	public void keepsUnpromotableTilesAsPrototype() {
+		Tile wall = new Tile();
+		short code = layer.defineTile(wall);
+		layer.setTile(5, 2, code);
+
+		assertSame(wall, layer.promote(2 * 10 + 5));
+		assertEquals(5, layer.size());
+		assertEquals(80, wall.getPositionX(), EPSILON);
+		for (int col = 1; col <= 3; col++) {
+			Tile t = layer.getMember(2 * 10 + col);
+			assertNotSame(prototype, t);
+			assertEquals(col * 16, t.getPositionX(), EPSILON);
+		}
+	}
+
+	@Test
+	public void removesPromotedBodyWithIterator() {
+		for (Iterator<Tile> i = layer.iterator(); i.hasNext();) {
+			if (i.next().getPositionX() == 32) {
+				i.remove();
+			}
+		}
+		assertEquals(3, layer.size());
+		assertEquals(0, layer.getTile(2, 2));
+		assertRow(1, 3);
+	}
+
+	@Test
+	public void clearTileRemovesPromotedBody() {
+		layer.clearTile(1, 2);
+		assertEquals(3, layer.size());
+		assertRow(2, 3);
+
+		layer.clearTile(3, 2);
+		assertEquals(2, layer.size());
+		assertRow(2);
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void refusesToRemovePrototype() {
+		Iterator<Tile> i = layer.iterator();
+		assertSame(prototype, i.next());
+		i.remove();
+	}
+}
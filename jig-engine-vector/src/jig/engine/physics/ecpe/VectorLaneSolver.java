@@ -0,0 +1,122 @@
+package jig.engine.physics.ecpe;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Solves the batches of a <code>ContactBatches</code> with the Vector API,
+ * one contact in each lane of the platform's preferred vector size.
+ *
+ * The velocities of the boxes are gathered through the packed box slots,
+ * the impulses are worked out lane-wise in the same order of operations as
+ * the scalar loop, and the new velocities are scattered back to the movable
+ * boxes only (immovable boxes may be shared by the lanes, but are never
+ * written). The contacts left over after the last full set of lanes are
+ * solved by the scalar loop. The results are therefore exactly those of
+ * the scalar loop.
+ *
+ * This class is loaded by name by <code>ContactBatches</code>, and needs
+ * the JVM to be started with <code>--add-modules jdk.incubator.vector</code>.
+ *
+ * @see CattoPhysicsEngine#setVectorSolver(boolean)
+ */
+final class VectorLaneSolver implements ContactBatches.LaneSolver {
+
+	private static final VectorSpecies<Double> LANES =
+		DoubleVector.SPECIES_PREFERRED;
+
+	/**
+	 * Creates the solver. Fails with a <code>LinkageError</code> if the
+	 * Vector API is not available.
+	 */
+	VectorLaneSolver() {
+		LANES.length();
+	}
+
+	public void solveBatch(final ContactBatches c, final int from,
+			final int to, final BoxArrays state) {
+		final double[] vx = state.velocityX, vy = state.velocityY;
+		final double[] w = state.angularVelocity;
+		final double[] inverseMass = state.inverseMass;
+		final double[] invI = state.invMomentOfInertia;
+		final int[] body1 = c.body1, body2 = c.body2;
+
+		int end = from + LANES.loopBound(to - from);
+		for (int k = from; k < end; k += LANES.length()) {
+			DoubleVector v1x = DoubleVector.fromArray(LANES, vx, 0, body1, k);
+			DoubleVector v1y = DoubleVector.fromArray(LANES, vy, 0, body1, k);
+			DoubleVector w1 = DoubleVector.fromArray(LANES, w, 0, body1, k);
+			DoubleVector v2x = DoubleVector.fromArray(LANES, vx, 0, body2, k);
+			DoubleVector v2y = DoubleVector.fromArray(LANES, vy, 0, body2, k);
+			DoubleVector w2 = DoubleVector.fromArray(LANES, w, 0, body2, k);
+			DoubleVector im1 = DoubleVector.fromArray(LANES, inverseMass, 0,
+					body1, k);
+			DoubleVector im2 = DoubleVector.fromArray(LANES, inverseMass, 0,
+					body2, k);
+			DoubleVector ii1 = DoubleVector.fromArray(LANES, invI, 0, body1, k);
+			DoubleVector ii2 = DoubleVector.fromArray(LANES, invI, 0, body2, k);
+			DoubleVector ax = DoubleVector.fromArray(LANES, c.r1x, k);
+			DoubleVector ay = DoubleVector.fromArray(LANES, c.r1y, k);
+			DoubleVector bx = DoubleVector.fromArray(LANES, c.r2x, k);
+			DoubleVector by = DoubleVector.fromArray(LANES, c.r2y, k);
+			DoubleVector nx = DoubleVector.fromArray(LANES, c.normalX, k);
+			DoubleVector ny = DoubleVector.fromArray(LANES, c.normalY, k);
+
+			// normal impulse
+			DoubleVector dvx = v2x.sub(w2.mul(by)).sub(v1x).add(w1.mul(ay));
+			DoubleVector dvy = v2y.add(w2.mul(bx)).sub(v1y).sub(w1.mul(ax));
+			DoubleVector vn = dvx.mul(nx).add(dvy.mul(ny));
+			DoubleVector impulse = DoubleVector.fromArray(LANES,
+					c.massNormal, k).mul(
+					vn.neg().add(DoubleVector.fromArray(LANES, c.bias, k)));
+			DoubleVector old = DoubleVector.fromArray(LANES, c.accNormal, k);
+			DoubleVector acc = old.add(impulse).max(0.0);
+			acc.intoArray(c.accNormal, k);
+			impulse = acc.sub(old);
+
+			DoubleVector px = nx.mul(impulse), py = ny.mul(impulse);
+			v1x = v1x.sub(px.mul(im1));
+			v1y = v1y.sub(py.mul(im1));
+			w1 = w1.sub(ii1.mul(ax.mul(py).sub(ay.mul(px))));
+			v2x = v2x.add(px.mul(im2));
+			v2y = v2y.add(py.mul(im2));
+			w2 = w2.add(ii2.mul(bx.mul(py).sub(by.mul(px))));
+
+			// friction impulse, along the normal crossed with -1
+			dvx = v2x.sub(w2.mul(by)).sub(v1x).add(w1.mul(ay));
+			dvy = v2y.add(w2.mul(bx)).sub(v1y).sub(w1.mul(ax));
+			DoubleVector maxFriction = DoubleVector.fromArray(LANES,
+					c.friction, k).mul(acc);
+			DoubleVector vt = dvx.mul(ny).sub(dvy.mul(nx));
+			impulse = DoubleVector.fromArray(LANES, c.massTangent, k).mul(
+					vt.neg());
+			old = DoubleVector.fromArray(LANES, c.accTangent, k);
+			// Arbiter.clamp
+			acc = old.add(impulse).min(maxFriction).max(maxFriction.neg());
+			acc.intoArray(c.accTangent, k);
+			impulse = acc.sub(old);
+
+			px = ny.mul(impulse);
+			py = nx.neg().mul(impulse);
+			v1x = v1x.sub(px.mul(im1));
+			v1y = v1y.sub(py.mul(im1));
+			w1 = w1.sub(ii1.mul(ax.mul(py).sub(ay.mul(px))));
+			v2x = v2x.add(px.mul(im2));
+			v2y = v2y.add(py.mul(im2));
+			w2 = w2.add(ii2.mul(bx.mul(py).sub(by.mul(px))));
+
+			// immovable boxes are never written, see CattoPhysicsEngine
+			VectorMask<Double> movable1 = im1.compare(VectorOperators.NE, 0.0);
+			VectorMask<Double> movable2 = im2.compare(VectorOperators.NE, 0.0);
+			v1x.intoArray(vx, 0, body1, k, movable1);
+			v1y.intoArray(vy, 0, body1, k, movable1);
+			w1.intoArray(w, 0, body1, k, movable1);
+			v2x.intoArray(vx, 0, body2, k, movable2);
+			v2y.intoArray(vy, 0, body2, k, movable2);
+			w2.intoArray(w, 0, body2, k, movable2);
+		}
+		c.solveContacts(end, to, state);
+	}
+}
@@ -0,0 +1,115 @@
+package jig.engine.physics.ecpe;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.util.ArrayList;
+import java.util.List;
+
+import jig.engine.ImageResource;
+import jig.engine.RenderingContext;
+import jig.engine.physics.AbstractBodyLayer;
+import jig.engine.physics.BodyLayer;
+
+import org.junit.Test;
+
+/**
+ * Checks that solving the batches in lanes gives exactly the simulation of
+ * solving them one contact at a time.
+ */
+public class VectorLaneSolverTest {
+
+	private static final int SIZE = 32;
+
+	private static final ImageResource BLANK = new ImageResource() {
+		public int getWidth() {
+			return SIZE;
+		}
+
+		public int getHeight() {
+			return SIZE;
+		}
+
+		public void render(final RenderingContext rc,
+				final AffineTransform at) {
+		}
+
+		public void draw(final Graphics2D g, final AffineTransform at) {
+		}
+	};
+
+	/**
+	 * Builds pyramids of boxes on a static floor, wide enough for batches
+	 * of many full sets of lanes and a few contacts left over.
+	 */
+	private static BodyLayer<Box> pyramids(final int count, final int base) {
+		List<ImageResource> frames = new ArrayList<ImageResource>(1);
+		frames.add(BLANK);
+		BodyLayer<Box> boxes = new AbstractBodyLayer.NoUpdate<Box>();
+		int spacing = base + 2;
+		for (int x = -2; x < count * spacing; x++) {
+			Box b = new Box(frames);
+			b.setPosition(x * SIZE, 600);
+			boxes.add(b);
+		}
+		for (int p = 0; p < count; p++) {
+			for (int row = 0; row < base; row++) {
+				for (int i = 0; i < base - row; i++) {
+					Box b = new Box(frames);
+					b.set(1.0, 0.2, 0.0);
+					b.setPosition((p * spacing + i + row / 2.0) * SIZE, 600
+							- (row + 1) * SIZE + 0.5 * (i % 3));
+					boxes.add(b);
+				}
+			}
+		}
+		return boxes;
+	}
+
+	private static CattoPhysicsEngine engine(final BodyLayer<Box> boxes,
+			final boolean vector) {
+		CattoPhysicsEngine engine = new CattoPhysicsEngine();
+		engine.setSleepAllowed(false);
+		engine.setBatchedSolver(true);
+		engine.setVectorSolver(vector);
+		engine.manageViewableSet(boxes);
+		return engine;
+	}
+
+	@Test
+	public void loadsTheLaneSolver() {
+		CattoPhysicsEngine engine = new CattoPhysicsEngine();
+		engine.setVectorSolver(true);
+		assertFalse(engine.isVectorSolver());
+		engine.setBatchedSolver(true);
+		assertTrue(engine.isVectorSolver());
+		engine.setVectorSolver(false);
+		assertFalse(engine.isVectorSolver());
+	}
+
+	@Test
+	public void matchesTheScalarBatches() {
+		BodyLayer<Box> scalar = pyramids(5, 7);
+		BodyLayer<Box> lanes = pyramids(5, 7);
+		CattoPhysicsEngine scalarEngine = engine(scalar, false);
+		CattoPhysicsEngine laneEngine = engine(lanes, true);
+		assertTrue(laneEngine.isVectorSolver());
+
+		for (int step = 0; step < 300; step++) {
+			scalarEngine.applyLawsOfPhysics(16);
+			laneEngine.applyLawsOfPhysics(16);
+			for (int i = 0; i < scalar.size(); i++) {
+				Box s = scalar.get(i), l = lanes.get(i);
+				assertEquals("step " + step, s.getPositionX(),
+						l.getPositionX(), 0.0);
+				assertEquals("step " + step, s.getPositionY(),
+						l.getPositionY(), 0.0);
+				assertEquals("step " + step, s.rotation,
+						l.rotation, 0.0);
+			}
+		}
+	}
+}
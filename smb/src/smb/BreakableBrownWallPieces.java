@@ -30,11 +30,11 @@ public class BreakableBrownWallPieces extends VanillaAARectangle {
 		return;
 		}
 		
-		if(position.getY()>Smb.WORLD_HEIGHT){
+		if(getPositionY()>Smb.WORLD_HEIGHT){
 			active=false;
 		}
-		velocity = new Vector2D(velocity.getX(), velocity.getY()+Smb.gravity) ;
-		position = position.translate(velocity.scale(deltaMs / 1000.0));
+		setVelocity(getVelocityX(), getVelocityY() + Smb.gravity);
+		integrate(deltaMs);
 	}
 	
 }
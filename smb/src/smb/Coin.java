@@ -19,7 +19,7 @@ public class Coin extends VanillaAARectangle {
 		super(Smb.SPRITE_SHEET + "#smallCoin",23);
 		position = new Vector2D(x+Smb.TILE_SIZE/2, y-10);
 		velocity = new Vector2D(0, -20);
-		timeSinceLastUpdate=System.currentTimeMillis();
+		timeSinceLastUpdate=Smb.now();
 		setFrame(0);
 		clip.play();
 	}
@@ -29,19 +29,20 @@ public class Coin extends VanillaAARectangle {
 		if(!active){
 			return;
 		}
-		position = position.translate(velocity.scale(deltaMs / 100.0));
+		double t = deltaMs / 100.0;
+		translateBy(getVelocityX() * t, getVelocityY() * t);
 	    this.updateFrame();
 
 	}
 
 	public void updateFrame() {
-		if (System.currentTimeMillis()-timeSinceLastUpdate>frameDelay) {
+		if (Smb.now()-timeSinceLastUpdate>frameDelay) {
 			if (getFrame()==0) {
 				setFrame(1);
-				timeSinceLastUpdate=System.currentTimeMillis();
+				timeSinceLastUpdate=Smb.now();
 			} else if(getFrame()==1){
 				setFrame(2);
-				timeSinceLastUpdate=System.currentTimeMillis();
+				timeSinceLastUpdate=Smb.now();
 			}else if(getFrame()==2){
 				active=false;
 			}
@@ -25,7 +25,7 @@ public class Goomba extends VanillaAARectangle {
 	Goomba(int x, int y, String goombaType) {
 		//super(smb.SPRITE_SHEET + "#Goomba", 5);
 		super(Smb.SPRITE_SHEET + goombaType, 5);
-		frameTime=System.currentTimeMillis();
+		frameTime=Smb.now();
 		position = new Vector2D(x * Smb.TILE_SIZE, y * Smb.TILE_SIZE);
 		velocity = new Vector2D(-speed, gravity);
 		setFrame(0);
@@ -33,7 +33,7 @@ public class Goomba extends VanillaAARectangle {
 
 	@Override
 	public void update(long deltaMs) {
-		if(!dead && Smb.currentCenter - position.getX()>Smb.WORLD_WIDTH){
+		if(!dead && Smb.currentCenter - getPositionX()>Smb.WORLD_WIDTH){
 			active = true;
 		}
 		
@@ -41,33 +41,29 @@ public class Goomba extends VanillaAARectangle {
 			return;
 		}
 		
-		if(position.getX()-Smb.currentCenter>Smb.WORLD_WIDTH){
-			return;
-		}
-		
-		if(Smb.currentCenter - position.getX()>Smb.WORLD_WIDTH){
+		if(Smb.currentCenter - getPositionX()>Smb.WORLD_WIDTH){
 			active=false;
 		}
 		
-		if (dead && System.currentTimeMillis() - deadTime > deadDelay) {
+		if (dead && Smb.now() - deadTime > deadDelay) {
 			this.active = false;
 
 		} else if (dead) {
 			return;
 		}
 
-		if (!dead && System.currentTimeMillis() - frameTime > frameDelay) {
+		if (!dead && Smb.now() - frameTime > frameDelay) {
 			if (getFrame() == 1) {
 				setFrame(0);
-				frameTime = System.currentTimeMillis();
+				frameTime = Smb.now();
 			} else {
 				setFrame(1);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}
 		}
 		
 		
-		position = position.translate(velocity.scale(deltaMs / 1000.0));
+		integrate(deltaMs);
 		
 		}
 	
@@ -76,13 +72,13 @@ public class Goomba extends VanillaAARectangle {
 	
 	public void setDead() {
 		this.dead = true;
-		deadTime = System.currentTimeMillis();
+		deadTime = Smb.now();
 		setFrame(2);
 		stomp.play();
 	}
 	
 	boolean outOfScreen(){
-		if(this.position.getX()+ Smb.WORLD_WIDTH < Smb.currentCenter || this.position.getY() > Smb.WORLD_HEIGHT+this.getHeight()){
+		if(getPositionX()+ Smb.WORLD_WIDTH < Smb.currentCenter || getPositionY() > Smb.WORLD_HEIGHT+this.getHeight()){
 			return true;
 		}
 		else{
@@ -91,4 +87,4 @@ public class Goomba extends VanillaAARectangle {
 	}
 
 	
-	}
\ No newline at end of file
+	}
\ No newline at end of file
@@ -29,15 +29,16 @@ public class Mushroom extends VanillaAARectangle{
 			return;
 		}
 		if(!poppedUp){
-			if(position.getY()<stopPosition){
+			if(getPositionY()<stopPosition){
 				poppedUp=true;
 				return;
 			}
-			position = position.translate(appearingVelocity.scale(deltaMs / 1000.0));
+			double t = deltaMs / 1000.0;
+			translateBy(appearingVelocity.getX() * t, appearingVelocity.getY() * t);
 
 		}
 		else{
-			position = position.translate(velocity.scale(deltaMs / 1000.0));
+			integrate(deltaMs);
 		}
 
 	}
@@ -35,8 +35,8 @@ public class Player extends VanillaAARectangle {
 	double levelZeroRight;
 	double levelOneLeft;
 	double levelOneRight;
-	Vector2D currentVelocity;
-	Vector2D previousVelocity;
+	double currentXVelocity;
+	double previousXVelocity;
 	
 	/* Justin's Physics Variables */
 	public double playerXvel;
@@ -63,8 +63,8 @@ public class Player extends VanillaAARectangle {
 		startingPositionX=x;
 		startingPositionY=y;
 		live=3;
-		currentVelocity = Vector2D.ZERO;
-		previousVelocity = Vector2D.ZERO;
+		currentXVelocity = 0;
+		previousXVelocity = 0;
 		playerXvel = playerXacc = playerYvel = 0;
 		gravity = playerYacc = Physics.mj_le_fall_gra;
 		if(MARIO) {
@@ -98,19 +98,19 @@ public class Player extends VanillaAARectangle {
 			return;
 		}
 				
-		if(this.getPosition().getX() < 0){
-			this.setPosition(new Vector2D(0,position.getY()));
+		if(this.getPositionX() < 0){
+			this.setPosition(0, getPositionY());
 		}
 		
-		if(position.getY() > Smb.WORLD_HEIGHT){
+		if(getPositionY() > Smb.WORLD_HEIGHT){
 			this.playerTimer = 300;
 			Smb.music.pause();
 			marioDie();
 		}
 		
 		accelerate();
-		velocity = new Vector2D(playerXvel, playerYvel);
-		position = position.translate(velocity.scale(deltaMs / 1000.0));
+		setVelocity(playerXvel, playerYvel);
+		integrate(deltaMs);
 		//System.out.println(getPosition().getY() + "," + getHeight() + "," + (Smb.WORLD_HEIGHT-64));
 	
 	/**
@@ -124,22 +124,22 @@ public class Player extends VanillaAARectangle {
 	
 
 	public void updateVelocity() {
-		this.previousVelocity = this.currentVelocity;
-		this.currentVelocity = this.velocity;
+		this.previousXVelocity = this.currentXVelocity;
+		this.currentXVelocity = this.getVelocityX();
 
-	/*	if (this.previousVelocity.getX() > 0 && this.currentVelocity.getX() < 0) {
+	/*	if (this.previousXVelocity > 0 && this.currentXVelocity < 0) {
 			this.frames = ResourceFactory.getFactory().getFrames(
 					Smb.SPRITE_SHEET2 + "#marioleft");
-		} else if (this.previousVelocity.getX() == 0
-				&& this.currentVelocity.getX() < 0) {
+		} else if (this.previousXVelocity == 0
+				&& this.currentXVelocity < 0) {
 			this.frames = ResourceFactory.getFactory().getFrames(
 					Smb.SPRITE_SHEET2 + "#marioleft");
-		} else if (this.previousVelocity.getX() < 0
-				&& this.currentVelocity.getX() > 0) {
+		} else if (this.previousXVelocity < 0
+				&& this.currentXVelocity > 0) {
 			this.frames = ResourceFactory.getFactory().getFrames(
 					Smb.SPRITE_SHEET2 + "#mario");
-		} else if (this.previousVelocity.getX() == 0
-				&& this.currentVelocity.getX() > 0) {
+		} else if (this.previousXVelocity == 0
+				&& this.currentXVelocity > 0) {
 			this.frames = ResourceFactory.getFactory().getFrames(
 					Smb.SPRITE_SHEET2 + "#mario");
 		}
@@ -151,60 +151,60 @@ public class Player extends VanillaAARectangle {
 if(level==0){
 			//System.out.println(playerXvel);
 			if(playerXvel>0){
-				if(System.currentTimeMillis()-levelZeroRight>frameTime){
+				if(Smb.now()-levelZeroRight>frameTime){
 					if(getFrame()==6){
 						setFrame(5);
-						levelZeroRight=System.currentTimeMillis();
+						levelZeroRight=Smb.now();
 					}
 					else{
 						setFrame(6);
-						levelZeroRight=System.currentTimeMillis();
+						levelZeroRight=Smb.now();
 					}
 				}
 			}
 			else if(playerXvel<0){
-				if(System.currentTimeMillis()-levelZeroLeft>frameTime){
+				if(Smb.now()-levelZeroLeft>frameTime){
 					if(getFrame()==3){
 						setFrame(2);
-						levelZeroLeft=System.currentTimeMillis();
+						levelZeroLeft=Smb.now();
 					}
 					else{
 						setFrame(3);
-						levelZeroLeft=System.currentTimeMillis();
+						levelZeroLeft=Smb.now();
 					}
 				}
 			}
 		}
 		else if(level==2){
 			if(playerXvel>smallNum){
-				if(System.currentTimeMillis()-levelOneRight>frameTime){
+				if(Smb.now()-levelOneRight>frameTime){
 					if(getFrame()==17){
 						setFrame(18);
-						levelOneRight=System.currentTimeMillis();
+						levelOneRight=Smb.now();
 					}
 					else if(getFrame()==18){
 						setFrame(16);
-						levelOneRight=System.currentTimeMillis();
+						levelOneRight=Smb.now();
 					}
 					else{
 						setFrame(16);
-						levelOneRight=System.currentTimeMillis();
+						levelOneRight=Smb.now();
 					}
 				}
 			}
 			else if(playerXvel<-smallNum){
-				if(System.currentTimeMillis()-levelZeroLeft>frameTime){
+				if(Smb.now()-levelZeroLeft>frameTime){
 					if(getFrame()==12){
 						setFrame(11);
-						levelOneLeft=System.currentTimeMillis();
+						levelOneLeft=Smb.now();
 					}
 					else if(getFrame()==11){
 						setFrame(13);
-						levelOneLeft=System.currentTimeMillis();
+						levelOneLeft=Smb.now();
 					}
 					else{
 						setFrame(13);
-						levelOneLeft=System.currentTimeMillis();
+						levelOneLeft=Smb.now();
 					}
 				}
 			}
@@ -263,7 +263,7 @@ if(level==0){
 		Smb.music.pause();
 		die.play();
 		Smb.deathDelay=true;
-		Smb.deathDelayTime=System.currentTimeMillis();
+		Smb.deathDelayTime=Smb.now();
 		//Smb.oneGameCycle=true;
 		/*
 		try {
@@ -288,7 +288,7 @@ if(level==0){
 			
 			Smb.music.resume();
 			setFrame(4);
-			position=new Vector2D(startingPositionX*Smb.TILE_SIZE,startingPositionY*Smb.TILE_SIZE);
+			setPosition(startingPositionX*Smb.TILE_SIZE,startingPositionY*Smb.TILE_SIZE);
 			playerXvel = playerXacc = playerYvel = 0;
 			playerYacc = Physics.mj_le_fall_gra;
 			jumped = false;
@@ -298,4 +298,4 @@ if(level==0){
 		}
 		
 	}
-}
\ No newline at end of file
+}
\ No newline at end of file
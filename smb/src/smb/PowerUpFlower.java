@@ -16,7 +16,7 @@ public class PowerUpFlower extends VanillaAARectangle {
 		position = new Vector2D(x, y-10);
 		velocity = new Vector2D(0,appearSpeed);
 		setFrame(0);
-		frameTime=System.currentTimeMillis();
+		frameTime=Smb.now();
 		stopPosition=y-Smb.TILE_SIZE;
 		clip.play();
 	}
@@ -27,24 +27,24 @@ public class PowerUpFlower extends VanillaAARectangle {
 		return;
 		}
 
-		if(System.currentTimeMillis()-frameTime > frameDelay){
+		if(Smb.now()-frameTime > frameDelay){
 			if(getFrame()==0){
 				setFrame(1);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}else if(getFrame()==1){
 				setFrame(2);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}else if(getFrame()==2){
 				setFrame(3);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}else if(getFrame()==3){
 				setFrame(0);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}
 		}
 		
-		if(getPosition().getY()>stopPosition){
-		position = position.translate(velocity.scale(deltaMs / 1000.0));
+		if(getPositionY()>stopPosition){
+		integrate(deltaMs);
 		}
 	}
 	
@@ -14,7 +14,7 @@ public class QuestionBlock extends VanillaAARectangle{
 		super(Smb.SPRITE_SHEET + "#questionBlock", 11);
 		position = new Vector2D(x * Smb.TILE_SIZE, y * Smb.TILE_SIZE);
 		setFrame(0);
-		frameTime=System.currentTimeMillis();
+		frameTime=Smb.now();
 	}
 
 	@Override
@@ -23,18 +23,18 @@ public class QuestionBlock extends VanillaAARectangle{
 			return;
 		}
 		
-		if(System.currentTimeMillis()-frameTime>frameDelay){
+		if(Smb.now()-frameTime>frameDelay){
 			if(getFrame()==0){
 				setFrame(1);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}
 			else if(getFrame()==1){
 				setFrame(2);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}
 			else if(getFrame()==2){
 				setFrame(0);
-				frameTime=System.currentTimeMillis();
+				frameTime=Smb.now();
 			}
 
 		}
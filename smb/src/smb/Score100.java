@@ -15,7 +15,7 @@ public class Score100 extends VanillaAARectangle{
 	public Score100(double x, double y) {
 		super(Smb.SPRITE_SHEET + "#score100",24);
 		position = new Vector2D(x, y-20);
-		currentFrameTime=System.currentTimeMillis();
+		currentFrameTime=Smb.now();
 	}
 
 	@Override
@@ -23,7 +23,7 @@ public class Score100 extends VanillaAARectangle{
 		if(!active){
 			return;
 		}
-		if(System.currentTimeMillis()-currentFrameTime > frameInterval){
+		if(Smb.now()-currentFrameTime > frameInterval){
 			active=false;
 		}
 
@@ -29,15 +29,19 @@ import jig.engine.ResourceFactory;
 import jig.engine.PaintableCanvas.JIGSHAPE;
 import jig.engine.ViewableLayer;
 import jig.engine.hli.AbstractSimpleGame;
+import jig.engine.hli.FrameProfiler;
 import jig.engine.hli.ImageBackgroundLayer;
+import jig.engine.hli.PositionInterpolator;
 import jig.engine.hli.ScrollingScreenGame;
 import jig.engine.hli.StaticScreenGame;
+import jig.engine.hli.TextLabel;
 import jig.engine.hli.physics.RectangleCollisionHandler;
 import jig.engine.hli.physics.SpriteUpdateRules;
 import jig.engine.physics.AbstractBodyLayer;
 import jig.engine.physics.Body;
 import jig.engine.physics.BodyLayer;
 import jig.engine.physics.vpe.CollisionHandler;
+import jig.engine.physics.vpe.TileLayer;
 import jig.engine.physics.vpe.VanillaAARectangle;
 import jig.engine.physics.vpe.VanillaPhysicsEngine;
 import jig.engine.physics.vpe.VanillaSphere;
@@ -83,6 +87,8 @@ public class Smb extends ScrollingScreenGame {
 	int leftWidthBreakPoint, rightWidthBreakPoint;
 	FontResource scoreboardFont,gameOverFont,finalScoreFont, gameCompleteFont,splashFont,highScoreFont,splashFont2;
 	FontResource powerUpsFont;
+	// the scoreboard, redrawn only when the numbers change
+	TextLabel livesLabel, worldLabel, timeLabel, pointsLabel, levelLabel, timerLabel;
 	FileWriter fw = null;
 	static boolean LOncePressed = false;
 	FileReader fr = null;
@@ -92,14 +98,19 @@ public class Smb extends ScrollingScreenGame {
 	// public List<walls> wallarray = new ArrayList<walls>();
 	// public List<goomba> goombaarray = new ArrayList<goomba>();
 	List<QuestionBlock> powerUpQuestionBlocksArray = new ArrayList<QuestionBlock>();
+	/* map cells (y * mapWidth + x) of the question blocks holding a power up */
+	BitSet powerUpCells = new BitSet();
+	/* tile code of each map character that is placed in the unmovable layer */
+	short[] tileCodes = new short[128];
 	long jumpTimer;
 
 	// static double offset;
 	private VanillaPhysicsEngine physics;
+	private RectangleCollisionHandler<VanillaAARectangle, VanillaAARectangle> tileCollisions;
 	static final SpriteUpdateRules UPDATE_RULE = new SpriteUpdateRules(WORLD_WIDTH, WORLD_HEIGHT);
 	public static AudioStream music;
 	
-	public BodyLayer<VanillaAARectangle> unmovableLayer = new AbstractBodyLayer.NoUpdate<VanillaAARectangle>();
+	public TileLayer<VanillaAARectangle> unmovableLayer = new TileLayer<VanillaAARectangle>(TILE_SIZE, WORLD_WIDTH, WORLD_HEIGHT);
 	public BodyLayer<VanillaAARectangle> movableLayer = new AbstractBodyLayer.NoUpdate<VanillaAARectangle>();
 	public static BodyLayer<VanillaAARectangle> backGroundLayer = new AbstractBodyLayer.NoUpdate<VanillaAARectangle>();
     public static BodyLayer<VanillaAARectangle> powerUpLayer = new AbstractBodyLayer.NoUpdate<VanillaAARectangle>();
@@ -107,8 +118,20 @@ public class Smb extends ScrollingScreenGame {
     public ViewableLayer backGround;
 	ImageResource bg;
 	BackGround bgi;
+	/*
+	 * The game runs at a fixed rate, so the moving layers and the camera are
+	 * drawn between where they were at the last two ticks (see render).
+	 */
+	private final PositionInterpolator interpolator = new PositionInterpolator(TILE_SIZE);
+	private int cameraX, lastCameraX;
 	static boolean deathDelay;
 	static long deathDelayTime;
+	/*
+	 * Game time in ms, advanced by update. Animations and delays are timed
+	 * against this rather than the system clock so that the game plays the
+	 * same however fast it is stepped, e.g., by a headless run.
+	 */
+	private static long gameTimeMs;
 	static boolean oneGameCycle;
     public Keyboard getKeyboard() { 
     	return this.keyboard;
@@ -122,6 +145,8 @@ public class Smb extends ScrollingScreenGame {
 	// AbstractBodyLayer.NoUpdate<VanillaAARectangle>();
 	public Smb() {
 		super(WORLD_WIDTH, WORLD_HEIGHT, false);
+		// the Physics constants are tuned per frame, so keep the step steady
+		setFixedTimestep(60);
 
 		physics = new VanillaPhysicsEngine();
 		scoreboardFont = ResourceFactory.getFactory().getFontResource(new Font("Sans Serif", Font.BOLD, 15), Color.WHITE, null);
@@ -131,6 +156,12 @@ public class Smb extends ScrollingScreenGame {
 		splashFont = ResourceFactory.getFactory().getFontResource(new Font("Sans Serif", Font.BOLD, 30), Color.black, null);
 		splashFont2 = ResourceFactory.getFactory().getFontResource(new Font("Sans Serif", Font.BOLD, 15), Color.black, null);
 		highScoreFont = ResourceFactory.getFactory().getFontResource(new Font("Sans Serif", Font.BOLD, 25), Color.red, null);
+		livesLabel = new TextLabel(scoreboardFont, 40, 20);
+		worldLabel = new TextLabel(scoreboardFont, "WORLD", 300, 20);
+		timeLabel = new TextLabel(scoreboardFont, "TIME", 430, 20);
+		pointsLabel = new TextLabel(scoreboardFont, 50, 40);
+		levelLabel = new TextLabel(scoreboardFont, 310, 40);
+		timerLabel = new TextLabel(scoreboardFont, 440, 40);
 		ResourceFactory.getFactory().loadResources("resources/", "mario-resources.xml");
 		//backMusic  = ResourceFactory.getFactory().getAudioClip(audioSource + "mario1.mp3");
 		bump = ResourceFactory.getFactory().getAudioClip(audioSource + "smb_bump.wav");
@@ -142,18 +173,31 @@ public class Smb extends ScrollingScreenGame {
 		//gameObjectLayers.add(backGround);
 		
 		gameObjectLayers.add(backGroundLayer);
-		physics.manageViewableSet(backGroundLayer);
+		physics.manageViewableSet(backGroundLayer, VanillaPhysicsEngine.UpdatePolicy.WINDOWED);
 		
 		gameObjectLayers.add(powerUpLayer);
-		physics.manageViewableSet(powerUpLayer);
+		physics.manageViewableSet(powerUpLayer, VanillaPhysicsEngine.UpdatePolicy.WINDOWED);
 		
 		gameObjectLayers.add(unmovableLayer);
 		physics.manageViewableSet(unmovableLayer);
 		
 		gameObjectLayers.add(movableLayer);
-		physics.manageViewableSet(movableLayer);
+		physics.manageViewableSet(movableLayer, VanillaPhysicsEngine.UpdatePolicy.WINDOWED);
+		interpolator.addLayer(backGroundLayer);
+		interpolator.addLayer(powerUpLayer);
+		interpolator.addLayer(movableLayer);
+		// enemies more than a screen width away from mario are put to sleep
+		physics.setActivationMargin(HALF_SCREEN_WIDTH);
+
+		// the unmovable tile layer culls itself, the rest move about
+		setViewportCulling(backGroundLayer, false);
+		setViewportCulling(powerUpLayer, false);
+		setViewportCulling(movableLayer, false);
 		
-		RectangleCollisionHandler<VanillaAARectangle, VanillaAARectangle> d = new RectangleCollisionHandler<VanillaAARectangle, VanillaAARectangle>(movableLayer, unmovableLayer) {
+		defineTiles();
+		// the camera moves by whole pixels and the screens are often still
+		gameframe.setIncrementalPresentation(true);
+		tileCollisions = new RectangleCollisionHandler<VanillaAARectangle, VanillaAARectangle>(movableLayer, unmovableLayer) {
 			@Override
 			public void collide(final VanillaAARectangle a, final VanillaAARectangle b) {
 				/*
@@ -168,17 +212,17 @@ public class Smb extends ScrollingScreenGame {
 						}
 					}
 					if (a.isOnTopSide(b)) {
-						a.setPosition(new Vector2D(a.getPosition().getX(), a.getPosition().getY() - a.topCollidingDistance(b)));
+						a.translateBy(0, -a.topCollidingDistance(b));
 					} else if (a.isOnBottomSide(b)) {
-						a.setPosition(new Vector2D(a.getPosition().getX(), a.getPosition().getY() + a.bottomCollidingDistance(b)));
+						a.translateBy(0, a.bottomCollidingDistance(b));
 					}
 
-					if (a.getBoundingBox().intersects(b.getBoundingBox()) && a.isOnLeftSide(b)) {
+					if (a.overlaps(b) && a.isOnLeftSide(b)) {
 
-						a.setPosition(new Vector2D(a.getPosition().getX() - a.leftCollidingDistance(b), a.getPosition().getY()));
+						a.translateBy(-a.leftCollidingDistance(b), 0);
 						a.setOppositeXVelocity();
 
-					} else if (a.getBoundingBox().intersects(b.getBoundingBox()) && a.isOnRightSide(b)) {
+					} else if (a.overlaps(b) && a.isOnRightSide(b)) {
 						a.setOppositeXVelocity();
 					}
 
@@ -192,43 +236,44 @@ public class Smb extends ScrollingScreenGame {
 					if (a.isOnTopSide(b)) {
 						((Player) a).jumped = false;
 						hold = -hold;
-						((Player) a).setPosition(new Vector2D(a.getPosition().getX(), a.getPosition().getY() - 1.15*a.topCollidingDistance(b)));
+						a.translateBy(0, -1.15*a.topCollidingDistance(b));
 					} else if (a.isOnBottomSide(b)) {
-						((Player) a).setPosition(new Vector2D(a.getPosition().getX(), a.getPosition().getY() + 1.15*a.bottomCollidingDistance(b)));
+						a.translateBy(0, 1.15*a.bottomCollidingDistance(b));
 						((Player) a).playerYvel = 1;
 						((Player) a).jumped = true;
 						hold = ((Player) a).gravity;
 					switch (b.type) {
 						case 1:
 							if(gamelvl == 1)
-								((BreakableBrownWall) b).breakApart();
+								((BreakableBrownWall) promoteTile(b)).breakApart();
 							else if(gamelvl == 2)
-								((BreakableGreenWall) b).breakApart();
+								((BreakableGreenWall) promoteTile(b)).breakApart();
 							else if(gamelvl == 3);
 								//System.out.println("trying to break the wall");
 							
 							break;
 						case 11:
-							if (!((QuestionBlock) b).dead) {
-								if (powerUpInTheBlock((QuestionBlock) b)) {
+							QuestionBlock qb = (QuestionBlock) promoteTile(b);
+							if (!qb.dead) {
+								if (powerUpInTheBlock(qb)) {
 									if (p.level == 0) {
-										movableLayer.add(new Mushroom(b.getPosition().getX(), b.getPosition().getY()));
-										((QuestionBlock) b).setDead();
+										movableLayer.add(new Mushroom(qb.getPositionX(), qb.getPositionY()));
+										qb.setDead();
 										//p.level++;
 									} else {
-										powerUpLayer.add(new PowerUpFlower(b.getPosition().getX(), b.getPosition().getY()));
-										((QuestionBlock) b).setDead();
+										powerUpLayer.add(new PowerUpFlower(qb.getPositionX(), qb.getPositionY()));
+										qb.setDead();
 									}
 								} else {
-									powerUpLayer.add(new Coin(b.getPosition().getX(), b.getPosition().getY()));
-									((QuestionBlock) b).setDead();
+									powerUpLayer.add(new Coin(qb.getPositionX(), qb.getPositionY()));
+									qb.setDead();
 									points+=100;
 								}
 							}
 							else{
-								if(System.currentTimeMillis()-bumpPlayTime>bumpPlayDelay){
+								if(now()-bumpPlayTime>bumpPlayDelay){
 								bump.play();
-								bumpPlayTime=System.currentTimeMillis();
+								bumpPlayTime=now();
 								}
 								
 							}
@@ -257,13 +302,13 @@ public class Smb extends ScrollingScreenGame {
 						break;
 					}
 					}
-					if (a.getBoundingBox().intersects(b.getBoundingBox()) && a.isOnLeftSide(b)) {
-						((Player) a).setPosition(new Vector2D(a.getPosition().getX() - a.leftCollidingDistance(b), a.getPosition().getY()));
+					if (a.overlaps(b) && a.isOnLeftSide(b)) {
+						a.translateBy(-a.leftCollidingDistance(b), 0);
 						((Player) a).playerXvel = 0;
 						((Player) a).playerXacc = 0;
 						((Player) a).jumped = true;
-					} else if (a.getBoundingBox().intersects(b.getBoundingBox()) && a.isOnRightSide(b)) {
-						((Player) a).setPosition(new Vector2D(a.getPosition().getX() + a.rightCollidingDistance(b), a.getPosition().getY()));
+					} else if (a.overlaps(b) && a.isOnRightSide(b)) {
+						a.translateBy(a.rightCollidingDistance(b), 0);
 						((Player) a).playerXvel = 0;
 						((Player) a).playerXacc = 0;
 						((Player) a).jumped = true;
@@ -272,13 +317,70 @@ public class Smb extends ScrollingScreenGame {
 				}
 			}
 		};
+		// sweep fast movers so they stop inside the offset that isOnTopSide
+		// and isOnBottomSide look at rather than go through a tile
+		tileCollisions.setContinuous(true, 8);
+		// walkers keep touching the same tiles, so don't search for them anew
+		tileCollisions.setContactCache(true);
 
-		physics.registerCollisionHandler(d);
+		physics.registerCollisionHandler(tileCollisions);
 		gamelvl = 1;
 		loadGameLevel(Integer.toString(gamelvl));
 		setWorldBounds(0, 0, mapWidth * TILE_SIZE, mapHeight * TILE_SIZE);
 	}
 
+	/*
+	 * Walls, pipes and the like never change, so each kind is a single
+	 * prototype in the tile layer. Breakable walls and question blocks become
+	 * bodies of their own when mario hits them (see promoteTile).
+	 */
+	private void defineTiles() {
+		tileCodes['a'] = unmovableLayer.defineTile(new BreakableBrownWall(0, 0),
+				new TileLayer.Promoter<VanillaAARectangle>() {
+					public VanillaAARectangle promote(int x, int y) {
+						return new BreakableBrownWall(x, y);
+					}
+				});
+		tileCodes['b'] = unmovableLayer.defineTile(new UnbreakableWall(0, 0, "#unbreakableWall"));
+		tileCodes['c'] = unmovableLayer.defineTile(new GroundWall(0, 0, "#level1Ground"));
+		tileCodes['f'] = unmovableLayer.defineTile(new FlagPole(0, 0));
+		tileCodes['h'] = unmovableLayer.defineTile(new VerticalPipe(0, 0, "#verticalPipe", 8));
+		tileCodes['i'] = unmovableLayer.defineTile(new VerticalPipe(0, 0, "#verticalHalfPipe", 9));
+		tileCodes['j'] = unmovableLayer.defineTile(new Castle(0, 0));
+		final QuestionBlock questionBlock = new QuestionBlock(0, 0);
+		tileCodes['k'] = unmovableLayer.defineTile(questionBlock,
+				new TileLayer.Promoter<VanillaAARectangle>() {
+					public VanillaAARectangle promote(int x, int y) {
+						QuestionBlock qb = new QuestionBlock(x, y);
+						qb.setFrame(questionBlock.getFrame());
+						if (powerUpCells.get(y * mapWidth + x)) {
+							powerUpQuestionBlocksArray.add(qb);
+						}
+						return qb;
+					}
+				});
+		tileCodes['s'] = unmovableLayer.defineTile(new UnbreakableWall(0, 0, "#greenUnbreakableWall"));
+		tileCodes['t'] = unmovableLayer.defineTile(new GroundWall(0, 0, "#level2Ground"));
+		tileCodes['u'] = unmovableLayer.defineTile(new GroundWall(0, 0, "#level3Ground"));
+		tileCodes['w'] = unmovableLayer.defineTile(new BreakableGreenWall(0, 0),
+				new TileLayer.Promoter<VanillaAARectangle>() {
+					public VanillaAARectangle promote(int x, int y) {
+						return new BreakableGreenWall(x, y);
+					}
+				});
+	}
+
+	/*
+	 * The tile layer reports a breakable wall or question block that was
+	 * never hit as the prototype of its kind, so give it a body of its own
+	 * before changing its state.
+	 */
+	private VanillaAARectangle promoteTile(VanillaAARectangle tile) {
+		int col = (int) (tile.getPositionX() / TILE_SIZE);
+		int row = (int) (tile.getPositionY() / TILE_SIZE);
+		return unmovableLayer.promote(row * unmovableLayer.getColumns() + col);
+	}
+
 	private boolean powerUpInTheBlock(QuestionBlock b) {
 		try{
 		
@@ -311,7 +413,7 @@ public class Smb extends ScrollingScreenGame {
 	
 	private void loadGameLevel(String level) {
 		
-		currentTime = System.currentTimeMillis();
+		currentTime = now();
 		//points=0;
 		world = 1;
 		questionBlockCount = 0;
@@ -332,6 +434,7 @@ public class Smb extends ScrollingScreenGame {
 			worldPixelHeight = mapHeight * TILE_SIZE;
 			worldPixelLenght = mapWidth * TILE_SIZE;
 			leftWidthBreakPoint = HALF_SCREEN_WIDTH;
+			unmovableLayer.reset(mapWidth, mapHeight);
 			rightWidthBreakPoint = worldPixelLenght - HALF_SCREEN_WIDTH;
 
 			// map = new gamemap(mapWidth, mapHeight);
@@ -386,33 +489,32 @@ public class Smb extends ScrollingScreenGame {
 
 				char ch = line.charAt(x);
 				if (ch == 'a') {
-					unmovableLayer.add(new BreakableBrownWall(x, y));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'b') {
-					unmovableLayer.add(new UnbreakableWall(x, y,"#unbreakableWall"));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'c') {
-					unmovableLayer.add(new GroundWall(x, y,"#level1Ground"));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'd') {
 					p = new Player(x, y, "#mario");
 					movableLayer.add(p);
 				} else if (ch == 'e') {
 					movableLayer.add(new Goomba(x, y,"#Goomba"));
 				} else if (ch == 'f') {
-					unmovableLayer.add(new FlagPole(x, y));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'g') {
 					movableLayer.add(new Turtle(x, y,"#turtle"));
 				} else if (ch == 'h') {
-					unmovableLayer.add(new VerticalPipe(x, y, "#verticalPipe", 8));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'i') {
-					unmovableLayer.add(new VerticalPipe(x, y,"#verticalHalfPipe", 9));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'j') {
-					unmovableLayer.add(new Castle(x, y));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'k') {
-					QuestionBlock qb = new QuestionBlock(x, y);
 					switch (powerUpBlockType(questionBlockCount)) {
 					case (1):
-						powerUpQuestionBlocksArray.add(qb);
+						powerUpCells.set(y * mapWidth + x);
 					}
-					unmovableLayer.add(qb);
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 					questionBlockCount++;
 				} else if (ch == 'l') {
 					backGroundLayer.add(new SmallCloud(x,y));
@@ -429,15 +531,15 @@ public class Smb extends ScrollingScreenGame {
 				} else if (ch == 'r') {
 					movableLayer.add(new Turtle(x, y,"#level2turtle"));
 				} else if (ch == 's') {
-					unmovableLayer.add(new UnbreakableWall(x, y,"#greenUnbreakableWall"));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 't') {
-					unmovableLayer.add(new GroundWall(x, y,"#level2Ground"));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'u') {
-					unmovableLayer.add(new GroundWall(x, y,"#level3Ground"));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'v') {
 
 				} else if (ch == 'w') {
-					unmovableLayer.add(new BreakableGreenWall(x,y));
+					unmovableLayer.setTile(x, y, tileCodes[ch]);
 				} else if (ch == 'x') {
 
 				} else if (ch == 'y') {
@@ -474,16 +576,35 @@ public class Smb extends ScrollingScreenGame {
 	}
 
 	public void render(RenderingContext rc) {
-		super.render(rc);
+		double alpha = getInterpolationAlpha();
+		boolean interpolate = alpha < 1.0;
+		boolean moveCamera = interpolate && cameraX != lastCameraX
+				&& Math.abs(cameraX - lastCameraX) <= TILE_SIZE;
+		if (interpolate) {
+			interpolator.apply(alpha);
+		}
+		if (moveCamera) {
+			centerOnPoint((int) Math.round(lastCameraX + (cameraX - lastCameraX) * alpha), HALF_SCREEN_HEIGHT);
+		}
+		try {
+			super.render(rc);
+		} finally {
+			if (interpolate) {
+				interpolator.restore();
+			}
+			if (moveCamera) {
+				centerOnPoint(cameraX, HALF_SCREEN_HEIGHT);
+			}
+		}
 		String highscore = null;
 		try{
 			
-		scoreboardFont.render("MARIO x" + p.live, rc, AffineTransform.getTranslateInstance(40, 20));
-		scoreboardFont.render("WORLD", rc, AffineTransform.getTranslateInstance(300, 20));
-		scoreboardFont.render("TIME", rc, AffineTransform.getTranslateInstance(430, 20));
-		scoreboardFont.render(points + "", rc, AffineTransform.getTranslateInstance(50, 40));
-		scoreboardFont.render(world + "" + "-" + world_level, rc, AffineTransform.getTranslateInstance(310, 40));
-		scoreboardFont.render((int) p.playerTimer + "", rc, AffineTransform.getTranslateInstance(440, 40));
+		livesLabel.setText("MARIO x").append(p.live).render(rc);
+		worldLabel.render(rc);
+		timeLabel.render(rc);
+		pointsLabel.clear().append(points).render(rc);
+		levelLabel.clear().append(world).append('-').append(world_level).render(rc);
+		timerLabel.clear().append((int) p.playerTimer).render(rc);
 		if(LOncePressed){
 			p.live = 5;
 			LOncePressed = false;
@@ -563,29 +684,46 @@ public class Smb extends ScrollingScreenGame {
 		}
 	}
 	
-	private void resetLevel(String level){
+	/*
+	 * Package private so that the level loading benchmark can reload the
+	 * shipped maps.
+	 */
+	void resetLevel(String level){
 		music.resume();
 		unmovableLayer.clear();
 		movableLayer.clear();
 		backGroundLayer.clear();
 		powerUpLayer.clear();
 		powerUpQuestionBlocksArray.clear();
+		powerUpCells.clear();
+		tileCollisions.invalidateIndex();
 	    loadGameLevel(level);
 	    restartLevel=false;
 	}
 
 	private void moveBackGround(){
-		if (p.getPosition().getX() < leftWidthBreakPoint) {
-			bgi.setPosition(new Vector2D(0,0));
-		} else if (p.getPosition().getX() > rightWidthBreakPoint) {
-			bgi.setPosition(new Vector2D(rightWidthBreakPoint-HALF_SCREEN_WIDTH, 0));
+		if (p.getPositionX() < leftWidthBreakPoint) {
+			bgi.setPosition(0, 0);
+		} else if (p.getPositionX() > rightWidthBreakPoint) {
+			bgi.setPosition(rightWidthBreakPoint-HALF_SCREEN_WIDTH, 0);
 		} else {
-			bgi.setPosition(new Vector2D(p.getPosition().getX()-HALF_SCREEN_WIDTH, 0));
+			bgi.setPosition(p.getPositionX()-HALF_SCREEN_WIDTH, 0);
 		}
 	}
 	
+	/*
+	 * The game time, to be used wherever System.currentTimeMillis() would
+	 * otherwise be.
+	 */
+	static long now() {
+		return gameTimeMs;
+	}
+
 	@Override
 	public void update(long deltaMs) {
+		gameTimeMs += deltaMs;
+		interpolator.record();
+		lastCameraX = cameraX;
 		super.update(deltaMs);
 	try{
 		/*
@@ -598,14 +736,15 @@ public class Smb extends ScrollingScreenGame {
 		}
 		
 		if(deathDelay){
-			 if(System.currentTimeMillis()-deathDelayTime>2500){
+			 if(now()-deathDelayTime>2500){
 				 p.restartPosition();
 			 }
 			 return;
 			 
 		 }
 		
-		currentCenter=p.getPosition().getX();
+		currentCenter=p.getPositionX();
+		physics.setActivationRegion(currentCenter - HALF_SCREEN_WIDTH, 0, WORLD_WIDTH, WORLD_HEIGHT);
 		
 		/**
 		 * Jenis: Timer update for time-based game
@@ -621,13 +760,14 @@ public class Smb extends ScrollingScreenGame {
 		
 		jumpTimer += deltaMs;
 		
-		if (p.getPosition().getX() < leftWidthBreakPoint) {
-			centerOnPoint(leftWidthBreakPoint, HALF_SCREEN_HEIGHT);
-		} else if (p.getPosition().getX() > rightWidthBreakPoint) {
-			centerOnPoint(rightWidthBreakPoint, HALF_SCREEN_HEIGHT);
+		if (p.getPositionX() < leftWidthBreakPoint) {
+			cameraX = leftWidthBreakPoint;
+		} else if (p.getPositionX() > rightWidthBreakPoint) {
+			cameraX = rightWidthBreakPoint;
 		} else {
-			centerOnPoint((int) p.getPosition().getX(), HALF_SCREEN_HEIGHT);
+			cameraX = (int) p.getPositionX();
 		}
+		centerOnPoint(cameraX, HALF_SCREEN_HEIGHT);
 		
 		moveBackGround();
 
@@ -797,10 +937,10 @@ public class Smb extends ScrollingScreenGame {
 		/* collision between mario and interactable objects */
 		
 		for(int i=0; i<movableLayer.size();i++){
-			if(movableLayer.get(i).isActive() && movableLayer.get(i).type!=4 && movableLayer.get(i).getBoundingBox().intersects(p.getBoundingBox())){
+			if(movableLayer.get(i).isActive() && movableLayer.get(i).type!=4 && movableLayer.get(i).overlaps(p)){
 				//System.out.println("colliding");
-				double playerFoot = p.getPosition().getY()+ p.getHeight();
-				double enemyHead = movableLayer.get(i).getPosition().getY();
+				double playerFoot = p.getPositionY()+ p.getHeight();
+				double enemyHead = movableLayer.get(i).getPositionY();
 				switch(movableLayer.get(i).type){
 				
 				/**
@@ -813,7 +953,7 @@ public class Smb extends ScrollingScreenGame {
 					}
 					if(playerFoot > enemyHead && playerFoot < enemyHead+10){
 						((Goomba)movableLayer.get(i)).setDead();
-						backGroundLayer.add(new Score100(((Goomba)movableLayer.get(i)).getPosition().getX(),((Goomba)movableLayer.get(i)).getPosition().getY()));
+						backGroundLayer.add(new Score100(((Goomba)movableLayer.get(i)).getPositionX(),((Goomba)movableLayer.get(i)).getPositionY()));
 						points+=100;
 						p.playerYvel = -Physics.enemy_stomp_vel;
 						p.jumped=true;
@@ -835,7 +975,7 @@ public class Smb extends ScrollingScreenGame {
 					}
 					if(playerFoot > enemyHead && playerFoot < enemyHead+10){						
 						((Turtle)movableLayer.get(i)).setDead();
-						backGroundLayer.add(new Score100(((Turtle)movableLayer.get(i)).getPosition().getX(),((Turtle)movableLayer.get(i)).getPosition().getY()));
+						backGroundLayer.add(new Score100(((Turtle)movableLayer.get(i)).getPositionX(),((Turtle)movableLayer.get(i)).getPositionY()));
 						points+=100;
 						p.playerYvel = -Physics.enemy_stomp_vel;
 						p.jumped=true;
@@ -861,7 +1001,7 @@ public class Smb extends ScrollingScreenGame {
 		/* collision between mario and interactable objects */
 			
 		for(int i=0; i<powerUpLayer.size();i++){
-			if(powerUpLayer.get(i).isActive() && powerUpLayer.get(i).type!=4 && powerUpLayer.get(i).getBoundingBox().intersects(p.getBoundingBox())){
+			if(powerUpLayer.get(i).isActive() && powerUpLayer.get(i).type!=4 && powerUpLayer.get(i).overlaps(p)){
 				switch(powerUpLayer.get(i).type){
 				case 17:
 					((PowerUpFlower)powerUpLayer.get(i)).setDead();
@@ -870,7 +1010,14 @@ public class Smb extends ScrollingScreenGame {
 			}
 		} 
 		
+		FrameProfiler profiler = getFrameProfiler();
+		if (profiler != null) {
+			profiler.start("physics");
+		}
 		physics.applyLawsOfPhysics(deltaMs);
+		if (profiler != null) {
+			profiler.stop("physics");
+		}
 		
 		}catch(Exception e){
 			System.out.println("Exception in update method"+e.getMessage());
@@ -886,4 +1033,4 @@ public class Smb extends ScrollingScreenGame {
 
 	}
 
-}
\ No newline at end of file
+}
\ No newline at end of file
@@ -30,7 +30,7 @@ public class Turtle extends VanillaAARectangle {
 	public Turtle(int x, int y, String turtleType) {
 
 		super(Smb.SPRITE_SHEET + turtleType, 7);
-		frameTime = System.currentTimeMillis();
+		frameTime = Smb.now();
 		position = new Vector2D(x * Smb.TILE_SIZE, y * Smb.TILE_SIZE + 14);
 		velocity = new Vector2D(-speed, gravity);
 		setFrame(0);
@@ -43,34 +43,30 @@ public class Turtle extends VanillaAARectangle {
 			return;
 		}
 		
-		if(position.getX()-Smb.currentCenter>Smb.WORLD_WIDTH){
-			return;
-		}
-		
-		if(Smb.currentCenter - position.getX()>Smb.WORLD_WIDTH){
+		if(Smb.currentCenter - getPositionX()>Smb.WORLD_WIDTH){
 			active=false;
 		}
 		
-		if (dead && System.currentTimeMillis() - deadTime > deadDelay) {
+		if (dead && Smb.now() - deadTime > deadDelay) {
 			this.active = false;
 
 		} else if (dead) {
 			return;
 		}
 		
-		if (!dead && System.currentTimeMillis() - frameTime > frameDelay) {
+		if (!dead && Smb.now() - frameTime > frameDelay) {
 			if (getFrame() == 1) {
 				setFrame(0);
-				frameTime = System.currentTimeMillis();
+				frameTime = Smb.now();
 			} else {
 				setFrame(1);
-				frameTime = System.currentTimeMillis();
+				frameTime = Smb.now();
 			}
 			
 			
 		}
 
-		position = position.translate(velocity.scale(deltaMs / 1000.0));
+		integrate(deltaMs);
 
 	}
 
@@ -78,14 +74,14 @@ public class Turtle extends VanillaAARectangle {
 
 	public void setDead() {
 		this.dead = true;
-		deadTime = System.currentTimeMillis();	
+		deadTime = Smb.now();	
 		setFrame(2);
 		stomp.play();
 	}
 
 	boolean outOfScreen() {
-		if (this.position.getX() + Smb.WORLD_WIDTH < Smb.currentCenter
-				|| this.position.getY() > Smb.WORLD_HEIGHT + this.getHeight()) {
+		if (getPositionX() + Smb.WORLD_WIDTH < Smb.currentCenter
+				|| getPositionY() > Smb.WORLD_HEIGHT + this.getHeight()) {
 			return true;
 		} else {
 			return false;